@@ -0,0 +1,224 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonValue;
+import com.amazon.ion.IonWriter;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The Java Flight Recorder events of the generator. This class is compiled by the jfr profile on JDK 11+ and only instantiated reflectively by
+ * GeneratorEvents.enable(), so the rest of the generator does not depend on jdk.jfr.
+ */
+final class GeneratorJfrEvents implements GeneratorEventSink {
+    private static final String CATEGORY = "Ion Data Generator";
+    private static final String PREFIX = "com.amazon.ion.datagenerator.";
+
+    /**
+     * Initializing the newly created GeneratorJfrEvents object and registering the events, so they are listed in the recording settings before
+     * the first event is committed.
+     */
+    GeneratorJfrEvents() {
+        FlightRecorder.register(SchemaLoadEvent.class);
+        FlightRecorder.register(TypeParseEvent.class);
+        FlightRecorder.register(BatchEvent.class);
+        FlightRecorder.register(ValueEvent.class);
+    }
+
+    /**
+     * Begin the event of loading a schema.
+     * @return the SchemaLoadEvent.
+     */
+    @Override
+    public Object beginSchemaLoad() {
+        SchemaLoadEvent event = new SchemaLoadEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End and commit the event of loading a schema.
+     * @param handle is the SchemaLoadEvent.
+     * @param schemaFile is the path of the schema file.
+     */
+    @Override
+    public void endSchemaLoad(Object handle, String schemaFile) {
+        SchemaLoadEvent event = (SchemaLoadEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.schemaFile = schemaFile;
+            event.commit();
+        }
+    }
+
+    /**
+     * Begin the event of parsing the type definition.
+     * @return the TypeParseEvent.
+     */
+    @Override
+    public Object beginTypeParse() {
+        TypeParseEvent event = new TypeParseEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End and commit the event of parsing the type definition.
+     * @param handle is the TypeParseEvent.
+     * @param typeName is the name of the type definition.
+     */
+    @Override
+    public void endTypeParse(Object handle, String typeName) {
+        TypeParseEvent event = (TypeParseEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.typeName = typeName;
+            event.commit();
+        }
+    }
+
+    /**
+     * Begin the event of a batch of values.
+     * @return the BatchEvent.
+     */
+    @Override
+    public Object beginBatch() {
+        BatchEvent event = new BatchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End and commit the event of a batch of values.
+     * @param handle is the BatchEvent.
+     * @param typeName is the name of the generated type definition.
+     * @param values is the number of values in the batch.
+     * @param encodedBytes is the number of bytes written by the flush.
+     * @param flushNanos is the duration of the flush in nanoseconds.
+     */
+    @Override
+    public void endBatch(Object handle, String typeName, long values, long encodedBytes, long flushNanos) {
+        BatchEvent event = (BatchEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.typeName = typeName;
+            event.values = values;
+            event.encodedBytes = encodedBytes;
+            event.flushDuration = flushNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Begin the event of generating one value.
+     * @return the ValueEvent.
+     */
+    @Override
+    public Object beginValue() {
+        ValueEvent event = new ValueEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the event of generating one value. The event ends before the value is encoded again for measuring its size, so the duration only
+     * contains the generation.
+     * @param handle is the ValueEvent.
+     * @param typeName is the name of the generated type definition.
+     * @param value is the generated value.
+     * @param format is the format of the generated data.
+     */
+    @Override
+    public void endValue(Object handle, String typeName, IonValue value, String format) {
+        ValueEvent event = (ValueEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.typeName = typeName;
+            event.encodedBytes = encodedSize(value, format);
+            event.commit();
+        }
+    }
+
+    /**
+     * Measure the size of the value encoded alone in the provided format.
+     * @param value is the generated value.
+     * @param format is the format from the set (ion_binary | ion_text).
+     * @return the number of encoded bytes, which includes the Ion version marker and the local symbol table of a binary value.
+     */
+    private static long encodedSize(IonValue value, String format) {
+        CountingOutputStream counter = new CountingOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+        try (IonWriter writer = ReadGeneralConstraints.formatWriter(format, counter)) {
+            value.writeTo(writer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Errors occur when measuring the encoded size of the value.", e);
+        }
+        return counter.getCount();
+    }
+
+    @Name(PREFIX + "SchemaLoad")
+    @Label("Schema Load")
+    @Category(CATEGORY)
+    @Description("Loading and validating the Ion Schema file.")
+    static final class SchemaLoadEvent extends Event {
+        @Label("Schema File")
+        String schemaFile;
+    }
+
+    @Name(PREFIX + "TypeParse")
+    @Label("Type Definition Parse")
+    @Category(CATEGORY)
+    @Description("Parsing the type definition into the generation plan, which is reused for every generated value.")
+    static final class TypeParseEvent extends Event {
+        @Label("Type Name")
+        String typeName;
+    }
+
+    @Name(PREFIX + "Batch")
+    @Label("Batch Flush")
+    @Category(CATEGORY)
+    @Description("Generating, writing and flushing a batch of values.")
+    static final class BatchEvent extends Event {
+        @Label("Type Name")
+        String typeName;
+
+        @Label("Values")
+        long values;
+
+        @Label("Encoded Bytes")
+        @DataAmount
+        long encodedBytes;
+
+        @Label("Flush Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long flushDuration;
+    }
+
+    @Name(PREFIX + "Value")
+    @Label("Value Generation")
+    @Category(CATEGORY)
+    @Description("Generating one value, only every N-th value is recorded.")
+    static final class ValueEvent extends Event {
+        @Label("Type Name")
+        String typeName;
+
+        @Label("Encoded Bytes")
+        @DataAmount
+        long encodedBytes;
+    }
+}
@@ -0,0 +1,95 @@
+package com.amazon.ion.datagenerator.benchmark;
+
+import com.amazon.ion.IonValue;
+import com.amazon.ion.datagenerator.IonDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks of the DataConstructor samplers. Every benchmark constructs one value of a type definition from the test data directory, and the
+ * type definitions are chosen so that each generator path is measured on its own:
+ *   testString.isl                 constructString with regex.
+ *   testStringCodepointLength.isl  constructString with codepoint_length.
+ *   testDecimal.isl                constructDecimal.
+ *   testTimestamp.isl              constructTimestamp.
+ *   testBlob.isl, testClob.isl     constructLobs.
+ *   testStruct.isl, testNestedStruct.isl                 constructIonStruct.
+ *   testList.isl, testSexp.isl, testNestedList.isl       constructSequenceTypeData.
+ * The schemas are parsed in the setup, so only the construction of values is measured. The results are reported in ops/s, and main() always
+ * adds the GC profiler, which reports gc.alloc.rate.norm, i.e. the bytes allocated for constructing one value.
+ * e.g.
+ *   mvn clean package -P jmh
+ *   java -jar target/ion-data-generator-1.0-SNAPSHOT-benchmarks.jar -p schema=testString.isl
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataConstructorBenchmark {
+    // The directory of the ISL files, which is relative to the root of the project by default.
+    private static final String TEST_DATA_DIRECTORY = System.getProperty("ion.datagenerator.testData", "tst/com/amazon/ion/datagenerator/testData");
+    private static final long SEED = 200;
+
+    @Param({"testString.isl", "testStringCodepointLength.isl", "testDecimal.isl", "testTimestamp.isl", "testBlob.isl", "testClob.isl",
+            "testStruct.isl", "testNestedStruct.isl", "testList.isl", "testSexp.isl", "testNestedList.isl"})
+    public String schema;
+
+    private IonDataGenerator generator;
+
+    /**
+     * Parse the type definition once for every fork, and use a fixed seed so every run constructs the same sequence of values.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        File schemaFile = new File(TEST_DATA_DIRECTORY, schema);
+        if (!schemaFile.isFile()) {
+            throw new IllegalStateException("The ISL file does not exist, please run the benchmarks from the root of the project or set "
+                    + "-Dion.datagenerator.testData: " + schemaFile.getAbsolutePath());
+        }
+        generator = IonDataGenerator.builder().withSchemaFile(schemaFile.getPath()).withSeed(SEED).build();
+    }
+
+    /**
+     * Construct one value of the type definition. The value is returned, so JMH consumes it and the construction cannot be eliminated.
+     * @return the constructed Ion value.
+     */
+    @Benchmark
+    public IonValue construct() {
+        return generator.next();
+    }
+
+    /**
+     * Run the benchmarks with the GC profiler, the other JMH command line options are supported as well.
+     * @param args are the JMH command line options.
+     * @throws CommandLineOptionException if the options cannot be parsed.
+     * @throws RunnerException if errors occur when running the benchmarks.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(DataConstructorBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
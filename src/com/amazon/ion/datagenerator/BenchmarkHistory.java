@@ -0,0 +1,425 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.Timestamp;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An append-only local store of benchmark results, which keeps the scores and raw data of every ingested result with its commit id and timestamp.
+ * The store is a directory of binary Ion segment files named 'segment-<sequence>.ion', one segment for each ingested result. A segment is never
+ * modified after it is written, and segments are ordered by their sequence numbers, so a query over the last N commits only reads the last N segments.
+ * Each segment contains:
+ * benchmark_history::{ commit: <STRING>, timestamp: <TIMESTAMP>, entries: [ { benchmark: <STRING>, mode: <STRING>, params: <STRUCT>,
+ *     metrics: { <NAME>: { score: <DECIMAL>, score_error: <DECIMAL>, score_unit: <STRING>, raw_data: [ <DECIMAL>... ] }... } }... ] }
+ */
+public class BenchmarkHistory {
+    private static final String ANNOTATION_HISTORY = "benchmark_history";
+    private static final String COMMIT = "commit";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String ENTRIES = "entries";
+    private static final String BENCHMARK = "benchmark";
+    private static final String MODE = "mode";
+    private static final String PARAMETERS = "params";
+    private static final String METRICS = "metrics";
+    private static final String METRIC = "metric";
+    private static final String SCORE = "score";
+    private static final String SCORE_ERROR = "score_error";
+    private static final String SCORE_UNIT = "score_unit";
+    private static final String RAW_DATA = "raw_data";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".ion";
+    private static final int DEFAULT_LAST = 10;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.ion");
+    private final File directory;
+
+    /**
+     * Initializing the newly created BenchmarkHistory object, the directory will be created if it does not exist.
+     * @param directory is the directory of the history store.
+     */
+    public BenchmarkHistory(File directory) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("The history directory cannot be created: " + directory);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Query the history with the options provided in the 'history' command and write the matched records into the output file in Ion text.
+     * Each record is written as { commit, timestamp, benchmark, params, metric, score, score_error } in the order of ingestion.
+     * @param optionsMap is the hash map which generated by the command line parser which match the option name and its value appropriately.
+     * @throws Exception if errors occur when reading the history or writing the records.
+     */
+    public static void queryAndWrite(Map<String, Object> optionsMap) throws Exception {
+        BenchmarkHistory history = new BenchmarkHistory(new File(optionsMap.get("--history").toString()));
+        String benchmark = optionsMap.get("--benchmark").toString();
+        String metric = optionsMap.get("--metric").toString();
+        int last = optionsMap.get("--last") == null ? DEFAULT_LAST : Integer.parseInt(optionsMap.get("--last").toString());
+        String outputFile = optionsMap.get("<output_file>").toString();
+        try (IonWriter writer = IonTextWriterBuilder.pretty().build(new BufferedOutputStream(new FileOutputStream(outputFile)))) {
+            for (Record record : history.query(benchmark, last)) {
+                for (BenchmarkResultIndex.Entry entry : record.getEntries()) {
+                    BenchmarkResultIndex.Metric value = entry.getMetric(metric);
+                    if (value == null || value.getScore() == null) {
+                        continue;
+                    }
+                    writer.stepIn(IonType.STRUCT);
+                    writer.setFieldName(COMMIT);
+                    writer.writeString(record.getCommit());
+                    writer.setFieldName(TIMESTAMP);
+                    writer.writeTimestamp(record.getTimestamp());
+                    writer.setFieldName(BENCHMARK);
+                    writer.writeString(entry.getBenchmark());
+                    writer.setFieldName(PARAMETERS);
+                    entry.getParameters().writeTo(writer);
+                    writer.setFieldName(METRIC);
+                    writer.writeString(metric);
+                    writer.setFieldName(SCORE);
+                    writer.writeDecimal(value.getScore());
+                    if (value.getScoreError() != null) {
+                        writer.setFieldName(SCORE_ERROR);
+                        writer.writeDecimal(value.getScoreError());
+                    }
+                    writer.stepOut();
+                }
+            }
+        }
+        DataConstructor.printInfo(outputFile);
+    }
+
+    /**
+     * Append a benchmark result to the history as a new segment. The segment is written into a temporary file and then linked into place,
+     * so readers never observe a partially written segment.
+     * @param commit is the commit id of the benchmarked code.
+     * @param timestamp is the time when the result is ingested.
+     * @param result is the indexed benchmark result.
+     * @throws IOException if errors occur when writing the segment.
+     */
+    public void append(String commit, Timestamp timestamp, BenchmarkResultIndex result) throws IOException {
+        Path temporary = Files.createTempFile(directory.toPath(), SEGMENT_PREFIX, ".tmp");
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(temporary.toFile()));
+                 IonWriter writer = IonBinaryWriterBuilder.standard().build(outputStream)) {
+                writer.setTypeAnnotations(ANNOTATION_HISTORY);
+                writer.stepIn(IonType.STRUCT);
+                writer.setFieldName(COMMIT);
+                writer.writeString(commit);
+                writer.setFieldName(TIMESTAMP);
+                writer.writeTimestamp(timestamp);
+                writer.setFieldName(ENTRIES);
+                writer.stepIn(IonType.LIST);
+                for (BenchmarkResultIndex.Entry entry : result.getEntries()) {
+                    writeEntry(writer, entry);
+                }
+                writer.stepOut();
+                writer.stepOut();
+            }
+            // Another process may append at the same time, so the next free sequence number is claimed by creating a link, which fails if the
+            // segment already exists and never exposes a partially written segment.
+            boolean link = true;
+            while (true) {
+                Path segment = directory.toPath().resolve(String.format("%s%08d%s", SEGMENT_PREFIX, nextSequence(), SEGMENT_SUFFIX));
+                try {
+                    if (link) {
+                        Files.createLink(segment, temporary);
+                    } else {
+                        Files.copy(temporary, segment);
+                    }
+                    return;
+                } catch (FileAlreadyExistsException e) {
+                    // Retry with the next sequence number.
+                } catch (UnsupportedOperationException | FileSystemException e) {
+                    if (!link) {
+                        throw e;
+                    }
+                    // The file system does not support hard links, so the segment is copied instead. The copy still fails if the segment
+                    // already exists, while a concurrent reader might observe the segment before the copy completes.
+                    link = false;
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Write one benchmark entry into the segment.
+     * @param writer is the IonWriter of the segment.
+     * @param entry is the benchmark entry.
+     */
+    private static void writeEntry(IonWriter writer, BenchmarkResultIndex.Entry entry) throws IOException {
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName(BENCHMARK);
+        writer.writeString(entry.getBenchmark());
+        if (entry.getMode() != null) {
+            writer.setFieldName(MODE);
+            writer.writeString(entry.getMode());
+        }
+        writer.setFieldName(PARAMETERS);
+        entry.getParameters().writeTo(writer);
+        writer.setFieldName(METRICS);
+        writer.stepIn(IonType.STRUCT);
+        for (Map.Entry<String, BenchmarkResultIndex.Metric> metric : entry.getMetrics().entrySet()) {
+            writer.setFieldName(metric.getKey());
+            writer.stepIn(IonType.STRUCT);
+            if (metric.getValue().getScore() != null) {
+                writer.setFieldName(SCORE);
+                writer.writeDecimal(metric.getValue().getScore());
+            }
+            if (metric.getValue().getScoreError() != null) {
+                writer.setFieldName(SCORE_ERROR);
+                writer.writeDecimal(metric.getValue().getScoreError());
+            }
+            if (metric.getValue().getScoreUnit() != null) {
+                writer.setFieldName(SCORE_UNIT);
+                writer.writeString(metric.getValue().getScoreUnit());
+            }
+            writer.setFieldName(RAW_DATA);
+            writer.stepIn(IonType.LIST);
+            for (BigDecimal value : metric.getValue().getRawData()) {
+                writer.writeDecimal(value);
+            }
+            writer.stepOut();
+            writer.stepOut();
+        }
+        writer.stepOut();
+        writer.stepOut();
+    }
+
+    /**
+     * Query the records of the last commits. Only the segments of the requested commits are read.
+     * @param benchmark selects the benchmark entries whose key, which combines the benchmark name and the parameters, contains this text.
+     * @param last is the maximum number of the latest records which will be returned.
+     * @return the records in the order of ingestion, each record only contains the selected benchmark entries.
+     * @throws IOException if errors occur when reading the segments.
+     */
+    public List<Record> query(String benchmark, int last) throws IOException {
+        if (last < 1) {
+            throw new IllegalArgumentException("The number of queried commits should be at least 1.");
+        }
+        List<File> segments = listSegments();
+        List<Record> records = new ArrayList<>();
+        for (File segment : segments.subList(Math.max(0, segments.size() - last), segments.size())) {
+            records.add(readSegment(segment, benchmark));
+        }
+        return records;
+    }
+
+    /**
+     * Read one segment and keep the selected benchmark entries.
+     * @param segment is the segment file.
+     * @param benchmark selects the benchmark entries whose key contains this text.
+     * @return the record stored in the segment.
+     * @throws IOException if errors occur when reading the segment.
+     */
+    private static Record readSegment(File segment, String benchmark) throws IOException {
+        String commit = null;
+        Timestamp timestamp = null;
+        List<BenchmarkResultIndex.Entry> entries = new ArrayList<>();
+        try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(segment)))) {
+            if (reader.next() != IonType.STRUCT) {
+                throw new IllegalStateException("The content of history segment is not supported: " + segment);
+            }
+            reader.stepIn();
+            while (reader.next() != null) {
+                switch (reader.getFieldName()) {
+                    case COMMIT:
+                        commit = reader.stringValue();
+                        break;
+                    case TIMESTAMP:
+                        timestamp = reader.timestampValue();
+                        break;
+                    case ENTRIES:
+                        reader.stepIn();
+                        while (reader.next() != null) {
+                            BenchmarkResultIndex.Entry entry = readEntry(reader);
+                            if (entry.getKey().contains(benchmark)) {
+                                entries.add(entry);
+                            }
+                        }
+                        reader.stepOut();
+                        break;
+                    default:
+                        break;
+                }
+            }
+            reader.stepOut();
+        }
+        return new Record(commit, timestamp, entries);
+    }
+
+    /**
+     * Read one benchmark entry from the segment.
+     * @param reader is the IonReader positioned on the entry struct.
+     * @return the benchmark entry.
+     */
+    private static BenchmarkResultIndex.Entry readEntry(IonReader reader) {
+        String benchmark = null;
+        String mode = null;
+        IonStruct parameters = ReadGeneralConstraints.SYSTEM.newEmptyStruct();
+        Map<String, BenchmarkResultIndex.Metric> metrics = new LinkedHashMap<>();
+        reader.stepIn();
+        while (reader.next() != null) {
+            switch (reader.getFieldName()) {
+                case BENCHMARK:
+                    benchmark = reader.stringValue();
+                    break;
+                case MODE:
+                    mode = reader.stringValue();
+                    break;
+                case PARAMETERS:
+                    parameters = (IonStruct) ReadGeneralConstraints.SYSTEM.newValue(reader);
+                    break;
+                case METRICS:
+                    reader.stepIn();
+                    while (reader.next() != null) {
+                        metrics.put(reader.getFieldName(), readMetric(reader));
+                    }
+                    reader.stepOut();
+                    break;
+                default:
+                    break;
+            }
+        }
+        reader.stepOut();
+        return new BenchmarkResultIndex.Entry(benchmark, mode, parameters, metrics);
+    }
+
+    /**
+     * Read one metric from the segment.
+     * @param reader is the IonReader positioned on the metric struct.
+     * @return the metric.
+     */
+    private static BenchmarkResultIndex.Metric readMetric(IonReader reader) {
+        BigDecimal score = null;
+        BigDecimal scoreError = null;
+        String scoreUnit = null;
+        List<BigDecimal> rawData = new ArrayList<>();
+        reader.stepIn();
+        while (reader.next() != null) {
+            switch (reader.getFieldName()) {
+                case SCORE:
+                    score = reader.bigDecimalValue();
+                    break;
+                case SCORE_ERROR:
+                    scoreError = reader.bigDecimalValue();
+                    break;
+                case SCORE_UNIT:
+                    scoreUnit = reader.stringValue();
+                    break;
+                case RAW_DATA:
+                    reader.stepIn();
+                    while (reader.next() != null) {
+                        rawData.add(reader.bigDecimalValue());
+                    }
+                    reader.stepOut();
+                    break;
+                default:
+                    break;
+            }
+        }
+        reader.stepOut();
+        // The history does not keep the forks, so all measurements are treated as one fork.
+        return new BenchmarkResultIndex.Metric(score, scoreError, scoreUnit, rawData, rawData.size());
+    }
+
+    /**
+     * List the segment files in the order of their sequence numbers.
+     * @return the segment files.
+     */
+    private List<File> listSegments() {
+        File[] files = directory.listFiles((dir, name) -> SEGMENT_NAME.matcher(name).matches());
+        List<File> segments = new ArrayList<>();
+        if (files != null) {
+            Collections.addAll(segments, files);
+        }
+        // The sequence numbers are zero-padded, so the names sort in the order of ingestion.
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Get the sequence number of the next segment.
+     * @return the largest existing sequence number plus one.
+     */
+    private long nextSequence() {
+        List<File> segments = listSegments();
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        Matcher matcher = SEGMENT_NAME.matcher(segments.get(segments.size() - 1).getName());
+        if (!matcher.matches()) {
+            throw new IllegalStateException("The segment name is not supported.");
+        }
+        return Long.parseLong(matcher.group(1)) + 1;
+    }
+
+    /**
+     * The benchmark result of one commit stored in the history.
+     */
+    public static class Record {
+        private final String commit;
+        private final Timestamp timestamp;
+        private final List<BenchmarkResultIndex.Entry> entries;
+
+        /**
+         * Initializing the newly created Record object.
+         * @param commit is the commit id of the benchmarked code.
+         * @param timestamp is the time when the result was ingested.
+         * @param entries are the benchmark entries of the result.
+         */
+        Record(String commit, Timestamp timestamp, List<BenchmarkResultIndex.Entry> entries) {
+            this.commit = commit;
+            this.timestamp = timestamp;
+            this.entries = entries;
+        }
+
+        /**
+         * Helping access the private attribute commit.
+         * @return the commit id of the benchmarked code.
+         */
+        public String getCommit() {
+            return commit;
+        }
+
+        /**
+         * Helping access the private attribute timestamp.
+         * @return the time when the result was ingested.
+         */
+        public Timestamp getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Helping access the private attribute entries.
+         * @return the benchmark entries of the result.
+         */
+        public List<BenchmarkResultIndex.Entry> getEntries() {
+            return Collections.unmodifiableList(entries);
+        }
+    }
+}
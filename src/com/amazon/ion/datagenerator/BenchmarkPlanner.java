@@ -0,0 +1,446 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonInt;
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonText;
+import com.amazon.ion.IonValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Plan a reduced set of ion-java-benchmark-cli options combinations from the declared option dimensions, e.g.
+ * { command: [read, write], options: { "--api": [dom, streaming], "--format": [ion_binary, ion_text], "--io-type": [file, buffer] },
+ *   fixed: "--results-format ion", strength: 2 }.
+ * Instead of the full Cartesian product, the planner builds a covering array of the provided strength: every combination of values of any
+ * 'strength' dimensions appears in at least one planned options combination, so every pairwise interaction is still benchmarked with strength 2.
+ * A strength equal to the number of dimensions plans the full product. An empty string value means the option is not passed.
+ * The array is built greedily, each step adds the options combination which covers the most uncovered interactions per estimated second.
+ * When a time budget is provided, only the options combinations whose estimated run time still fits into the budget are added, so the most
+ * valuable part of the covering array is planned when the whole array does not fit.
+ */
+public class BenchmarkPlanner {
+    private static final String COMMAND = "command";
+    private static final String OPTIONS = "options";
+    private static final String FIXED = "fixed";
+    private static final String STRENGTH = "strength";
+    private static final int DEFAULT_STRENGTH = 2;
+    // Up to this number of options combinations, every combination of the full product is a candidate in each step.
+    private static final int MAX_EXHAUSTIVE_CANDIDATES = 10000;
+    // Otherwise, each step evaluates this number of random candidates and one candidate built around the first uncovered interaction.
+    private static final int RANDOM_CANDIDATES = 1000;
+    // The candidates are seeded, so the same declaration always produces the same plan.
+    private static final long CANDIDATE_SEED = 0x5eed;
+
+    /**
+     * Plan the options combinations of the declared option dimensions.
+     * @param declaration is the struct which declares the option dimensions.
+     * @param testDataNames are the file names of the test data, every options combination is run with each of them.
+     * @param durations are the recorded durations of the previous runs, or null if the durations are not recorded.
+     * @param budgetSeconds is the time budget of the suite in seconds, or 0 if the plan is not limited.
+     * @param parallelism is the number of runs which are executed at the same time.
+     * @return the plan.
+     */
+    public static Plan plan(IonStruct declaration, List<String> testDataNames, RunDurations durations, long budgetSeconds, int parallelism) {
+        List<String> names = new ArrayList<>();
+        List<List<String>> values = new ArrayList<>();
+        names.add(COMMAND);
+        values.add(dimensionValues(declaration.get(COMMAND), COMMAND));
+        IonValue options = declaration.get(OPTIONS);
+        if (options != null) {
+            if (!(options instanceof IonStruct)) {
+                throw new IllegalArgumentException("The options of the option dimensions should be a struct.");
+            }
+            for (IonValue option : (IonStruct) options) {
+                names.add(option.getFieldName());
+                values.add(dimensionValues(option, option.getFieldName()));
+            }
+        }
+        String fixed = declaration.get(FIXED) == null ? "" : ((IonText) declaration.get(FIXED)).stringValue().trim();
+        int strength = declaration.get(STRENGTH) == null ? DEFAULT_STRENGTH : ((IonInt) declaration.get(STRENGTH)).intValue();
+        if (strength < 1) {
+            throw new IllegalArgumentException("The strength of the option dimensions should be at least 1.");
+        }
+        int[] levels = new int[values.size()];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = values.get(i).size();
+        }
+        boolean estimated = durations != null && !durations.isEmpty();
+        if (budgetSeconds > 0 && !estimated) {
+            System.out.println("No benchmark run durations are recorded, the plan is not limited by the time budget.");
+        }
+        // Without recorded durations, every options combination costs the same and the plan is the smallest covering array the greedy search finds.
+        ToDoubleFunction<int[]> cost = row -> {
+            if (!estimated) {
+                return 1;
+            }
+            String combination = combination(row, names, values, fixed);
+            double millis = 0;
+            for (String testData : testDataNames) {
+                millis += durations.estimate(combination, testData);
+            }
+            return Math.max(1, millis);
+        };
+        double budget = budgetSeconds > 0 && estimated ? budgetSeconds * 1000.0 * parallelism : Double.POSITIVE_INFINITY;
+        int effectiveStrength = Math.min(strength, levels.length);
+        List<int[]> rows = cover(levels, effectiveStrength, cost, budget);
+        List<String> combinations = new ArrayList<>(rows.size());
+        double estimatedMillis = 0;
+        for (int[] row : rows) {
+            combinations.add(combination(row, names, values, fixed));
+            estimatedMillis += estimated ? cost.applyAsDouble(row) : 0;
+        }
+        return new Plan(combinations, product(levels), effectiveStrength, coverage(rows, levels, effectiveStrength),
+                estimated ? estimatedMillis / parallelism / 1000.0 : -1);
+    }
+
+    /**
+     * Build a covering array of the provided strength greedily.
+     * @param levels are the numbers of values of the dimensions.
+     * @param strength is the number of dimensions whose value combinations should all be covered.
+     * @param cost estimates the cost of a row, which should be positive.
+     * @param budget is the maximum total cost of the rows.
+     * @return the rows of the covering array in the order they were chosen, each row is the value index of every dimension.
+     */
+    public static List<int[]> cover(int[] levels, int strength, ToDoubleFunction<int[]> cost, double budget) {
+        Interactions interactions = new Interactions(levels, strength);
+        long product = product(levels);
+        List<int[]> exhaustive = null;
+        double[] exhaustiveCosts = null;
+        if (product <= MAX_EXHAUSTIVE_CANDIDATES) {
+            exhaustive = new ArrayList<>((int) product);
+            // The cost of each candidate is estimated once, since the same candidates are evaluated in every step.
+            exhaustiveCosts = new double[(int) product];
+            int[] row = new int[levels.length];
+            for (int index = 0; index < product; index++) {
+                int remainder = index;
+                for (int i = levels.length - 1; i >= 0; i--) {
+                    row[i] = remainder % levels[i];
+                    remainder /= levels[i];
+                }
+                exhaustive.add(row.clone());
+                exhaustiveCosts[index] = cost.applyAsDouble(row);
+            }
+        }
+        Random random = new Random(CANDIDATE_SEED);
+        List<int[]> rows = new ArrayList<>();
+        double spent = 0;
+        while (interactions.getUncovered() > 0) {
+            List<int[]> candidates = exhaustive;
+            if (candidates == null) {
+                candidates = new ArrayList<>(RANDOM_CANDIDATES + 1);
+                candidates.add(interactions.completeFirstUncovered(random));
+                for (int i = 0; i < RANDOM_CANDIDATES; i++) {
+                    int[] row = new int[levels.length];
+                    for (int j = 0; j < levels.length; j++) {
+                        row[j] = random.nextInt(levels[j]);
+                    }
+                    candidates.add(row);
+                }
+            }
+            int[] best = null;
+            double bestCost = 0;
+            double bestValue = 0;
+            for (int index = 0; index < candidates.size(); index++) {
+                int[] candidate = candidates.get(index);
+                int gain = interactions.gain(candidate);
+                if (gain == 0) {
+                    continue;
+                }
+                double candidateCost = exhaustiveCosts != null ? exhaustiveCosts[index] : cost.applyAsDouble(candidate);
+                if (spent + candidateCost > budget) {
+                    continue;
+                }
+                double value = gain / candidateCost;
+                if (value > bestValue) {
+                    best = candidate;
+                    bestCost = candidateCost;
+                    bestValue = value;
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            interactions.cover(best);
+            rows.add(best);
+            spent += bestCost;
+        }
+        return rows;
+    }
+
+    /**
+     * Calculate the number of options combinations of the full product.
+     * @param levels are the numbers of values of the dimensions.
+     * @return the size of the full product, which saturates at Long.MAX_VALUE.
+     */
+    private static long product(int[] levels) {
+        long product = 1;
+        for (int level : levels) {
+            product = Math.min(Long.MAX_VALUE / level, product) * level;
+        }
+        return product;
+    }
+
+    /**
+     * Calculate the fraction of the interactions of the provided strength which are covered by the rows.
+     * @param rows are the rows of the plan.
+     * @param levels are the numbers of values of the dimensions.
+     * @param strength is the number of dimensions of each interaction.
+     * @return the covered fraction between 0 and 1.
+     */
+    static double coverage(List<int[]> rows, int[] levels, int strength) {
+        Interactions interactions = new Interactions(levels, strength);
+        for (int[] row : rows) {
+            interactions.cover(row);
+        }
+        return 1 - interactions.getUncovered() / (double) interactions.getTotal();
+    }
+
+    /**
+     * Construct the options combination string of a row, which starts and ends with a whitespace in the same way as the explicit options combinations,
+     * so the result subdirectory of a planned options combination has the same name as the one of the same explicit options combination.
+     * @param row is the value index of every dimension.
+     * @param names are the option names of the dimensions, the first dimension is the command.
+     * @param values are the values of the dimensions.
+     * @param fixed are the options which are passed to every options combination.
+     * @return the options combination.
+     */
+    private static String combination(int[] row, List<String> names, List<List<String>> values, String fixed) {
+        StringBuilder combination = new StringBuilder(" ").append(values.get(0).get(row[0])).append(' ');
+        for (int i = 1; i < row.length; i++) {
+            String value = values.get(i).get(row[i]);
+            if (!value.isEmpty()) {
+                combination.append(names.get(i)).append(' ').append(value).append(' ');
+            }
+        }
+        if (!fixed.isEmpty()) {
+            combination.append(fixed).append(' ');
+        }
+        return combination.toString();
+    }
+
+    /**
+     * Get the values of one option dimension.
+     * @param dimension is the list of values.
+     * @param name is the name of the dimension.
+     * @return the values in text.
+     */
+    private static List<String> dimensionValues(IonValue dimension, String name) {
+        if (!(dimension instanceof IonList) || ((IonList) dimension).isEmpty()) {
+            throw new IllegalArgumentException("The option dimension " + name + " should provide a non-empty list of values.");
+        }
+        List<String> values = new ArrayList<>();
+        for (IonValue value : (IonList) dimension) {
+            values.add(value instanceof IonText ? ((IonText) value).stringValue() : value.toString());
+        }
+        return values;
+    }
+
+    /**
+     * The interactions of a fixed strength between the dimensions, and whether each of them is covered by the chosen rows.
+     */
+    private static final class Interactions {
+        private final int[] levels;
+        private final List<int[]> dimensionSets = new ArrayList<>();
+        private final List<boolean[]> covered = new ArrayList<>();
+        private long total = 0;
+        private long uncovered;
+
+        /**
+         * Initializing the newly created Interactions object.
+         * @param levels are the numbers of values of the dimensions.
+         * @param strength is the number of dimensions of each interaction.
+         */
+        Interactions(int[] levels, int strength) {
+            this.levels = levels;
+            addDimensionSets(new int[strength], 0, 0);
+            for (int[] dimensionSet : dimensionSets) {
+                long size = 1;
+                for (int dimension : dimensionSet) {
+                    size *= levels[dimension];
+                    if (size > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("The strength of the option dimensions is too large for the number of values.");
+                    }
+                }
+                covered.add(new boolean[(int) size]);
+                total += size;
+            }
+            uncovered = total;
+        }
+
+        /**
+         * Enumerate every set of 'strength' dimensions in increasing order.
+         * @param dimensionSet is the set being built.
+         * @param position is the next position of the set.
+         * @param first is the smallest dimension which can be put at the position.
+         */
+        private void addDimensionSets(int[] dimensionSet, int position, int first) {
+            if (position == dimensionSet.length) {
+                dimensionSets.add(dimensionSet.clone());
+                return;
+            }
+            for (int dimension = first; dimension < levels.length; dimension++) {
+                dimensionSet[position] = dimension;
+                addDimensionSets(dimensionSet, position + 1, dimension + 1);
+            }
+        }
+
+        /**
+         * Calculate the index of the interaction which the row covers in the dimension set.
+         * @param dimensionSet is the set of dimensions.
+         * @param row is the value index of every dimension.
+         * @return the index of the interaction.
+         */
+        private int index(int[] dimensionSet, int[] row) {
+            int index = 0;
+            for (int dimension : dimensionSet) {
+                index = index * levels[dimension] + row[dimension];
+            }
+            return index;
+        }
+
+        /**
+         * Count the uncovered interactions which the row would cover.
+         * @param row is the value index of every dimension.
+         * @return the number of newly covered interactions.
+         */
+        int gain(int[] row) {
+            int gain = 0;
+            for (int i = 0; i < dimensionSets.size(); i++) {
+                if (!covered.get(i)[index(dimensionSets.get(i), row)]) {
+                    gain++;
+                }
+            }
+            return gain;
+        }
+
+        /**
+         * Mark the interactions of the row as covered.
+         * @param row is the value index of every dimension.
+         */
+        void cover(int[] row) {
+            for (int i = 0; i < dimensionSets.size(); i++) {
+                boolean[] flags = covered.get(i);
+                int index = index(dimensionSets.get(i), row);
+                if (!flags[index]) {
+                    flags[index] = true;
+                    uncovered--;
+                }
+            }
+        }
+
+        /**
+         * Build a row which covers the first uncovered interaction, the other dimensions take random values.
+         * @param random is the random number generator.
+         * @return the row, which covers at least one uncovered interaction.
+         */
+        int[] completeFirstUncovered(Random random) {
+            int[] row = new int[levels.length];
+            for (int i = 0; i < levels.length; i++) {
+                row[i] = random.nextInt(levels[i]);
+            }
+            for (int i = 0; i < dimensionSets.size(); i++) {
+                boolean[] flags = covered.get(i);
+                for (int index = 0; index < flags.length; index++) {
+                    if (!flags[index]) {
+                        int[] dimensionSet = dimensionSets.get(i);
+                        int remainder = index;
+                        for (int j = dimensionSet.length - 1; j >= 0; j--) {
+                            row[dimensionSet[j]] = remainder % levels[dimensionSet[j]];
+                            remainder /= levels[dimensionSet[j]];
+                        }
+                        return row;
+                    }
+                }
+            }
+            return row;
+        }
+
+        /**
+         * Helping access the private attribute total.
+         * @return the number of interactions.
+         */
+        long getTotal() {
+            return total;
+        }
+
+        /**
+         * Helping access the private attribute uncovered.
+         * @return the number of uncovered interactions.
+         */
+        long getUncovered() {
+            return uncovered;
+        }
+    }
+
+    /**
+     * The planned options combinations.
+     */
+    public static class Plan {
+        private final List<String> combinations;
+        private final long fullProduct;
+        private final int strength;
+        private final double coverage;
+        private final double estimatedSeconds;
+
+        /**
+         * Initializing the newly created Plan object.
+         * @param combinations are the planned options combinations.
+         * @param fullProduct is the number of options combinations of the full product.
+         * @param strength is the strength of the covering array.
+         * @param coverage is the fraction of the interactions which are covered by the plan.
+         * @param estimatedSeconds is the estimated wall time of the suite in seconds, or -1 if no duration is recorded.
+         */
+        Plan(List<String> combinations, long fullProduct, int strength, double coverage, double estimatedSeconds) {
+            this.combinations = Collections.unmodifiableList(combinations);
+            this.fullProduct = fullProduct;
+            this.strength = strength;
+            this.coverage = coverage;
+            this.estimatedSeconds = estimatedSeconds;
+        }
+
+        /**
+         * Helping access the private attribute combinations.
+         * @return the planned options combinations.
+         */
+        public List<String> getCombinations() {
+            return combinations;
+        }
+
+        /**
+         * Helping access the private attribute fullProduct.
+         * @return the number of options combinations of the full product.
+         */
+        public long getFullProduct() {
+            return fullProduct;
+        }
+
+        /**
+         * Helping access the private attribute strength.
+         * @return the strength of the covering array.
+         */
+        public int getStrength() {
+            return strength;
+        }
+
+        /**
+         * Helping access the private attribute coverage.
+         * @return the fraction of the interactions which are covered by the plan.
+         */
+        public double getCoverage() {
+            return coverage;
+        }
+
+        /**
+         * Helping access the private attribute estimatedSeconds.
+         * @return the estimated wall time of the suite in seconds, or -1 if no duration is recorded.
+         */
+        public double getEstimatedSeconds() {
+            return estimatedSeconds;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A content-addressed cache of benchmark results. A result is stored under the SHA-256 digest of everything which decides it: the content of the
+ * test data file, the options combination and the content of the benchmark CLI jar. When none of them changes, the cached result is reused
+ * instead of running the benchmark again. The cache is a directory of result files named '<digest>.ion'.
+ * Hashing a large test data file is expensive, so the digests of files are remembered in 'file-digests.ion' together with the size and the
+ * modification time of the file, and a file is only hashed again when its size or modification time changes.
+ */
+public class BenchmarkResultCache {
+    private static final String FILE_DIGESTS = "file-digests.ion";
+    private static final String RESULT_SUFFIX = ".ion";
+    private static final String PATH = "path";
+    private static final String SIZE = "size";
+    private static final String MODIFIED = "modified";
+    private static final String DIGEST = "digest";
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private final File directory;
+    private final Map<String, FileDigest> fileDigests = new ConcurrentHashMap<>();
+
+    /**
+     * Initializing the newly created BenchmarkResultCache object, the directory will be created if it does not exist.
+     * @param directory is the directory of the cache.
+     * @throws IOException if errors occur when reading the remembered file digests.
+     */
+    public BenchmarkResultCache(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("The result cache directory cannot be created: " + directory);
+        }
+        this.directory = directory;
+        File digestsFile = new File(directory, FILE_DIGESTS);
+        if (digestsFile.isFile()) {
+            try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(digestsFile)))) {
+                while (reader.next() != null) {
+                    String path = null;
+                    long size = -1;
+                    long modified = -1;
+                    String digest = null;
+                    reader.stepIn();
+                    while (reader.next() != null) {
+                        switch (reader.getFieldName()) {
+                            case PATH:
+                                path = reader.stringValue();
+                                break;
+                            case SIZE:
+                                size = reader.longValue();
+                                break;
+                            case MODIFIED:
+                                modified = reader.longValue();
+                                break;
+                            case DIGEST:
+                                digest = reader.stringValue();
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                    reader.stepOut();
+                    if (path != null && digest != null) {
+                        fileDigests.put(path, new FileDigest(size, modified, digest));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculate the cache key of a benchmark result.
+     * @param testData is the test data file.
+     * @param combination is the options combination of the benchmark CLI.
+     * @param jar is the benchmark CLI jar.
+     * @return the SHA-256 digest of the inputs in hexadecimal.
+     * @throws IOException if errors occur when reading the files.
+     */
+    public String key(File testData, String combination, File jar) throws IOException {
+        String inputs = "data:" + digest(testData) + "\noptions:" + combination.trim() + "\njar:" + digest(jar);
+        return toHex(newDigest().digest(inputs.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Copy the cached result into the provided file.
+     * @param key is the cache key of the result.
+     * @param resultFile is the destination of the result.
+     * @return true if the result is cached, otherwise false and the destination is not touched.
+     * @throws IOException if errors occur when copying the result.
+     */
+    public boolean restore(String key, File resultFile) throws IOException {
+        File cached = new File(directory, key + RESULT_SUFFIX);
+        if (!cached.isFile()) {
+            return false;
+        }
+        Files.copy(cached.toPath(), resultFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    /**
+     * Store the result in the cache. The result is copied into a temporary file and then moved into place, so a partially copied result is never reused.
+     * @param key is the cache key of the result.
+     * @param resultFile is the result which will be cached.
+     * @throws IOException if errors occur when copying the result.
+     */
+    public void store(String key, File resultFile) throws IOException {
+        Path temporary = Files.createTempFile(directory.toPath(), key, ".tmp");
+        try {
+            Files.copy(resultFile.toPath(), temporary, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporary, new File(directory, key + RESULT_SUFFIX).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Write the remembered file digests into the cache directory, so the next suite does not hash the unchanged files again.
+     * @throws IOException if errors occur when writing the file digests.
+     */
+    public void save() throws IOException {
+        Path temporary = Files.createTempFile(directory.toPath(), FILE_DIGESTS, ".tmp");
+        try {
+            try (IonWriter writer = IonTextWriterBuilder.standard().build(new BufferedOutputStream(new FileOutputStream(temporary.toFile())))) {
+                for (Map.Entry<String, FileDigest> entry : fileDigests.entrySet()) {
+                    writer.stepIn(IonType.STRUCT);
+                    writer.setFieldName(PATH);
+                    writer.writeString(entry.getKey());
+                    writer.setFieldName(SIZE);
+                    writer.writeInt(entry.getValue().size);
+                    writer.setFieldName(MODIFIED);
+                    writer.writeInt(entry.getValue().modified);
+                    writer.setFieldName(DIGEST);
+                    writer.writeString(entry.getValue().digest);
+                    writer.stepOut();
+                }
+            }
+            Files.move(temporary, new File(directory, FILE_DIGESTS).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Get the SHA-256 digest of the file content, which is only calculated again when the size or the modification time of the file changes.
+     * @param file is the file.
+     * @return the digest in hexadecimal.
+     * @throws IOException if errors occur when reading the file.
+     */
+    private String digest(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long size = file.length();
+        long modified = file.lastModified();
+        FileDigest remembered = fileDigests.get(path);
+        if (remembered != null && remembered.size == size && remembered.modified == modified) {
+            return remembered.digest;
+        }
+        MessageDigest messageDigest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, length);
+            }
+        }
+        String digest = toHex(messageDigest.digest());
+        fileDigests.put(path, new FileDigest(size, modified, digest));
+        return digest;
+    }
+
+    /**
+     * Create a SHA-256 message digest.
+     * @return the message digest.
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM.", e);
+        }
+    }
+
+    /**
+     * Convert the bytes into a hexadecimal string.
+     * @param bytes are the bytes of the digest.
+     * @return the hexadecimal string.
+     */
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The remembered digest of a file.
+     */
+    private static final class FileDigest {
+        private final long size;
+        private final long modified;
+        private final String digest;
+
+        /**
+         * Initializing the newly created FileDigest object.
+         * @param size is the size of the file when it was hashed.
+         * @param modified is the modification time of the file when it was hashed.
+         * @param digest is the digest of the file content.
+         */
+        FileDigest(long size, long modified, String digest) {
+            this.size = size;
+            this.modified = modified;
+            this.digest = digest;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.system.IonReaderBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The index of one benchmark result file generated by ion-java-benchmark-cli, which is a list of JMH result structs.
+ * The file is streamed once, and each benchmark entry is keyed by the benchmark name, the JMH mode and its parameters. Only the parameters, the scores
+ * and the raw data of each metric are kept, so the memory usage does not depend on the other content of the result file.
+ */
+public class BenchmarkResultIndex {
+    private static final String BENCHMARK = "benchmark";
+    private static final String MODE = "mode";
+    private static final String PARAMETERS = "params";
+    private static final String PRIMARY_METRIC = "primaryMetric";
+    private static final String SECONDARY_METRIC = "secondaryMetrics";
+    private static final String SCORE = "score";
+    private static final String SCORE_ERROR = "scoreError";
+    private static final String SCORE_UNIT = "scoreUnit";
+    private static final String RAW_DATA = "rawData";
+    private static final String SPEED = "speed";
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * Stream the benchmark result file and index all benchmark entries in it.
+     * @param benchmarkResultFilePath is the path of benchmark result.
+     * @return the index of the benchmark result.
+     * @throws Exception if error occurs when reading Ion Data.
+     */
+    public static BenchmarkResultIndex load(String benchmarkResultFilePath) throws Exception {
+        BenchmarkResultIndex index = new BenchmarkResultIndex();
+        try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(benchmarkResultFilePath)))) {
+            if (reader.next() != IonType.LIST) {
+                throw new IllegalStateException("The content of benchmark result is not supported.");
+            }
+            reader.stepIn();
+            while (reader.next() != null) {
+                if (reader.getType() != IonType.STRUCT) {
+                    throw new IllegalStateException("The content of benchmark result is not supported.");
+                }
+                Entry entry = readEntry(reader);
+                if (index.entries.put(entry.getKey(), entry) != null) {
+                    throw new IllegalStateException("The benchmark result contains more than one entry of " + entry.getKey() + ".");
+                }
+            }
+            reader.stepOut();
+        }
+        if (index.entries.isEmpty()) {
+            throw new IllegalStateException("The benchmark result does not contain any benchmark entry.");
+        }
+        return index;
+    }
+
+    /**
+     * Helping access the indexed benchmark entries.
+     * @return the benchmark entries in the order of the result file.
+     */
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Get the benchmark entry which has the same benchmark name, mode and parameters as the provided key.
+     * @param key is the key of the benchmark entry.
+     * @return the benchmark entry, or null if the result file does not contain it.
+     */
+    public Entry getEntry(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Get the first benchmark entry in the result file.
+     * @return the first benchmark entry.
+     */
+    public Entry getFirstEntry() {
+        return entries.values().iterator().next();
+    }
+
+    /**
+     * Read one JMH result struct. The reader is positioned on the struct and will be positioned after it when this method returns.
+     * @param reader is the IonReader of the benchmark result.
+     * @return the benchmark entry.
+     */
+    private static Entry readEntry(IonReader reader) {
+        String benchmark = null;
+        String mode = null;
+        IonStruct parameters = ReadGeneralConstraints.SYSTEM.newEmptyStruct();
+        Map<String, Metric> metrics = new LinkedHashMap<>();
+        reader.stepIn();
+        while (reader.next() != null) {
+            switch (reader.getFieldName()) {
+                case BENCHMARK:
+                    benchmark = reader.stringValue();
+                    break;
+                case MODE:
+                    mode = reader.stringValue();
+                    break;
+                case PARAMETERS:
+                    parameters = (IonStruct) ReadGeneralConstraints.SYSTEM.newValue(reader);
+                    break;
+                case PRIMARY_METRIC:
+                    metrics.put(SPEED, readMetric(reader));
+                    break;
+                case SECONDARY_METRIC:
+                    reader.stepIn();
+                    while (reader.next() != null) {
+                        if (reader.getType() == IonType.STRUCT) {
+                            metrics.put(reader.getFieldName(), readMetric(reader));
+                        }
+                    }
+                    reader.stepOut();
+                    break;
+                default:
+                    break;
+            }
+        }
+        reader.stepOut();
+        if (benchmark == null) {
+            throw new IllegalStateException("The benchmark entry does not contain the benchmark name.");
+        }
+        return new Entry(benchmark, mode, parameters, metrics);
+    }
+
+    /**
+     * Read the score and the raw data of one metric. The raw data of all forks are concatenated, and the length of the first fork is kept.
+     * @param reader is the IonReader positioned on the metric struct.
+     * @return the metric.
+     */
+    private static Metric readMetric(IonReader reader) {
+        BigDecimal score = null;
+        BigDecimal scoreError = null;
+        String scoreUnit = null;
+        List<BigDecimal> rawData = new ArrayList<>();
+        int firstForkLength = -1;
+        reader.stepIn();
+        while (reader.next() != null) {
+            if (reader.getFieldName().equals(SCORE)) {
+                score = readNumber(reader);
+            } else if (reader.getFieldName().equals(SCORE_ERROR)) {
+                scoreError = readNumber(reader);
+            } else if (reader.getFieldName().equals(SCORE_UNIT) && reader.getType() == IonType.STRING) {
+                scoreUnit = reader.stringValue();
+            } else if (reader.getFieldName().equals(RAW_DATA)) {
+                reader.stepIn();
+                while (reader.next() != null) {
+                    reader.stepIn();
+                    while (reader.next() != null) {
+                        BigDecimal value = readNumber(reader);
+                        if (value != null) {
+                            rawData.add(value);
+                        }
+                    }
+                    reader.stepOut();
+                    if (firstForkLength < 0) {
+                        firstForkLength = rawData.size();
+                    }
+                }
+                reader.stepOut();
+            }
+        }
+        reader.stepOut();
+        return new Metric(score, scoreError, scoreUnit, rawData, firstForkLength < 0 ? rawData.size() : firstForkLength);
+    }
+
+    /**
+     * Read the current number. JMH writes the scores as JSON numbers, which are Ion decimals or floats, and writes 'NaN' as a string.
+     * @param reader is the IonReader positioned on the number.
+     * @return the number in BigDecimal format, or null if the value is not a finite number.
+     */
+    private static BigDecimal readNumber(IonReader reader) {
+        switch (reader.getType()) {
+            case INT:
+            case DECIMAL:
+                return reader.bigDecimalValue();
+            case FLOAT:
+                double value = reader.doubleValue();
+                return Double.isNaN(value) || Double.isInfinite(value) ? null : BigDecimal.valueOf(value);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * One benchmark entry, which is identified by the benchmark name, the JMH mode and its parameters.
+     */
+    public static class Entry {
+        private final String benchmark;
+        private final String mode;
+        private final IonStruct parameters;
+        private final Map<String, Metric> metrics;
+        private final String key;
+
+        /**
+         * Initializing the newly created Entry object.
+         * @param benchmark is the name of the benchmark method.
+         * @param mode is the JMH mode of the benchmark, e.g. thrpt or ss, or null if the result does not contain it.
+         * @param parameters are the JMH parameters of the benchmark.
+         * @param metrics match the metric name with the metric, the primary metric is named 'speed'.
+         */
+        Entry(String benchmark, String mode, IonStruct parameters, Map<String, Metric> metrics) {
+            this.benchmark = benchmark;
+            this.mode = mode;
+            this.parameters = parameters;
+            this.metrics = metrics;
+            // The parameters are sorted by name, so the key does not depend on the field order in the result file.
+            Map<String, String> sortedParameters = new TreeMap<>();
+            for (IonValue parameter : parameters) {
+                sortedParameters.put(parameter.getFieldName(), parameter.toString());
+            }
+            // The same benchmark method can run in several modes, whose scores are not comparable with each other.
+            this.key = benchmark + (mode == null ? "" : " (" + mode + ")") + sortedParameters;
+        }
+
+        /**
+         * Helping access the private attribute key.
+         * @return the key which combines the benchmark name, the mode and the parameters.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Helping access the private attribute benchmark.
+         * @return the name of the benchmark method.
+         */
+        public String getBenchmark() {
+            return benchmark;
+        }
+
+        /**
+         * Helping access the private attribute mode.
+         * @return the JMH mode of the benchmark, or null if the result does not contain it.
+         */
+        public String getMode() {
+            return mode;
+        }
+
+        /**
+         * Helping access the private attribute parameters.
+         * @return the JMH parameters of the benchmark.
+         */
+        public IonStruct getParameters() {
+            return parameters;
+        }
+
+        /**
+         * Get the metric with the provided name.
+         * @param name is the metric name from set (speed | Heap usage | Serialized size | ·gc.alloc.rate | ...).
+         * @return the metric, or null if the benchmark entry does not contain it.
+         */
+        public Metric getMetric(String name) {
+            return metrics.get(name);
+        }
+
+        /**
+         * Helping access the private attribute metrics.
+         * @return the map which matches the metric name with the metric.
+         */
+        public Map<String, Metric> getMetrics() {
+            return Collections.unmodifiableMap(metrics);
+        }
+    }
+
+    /**
+     * The score and the raw data of one metric.
+     */
+    public static class Metric {
+        private final BigDecimal score;
+        private final BigDecimal scoreError;
+        private final String scoreUnit;
+        private final List<BigDecimal> rawData;
+        private final int firstForkLength;
+
+        /**
+         * Initializing the newly created Metric object.
+         * @param score is the score of the metric.
+         * @param scoreError is the half width of the 99.9% confidence interval of the score calculated by JMH.
+         * @param scoreUnit is the unit of the score, e.g. ms/op or ops/s.
+         * @param rawData are the measurements of all iterations.
+         * @param firstForkLength is the number of measurements of the first fork, which are at the beginning of rawData.
+         */
+        Metric(BigDecimal score, BigDecimal scoreError, String scoreUnit, List<BigDecimal> rawData, int firstForkLength) {
+            this.score = score;
+            this.scoreError = scoreError;
+            this.scoreUnit = scoreUnit;
+            this.rawData = rawData;
+            this.firstForkLength = firstForkLength;
+        }
+
+        /**
+         * Helping access the private attribute score.
+         * @return the score, or null if the score is not a number.
+         */
+        public BigDecimal getScore() {
+            return score;
+        }
+
+        /**
+         * Helping access the private attribute scoreError.
+         * @return the half width of the 99.9% confidence interval of the score, or null if JMH could not calculate it.
+         */
+        public BigDecimal getScoreError() {
+            return scoreError;
+        }
+
+        /**
+         * Helping access the private attribute scoreUnit.
+         * @return the unit of the score, or null if the result does not contain it.
+         */
+        public String getScoreUnit() {
+            return scoreUnit;
+        }
+
+        /**
+         * Helping access the private attribute rawData.
+         * @return the measurements of all iterations.
+         */
+        public List<BigDecimal> getRawData() {
+            return Collections.unmodifiableList(rawData);
+        }
+
+        /**
+         * Get the measurements of the first fork.
+         * @return the measurements of the iterations of the first fork.
+         */
+        public List<BigDecimal> getFirstForkRawData() {
+            return Collections.unmodifiableList(rawData.subList(0, firstForkLength));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.amazon.ion.datagenerator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One invocation of ion-java-benchmark-cli in the benchmark suite, which benchmarks one test data file with one options combination.
+ * The outcome of the run is recorded by BenchmarkSuiteScheduler after the run completes.
+ */
+public class BenchmarkRun {
+    private final String name;
+    private final List<String> command;
+    private final List<String> arguments;
+    private final Map<String, String> environment;
+    private final File resultFile;
+    private final File logFile;
+    private volatile boolean succeeded;
+    private volatile int attempts;
+    private volatile long durationMillis;
+
+    /**
+     * Initializing the newly created BenchmarkRun object.
+     * @param name is the name of the run which is printed in the suite progress.
+     * @param command is the command line of the benchmark process.
+     * @param resultFile is the benchmark result file which is written by the run.
+     * @param logFile is the file which receives the standard output and standard error of the benchmark process.
+     */
+    public BenchmarkRun(String name, List<String> command, File resultFile, File logFile) {
+        this(name, Collections.emptyList(), command, resultFile, logFile);
+    }
+
+    /**
+     * Initializing the newly created BenchmarkRun object whose command line starts the benchmark CLI with the provided launcher.
+     * @param name is the name of the run which is printed in the suite progress.
+     * @param launcher is the beginning of the command line which starts the benchmark CLI, e.g. java -jar ion-java-benchmark-cli.jar.
+     * @param arguments are the arguments of the benchmark CLI, which are also used when the run is executed in-process.
+     * @param resultFile is the benchmark result file which is written by the run.
+     * @param logFile is the file which receives the standard output and standard error of the benchmark process.
+     */
+    public BenchmarkRun(String name, List<String> launcher, List<String> arguments, File resultFile, File logFile) {
+        this(name, launcher, arguments, Collections.emptyMap(), resultFile, logFile);
+    }
+
+    /**
+     * Initializing the newly created BenchmarkRun object whose benchmark process receives additional environment variables.
+     * @param name is the name of the run which is printed in the suite progress.
+     * @param launcher is the beginning of the command line which starts the benchmark CLI, e.g. java -jar ion-java-benchmark-cli.jar.
+     * @param arguments are the arguments of the benchmark CLI, which are also used when the run is executed in-process.
+     * @param environment are the environment variables which are added to the environment of the benchmark process.
+     * @param resultFile is the benchmark result file which is written by the run.
+     * @param logFile is the file which receives the standard output and standard error of the benchmark process.
+     */
+    public BenchmarkRun(String name, List<String> launcher, List<String> arguments, Map<String, String> environment, File resultFile, File logFile) {
+        List<String> command = new ArrayList<>(launcher);
+        command.addAll(arguments);
+        this.name = name;
+        this.command = Collections.unmodifiableList(command);
+        this.arguments = Collections.unmodifiableList(new ArrayList<>(arguments));
+        this.environment = Collections.unmodifiableMap(new HashMap<>(environment));
+        this.resultFile = resultFile;
+        this.logFile = logFile;
+    }
+
+    /**
+     * Helping access the private attribute name.
+     * @return the name of the run.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Helping access the private attribute command.
+     * @return the command line of the benchmark process.
+     */
+    public List<String> getCommand() {
+        return command;
+    }
+
+    /**
+     * Helping access the private attribute arguments.
+     * @return the arguments of the benchmark CLI.
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Helping access the private attribute environment.
+     * @return the environment variables which are added to the environment of the benchmark process.
+     */
+    public Map<String, String> getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Helping access the private attribute resultFile.
+     * @return the benchmark result file.
+     */
+    public File getResultFile() {
+        return resultFile;
+    }
+
+    /**
+     * Helping access the private attribute logFile.
+     * @return the file which receives the output of the benchmark process.
+     */
+    public File getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Helping access the private attribute succeeded.
+     * @return true if the last attempt of the run succeeded.
+     */
+    public boolean isSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Helping access the private attribute attempts.
+     * @return the number of attempts, including retries.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Helping access the private attribute durationMillis.
+     * @return the wall time of the last attempt in milliseconds.
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Record the outcome of the run.
+     * @param succeeded represents whether the last attempt succeeded.
+     * @param attempts is the number of attempts, including retries.
+     * @param durationMillis is the wall time of the last attempt in milliseconds.
+     */
+    void complete(boolean succeeded, int attempts, long durationMillis) {
+        this.succeeded = succeeded;
+        this.attempts = attempts;
+        this.durationMillis = durationMillis;
+    }
+}
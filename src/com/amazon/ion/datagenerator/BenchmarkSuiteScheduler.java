@@ -0,0 +1,344 @@
+package com.amazon.ion.datagenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Run the benchmark processes of the suite with a limited number of concurrent runs.
+ * Each concurrent run can be pinned to its own set of CPUs through taskset on Linux, so the runs do not compete for the same cores. The CPU sets
+ * are taken from the CPUs the current process is allowed to run on, which are not necessarily numbered from 0 or contiguous, e.g. in a container.
+ * The standard output and standard error of each process are redirected into the log file of the run, so the processes never block on a full pipe.
+ * A run which does not complete within the timeout is killed together with its descendants, e.g. the JMH forks, and failed runs are retried up to
+ * the provided number of times.
+ * When an InProcessBenchmarkRunner is provided, the runs are executed one at a time inside the current JVM instead of starting a process for each run.
+ */
+public class BenchmarkSuiteScheduler {
+    private static final String TASKSET = "taskset";
+    private static final String PKILL = "pkill";
+    private static final String PROC_STATUS = "/proc/self/status";
+    private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+    private static final long DESCENDANT_EXIT_TIMEOUT_SECONDS = 10;
+    // Process.descendants() and ProcessHandle exist since Java 9, so they are looked up reflectively and the scheduler still runs on Java 8.
+    private static final Method DESCENDANTS = findMethod("java.lang.Process", "descendants");
+    private static final Method DESTROY_FORCIBLY = findMethod("java.lang.ProcessHandle", "destroyForcibly");
+    private static final Method ON_EXIT = findMethod("java.lang.ProcessHandle", "onExit");
+    private final int parallelism;
+    private final BlockingQueue<String> cpuSets;
+    private final long timeoutSeconds;
+    private final int retries;
+    private final InProcessBenchmarkRunner inProcessRunner;
+
+    /**
+     * Initializing the newly created BenchmarkSuiteScheduler object.
+     * @param parallelism is the maximum number of runs which are executed at the same time.
+     * @param cpusPerRun is the number of CPUs each run is pinned to, or 0 if the runs are not pinned.
+     * @param timeoutSeconds is the maximum wall time of one attempt in seconds, or 0 if the attempts never time out.
+     * @param retries is the number of retries after an attempt fails or times out.
+     */
+    public BenchmarkSuiteScheduler(int parallelism, int cpusPerRun, long timeoutSeconds, int retries) {
+        this(parallelism, cpusPerRun, timeoutSeconds, retries, null);
+    }
+
+    /**
+     * Initializing the newly created BenchmarkSuiteScheduler object.
+     * @param parallelism is the maximum number of runs which are executed at the same time.
+     * @param cpusPerRun is the number of CPUs each run is pinned to, or 0 if the runs are not pinned.
+     * @param timeoutSeconds is the maximum wall time of one attempt in seconds, or 0 if the attempts never time out.
+     * @param retries is the number of retries after an attempt fails or times out.
+     * @param inProcessRunner executes the runs inside the current JVM, or null if each run starts its own process.
+     */
+    public BenchmarkSuiteScheduler(int parallelism, int cpusPerRun, long timeoutSeconds, int retries, InProcessBenchmarkRunner inProcessRunner) {
+        if (inProcessRunner != null && (parallelism != 1 || cpusPerRun != 0 || timeoutSeconds != 0)) {
+            throw new IllegalArgumentException("The in-process runs are executed one at a time, and cannot be pinned to CPUs or killed after a timeout.");
+        }
+        this.inProcessRunner = inProcessRunner;
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism should be at least 1.");
+        }
+        if (cpusPerRun < 0 || timeoutSeconds < 0 || retries < 0) {
+            throw new IllegalArgumentException("The CPUs per run, the run timeout and the retries should not be negative.");
+        }
+        this.parallelism = parallelism;
+        this.timeoutSeconds = timeoutSeconds;
+        this.retries = retries;
+        if (cpusPerRun == 0) {
+            this.cpuSets = null;
+        } else {
+            if (!System.getProperty("os.name").startsWith("Linux") || findExecutable(TASKSET) == null) {
+                throw new IllegalStateException("Pinning the runs to CPUs requires taskset on Linux.");
+            }
+            List<Integer> cpus = allowedCpus();
+            if (cpusPerRun * parallelism > cpus.size()) {
+                throw new IllegalArgumentException(String.format("%d concurrent runs with %d CPUs each need more than the %d CPUs %s the process is allowed to run on.",
+                        parallelism, cpusPerRun, cpus.size(), cpus));
+            }
+            // Each concurrent run takes a disjoint CPU set from the queue and returns it after the run.
+            this.cpuSets = new ArrayBlockingQueue<>(parallelism);
+            for (int slot = 0; slot < parallelism; slot++) {
+                cpuSets.add(cpus.subList(slot * cpusPerRun, (slot + 1) * cpusPerRun).stream().map(String::valueOf).collect(Collectors.joining(",")));
+            }
+        }
+    }
+
+    /**
+     * Execute all runs and print the progress of the suite after each run completes.
+     * @param runs are the benchmark runs of the suite.
+     * @return the number of runs which failed after all retries.
+     * @throws Exception if errors occur when scheduling the runs.
+     */
+    public int run(List<BenchmarkRun> runs) throws Exception {
+        return run(runs.iterator(), runs.size());
+    }
+
+    /**
+     * Execute the runs as the iterator provides them and print the progress of the suite after each run completes. The iterator may wait until
+     * the input of its next run is ready, e.g. while the test data is being generated, and the runs already provided keep running in the meantime.
+     * @param runs provides the benchmark runs of the suite.
+     * @param total is the number of runs which is printed in the progress, or 0 if it is not known in advance.
+     * @return the number of runs which failed after all retries.
+     * @throws Exception if errors occur when scheduling the runs or providing the next run.
+     */
+    public int run(Iterator<BenchmarkRun> runs, int total) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(total > 0 ? Math.min(parallelism, total) : parallelism);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        int submitted = 0;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            while (runs.hasNext()) {
+                BenchmarkRun run = runs.next();
+                submitted++;
+                futures.add(executor.submit(() -> {
+                    execute(run);
+                    if (!run.isSucceeded()) {
+                        failed.incrementAndGet();
+                    }
+                    String progress = total > 0 ? String.format("%d/%d", completed.incrementAndGet(), total) : String.valueOf(completed.incrementAndGet());
+                    System.out.println(String.format("[%s] %s %s in %.1fs after %d attempt(s), log: %s", progress, run.getName(),
+                            run.isSucceeded() ? "succeeded" : "failed", run.getDurationMillis() / 1000.0, run.getAttempts(), run.getLogFile()));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.println(String.format("Benchmark suite completed in %.1fs: %d succeeded, %d failed.", (System.nanoTime() - start) / 1e9,
+                submitted - failed.get(), failed.get()));
+        return failed.get();
+    }
+
+    /**
+     * Execute one run, retrying it when the process exits with a non-zero code or times out.
+     * @param run is the benchmark run.
+     * @throws Exception if errors occur when starting the process.
+     */
+    private void execute(BenchmarkRun run) throws Exception {
+        String cpuSet = cpuSets == null ? null : cpuSets.take();
+        try {
+            List<String> command = new ArrayList<>();
+            if (cpuSet != null) {
+                command.add(TASKSET);
+                command.add("-c");
+                command.add(cpuSet);
+            }
+            command.addAll(run.getCommand());
+            int attempt = 0;
+            while (true) {
+                attempt++;
+                long attemptStart = System.nanoTime();
+                boolean succeeded = inProcessRunner != null ? inProcessRunner.run(run.getArguments(), run.getLogFile()) : attempt(command, run);
+                long durationMillis = (System.nanoTime() - attemptStart) / 1_000_000;
+                if (succeeded || attempt > retries) {
+                    run.complete(succeeded, attempt, durationMillis);
+                    return;
+                }
+            }
+        } finally {
+            if (cpuSet != null) {
+                cpuSets.put(cpuSet);
+            }
+        }
+    }
+
+    /**
+     * Start the process of one attempt and wait for it. The output of every attempt is appended to the log file.
+     * @param command is the command line of the process.
+     * @param run is the benchmark run, which provides the additional environment variables and the log file.
+     * @return true if the process exits with code 0 within the timeout.
+     * @throws Exception if errors occur when starting the process.
+     */
+    private boolean attempt(List<String> command, BenchmarkRun run) throws Exception {
+        ProcessBuilder processBuilder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(run.getLogFile()));
+        processBuilder.environment().putAll(run.getEnvironment());
+        Process process = processBuilder.start();
+        try {
+            if (timeoutSeconds > 0) {
+                if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                    return false;
+                }
+                return process.exitValue() == 0;
+            }
+            return process.waitFor() == 0;
+        } finally {
+            if (process.isAlive()) {
+                destroyProcessTree(process);
+            }
+        }
+    }
+
+    /**
+     * Kill the process and all its descendants, e.g. the forked JMH JVMs, which would otherwise keep running on the CPUs of the next attempt.
+     * On Java 9 or later the descendants are listed before the process is killed, so they cannot escape by being reparented when it exits.
+     * On Java 8 the direct children, which are the JMH forks of a benchmark process, are killed by pkill before the process.
+     * @param process is the process of the attempt.
+     * @throws InterruptedException if the thread is interrupted while waiting for the processes to exit.
+     */
+    private static void destroyProcessTree(Process process) throws InterruptedException {
+        if (DESCENDANTS != null && DESTROY_FORCIBLY != null && ON_EXIT != null) {
+            List<Object> descendants;
+            try {
+                descendants = ((Stream<?>) DESCENDANTS.invoke(process)).collect(Collectors.toList());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot list the descendants of the benchmark process.", e);
+            }
+            process.destroyForcibly().waitFor();
+            for (Object descendant : descendants) {
+                try {
+                    DESTROY_FORCIBLY.invoke(descendant);
+                    ((CompletableFuture<?>) ON_EXIT.invoke(descendant)).get(DESCENDANT_EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (ReflectiveOperationException | ExecutionException | TimeoutException e) {
+                    System.err.println("Cannot kill a descendant of the benchmark process: " + e);
+                }
+            }
+        } else {
+            Long pid = pid(process);
+            if (pid != null && findExecutable(PKILL) != null) {
+                try {
+                    Process pkill = new ProcessBuilder(PKILL, "-KILL", "-P", String.valueOf(pid)).redirectErrorStream(true).start();
+                    pkill.getInputStream().close();
+                    pkill.waitFor();
+                } catch (IOException e) {
+                    System.err.println("Cannot kill the children of the benchmark process: " + e);
+                }
+            } else {
+                System.err.println("Cannot find the children of the benchmark process, its forks may keep running.");
+            }
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    /**
+     * Get the process id on Java 8, where the process implementation on Unix keeps it in a private field.
+     * @param process is the process.
+     * @return the process id, or null if it is not available.
+     */
+    private static Long pid(Process process) {
+        try {
+            Field field = process.getClass().getDeclaredField("pid");
+            field.setAccessible(true);
+            return field.getLong(process);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(String className, String methodName) {
+        try {
+            return Class.forName(className).getMethod(methodName);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the CPUs the current process is allowed to run on from its affinity mask.
+     * @return the CPU ids in ascending order.
+     */
+    static List<Integer> allowedCpus() {
+        try {
+            for (String line : Files.readAllLines(Paths.get(PROC_STATUS), StandardCharsets.UTF_8)) {
+                if (line.startsWith(CPUS_ALLOWED_LIST)) {
+                    return parseCpuList(line.substring(CPUS_ALLOWED_LIST.length()).trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read the CPU affinity of the current process from " + PROC_STATUS + ".", e);
+        }
+        throw new IllegalStateException("Cannot find the CPU affinity of the current process in " + PROC_STATUS + ".");
+    }
+
+    /**
+     * Parse a CPU list in the Linux list format, e.g. '0-3,8-11,14'.
+     * @param cpuList is the CPU list.
+     * @return the CPU ids in ascending order.
+     */
+    static List<Integer> parseCpuList(String cpuList) {
+        TreeSet<Integer> cpus = new TreeSet<>();
+        try {
+            for (String range : cpuList.split(",")) {
+                String[] bounds = range.trim().split("-");
+                int first = Integer.parseInt(bounds[0]);
+                int last = bounds.length == 1 ? first : Integer.parseInt(bounds[1]);
+                if (bounds.length > 2 || first > last) {
+                    throw new IllegalArgumentException("The CPU range '" + range + "' is invalid.");
+                }
+                for (int cpu = first; cpu <= last; cpu++) {
+                    cpus.add(cpu);
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The CPU list '" + cpuList + "' is invalid.", e);
+        }
+        return new ArrayList<>(cpus);
+    }
+
+    /**
+     * Find the executable in the directories of the PATH environment variable.
+     * @param name is the name of the executable.
+     * @return the executable file, or null if it cannot be found.
+     */
+    static File findExecutable(String name) {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return null;
+        }
+        for (String directory : path.split(File.pathSeparator)) {
+            File file = new File(directory, name);
+            if (file.canExecute()) {
+                return file;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,290 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Detect the commits where sustained shifts of the benchmark scores began, across the benchmark results stored in the local benchmark history.
+ * The score series of each benchmark entry and each metric in COMPARED_SCORE_KEYWORDS is split by binary segmentation: the split which maximizes the
+ * CUSUM statistic sqrt(left * right / n) * |mean(left) - mean(right)| is accepted when a permutation test shows it is significant and the relative
+ * shift of the means is at least the minimum effect size, then both segments are split again. Because every split compares whole segments, a slow
+ * cumulative drift is detected as a shift even when no pair of neighbouring commits differs by more than the pairwise threshold.
+ */
+public class ChangePointDetector {
+    // Each side of a change point contains at least this number of commits, so a single outlier is not reported as a sustained shift.
+    private static final int MIN_SEGMENT_LENGTH = 2;
+    private static final int PERMUTATIONS = 999;
+    // The permutations are seeded, so the same history always produces the same report.
+    private static final long PERMUTATION_SEED = 0x5eed;
+    private static final String BENCHMARK = "benchmark";
+    private static final String PARAMETERS = "params";
+    private static final String METRIC = "metric";
+    private static final String COMMIT = "commit";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String BEFORE = "before";
+    private static final String AFTER = "after";
+    private static final String RELATIVE_CHANGE = "relative_change";
+    private static final String P_VALUE = "p_value";
+    private static final String REGRESSION = "regression";
+
+    /**
+     * Detect the change points with the options provided in the 'detect-change-points' command and write them into the output file in Ion text.
+     * Each change point is written as { benchmark, params, metric, commit, timestamp, before, after, relative_change, p_value, regression }, where
+     * 'commit' is the first commit after the shift, 'before' and 'after' are the mean scores of the segments around the change point.
+     * @param optionsMap is the hash map which generated by the command line parser which match the option name and its value appropriately.
+     * @throws Exception if errors occur when reading the history or writing the change points.
+     */
+    public static void detectAndWrite(Map<String, Object> optionsMap) throws Exception {
+        BenchmarkHistory history = new BenchmarkHistory(new File(optionsMap.get("--history").toString()));
+        String benchmark = optionsMap.get("--benchmark") == null ? "" : optionsMap.get("--benchmark").toString();
+        int last = optionsMap.get("--last") == null ? Integer.MAX_VALUE : Integer.parseInt(optionsMap.get("--last").toString());
+        double significanceLevel = Double.parseDouble(optionsMap.get("--significance-level").toString());
+        double minimumEffectSize = Double.parseDouble(optionsMap.get("--minimum-effect-size").toString());
+        String outputFile = optionsMap.get("<output_file>").toString();
+        List<BenchmarkHistory.Record> records = history.query(benchmark, last);
+        // Group the entries of all commits by benchmark key, the records are already in the order of ingestion.
+        Map<String, List<BenchmarkResultIndex.Entry>> series = new LinkedHashMap<>();
+        Map<String, List<BenchmarkHistory.Record>> seriesRecords = new LinkedHashMap<>();
+        for (BenchmarkHistory.Record record : records) {
+            for (BenchmarkResultIndex.Entry entry : record.getEntries()) {
+                series.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(entry);
+                seriesRecords.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(record);
+            }
+        }
+        try (IonWriter writer = IonTextWriterBuilder.pretty().build(new BufferedOutputStream(new FileOutputStream(outputFile)))) {
+            for (Map.Entry<String, List<BenchmarkResultIndex.Entry>> entries : series.entrySet()) {
+                List<BenchmarkHistory.Record> entryRecords = seriesRecords.get(entries.getKey());
+                for (String metric : ParseAndCompareBenchmarkResults.COMPARED_SCORE_KEYWORDS) {
+                    List<Double> scores = new ArrayList<>();
+                    List<BenchmarkHistory.Record> scoreRecords = new ArrayList<>();
+                    String scoreUnit = null;
+                    for (int i = 0; i < entries.getValue().size(); i++) {
+                        BenchmarkResultIndex.Metric value = entries.getValue().get(i).getMetric(metric);
+                        if (value != null && value.getScore() != null) {
+                            scores.add(value.getScore().doubleValue());
+                            scoreRecords.add(entryRecords.get(i));
+                            scoreUnit = value.getScoreUnit();
+                        }
+                    }
+                    double[] values = scores.stream().mapToDouble(Double::doubleValue).toArray();
+                    for (ChangePoint changePoint : detect(values, significanceLevel, minimumEffectSize)) {
+                        BenchmarkResultIndex.Entry entry = entries.getValue().get(0);
+                        BenchmarkHistory.Record record = scoreRecords.get(changePoint.getIndex());
+                        writer.stepIn(IonType.STRUCT);
+                        writer.setFieldName(BENCHMARK);
+                        writer.writeString(entry.getBenchmark());
+                        writer.setFieldName(PARAMETERS);
+                        entry.getParameters().writeTo(writer);
+                        writer.setFieldName(METRIC);
+                        writer.writeString(metric);
+                        writer.setFieldName(COMMIT);
+                        writer.writeString(record.getCommit());
+                        writer.setFieldName(TIMESTAMP);
+                        writer.writeTimestamp(record.getTimestamp());
+                        writer.setFieldName(BEFORE);
+                        writer.writeFloat(changePoint.getBefore());
+                        writer.setFieldName(AFTER);
+                        writer.writeFloat(changePoint.getAfter());
+                        writer.setFieldName(RELATIVE_CHANGE);
+                        writer.writeFloat(changePoint.getRelativeChange());
+                        writer.setFieldName(P_VALUE);
+                        writer.writeFloat(changePoint.getPValue());
+                        writer.setFieldName(REGRESSION);
+                        writer.writeBool(changePoint.getRelativeChange() * RegressionDetector.worseDirection(scoreUnit) > 0);
+                        writer.stepOut();
+                    }
+                }
+            }
+        }
+        DataConstructor.printInfo(outputFile);
+    }
+
+    /**
+     * Detect the change points of a score series by binary segmentation.
+     * @param series are the scores in the order of commits.
+     * @param significanceLevel is the probability of reporting a change point when the shift is caused by noise.
+     * @param minimumEffectSize is the smallest relative shift of the segment means which will be reported.
+     * @return the change points in the order of commits.
+     */
+    public static List<ChangePoint> detect(double[] series, double significanceLevel, double minimumEffectSize) {
+        if (significanceLevel <= 0 || significanceLevel >= 1) {
+            throw new IllegalArgumentException("The significance level should be between 0 and 1.");
+        }
+        List<ChangePoint> changePoints = new ArrayList<>();
+        segment(series, 0, series.length, significanceLevel, minimumEffectSize, new Random(PERMUTATION_SEED), changePoints);
+        Collections.sort(changePoints, (a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return changePoints;
+    }
+
+    /**
+     * Find the most significant change point in the segment [start, end) and split the segment recursively.
+     * @param series are the scores in the order of commits.
+     * @param start is the first index of the segment.
+     * @param end is the index after the last index of the segment.
+     * @param significanceLevel is the probability of reporting a change point when the shift is caused by noise.
+     * @param minimumEffectSize is the smallest relative shift of the segment means which will be reported.
+     * @param random is the random number generator of the permutation test.
+     * @param changePoints collects the detected change points.
+     */
+    private static void segment(double[] series, int start, int end, double significanceLevel, double minimumEffectSize, Random random,
+                                List<ChangePoint> changePoints) {
+        if (end - start < 2 * MIN_SEGMENT_LENGTH) {
+            return;
+        }
+        double[] values = new double[end - start];
+        System.arraycopy(series, start, values, 0, values.length);
+        int split = bestSplit(values);
+        double observed = statistic(values, split);
+        if (observed == 0) {
+            return;
+        }
+        // The permutation test shuffles the segment, which destroys any ordering, and counts how often a statistic at least as large appears.
+        double[] shuffled = values.clone();
+        int exceeded = 0;
+        for (int i = 0; i < PERMUTATIONS; i++) {
+            for (int j = shuffled.length - 1; j > 0; j--) {
+                int k = random.nextInt(j + 1);
+                double swap = shuffled[j];
+                shuffled[j] = shuffled[k];
+                shuffled[k] = swap;
+            }
+            if (statistic(shuffled, bestSplit(shuffled)) >= observed) {
+                exceeded++;
+            }
+        }
+        double pValue = (exceeded + 1) / (double) (PERMUTATIONS + 1);
+        if (pValue >= significanceLevel) {
+            return;
+        }
+        double before = mean(values, 0, split);
+        double after = mean(values, split, values.length);
+        double relativeChange = before == 0 ? 0 : (after - before) / Math.abs(before);
+        if (Math.abs(relativeChange) >= minimumEffectSize) {
+            changePoints.add(new ChangePoint(start + split, before, after, relativeChange, pValue));
+        }
+        segment(series, start, start + split, significanceLevel, minimumEffectSize, random, changePoints);
+        segment(series, start + split, end, significanceLevel, minimumEffectSize, random, changePoints);
+    }
+
+    /**
+     * Find the split which maximizes the CUSUM statistic.
+     * @param values are the scores of the segment.
+     * @return the index of the first value after the split.
+     */
+    private static int bestSplit(double[] values) {
+        int best = MIN_SEGMENT_LENGTH;
+        double bestStatistic = -1;
+        for (int split = MIN_SEGMENT_LENGTH; split <= values.length - MIN_SEGMENT_LENGTH; split++) {
+            double statistic = statistic(values, split);
+            if (statistic > bestStatistic) {
+                bestStatistic = statistic;
+                best = split;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Calculate the CUSUM statistic of the provided split.
+     * @param values are the scores of the segment.
+     * @param split is the index of the first value after the split.
+     * @return the weighted absolute difference of the means on both sides.
+     */
+    private static double statistic(double[] values, int split) {
+        int n = values.length;
+        return Math.sqrt(split * (double) (n - split) / n) * Math.abs(mean(values, 0, split) - mean(values, split, n));
+    }
+
+    /**
+     * Calculate the mean of the values in [start, end).
+     * @param values are the scores.
+     * @param start is the first index.
+     * @param end is the index after the last index.
+     * @return the mean of the values.
+     */
+    private static double mean(double[] values, int start, int end) {
+        double sum = 0;
+        for (int i = start; i < end; i++) {
+            sum += values[i];
+        }
+        return sum / (end - start);
+    }
+
+    /**
+     * A sustained shift of the scores.
+     */
+    public static class ChangePoint {
+        private final int index;
+        private final double before;
+        private final double after;
+        private final double relativeChange;
+        private final double pValue;
+
+        /**
+         * Initializing the newly created ChangePoint object.
+         * @param index is the index of the first score after the shift.
+         * @param before is the mean score of the segment before the shift.
+         * @param after is the mean score of the segment after the shift.
+         * @param relativeChange is the relative change of the mean scores.
+         * @param pValue is the p-value of the permutation test.
+         */
+        ChangePoint(int index, double before, double after, double relativeChange, double pValue) {
+            this.index = index;
+            this.before = before;
+            this.after = after;
+            this.relativeChange = relativeChange;
+            this.pValue = pValue;
+        }
+
+        /**
+         * Helping access the private attribute index.
+         * @return the index of the first score after the shift.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Helping access the private attribute before.
+         * @return the mean score of the segment before the shift.
+         */
+        public double getBefore() {
+            return before;
+        }
+
+        /**
+         * Helping access the private attribute after.
+         * @return the mean score of the segment after the shift.
+         */
+        public double getAfter() {
+            return after;
+        }
+
+        /**
+         * Helping access the private attribute relativeChange.
+         * @return the relative change of the mean scores.
+         */
+        public double getRelativeChange() {
+            return relativeChange;
+        }
+
+        /**
+         * Helping access the private attribute pValue.
+         * @return the p-value of the permutation test.
+         */
+        public double getPValue() {
+            return pValue;
+        }
+    }
+}
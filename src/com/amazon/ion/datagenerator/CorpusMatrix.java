@@ -0,0 +1,293 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonInt;
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonText;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.system.IonReaderBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The test corpus of the benchmark suite, which is every combination of the ISL schemas, data sizes, formats and seeds listed in an Ion struct, e.g.
+ * { schemas: ["customer.isl", "order.isl"], sizes: [1000000, 100000000], formats: [ion_binary, ion_text], seeds: [1, 2] }.
+ * Each combination is generated into its own file of the test data directory, whose name contains the schema name, the size, the format, the seed and
+ * the digest of the schema file. A file which already exists is reused, so only the combinations which are missing or whose schema changed are generated.
+ */
+public class CorpusMatrix {
+    private static final String SCHEMAS = "schemas";
+    private static final String SIZES = "sizes";
+    private static final String FORMATS = "formats";
+    private static final String SEEDS = "seeds";
+    private static final String SCHEMA_SUFFIX = ".isl";
+    private static final String BINARY_SUFFIX = ".10n";
+    private static final String TEXT_SUFFIX = ".ion";
+    // The length of the schema digest in the file names, which is long enough to tell the revisions of a schema apart.
+    private static final int SCHEMA_DIGEST_LENGTH = 12;
+    private final List<Input> inputs;
+
+    /**
+     * Initializing the newly created CorpusMatrix object.
+     * @param inputs are the combinations of the matrix.
+     */
+    CorpusMatrix(List<Input> inputs) {
+        this.inputs = Collections.unmodifiableList(inputs);
+    }
+
+    /**
+     * Read the corpus matrix from the Ion text file.
+     * @param matrixFile is the path of the corpus matrix file.
+     * @return the corpus matrix whose schema paths are resolved against the directory of the matrix file.
+     * @throws IOException if errors occur when reading the matrix file or the schema files.
+     */
+    public static CorpusMatrix load(String matrixFile) throws IOException {
+        IonStruct matrix;
+        try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(matrixFile)))) {
+            if (reader.next() != IonType.STRUCT) {
+                throw new IllegalStateException("The data structure of the corpus matrix file is not supported.");
+            }
+            matrix = (IonStruct) ReadGeneralConstraints.LOADER.load(reader).get(0);
+        }
+        File baseDirectory = new File(matrixFile).getAbsoluteFile().getParentFile();
+        List<File> schemas = new ArrayList<>();
+        for (IonValue schema : dimension(matrix, SCHEMAS)) {
+            File schemaFile = new File(((IonText) schema).stringValue());
+            schemas.add(schemaFile.isAbsolute() ? schemaFile : new File(baseDirectory, schemaFile.getPath()));
+        }
+        List<Input> inputs = new ArrayList<>();
+        Set<String> fileNames = new HashSet<>();
+        for (File schema : schemas) {
+            String schemaDigest = digest(schema);
+            for (IonValue size : dimension(matrix, SIZES)) {
+                for (IonValue format : dimension(matrix, FORMATS)) {
+                    String formatName = ((IonText) format).stringValue();
+                    if (!formatName.equals(IonSchemaUtilities.ION_BINARY) && !formatName.equals(IonSchemaUtilities.ION_TEXT)) {
+                        throw new IllegalArgumentException("The format of the corpus matrix should be ion_binary or ion_text: " + formatName);
+                    }
+                    for (IonValue seed : dimension(matrix, SEEDS)) {
+                        Input input = new Input(schema, schemaDigest, ((IonInt) size).intValue(), formatName, ((IonInt) seed).longValue());
+                        // The repeated combinations are generated and benchmarked once.
+                        if (fileNames.add(input.getFileName())) {
+                            inputs.add(input);
+                        }
+                    }
+                }
+            }
+        }
+        return new CorpusMatrix(inputs);
+    }
+
+    /**
+     * Helping access the private attribute inputs.
+     * @return the combinations of the matrix.
+     */
+    public List<Input> getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Generate the missing test data files of the matrix into the directory. The existing files are returned first, and the generated files are
+     * returned in the order of completion, so each test data file can be benchmarked as soon as it is ready while the rest is still being generated.
+     * Each file is generated into a temporary file and moved into place, so a partially generated file is never reused.
+     * @param directory is the test data directory.
+     * @param executor runs the generation of the missing files.
+     * @return the iterator of the test data files, whose next() waits until the next file is ready.
+     * @throws IOException if the test data directory cannot be created.
+     */
+    public Iterator<File> generate(File directory, ExecutorService executor) throws IOException {
+        Files.createDirectories(directory.toPath());
+        List<File> existing = new ArrayList<>();
+        CompletionService<File> completionService = new ExecutorCompletionService<>(executor);
+        int submitted = 0;
+        for (Input input : inputs) {
+            File testData = new File(directory, input.getFileName());
+            if (testData.isFile()) {
+                existing.add(testData);
+            } else {
+                completionService.submit(() -> generate(input, testData));
+                submitted++;
+            }
+        }
+        System.out.println(String.format("Corpus matrix: %d of %d test data files reused, %d test data files to generate.",
+                existing.size(), inputs.size(), submitted));
+        int generating = submitted;
+        return new Iterator<File>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < existing.size() + generating;
+            }
+
+            @Override
+            public File next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (next < existing.size()) {
+                    return existing.get(next++);
+                }
+                next++;
+                try {
+                    Future<File> future = completionService.take();
+                    return future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while generating the test data.", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Errors occur when generating the test data.", e.getCause());
+                }
+            }
+        };
+    }
+
+    /**
+     * Generate one test data file with the in-process generator.
+     * @param input is the combination of the matrix.
+     * @param testData is the destination of the test data.
+     * @return the test data file.
+     * @throws Exception if errors occur when generating the data.
+     */
+    private static File generate(Input input, File testData) throws Exception {
+        Path temporary = Files.createTempFile(testData.getParentFile().toPath(), testData.getName(), ".tmp");
+        try {
+            IonDataGenerator generator = IonDataGenerator.builder()
+                    .withSchema(IonSchemaUtilities.loadSchemaDefinition(input.getSchema().getPath()))
+                    .withSeed(input.getSeed())
+                    .build();
+            ReadGeneralConstraints.constructAndWriteIonData(input.getSize(), generator, input.getFormat(), temporary.toString(), WriteOptions.DEFAULT);
+            Files.move(temporary, testData.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return testData;
+    }
+
+    /**
+     * Get the values of one dimension of the matrix.
+     * @param matrix is the corpus matrix struct.
+     * @param name is the field name of the dimension.
+     * @return the values of the dimension.
+     */
+    private static IonList dimension(IonStruct matrix, String name) {
+        IonValue values = matrix.get(name);
+        if (!(values instanceof IonList) || ((IonList) values).isEmpty()) {
+            throw new IllegalArgumentException("The corpus matrix should provide a non-empty list of " + name + ".");
+        }
+        return (IonList) values;
+    }
+
+    /**
+     * Calculate the SHA-256 digest of the schema file, so the test data is generated again after the schema changes.
+     * @param schema is the schema file.
+     * @return the beginning of the digest in hexadecimal.
+     * @throws IOException if errors occur when reading the schema file.
+     */
+    private static String digest(File schema) throws IOException {
+        if (!schema.isFile()) {
+            throw new IllegalArgumentException("The schema file of the corpus matrix does not exist: " + schema);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(schema.toPath()));
+            return String.format("%064x", new BigInteger(1, digest)).substring(0, SCHEMA_DIGEST_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM.", e);
+        }
+    }
+
+    /**
+     * One combination of the matrix, which is generated into one test data file.
+     */
+    public static class Input {
+        private final File schema;
+        private final String schemaDigest;
+        private final int size;
+        private final String format;
+        private final long seed;
+
+        /**
+         * Initializing the newly created Input object.
+         * @param schema is the ISL schema file.
+         * @param schemaDigest is the digest of the schema file.
+         * @param size is the requested size of the test data.
+         * @param format is the format of the test data, from the set (ion_binary | ion_text).
+         * @param seed is the seed of the generator.
+         */
+        Input(File schema, String schemaDigest, int size, String format, long seed) {
+            this.schema = schema;
+            this.schemaDigest = schemaDigest;
+            this.size = size;
+            this.format = format;
+            this.seed = seed;
+        }
+
+        /**
+         * Helping access the private attribute schema.
+         * @return the ISL schema file.
+         */
+        public File getSchema() {
+            return schema;
+        }
+
+        /**
+         * Helping access the private attribute size.
+         * @return the requested size of the test data.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Helping access the private attribute format.
+         * @return the format of the test data.
+         */
+        public String getFormat() {
+            return format;
+        }
+
+        /**
+         * Helping access the private attribute seed.
+         * @return the seed of the generator.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Construct the name of the test data file, which identifies the combination and the revision of the schema.
+         * @return the file name, e.g. customer_1000000_ion_binary_1_0123456789ab.10n.
+         */
+        public String getFileName() {
+            String schemaName = schema.getName();
+            if (schemaName.endsWith(SCHEMA_SUFFIX)) {
+                schemaName = schemaName.substring(0, schemaName.length() - SCHEMA_SUFFIX.length());
+            }
+            return String.format("%s_%d_%s_%d_%s%s", schemaName, size, format, seed, schemaDigest,
+                    format.equals(IonSchemaUtilities.ION_BINARY) ? BINARY_SUFFIX : TEXT_SUFFIX);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.datagenerator.profile.DataProfile;
+import com.amazon.ion.datagenerator.profile.PathStatistics;
+import com.amazon.ion.system.IonReaderBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Stream an existing Ion corpus with IonReader and collect the per-path statistics into a profile, which can drive the data generator.
+ * Files are profiled in parallel, each file is streamed by one thread into its own statistics, and the statistics are merged afterwards.
+ */
+public class CorpusProfiler {
+
+    /**
+     * Profile the Ion data provided in the options and write the profile into the output file.
+     * @param optionsMap is the hash map which generated by the command line parser which match the option name and its value appropriately.
+     * @throws Exception if errors occur when reading data or writing the profile.
+     */
+    public static void profileAndWrite(Map<String, Object> optionsMap) throws Exception {
+        String inputPath = optionsMap.get("--input-ion-data").toString();
+        String outputFile = optionsMap.get("<output_file>").toString();
+        int parallelism = optionsMap.get("--parallelism") == null ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(optionsMap.get("--parallelism").toString());
+        DataProfile profile = profile(listFiles(new File(inputPath)), parallelism);
+        profile.write(outputFile);
+        DataConstructor.printInfo(outputFile);
+    }
+
+    /**
+     * List the files which will be profiled. If the input is a directory, all files under the directory and its subdirectories are included.
+     * @param input is the file or directory of Ion data.
+     * @return the list of files in a stable order.
+     */
+    static List<File> listFiles(File input) {
+        List<File> files = new ArrayList<>();
+        if (input.isDirectory()) {
+            File[] children = input.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    files.addAll(listFiles(child));
+                }
+            }
+        } else if (input.isFile()) {
+            files.add(input);
+        } else {
+            throw new IllegalArgumentException("The input Ion data does not exist: " + input);
+        }
+        return files;
+    }
+
+    /**
+     * Profile the provided files in parallel.
+     * @param files are the files of Ion data, in text or binary.
+     * @param parallelism is the maximum number of files which are profiled at the same time.
+     * @return the profile of all files.
+     * @throws Exception if errors occur when reading data.
+     */
+    public static DataProfile profile(List<File> files, int parallelism) throws Exception {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism should be at least 1.");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, files.size())));
+        try {
+            List<Future<PathStatistics>> results = new ArrayList<>(files.size());
+            for (File file : files) {
+                results.add(executor.submit(() -> profileFile(file)));
+            }
+            PathStatistics root = new PathStatistics();
+            // Merge in the order of files, so that the profile does not depend on the thread scheduling.
+            for (Future<PathStatistics> result : results) {
+                try {
+                    root.merge(result.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+            return new DataProfile(files.size(), root);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stream one file and collect the statistics of all top-level values.
+     * @param file is the file of Ion data.
+     * @return the statistics of the top-level values in the file.
+     * @throws Exception if errors occur when reading data.
+     */
+    private static PathStatistics profileFile(File file) throws Exception {
+        PathStatistics statistics = new PathStatistics();
+        try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(file)))) {
+            while (reader.next() != null) {
+                statistics.record(reader);
+            }
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,367 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measure the CPU time and the allocated bytes of the generating thread through ThreadMXBean, and break them down into the phases of the
+ * generation and the Ion types constructed by DataConstructor.constructIonData:
+ *   schema_parsing           loading the schema and parsing the type definition, which happens once.
+ *   constraint_resolution    copying the constraint map, selecting the 'any_of' and 'one_of' branches and looking up the constraints of every value.
+ *   sampling                 constructing the values from the resolved constraints.
+ *   serialization            writing the values and flushing the writer.
+ * The cost of every constructIonData call is attributed to the Ion type of the constructed value, excluding the nested values, so the types add up
+ * to the cost of the generation. Only the generating thread is measured, the disk writes of the pipelined writer are not included, while the time
+ * and the collections of the garbage collectors are reported for the whole JVM.
+ * Reading the counters costs a few hundred nanoseconds, which is included in the reported costs, so the profile is meant for comparing the
+ * phases and the types of a schema rather than for measuring the throughput.
+ * The counters are read for the calling thread, so the profiler can be created on another thread, while it should be used by one thread at a time.
+ * NONE is the profiler whose methods return immediately, which is used when the cost is not measured. The report is written as:
+ * ion_data_cost_profile::{ values: <INT>, bytes: <INT>, wall_seconds: <FLOAT>, cpu_nanos: <INT>, allocated_bytes: <INT>,
+ *                          per_value: { cpu_nanos: <FLOAT>, allocated_bytes: <FLOAT>, encoded_bytes: <FLOAT> },
+ *                          phases: { <PHASE>: { cpu_nanos: <INT>, allocated_bytes: <INT>, cpu_fraction: <FLOAT>, allocation_fraction: <FLOAT> }... },
+ *                          types: { <TYPE>: { count: <INT>, cpu_nanos: <INT>, allocated_bytes: <INT>, cpu_nanos_per_value: <FLOAT>,
+ *                                             allocated_bytes_per_value: <FLOAT> }... },
+ *                          gc: { collections: <INT>, seconds: <FLOAT> } }
+ */
+public class CostProfiler {
+    public static final String SCHEMA_PARSING = "schema_parsing";
+    public static final String CONSTRAINT_RESOLUTION = "constraint_resolution";
+    public static final String SAMPLING = "sampling";
+    public static final String SERIALIZATION = "serialization";
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double MILLIS_PER_SECOND = 1e3;
+    public static final CostProfiler NONE = new CostProfiler(false);
+    private final boolean enabled;
+    private final com.sun.management.ThreadMXBean threads;
+    private final long startNanos = System.nanoTime();
+    private final long startCollections;
+    private final long startCollectionMillis;
+    private final long[] typeCounts = new long[IonType.values().length];
+    private final long[] typeCpu = new long[IonType.values().length];
+    private final long[] typeAllocated = new long[IonType.values().length];
+    private long values;
+    private long schemaParsingCpu;
+    private long schemaParsingAllocated;
+    private long constraintCpu;
+    private long constraintAllocated;
+    private long samplingCpu;
+    private long samplingAllocated;
+    private long serializationCpu;
+    private long serializationAllocated;
+    // The counters at the beginning of the schema parsing or the serialization.
+    private long phaseStartCpu;
+    private long phaseStartAllocated;
+    // The frames of the nested constructIonData calls, which are reused across values.
+    private Frame[] frames = new Frame[16];
+    private int depth;
+
+    /**
+     * Initializing the newly created CostProfiler object.
+     */
+    public CostProfiler() {
+        this(true);
+    }
+
+    /**
+     * Initializing the newly created CostProfiler object.
+     * @param enabled is false for NONE, which neither reads the counters nor requires the JVM to support them.
+     */
+    private CostProfiler(boolean enabled) {
+        this.enabled = enabled;
+        this.threads = enabled ? threadMXBean() : null;
+        long collections = 0;
+        long collectionMillis = 0;
+        if (enabled) {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                collections += Math.max(0, collector.getCollectionCount());
+                collectionMillis += Math.max(0, collector.getCollectionTime());
+            }
+        }
+        this.startCollections = collections;
+        this.startCollectionMillis = collectionMillis;
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new Frame();
+        }
+    }
+
+    /**
+     * Get the ThreadMXBean which measures the CPU time and the allocated bytes of threads, and enable both measurements.
+     * @return the ThreadMXBean of the JVM.
+     */
+    static com.sun.management.ThreadMXBean threadMXBean() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isCurrentThreadCpuTimeSupported()) {
+            throw new IllegalStateException("The CPU time of the current thread is not supported by the current JVM.");
+        }
+        if (!(threads instanceof com.sun.management.ThreadMXBean) || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("The allocated bytes of the current thread are not supported by the current JVM.");
+        }
+        threads.setThreadCpuTimeEnabled(true);
+        ((com.sun.management.ThreadMXBean) threads).setThreadAllocatedMemoryEnabled(true);
+        return (com.sun.management.ThreadMXBean) threads;
+    }
+
+    /**
+     * Begin loading the schema and parsing the type definition.
+     */
+    public void beginSchemaParsing() {
+        if (!enabled) {
+            return;
+        }
+        phaseStartCpu = cpu();
+        phaseStartAllocated = allocated();
+    }
+
+    /**
+     * End loading the schema and parsing the type definition.
+     */
+    public void endSchemaParsing() {
+        if (!enabled) {
+            return;
+        }
+        schemaParsingCpu += cpu() - phaseStartCpu;
+        schemaParsingAllocated += allocated() - phaseStartAllocated;
+    }
+
+    /**
+     * Begin writing a value or flushing the writer.
+     */
+    void beginSerialization() {
+        if (!enabled) {
+            return;
+        }
+        phaseStartCpu = cpu();
+        phaseStartAllocated = allocated();
+    }
+
+    /**
+     * End writing a value or flushing the writer.
+     */
+    void endSerialization() {
+        if (!enabled) {
+            return;
+        }
+        serializationCpu += cpu() - phaseStartCpu;
+        serializationAllocated += allocated() - phaseStartAllocated;
+    }
+
+    /**
+     * Begin a constructIonData call, which might be nested in the construction of a container.
+     */
+    void enterValue() {
+        if (!enabled) {
+            return;
+        }
+        if (depth == frames.length) {
+            Frame[] grown = new Frame[frames.length * 2];
+            System.arraycopy(frames, 0, grown, 0, frames.length);
+            for (int i = frames.length; i < grown.length; i++) {
+                grown[i] = new Frame();
+            }
+            frames = grown;
+        }
+        Frame frame = frames[depth++];
+        frame.childCpu = 0;
+        frame.childAllocated = 0;
+        frame.startCpu = cpu();
+        frame.startAllocated = allocated();
+        frame.constraintCpu = frame.startCpu;
+        frame.constraintAllocated = frame.startAllocated;
+    }
+
+    /**
+     * Mark the end of the constraint resolution of the current constructIonData call, the rest of the call is sampling.
+     */
+    void constraintsResolved() {
+        if (!enabled) {
+            return;
+        }
+        Frame frame = frames[depth - 1];
+        frame.constraintCpu = cpu();
+        frame.constraintAllocated = allocated();
+    }
+
+    /**
+     * End the current constructIonData call, and attribute its cost excluding the nested values to the Ion type of the constructed value.
+     * @param type is the Ion type of the constructed value, or null if the call failed, in which case its frame is discarded without attributing its cost,
+     *             while its cost is still excluded from the enclosing value, so the type of the enclosing value is not charged for the failed value.
+     */
+    void exitValue(IonType type) {
+        if (!enabled) {
+            return;
+        }
+        long endCpu = cpu();
+        long endAllocated = allocated();
+        Frame frame = frames[--depth];
+        long totalCpu = endCpu - frame.startCpu;
+        long totalAllocated = endAllocated - frame.startAllocated;
+        if (type == null) {
+            if (depth > 0) {
+                frames[depth - 1].childCpu += totalCpu;
+                frames[depth - 1].childAllocated += totalAllocated;
+            }
+            return;
+        }
+        long selfCpu = totalCpu - frame.childCpu;
+        long selfAllocated = totalAllocated - frame.childAllocated;
+        long resolutionCpu = frame.constraintCpu - frame.startCpu;
+        long resolutionAllocated = frame.constraintAllocated - frame.startAllocated;
+        constraintCpu += resolutionCpu;
+        constraintAllocated += resolutionAllocated;
+        samplingCpu += selfCpu - resolutionCpu;
+        samplingAllocated += selfAllocated - resolutionAllocated;
+        typeCounts[type.ordinal()]++;
+        typeCpu[type.ordinal()] += selfCpu;
+        typeAllocated[type.ordinal()] += selfAllocated;
+        if (depth > 0) {
+            frames[depth - 1].childCpu += totalCpu;
+            frames[depth - 1].childAllocated += totalAllocated;
+        } else {
+            values++;
+        }
+    }
+
+    /**
+     * Get the number of constructed top-level values.
+     * @return the number of values.
+     */
+    public long getValues() {
+        return values;
+    }
+
+    /**
+     * Get the number of constructed values of the provided type, including the nested values.
+     * @param type is the Ion type.
+     * @return the number of values.
+     */
+    public long getTypeCount(IonType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    /**
+     * Write the report into an Ion text file.
+     * @param totalBytes is the size of the generated data.
+     * @param reportFile is the path of the report.
+     * @throws IOException if errors occur when writing the report.
+     */
+    public void write(long totalBytes, String reportFile) throws IOException {
+        IonSystem system = ReadGeneralConstraints.SYSTEM;
+        long collections = -startCollections;
+        long collectionMillis = -startCollectionMillis;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(0, collector.getCollectionCount());
+            collectionMillis += Math.max(0, collector.getCollectionTime());
+        }
+        long totalCpu = schemaParsingCpu + constraintCpu + samplingCpu + serializationCpu;
+        long totalAllocated = schemaParsingAllocated + constraintAllocated + samplingAllocated + serializationAllocated;
+        IonStruct report = system.newEmptyStruct();
+        report.setTypeAnnotations("ion_data_cost_profile");
+        report.add("values", system.newInt(values));
+        report.add("bytes", system.newInt(totalBytes));
+        report.add("wall_seconds", system.newFloat((System.nanoTime() - startNanos) / NANOS_PER_SECOND));
+        report.add("cpu_nanos", system.newInt(totalCpu));
+        report.add("allocated_bytes", system.newInt(totalAllocated));
+        IonStruct perValue = system.newEmptyStruct();
+        perValue.add("cpu_nanos", system.newFloat(average(totalCpu, values)));
+        perValue.add("allocated_bytes", system.newFloat(average(totalAllocated, values)));
+        perValue.add("encoded_bytes", system.newFloat(average(totalBytes, values)));
+        report.add("per_value", perValue);
+        IonStruct phases = system.newEmptyStruct();
+        phases.add(SCHEMA_PARSING, phase(system, schemaParsingCpu, schemaParsingAllocated, totalCpu, totalAllocated));
+        phases.add(CONSTRAINT_RESOLUTION, phase(system, constraintCpu, constraintAllocated, totalCpu, totalAllocated));
+        phases.add(SAMPLING, phase(system, samplingCpu, samplingAllocated, totalCpu, totalAllocated));
+        phases.add(SERIALIZATION, phase(system, serializationCpu, serializationAllocated, totalCpu, totalAllocated));
+        report.add("phases", phases);
+        IonStruct types = system.newEmptyStruct();
+        for (IonType type : IonType.values()) {
+            int index = type.ordinal();
+            if (typeCounts[index] > 0) {
+                IonStruct typeCost = system.newEmptyStruct();
+                typeCost.add("count", system.newInt(typeCounts[index]));
+                typeCost.add("cpu_nanos", system.newInt(typeCpu[index]));
+                typeCost.add("allocated_bytes", system.newInt(typeAllocated[index]));
+                typeCost.add("cpu_nanos_per_value", system.newFloat(average(typeCpu[index], typeCounts[index])));
+                typeCost.add("allocated_bytes_per_value", system.newFloat(average(typeAllocated[index], typeCounts[index])));
+                types.add(type.toString().toLowerCase(), typeCost);
+            }
+        }
+        report.add("types", types);
+        IonStruct gc = system.newEmptyStruct();
+        gc.add("collections", system.newInt(collections));
+        gc.add("seconds", system.newFloat(collectionMillis / MILLIS_PER_SECOND));
+        report.add("gc", gc);
+        try (OutputStream outputStream = new FileOutputStream(reportFile);
+             IonWriter writer = IonTextWriterBuilder.pretty().build(outputStream)) {
+            report.writeTo(writer);
+        }
+    }
+
+    /**
+     * Construct the report of one phase.
+     * @param system is the IonSystem which constructs the report.
+     * @param cpu is the CPU time of the phase in nanoseconds.
+     * @param allocated is the number of bytes allocated in the phase.
+     * @param totalCpu is the CPU time of all phases.
+     * @param totalAllocated is the number of bytes allocated in all phases.
+     * @return the report of the phase.
+     */
+    private static IonStruct phase(IonSystem system, long cpu, long allocated, long totalCpu, long totalAllocated) {
+        IonStruct phase = system.newEmptyStruct();
+        phase.add("cpu_nanos", system.newInt(cpu));
+        phase.add("allocated_bytes", system.newInt(allocated));
+        phase.add("cpu_fraction", system.newFloat(average(cpu, totalCpu)));
+        phase.add("allocation_fraction", system.newFloat(average(allocated, totalAllocated)));
+        return phase;
+    }
+
+    /**
+     * Divide the total by the count.
+     * @param total is the dividend.
+     * @param count is the divisor.
+     * @return the quotient, or 0 if the count is 0.
+     */
+    private static double average(long total, long count) {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Read the CPU time of the current thread.
+     * @return the CPU time in nanoseconds.
+     */
+    private long cpu() {
+        return threads.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Read the bytes allocated by the current thread.
+     * @return the number of allocated bytes.
+     */
+    private long allocated() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * The counters of one constructIonData call.
+     */
+    private static final class Frame {
+        private long startCpu;
+        private long startAllocated;
+        // The counters when the constraint resolution ends.
+        private long constraintCpu;
+        private long constraintAllocated;
+        // The cost of the nested constructIonData calls, which is excluded from the cost of this call.
+        private long childCpu;
+        private long childAllocated;
+    }
+}
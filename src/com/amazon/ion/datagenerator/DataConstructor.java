@@ -26,6 +26,8 @@ import com.amazon.ion.IonType;
 import com.amazon.ion.IonValue;
 import com.amazon.ion.IonWriter;
 import com.amazon.ion.Timestamp;
+import com.amazon.ion.datagenerator.profile.Histogram;
+import com.amazon.ion.datagenerator.profile.PathStatistics;
 import com.amazon.ion.datagenerator.schema.ReparsedType;
 import com.amazon.ion.datagenerator.schema.constraints.Annotations;
 import com.amazon.ion.datagenerator.schema.constraints.Contains;
@@ -38,6 +40,7 @@ import com.amazon.ion.datagenerator.schema.constraints.Regex;
 import com.amazon.ion.datagenerator.schema.constraints.ReparsedConstraint;
 import com.amazon.ion.datagenerator.schema.constraints.TimestampPrecision;
 import com.amazon.ion.datagenerator.schema.constraints.TypeName;
+import com.amazon.ion.datagenerator.schema.constraints.Union;
 import com.amazon.ion.datagenerator.schema.constraints.ValidValues;
 import com.amazon.ion.system.IonBinaryWriterBuilder;
 import com.amazon.ion.system.IonReaderBuilder;
@@ -203,9 +206,55 @@ class DataConstructor {
     /**
      * Constructing data which is conformed with provided type definition.
      * @param parsedTypeDefinition is parsed from ion schema file as IonStruct format, it contains the top-level constraints.
+     * @param random is the random number generator.
+     * @return constructed ion data.
+     */
+    public static IonValue constructIonData(ReparsedType parsedTypeDefinition, Random random) {
+        return constructIonData(parsedTypeDefinition, random, PathStatistics.EMPTY);
+    }
+
+    /**
+     * Constructing data which is conformed with provided type definition. The aspects which are not specified by the type definition,
+     * e.g. string lengths and container lengths, are sampled from the statistics observed at the same path of a profiled corpus.
+     * @param parsedTypeDefinition is parsed from ion schema file as IonStruct format, it contains the top-level constraints.
+     * @param random is the random number generator.
+     * @param profile is the statistics observed at the path of the constructed data, PathStatistics.EMPTY for the default samplers.
+     * @return constructed ion data.
+     */
+    public static IonValue constructIonData(ReparsedType parsedTypeDefinition, Random random, PathStatistics profile) {
+        return constructIonData(parsedTypeDefinition, profile, new GenerationContext(random));
+    }
+
+    /**
+     * Constructing data which is conformed with provided type definition, while the cost is measured by the profilers of the context.
+     * @param parsedTypeDefinition is parsed from ion schema file as IonStruct format, it contains the top-level constraints.
+     * @param profile is the statistics observed at the path of the constructed data, PathStatistics.EMPTY for the default samplers.
+     * @param context provides the random number generator and the profilers, which are shared by the nested values.
      * @return constructed ion data.
      */
-    public static IonValue constructIonData(ReparsedType parsedTypeDefinition) {
+    static IonValue constructIonData(ReparsedType parsedTypeDefinition, PathStatistics profile, GenerationContext context) {
+        CostProfiler costProfiler = context.getCostProfiler();
+        costProfiler.enterValue();
+        IonType constructedType = null;
+        try {
+            IonValue result = constructValue(parsedTypeDefinition, profile, context);
+            constructedType = result.getType();
+            return result;
+        } finally {
+            // A failed call discards its frame, so the nesting depth of the profiler is restored when the exception propagates.
+            costProfiler.exitValue(constructedType);
+        }
+    }
+
+    /**
+     * Resolving the constraints of the provided type definition and constructing the value, while constructIonData measures its cost.
+     * @param parsedTypeDefinition is parsed from ion schema file as IonStruct format, it contains the top-level constraints.
+     * @param profile is the statistics observed at the path of the constructed data, PathStatistics.EMPTY for the default samplers.
+     * @param context provides the random number generator and the profilers.
+     * @return constructed ion data.
+     */
+    private static IonValue constructValue(ReparsedType parsedTypeDefinition, PathStatistics profile, GenerationContext context) {
+        Random random = context.getRandom();
         IonValue result;
         // The first step is to check whether parsedTypeDefinition contains 'valid_values'. The reason we prioritize checking
         // 'valid_values' is that the constraint 'type' might not be contained in the type definition, in that case we cannot trigger
@@ -214,56 +263,63 @@ class DataConstructor {
         Map<String, ReparsedConstraint> constraintMap = parsedTypeDefinition.getConstraintMap();
         Map<String, ReparsedConstraint> constraintMapClone = new HashMap<>();
         constraintMapClone.putAll(constraintMap);
-        ValidValues validValues = (ValidValues) constraintMap.get("valid_values");
+        // Select one branch for 'any_of' or 'one_of' and merge its constraints into the current type definition.
+        // The selected branch might contain another 'any_of' or 'one_of', so the process repeats until no branch remains.
+        Union union;
+        while ((union = removeUnion(constraintMapClone)) != null) {
+            constraintMapClone.putAll(union.getRandomBranch(random).getConstraintMap());
+        }
+        ValidValues validValues = (ValidValues) constraintMapClone.get("valid_values");
         Annotations annotations = (Annotations)constraintMapClone.remove("annotations");
         TypeName type = (TypeName)constraintMapClone.remove("type");
+        context.getCostProfiler().constraintsResolved();
         if (validValues != null && !validValues.isRange()) {
-            result = getRandomValueFromList(validValues.getValidValues());
+            result = getRandomValueFromList(validValues.getValidValues(), random);
         } else if (type == null) {
             throw new IllegalStateException("Constraint 'type' is required.");
         } else {
             switch (type.getTypeName()) {
                 case FLOAT:
-                    result = SYSTEM.newFloat(constructFloat(constraintMapClone));
+                    result = SYSTEM.newFloat(constructFloat(constraintMapClone, random, profile));
                     break;
                 case SYMBOL:
-                    result = SYSTEM.newSymbol(constructString(constraintMapClone));
+                    result = SYSTEM.newSymbol(constructString(constraintMapClone, random, profile));
                     break;
                 case INT:
-                    result = SYSTEM.newInt(constructInt(constraintMapClone));
+                    result = SYSTEM.newInt(constructInt(constraintMapClone, random, profile));
                     break;
                 case STRING:
-                    result = SYSTEM.newString(constructString(constraintMapClone));
+                    result = SYSTEM.newString(constructString(constraintMapClone, random, profile));
                     break;
                 case DECIMAL:
-                    result = SYSTEM.newDecimal(constructDecimal(constraintMapClone));
+                    result = SYSTEM.newDecimal(constructDecimal(constraintMapClone, random, profile));
                     break;
                 case TIMESTAMP:
-                    result = SYSTEM.newTimestamp(constructTimestamp(constraintMapClone));
+                    result = SYSTEM.newTimestamp(constructTimestamp(constraintMapClone, random));
                     break;
                 case BLOB:
-                    result = SYSTEM.newBlob(constructLobs(constraintMapClone));
+                    result = SYSTEM.newBlob(constructLobs(constraintMapClone, random, profile));
                     break;
                 case CLOB:
-                    result = SYSTEM.newClob(constructLobs(constraintMapClone));
+                    result = SYSTEM.newClob(constructLobs(constraintMapClone, random, profile));
                     break;
                 case STRUCT:
-                    result = constructIonStruct(constraintMapClone);
+                    result = constructIonStruct(constraintMapClone, profile, context);
                     break;
                 case LIST:
                     IonList listContainer = SYSTEM.newEmptyList();
-                    result = constructSequenceTypeData(constraintMapClone, listContainer);
+                    result = constructSequenceTypeData(constraintMapClone, listContainer, profile, context);
                     break;
                 case SEXP:
                     IonSexp sexpContainer = SYSTEM.newEmptySexp();
-                    result = constructSequenceTypeData(constraintMapClone, sexpContainer);
+                    result = constructSequenceTypeData(constraintMapClone, sexpContainer, profile, context);
                     break;
                 default:
                     throw new IllegalStateException(type + " is not supported.");
             }
         }
-        if (annotations != null && annotations.getAnnotations() != null) {
-            IonList annotationsList = annotations.getAnnotations();
+        IonList annotationsList = annotations == null ? null : annotations.getAnnotations(random);
+        if (annotationsList != null) {
             for (int i = 0; i < annotationsList.size(); i++) {
                 result.addTypeAnnotation(annotationsList.get(i).toString());
             }
@@ -271,13 +327,47 @@ class DataConstructor {
         return result;
     }
 
+    /**
+     * Constructing a value nested in a container, and attributing its cost to the path of the container appended by the provided segment.
+     * @param parsedTypeDefinition is the type definition of the nested value.
+     * @param profile is the statistics observed at the path of the nested value.
+     * @param context provides the random number generator and the profilers.
+     * @param segment is the field name, or one of PathCostProfiler.ELEMENTS and PathCostProfiler.ANY_FIELD.
+     * @return the constructed nested value.
+     */
+    private static IonValue constructNestedIonData(ReparsedType parsedTypeDefinition, PathStatistics profile, GenerationContext context, String segment) {
+        PathCostProfiler pathCostProfiler = context.getPathCostProfiler();
+        pathCostProfiler.enterValue(segment);
+        IonValue value = null;
+        try {
+            value = constructIonData(parsedTypeDefinition, profile, context);
+            return value;
+        } finally {
+            pathCostProfiler.exitValue(value);
+        }
+    }
+
+    /**
+     * Remove the logic constraint 'any_of' or 'one_of' from the constraint map.
+     * @param constraintMapClone collects the constraints from ISL file, the key represents the name of constraints,
+     * and the value is constraint value in ReparsedConstraint format.
+     * @return the removed Union, or null if there is no logic constraint in the map.
+     */
+    private static Union removeUnion(Map<String, ReparsedConstraint> constraintMapClone) {
+        Union anyOf = (Union) constraintMapClone.remove("any_of");
+        return anyOf != null ? anyOf : (Union) constraintMapClone.remove("one_of");
+    }
+
     /**
      * Constructing IonStruct which is aligned with the constraints provided in the constraintMap.
      * @param constraintMapClone collects the constraints from ISL file, the key represents the name of constraints,
      * and the value is constraint value in ReparsedConstraint format.
+     * @param profile is the statistics observed at the path of the constructed data.
+     * @param context provides the random number generator and the profilers.
      * @return the constructed IonStruct value.
      */
-    private static IonStruct constructIonStruct(Map<String, ReparsedConstraint> constraintMapClone) {
+    private static IonStruct constructIonStruct(Map<String, ReparsedConstraint> constraintMapClone, PathStatistics profile, GenerationContext context) {
+        Random random = context.getRandom();
         Fields fields = (Fields)constraintMapClone.remove("fields");
         Element element = (Element)constraintMapClone.remove("element");
         QuantifiableConstraints container_length = (QuantifiableConstraints)constraintMapClone.remove("container_length");
@@ -289,9 +379,10 @@ class DataConstructor {
         if (element != null && fields != null) {
             throw new IllegalStateException("Can only handle one of : " + VALID_STRUCT_CONSTRAINTS);
         } else if (element != null) {
-            int length = container_length == null ? DEFAULT_CONTAINER_LENGTH : container_length.getRange().getRandomQuantifiableValueFromRange().intValue();
+            int length = container_length == null ? defaultContainerLength(random, profile) : container_length.getRange().getRandomQuantifiableValueFromRange(random).intValue();
             for (int i = 0; i < length; i++) {
-                constructedIonStruct.add(constructStringFromCodepointLength(GeneratorOptions.random.nextInt(20)), constructIonData(element.getElement()));
+                // The field names are random, so the values cannot be matched with the statistics of any observed field.
+                constructedIonStruct.add(constructStringFromCodepointLength(random.nextInt(20), random, PathStatistics.EMPTY), constructNestedIonData(element.getElement(), PathStatistics.EMPTY, context, PathCostProfiler.ANY_FIELD));
             }
         } else {
             Map<String, ReparsedType> fieldMap = fields.getFieldMap();
@@ -300,9 +391,9 @@ class DataConstructor {
                 // Get the type definition for each field.
                 ReparsedType fieldTypeDefinition = entry.getValue();
                 // 'occurs' included in the field constraint determines the occurrences of the specified field.
-                int occurTime = ReparsedType.getOccurs(fieldTypeDefinition.getConstraintStruct());
+                int occurTime = ReparsedType.getOccurs(fieldTypeDefinition.getConstraintStruct(), random);
                 for (int i = 0; i < occurTime; i++) {
-                    constructedIonStruct.add(entry.getKey(), constructIonData(fieldTypeDefinition));
+                    constructedIonStruct.add(entry.getKey(), constructNestedIonData(fieldTypeDefinition, profile.getField(entry.getKey()), context, entry.getKey()));
                 }
             }
         }
@@ -314,9 +405,13 @@ class DataConstructor {
      * @param constraintMapClone collects the constraints from ISL file, the key represents the name of constraints,
      * and the value is constraint value in ReparsedConstraint format.
      * @param container represents one of the element from set (IonList | IonSexp).
+     * @param profile is the statistics observed at the path of the constructed data.
+     * @param context provides the random number generator and the profilers.
      * @return the constructed IonSequence value.
      */
-    private static IonSequence constructSequenceTypeData(Map<String, ReparsedConstraint> constraintMapClone, IonSequence container) {
+    private static IonSequence constructSequenceTypeData(Map<String, ReparsedConstraint> constraintMapClone, IonSequence container, PathStatistics profile,
+                                                         GenerationContext context) {
+        Random random = context.getRandom();
         Contains contains = (Contains)constraintMapClone.remove("contains");
         OrderedElements elementsConstraints = (OrderedElements)constraintMapClone.remove("ordered_elements");
         Element element = (Element)constraintMapClone.remove("element");
@@ -328,45 +423,58 @@ class DataConstructor {
         if ((contains != null && elementsConstraints != null) || (elementsConstraints != null && element != null) || (contains != null && element != null)) {
             throw new IllegalStateException("Can only handle one of : " + VALID_SEQUENCE_CONSTRAINTS);
         } else if (element != null) {
-            int length = container_length == null ? DEFAULT_CONTAINER_LENGTH : container_length.getRange().getRandomQuantifiableValueFromRange().intValue();
+            int length = container_length == null ? defaultContainerLength(random, profile) : container_length.getRange().getRandomQuantifiableValueFromRange(random).intValue();
             for (int i = 0 ; i < length; i++) {
-                container.add(constructIonData(element.getElement()));
+                container.add(constructNestedIonData(element.getElement(), profile.getElements(), context, PathCostProfiler.ELEMENTS));
             }
             return container;
         } else if (contains != null) {
             // TODO: The return IonList should also include other random values except the values provided by 'contains'.
-            return contains.getExpectedContainedValues();
+            return (IonSequence) contains.getExpectedContainedValues().clone();
         } else {
             ArrayList<ReparsedType> orderedElementsConstraints = elementsConstraints.getOrderedElementsConstraints();
             for (ReparsedType constraint : orderedElementsConstraints) {
                 // 'occurs' included in the constraint of 'ordered_element' indicates the occurrences of the specified element.
-                int occurTime = ReparsedType.getOccurs(constraint.getConstraintStruct());
+                int occurTime = ReparsedType.getOccurs(constraint.getConstraintStruct(), random);
                 for (int i = 0; i < occurTime; i++) {
-                    container.add(constructIonData(constraint));
+                    container.add(constructNestedIonData(constraint, profile.getElements(), context, PathCostProfiler.ELEMENTS));
                 }
             }
             return container;
         }
     }
 
+    /**
+     * Get the container length when 'container_length' is not provided.
+     * @param random is the random number generator.
+     * @param profile is the statistics observed at the path of the constructed container.
+     * @return the observed container length, or DEFAULT_CONTAINER_LENGTH if no container has been observed.
+     */
+    private static int defaultContainerLength(Random random, PathStatistics profile) {
+        return profile.getContainerLengths().isEmpty() ? DEFAULT_CONTAINER_LENGTH : (int) profile.getContainerLengths().sample(random);
+    }
+
     /**
      * Get a random IonValue from IonList.
      * @param values represents IonList.
+     * @param random is the random number generator.
      * @return the randomly chosen IonValue.
      */
-    public static IonValue getRandomValueFromList(IonList values) {
-        Random random = new Random();
+    public static IonValue getRandomValueFromList(IonList values, Random random) {
         int randomIndex = random.nextInt(values.size());
-        return values.get(randomIndex);
+        // The value is cloned, so that the generated value will not be attached to the type definition.
+        return values.get(randomIndex).clone();
     }
 
     /**
      * Construct string which is conformed with the constraints provided in ISL.
      * @param constraintMapClone collects the constraints from ISL file, the key represents the name of constraints,
      * and the value is constraint value in ReparsedConstraint format.
+     * @param random is the random number generator.
+     * @param profile is the statistics observed at the path of the constructed data.
      * @return constructed string.
      */
-    public static String constructString(Map<String, ReparsedConstraint> constraintMapClone) {
+    public static String constructString(Map<String, ReparsedConstraint> constraintMapClone, Random random, PathStatistics profile) {
         Regex regex = (Regex) constraintMapClone.remove("regex");
         QuantifiableConstraints codepoint_length = (QuantifiableConstraints) constraintMapClone.remove("codepoint_length");
         if (!constraintMapClone.isEmpty()) {
@@ -377,24 +485,25 @@ class DataConstructor {
         } else if (regex != null) {
             String pattern = regex.getPattern();
             RgxGen rgxGen = new RgxGen(pattern);
-            return rgxGen.generate(GeneratorOptions.random);
+            return rgxGen.generate(random);
         } else if (codepoint_length != null) {
-            int length = codepoint_length.getRange().getRandomQuantifiableValueFromRange().intValue();
-            return constructStringFromCodepointLength(length);
+            int length = codepoint_length.getRange().getRandomQuantifiableValueFromRange(random).intValue();
+            return constructStringFromCodepointLength(length, random, profile);
         } else {
-            // If there is no constraints provided, a randomly constructed string with
-            // preset Unicode codepoints length will be generated.
-            return constructStringFromCodepointLength(GeneratorOptions.random.nextInt(20));
+            // If there is no constraints provided, a randomly constructed string with the observed
+            // or preset Unicode codepoints length will be generated.
+            return constructStringFromCodepointLength(PathStatistics.sampleOrDefault(profile.getCodepointLengths(), random, 20), random, profile);
         }
     }
 
     /**
      * Generate unicode codepoint randomly which matches the character from [A-Z] and [a-z].
+     * @param random is the random number generator.
      * @return generated codepoint.
      */
-    private static int getCodePoint() {
-        int index = GeneratorOptions.random.nextInt(20);
-        int randomIndex = GeneratorOptions.random.nextInt(26);
+    private static int getCodePoint(Random random) {
+        int index = random.nextInt(20);
+        int randomIndex = random.nextInt(26);
         if (index < 10) {
             // Randomly generate the unicode of character from [A-Z].
             return randomIndex + ASCII_CODE_UPPERCASE_A;
@@ -407,12 +516,16 @@ class DataConstructor {
     /**
      * Construct string which is conformed with the provided codepoint_length.
      * @param codePointsLengthBound represents the exact number of Unicode codepoints in a string or symbol.
+     * @param random is the random number generator.
+     * @param profile is the statistics observed at the path of the constructed string, the observed codepoints are used if provided.
      * @return the constructed string.
      */
-    private static String constructStringFromCodepointLength(int codePointsLengthBound) {
+    private static String constructStringFromCodepointLength(int codePointsLengthBound, Random random, PathStatistics profile) {
         StringBuilder sb = new StringBuilder();
+        Histogram codepoints = profile.getCodepoints();
+        boolean observed = !codepoints.isEmpty();
         for (int i = 0; i < codePointsLengthBound; i++) {
-            int codePoint = getCodePoint();
+            int codePoint = observed ? (int) codepoints.sample(random) : getCodePoint(random);
             sb.appendCodePoint(codePoint);
         }
         String constructedString = sb.toString();
@@ -423,9 +536,11 @@ class DataConstructor {
      * Construct the float which is conformed with the constraints provided in ISL.
      * @param constraintMapClone collects the constraints from ISL file, the key represents the name of constraints,
      * and the value is constraint value in ReparsedConstraint format.
+     * @param random is the random number generator.
+     * @param profile is the statistics observed at the path of the constructed data.
      * @return the constructed double value.
      */
-    public static Double constructFloat(Map<String, ReparsedConstraint> constraintMapClone) {
+    public static Double constructFloat(Map<String, ReparsedConstraint> constraintMapClone, Random random, PathStatistics profile) {
         // In the process of generating IonFloat, there is no type-specified constraints. For this step we
         // only consider the general constraint 'valid_values'.
         ValidValues validValues = (ValidValues) constraintMapClone.remove("valid_values");
@@ -433,9 +548,13 @@ class DataConstructor {
             throw new IllegalStateException ("Found unhandled constraints : " + constraintMapClone.values());
         }
         if (validValues != null) {
-            return validValues.getRange().getRandomQuantifiableValueFromRange().doubleValue();
+            return validValues.getRange().getRandomQuantifiableValueFromRange(random).doubleValue();
+        } else if (profile.getFloatRange() != null) {
+            // Generate a float within the observed range.
+            double[] range = profile.getFloatRange();
+            return range[0] + random.nextDouble() * (range[1] - range[0]);
         } else {
-            return GeneratorOptions.random.nextDouble();
+            return random.nextDouble();
         }
     }
 
@@ -443,29 +562,33 @@ class DataConstructor {
      * Construct the decimal which is conformed with the constraints provided in ISL.
      * @param constraintMapClone collects the constraints from ISL file, the key represents the name of constraints,
      * and the value is constraint value in ReparsedConstraint format.
+     * @param random is the random number generator.
+     * @param profile is the statistics observed at the path of the constructed data.
      * @return the constructed decimal.
      */
-    public static BigDecimal constructDecimal(Map<String, ReparsedConstraint> constraintMapClone) {
-        // If there is no constraints provided, assign scale and precision with default values.
-        int scaleValue = GeneratorOptions.random.nextInt(DEFAULT_SCALE_UPPER_BOUND - DEFAULT_SCALE_LOWER_BOUND + 1) + DEFAULT_SCALE_LOWER_BOUND;
-        int precisionValue = GeneratorOptions.random.nextInt(DEFAULT_PRECISION);
+    public static BigDecimal constructDecimal(Map<String, ReparsedConstraint> constraintMapClone, Random random, PathStatistics profile) {
+        // If there is no constraints provided, assign scale and precision with the observed or default values.
+        int scaleValue = profile.getDecimalScales().isEmpty()
+                ? random.nextInt(DEFAULT_SCALE_UPPER_BOUND - DEFAULT_SCALE_LOWER_BOUND + 1) + DEFAULT_SCALE_LOWER_BOUND
+                : (int) profile.getDecimalScales().sample(random);
+        int precisionValue = PathStatistics.sampleOrDefault(profile.getDecimalPrecisions(), random, DEFAULT_PRECISION);
         QuantifiableConstraints scale = (QuantifiableConstraints) constraintMapClone.remove("scale");
         QuantifiableConstraints precision = (QuantifiableConstraints) constraintMapClone.remove("precision");
         ValidValues validValues = (ValidValues) constraintMapClone.remove("valid_values");
         StringBuilder rs = new StringBuilder();
-        rs.append(GeneratorOptions.random.nextInt(9) + 1);
+        rs.append(random.nextInt(9) + 1);
         if (!constraintMapClone.isEmpty()) {
             throw new IllegalStateException ("Found unhandled constraints : " + constraintMapClone.values());
         }
         if (validValues == null) {
             if (scale != null) {
-                scaleValue = scale.getRange().getRandomQuantifiableValueFromRange().intValue();
+                scaleValue = scale.getRange().getRandomQuantifiableValueFromRange(random).intValue();
             }
             if (precision != null) {
-                precisionValue = precision.getRange().getRandomQuantifiableValueFromRange().intValue();
+                precisionValue = precision.getRange().getRandomQuantifiableValueFromRange(random).intValue();
             }
             for (int digit = 1; digit < precisionValue; digit++) {
-                rs.append(GeneratorOptions.random.nextInt(10));
+                rs.append(random.nextInt(10));
             }
             BigInteger unscaledValue = new BigInteger(rs.toString());
             return new BigDecimal(unscaledValue, scaleValue);
@@ -473,7 +596,7 @@ class DataConstructor {
             if (scale != null || precision != null) {
                 throw new IllegalStateException("Cannot handle 'valid_values' and constraint from " + VALID_DECIMAL_CONSTRAINTS + "at the same time.");
             } else {
-                return validValues.getRange().getRandomQuantifiableValueFromRange();
+                return validValues.getRange().getRandomQuantifiableValueFromRange(random);
             }
         }
     }
@@ -482,9 +605,11 @@ class DataConstructor {
      * Generate random integers which is conformed with the constraints provided in ISL.
      * @param constraintMapClone collects the constraints from ISL file, the key represents the name of constraints,
      * and the value is in ReparsedConstraint format.
-     * @return the constructed int.
+     * @param random is the random number generator.
+     * @param profile is the statistics observed at the path of the constructed data.
+     * @return the constructed int, which is not bounded by the range of long if the observed range is wider.
      */
-    public static long constructInt(Map<String, ReparsedConstraint> constraintMapClone) {
+    public static BigInteger constructInt(Map<String, ReparsedConstraint> constraintMapClone, Random random, PathStatistics profile) {
         // In the process of generating IonInt, there is no type-specified constraints. For this step we
         // only consider the general constraints 'valid_values'.
         ValidValues validValues = (ValidValues) constraintMapClone.remove("valid_values");
@@ -493,30 +618,52 @@ class DataConstructor {
         }
         if (validValues != null) {
             // The generated data is conformed with the provided 'valid_values' range.
-            return validValues.getRange().getRandomQuantifiableValueFromRange().longValue();
+            return validValues.getRange().getRandomQuantifiableValueFromRange(random).toBigInteger();
+        } else if (profile.getIntRange() != null) {
+            // Generate an integer within the observed range, which may be wider than the range of long.
+            BigDecimal[] range = profile.getIntRange();
+            return constructIntInRange(range[0].toBigInteger(), range[1].toBigInteger(), random);
         } else {
             // If there is no constraint provided, the generator will construct a random value.
             // Randomly generate integers in the distribution that more than 80% of integers would be smaller than 1024.
             // In this case, the generated integers would be more similar to the real world data.
-            int index = GeneratorOptions.random.nextInt(20);
+            int index = random.nextInt(20);
             if (index < 16) {
-                return GeneratorOptions.random.nextInt(1024);
+                return BigInteger.valueOf(random.nextInt(1024));
             } else {
-                return GeneratorOptions.random.nextLong();
+                return BigInteger.valueOf(random.nextLong());
             }
         }
     }
 
+    /**
+     * Choose an integer uniformly from the provided range.
+     * @param min is the inclusive lower bound.
+     * @param max is the inclusive upper bound.
+     * @param random is the random number generator.
+     * @return the chosen integer.
+     */
+    private static BigInteger constructIntInRange(BigInteger min, BigInteger max, Random random) {
+        BigInteger span = max.subtract(min).add(BigInteger.ONE);
+        BigInteger offset;
+        // Draw the offset from the smallest power of two which covers the span, and reject the draws beyond the span, which happens less than half of the time.
+        do {
+            offset = new BigInteger(span.bitLength(), random);
+        } while (offset.compareTo(span) >= 0);
+        return min.add(offset);
+    }
+
     /**
      * Construct timestamp which is conformed with the constraints provided in ISL.
      * @param constraintMapClone collects the constraints from ISL file, the key represents the name of constraints,
      * and the value is in ReparsedConstraint format.
+     * @param random is the random number generator.
      * @return the constructed timestamp.
      */
-    public static Timestamp constructTimestamp(Map<String, ReparsedConstraint> constraintMapClone) {
+    public static Timestamp constructTimestamp(Map<String, ReparsedConstraint> constraintMapClone, Random random) {
         Range range = DEFAULT_TIMESTAMP_IN_MILLIS_DECIMAL_RANGE;
         // Preset the local offset.
-        Integer localOffset = localOffset(GeneratorOptions.random);
+        Integer localOffset = localOffset(random);
         // Preset the default precision as 'Day'.
         Timestamp.Precision precision = Timestamp.Precision.DAY;
         TimestampPrecision timestampPrecision = (TimestampPrecision) constraintMapClone.remove("timestamp_precision");
@@ -526,7 +673,7 @@ class DataConstructor {
         }
         if (validValues == null) {
             if (timestampPrecision != null) {
-                precision = TimestampPrecision.getRandomTimestampPrecision(timestampPrecision.getRange());
+                precision = TimestampPrecision.getRandomTimestampPrecision(timestampPrecision.getRange(), random);
             }
         } else {
             if (timestampPrecision != null) {
@@ -539,7 +686,7 @@ class DataConstructor {
             }
         }
         // Generate a random millisecond within the provided range.
-        BigDecimal randomMillis = range.getRandomQuantifiableValueFromRange();
+        BigDecimal randomMillis = range.getRandomQuantifiableValueFromRange(random);
         // Generate timestamp based on the provided millisecond value and precision.
         Timestamp regeneratedTimestamp = Timestamp.forMillis(randomMillis, localOffset);
 
@@ -557,21 +704,23 @@ class DataConstructor {
      * Construct clob/blob which is conformed with the constraints provided in ISL.
      * @param constraintMapClone collects the constraints from ISL file, the key represents the name of constraints,
      * and the value is in ReparsedConstraint format.
+     * @param random is the random number generator.
+     * @param profile is the statistics observed at the path of the constructed data.
      * @return the constructed bytes.
      */
-    public static byte[] constructLobs( Map<String, ReparsedConstraint> constraintMapClone) {
+    public static byte[] constructLobs(Map<String, ReparsedConstraint> constraintMapClone, Random random, PathStatistics profile) {
         int byte_length;
         QuantifiableConstraints byteLength = (QuantifiableConstraints) constraintMapClone.remove("byte_length");
         if (!constraintMapClone.isEmpty()) {
             throw new IllegalStateException ("Found unhandled constraints : " + constraintMapClone.values());
         }
         if (byteLength != null) {
-            byte_length = byteLength.getRange().getRandomQuantifiableValueFromRange().intValue();
+            byte_length = byteLength.getRange().getRandomQuantifiableValueFromRange(random).intValue();
         } else {
-            byte_length = GeneratorOptions.random.nextInt(512);
+            byte_length = PathStatistics.sampleOrDefault(profile.getByteLengths(), random, 512);
         }
         byte[] randomBytes = new byte[byte_length];
-        GeneratorOptions.random.nextBytes(randomBytes);
+        random.nextBytes(randomBytes);
         return randomBytes;
     }
 
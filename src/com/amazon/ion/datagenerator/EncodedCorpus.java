@@ -0,0 +1,219 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A corpus of generated Ion values which are encoded into a single heap or off-heap ByteBuffer, with an index of top-level value offsets.
+ * Benchmark harnesses can iterate or randomly access the encoded values without any file I/O.
+ * By default, all values are written by one writer, so a binary value may rely on the symbol tables written before it and only text values
+ * can be decoded alone. If independent values are requested, each value is encoded as a complete Ion stream which can be decoded alone.
+ * The offsets are int values, so the corpus is limited to the maximum size of a Java array, which is slightly below 2GB.
+ */
+public class EncodedCorpus {
+    private final ByteBuffer buffer;
+    // offsets[i] is the start of the bytes written for value i, offsets[size] is the end of the corpus.
+    private final int[] offsets;
+
+    /**
+     * Initializing the newly created EncodedCorpus object.
+     * @param buffer contains all encoded values.
+     * @param offsets contains the start offset of each value followed by the end offset of the corpus.
+     */
+    private EncodedCorpus(ByteBuffer buffer, int[] offsets) {
+        this.buffer = buffer;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Create a builder for encoding the values constructed by the provided generator.
+     * @param generator constructs the values which will be encoded.
+     * @return a new Builder.
+     */
+    public static Builder builder(IonDataGenerator generator) {
+        return new Builder(generator);
+    }
+
+    /**
+     * Get the number of values in the corpus.
+     * @return the number of values.
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Get the read-only buffer which contains all encoded values, positioned at the start of the corpus.
+     * @return a read-only view of the whole corpus.
+     */
+    public ByteBuffer getBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the start offset of the bytes written for the provided value. In binary format, the bytes may start with the symbol tables which the value relies on.
+     * @param index is the index of the value.
+     * @return the start offset of the value in the corpus.
+     */
+    public int getOffset(int index) {
+        checkIndex(index);
+        return offsets[index];
+    }
+
+    /**
+     * Get the number of bytes written for the provided value.
+     * @param index is the index of the value.
+     * @return the encoded length of the value.
+     */
+    public int getLength(int index) {
+        checkIndex(index);
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Get the read-only bytes written for the provided value without copying them.
+     * @param index is the index of the value.
+     * @return a read-only buffer which contains the encoded value.
+     */
+    public ByteBuffer slice(int index) {
+        ByteBuffer slice = getBuffer();
+        slice.limit(offsets[index] + getLength(index));
+        slice.position(offsets[index]);
+        return slice.slice();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Value index " + index + " is out of the corpus of " + size() + " values.");
+        }
+    }
+
+    /**
+     * Configure and build EncodedCorpus.
+     */
+    public static class Builder {
+        private final IonDataGenerator generator;
+        private int valueCount;
+        private String format = IonSchemaUtilities.ION_BINARY;
+        private boolean directBuffer;
+        private boolean independentValues;
+
+        private Builder(IonDataGenerator generator) {
+            this.generator = generator;
+        }
+
+        /**
+         * Set the number of values in the corpus.
+         * @param valueCount is the number of values.
+         * @return this builder.
+         */
+        public Builder withValueCount(int valueCount) {
+            this.valueCount = valueCount;
+            return this;
+        }
+
+        /**
+         * Set the format of the encoded values, select from set (ion_text | ion_binary). The default format is ion_binary.
+         * @param format is the format of the encoded values.
+         * @return this builder.
+         */
+        public Builder withFormat(String format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Allocate the corpus in an off-heap buffer.
+         * @return this builder.
+         */
+        public Builder withDirectBuffer() {
+            this.directBuffer = true;
+            return this;
+        }
+
+        /**
+         * Encode each value as a complete Ion stream, so that each value can be decoded alone.
+         * @return this builder.
+         */
+        public Builder withIndependentValues() {
+            this.independentValues = true;
+            return this;
+        }
+
+        /**
+         * Construct and encode the values.
+         * @return the newly created EncodedCorpus.
+         * @throws IOException if errors occur when writing data.
+         */
+        public EncodedCorpus build() throws IOException {
+            if (valueCount < 0) {
+                throw new IllegalArgumentException("The number of values cannot be negative.");
+            }
+            CorpusOutputStream outputStream = new CorpusOutputStream();
+            int[] offsets = new int[valueCount + 1];
+            if (independentValues) {
+                for (int i = 0; i < valueCount; i++) {
+                    offsets[i] = outputStream.size();
+                    try (IonWriter writer = ReadGeneralConstraints.formatWriter(format, outputStream)) {
+                        generator.next().writeTo(writer);
+                    }
+                }
+            } else {
+                try (IonWriter writer = ReadGeneralConstraints.formatWriter(format, outputStream)) {
+                    for (int i = 0; i < valueCount; i++) {
+                        offsets[i] = outputStream.size();
+                        generator.next().writeTo(writer);
+                        // Flush the writer after each value, so that the bytes of each value can be located.
+                        writer.flush();
+                    }
+                }
+            }
+            offsets[valueCount] = outputStream.size();
+            return new EncodedCorpus(outputStream.toByteBuffer(directBuffer), offsets);
+        }
+    }
+
+    /**
+     * A ByteArrayOutputStream which exposes its buffer without copying, and fails clearly before the corpus exceeds the maximum array size.
+     */
+    private static final class CorpusOutputStream extends ByteArrayOutputStream {
+        // The maximum size of a Java array on common JVMs.
+        private static final int MAX_CORPUS_SIZE = Integer.MAX_VALUE - 8;
+
+        @Override
+        public synchronized void write(int b) {
+            checkSize(1);
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            checkSize(len);
+            super.write(b, off, len);
+        }
+
+        private void checkSize(int length) {
+            if (length > MAX_CORPUS_SIZE - count) {
+                throw new IllegalStateException("The encoded corpus exceeds the maximum size of " + MAX_CORPUS_SIZE + " bytes, please request fewer values.");
+            }
+        }
+
+        /**
+         * Get the written bytes as a ByteBuffer. The heap buffer wraps the internal array, and the direct buffer is copied from it once.
+         * @param direct decides whether the bytes are copied into an off-heap buffer.
+         * @return the buffer positioned at the start of the written bytes.
+         */
+        private ByteBuffer toByteBuffer(boolean direct) {
+            if (!direct) {
+                return ByteBuffer.wrap(buf, 0, count).slice();
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect(count);
+            buffer.put(buf, 0, count);
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
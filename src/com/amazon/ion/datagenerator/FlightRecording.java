@@ -0,0 +1,324 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonNumber;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonText;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record the benchmark runs with Java Flight Recorder and summarize the recordings into Ion.
+ * The recording is requested through the JAVA_TOOL_OPTIONS environment variable of the benchmark process, which is inherited by the JVMs forked
+ * by JMH, so the measured JVMs are recorded as well as the benchmark CLI. Every JVM writes its own recording into the recording directory of the run.
+ * The recordings are read through the 'jfr' tool of the JDK, whose JSON output is parsed by the Ion reader, so the summary does not depend on the
+ * JFR consumer API which is not available in Java 8. The summary is written as
+ * jfr_summary::{ recordings, execution_samples, hot_methods: [{ frame, samples, fraction }], allocating_frames: [{ frame, bytes, fraction }],
+ * gc: { collections, total_pause_millis, longest_pause_millis } }, where a frame is the top frame of the sampled stack.
+ */
+public class FlightRecording {
+    public static final String JAVA_TOOL_OPTIONS = "JAVA_TOOL_OPTIONS";
+    private static final String JFR = "jfr";
+    private static final String RECORDING_SUFFIX = ".jfr";
+    // The 'profile' settings sample the stacks every 10 ms and sample the allocations, which the 'default' settings do not.
+    private static final String SETTINGS = "profile";
+    private static final int TOP_FRAMES = 20;
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    private static final String ALLOCATION_IN_NEW_TLAB = "jdk.ObjectAllocationInNewTLAB";
+    private static final String ALLOCATION_OUTSIDE_TLAB = "jdk.ObjectAllocationOutsideTLAB";
+    private static final String GARBAGE_COLLECTION = "jdk.GarbageCollection";
+    private static final String SUMMARY_ANNOTATION = "jfr_summary";
+    private static final String RECORDINGS = "recordings";
+    private static final String EXECUTION_SAMPLES = "execution_samples";
+    private static final String HOT_METHODS = "hot_methods";
+    private static final String ALLOCATING_FRAMES = "allocating_frames";
+    private static final String FRAME = "frame";
+    private static final String SAMPLES = "samples";
+    private static final String BYTES = "bytes";
+    private static final String FRACTION = "fraction";
+    private static final String GC = "gc";
+    private static final String COLLECTIONS = "collections";
+    private static final String TOTAL_PAUSE_MILLIS = "total_pause_millis";
+    private static final String LONGEST_PAUSE_MILLIS = "longest_pause_millis";
+
+    /**
+     * Construct the value of JAVA_TOOL_OPTIONS which starts a recording in every JVM of the benchmark run. The existing JAVA_TOOL_OPTIONS of the
+     * current environment are kept. JAVA_TOOL_OPTIONS is split by whitespaces, so the recording directory should not contain whitespaces.
+     * @param recordingDirectory is the directory which receives the recordings of the run.
+     * @return the value of JAVA_TOOL_OPTIONS.
+     */
+    public static String javaToolOptions(File recordingDirectory) {
+        String path = recordingDirectory.getAbsolutePath();
+        if (path.matches(".*\\s.*")) {
+            throw new IllegalArgumentException("The flight recording directory should not contain whitespaces: " + path);
+        }
+        // A directory as the file name lets every JVM write a recording with a unique name, and dumponexit writes it when JMH ends the fork.
+        String option = String.format("-XX:StartFlightRecording=settings=%s,dumponexit=true,filename=%s%s", SETTINGS, path, File.separator);
+        String existing = System.getenv(JAVA_TOOL_OPTIONS);
+        return existing == null || existing.trim().isEmpty() ? option : existing.trim() + " " + option;
+    }
+
+    /**
+     * Summarize all recordings in the recording directory and write the summary into the summary file.
+     * @param recordingDirectory is the directory which contains the recordings of one benchmark run.
+     * @param summaryFile is the destination of the summary.
+     * @return true if the summary is written, false if there is no recording or the 'jfr' tool cannot be found.
+     * @throws Exception if errors occur when reading the recordings or writing the summary.
+     */
+    public static boolean summarize(File recordingDirectory, File summaryFile) throws Exception {
+        File[] recordings = recordingDirectory.listFiles((directory, name) -> name.endsWith(RECORDING_SUFFIX));
+        if (recordings == null || recordings.length == 0) {
+            return false;
+        }
+        Arrays.sort(recordings);
+        File jfr = findJfrTool();
+        if (jfr == null) {
+            System.out.println("The 'jfr' tool of the JDK cannot be found, the flight recordings in " + recordingDirectory + " are not summarized.");
+            return false;
+        }
+        Summary summary = new Summary();
+        for (File recording : recordings) {
+            read(jfr, recording, summary);
+        }
+        try (IonWriter writer = IonTextWriterBuilder.pretty().build(new BufferedOutputStream(new FileOutputStream(summaryFile)))) {
+            writer.setTypeAnnotations(SUMMARY_ANNOTATION);
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName(RECORDINGS);
+            writer.stepIn(IonType.LIST);
+            for (File recording : recordings) {
+                writer.writeString(recording.getName());
+            }
+            writer.stepOut();
+            writer.setFieldName(EXECUTION_SAMPLES);
+            writer.writeInt(summary.executionSamples);
+            writer.setFieldName(HOT_METHODS);
+            writeTopFrames(writer, summary.hotMethods, SAMPLES);
+            writer.setFieldName(ALLOCATING_FRAMES);
+            // The allocation samples are weighted by the allocated bytes, the TLAB events are only used by JVMs which do not sample allocations.
+            writeTopFrames(writer, summary.sampledAllocations.isEmpty() ? summary.tlabAllocations : summary.sampledAllocations, BYTES);
+            writer.setFieldName(GC);
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName(COLLECTIONS);
+            writer.writeInt(summary.collections);
+            writer.setFieldName(TOTAL_PAUSE_MILLIS);
+            writer.writeFloat(summary.totalPauseNanos / 1e6);
+            writer.setFieldName(LONGEST_PAUSE_MILLIS);
+            writer.writeFloat(summary.longestPauseNanos / 1e6);
+            writer.stepOut();
+            writer.stepOut();
+        }
+        return true;
+    }
+
+    /**
+     * Print the events of one recording as JSON through the 'jfr' tool and add them into the summary. The output of the tool is written into a
+     * temporary file, so the tool never blocks on a full pipe and always exits even if its output cannot be parsed.
+     * @param jfr is the 'jfr' tool.
+     * @param recording is the recording file.
+     * @param summary collects the events.
+     * @throws Exception if errors occur when running the tool or parsing its output.
+     */
+    private static void read(File jfr, File recording, Summary summary) throws Exception {
+        String events = String.join(",", EXECUTION_SAMPLE, ALLOCATION_SAMPLE, ALLOCATION_IN_NEW_TLAB, ALLOCATION_OUTSIDE_TLAB, GARBAGE_COLLECTION);
+        File output = File.createTempFile(recording.getName(), ".json");
+        try {
+            Process process = new ProcessBuilder(jfr.getPath(), "print", "--json", "--events", events, recording.getPath())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .redirectOutput(output)
+                    .start();
+            try {
+                if (process.waitFor() != 0) {
+                    throw new IllegalStateException("The 'jfr' tool cannot read the recording: " + recording);
+                }
+            } finally {
+                if (process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            }
+            try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(output)))) {
+                // The output is { recording: { events: [{ type, values }] } }, and the events are loaded one at a time.
+                if (reader.next() != IonType.STRUCT) {
+                    throw new IllegalStateException("The output of the 'jfr' tool is not supported: " + recording);
+                }
+                reader.stepIn();
+                while (reader.next() != null) {
+                    if (!"recording".equals(reader.getFieldName())) {
+                        continue;
+                    }
+                    reader.stepIn();
+                    while (reader.next() != null) {
+                        if (!"events".equals(reader.getFieldName())) {
+                            continue;
+                        }
+                        reader.stepIn();
+                        while (reader.next() != null) {
+                            summary.add((IonStruct) ReadGeneralConstraints.SYSTEM.newValue(reader));
+                        }
+                        reader.stepOut();
+                    }
+                    reader.stepOut();
+                }
+                reader.stepOut();
+            }
+        } finally {
+            Files.deleteIfExists(output.toPath());
+        }
+    }
+
+    /**
+     * Write the frames with the largest totals in descending order.
+     * @param writer is the writer of the summary.
+     * @param totals are the totals of the frames.
+     * @param totalName is the field name of the total.
+     * @throws IOException if errors occur when writing the frames.
+     */
+    private static void writeTopFrames(IonWriter writer, Map<String, Long> totals, String totalName) throws IOException {
+        long sum = 0;
+        for (long total : totals.values()) {
+            sum += total;
+        }
+        List<Map.Entry<String, Long>> frames = new ArrayList<>(totals.entrySet());
+        frames.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        writer.stepIn(IonType.LIST);
+        for (Map.Entry<String, Long> frame : frames.subList(0, Math.min(TOP_FRAMES, frames.size()))) {
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName(FRAME);
+            writer.writeString(frame.getKey());
+            writer.setFieldName(totalName);
+            writer.writeInt(frame.getValue());
+            writer.setFieldName(FRACTION);
+            writer.writeFloat(frame.getValue() / (double) sum);
+            writer.stepOut();
+        }
+        writer.stepOut();
+    }
+
+    /**
+     * Find the 'jfr' tool, preferring the JDK of the 'java' command which runs the benchmarks, then the JDK of the current JVM.
+     * @return the 'jfr' tool, or null if it cannot be found.
+     */
+    private static File findJfrTool() {
+        File jfr = BenchmarkSuiteScheduler.findExecutable(JFR);
+        if (jfr != null) {
+            return jfr;
+        }
+        File java = BenchmarkSuiteScheduler.findExecutable("java");
+        if (java != null) {
+            try {
+                jfr = new File(java.getCanonicalFile().getParentFile(), JFR);
+            } catch (IOException e) {
+                jfr = null;
+            }
+            if (jfr != null && jfr.canExecute()) {
+                return jfr;
+            }
+        }
+        jfr = new File(new File(System.getProperty("java.home"), "bin"), JFR);
+        return jfr.canExecute() ? jfr : null;
+    }
+
+    /**
+     * The totals collected from the events of the recordings.
+     */
+    private static final class Summary {
+        private final Map<String, Long> hotMethods = new HashMap<>();
+        private final Map<String, Long> sampledAllocations = new HashMap<>();
+        private final Map<String, Long> tlabAllocations = new HashMap<>();
+        private long executionSamples = 0;
+        private long collections = 0;
+        private long totalPauseNanos = 0;
+        private long longestPauseNanos = 0;
+
+        /**
+         * Add one event into the totals.
+         * @param event is the event struct { type, values }.
+         */
+        void add(IonStruct event) {
+            String type = ((IonText) event.get("type")).stringValue();
+            IonStruct values = (IonStruct) event.get("values");
+            switch (type) {
+                case EXECUTION_SAMPLE:
+                    executionSamples++;
+                    addFrame(hotMethods, values, 1);
+                    break;
+                case ALLOCATION_SAMPLE:
+                    addFrame(sampledAllocations, values, number(values, "weight"));
+                    break;
+                case ALLOCATION_IN_NEW_TLAB:
+                    addFrame(tlabAllocations, values, number(values, "tlabSize"));
+                    break;
+                case ALLOCATION_OUTSIDE_TLAB:
+                    addFrame(tlabAllocations, values, number(values, "allocationSize"));
+                    break;
+                case GARBAGE_COLLECTION:
+                    collections++;
+                    totalPauseNanos += duration(values, "sumOfPauses");
+                    longestPauseNanos = Math.max(longestPauseNanos, duration(values, "longestPause"));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Add the amount to the top frame of the stack trace of the event.
+         * @param totals are the totals of the frames.
+         * @param values are the values of the event.
+         * @param amount is the amount of the event.
+         */
+        private static void addFrame(Map<String, Long> totals, IonStruct values, long amount) {
+            IonValue stackTrace = values.get("stackTrace");
+            if (!(stackTrace instanceof IonStruct) || !(((IonStruct) stackTrace).get("frames") instanceof IonList)) {
+                return;
+            }
+            IonList frames = (IonList) ((IonStruct) stackTrace).get("frames");
+            if (frames.isEmpty()) {
+                return;
+            }
+            IonStruct method = (IonStruct) ((IonStruct) frames.get(0)).get("method");
+            String className = ((IonText) ((IonStruct) method.get("type")).get("name")).stringValue().replace('/', '.');
+            totals.merge(className + "." + ((IonText) method.get("name")).stringValue(), amount, Long::sum);
+        }
+
+        /**
+         * Get a numeric value of the event.
+         * @param values are the values of the event.
+         * @param name is the field name.
+         * @return the value, or 0 if it is missing.
+         */
+        private static long number(IonStruct values, String name) {
+            IonValue value = values.get(name);
+            return value instanceof IonNumber && !value.isNullValue() ? ((IonNumber) value).bigDecimalValue().longValue() : 0;
+        }
+
+        /**
+         * Get a duration value of the event, which is printed in the ISO-8601 format, e.g. PT0.012S.
+         * @param values are the values of the event.
+         * @param name is the field name.
+         * @return the duration in nanoseconds, or 0 if it is missing.
+         */
+        private static long duration(IonStruct values, String name) {
+            IonValue value = values.get(name);
+            return value instanceof IonText && !value.isNullValue() ? Duration.parse(((IonText) value).stringValue()).toNanos() : 0;
+        }
+    }
+}
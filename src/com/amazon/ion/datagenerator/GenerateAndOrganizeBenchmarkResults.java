@@ -3,16 +3,26 @@ package com.amazon.ion.datagenerator;
 import com.amazon.ion.IonList;
 import com.amazon.ion.IonReader;
 import com.amazon.ion.IonString;
+import com.amazon.ion.IonStruct;
 import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
 import com.amazon.ion.system.IonReaderBuilder;
 import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -20,17 +30,29 @@ import org.w3c.dom.Document;
 
 public class GenerateAndOrganizeBenchmarkResults {
     final private static String ION_JAVA_BENCHMARK = "ion-java-benchmark";
-    final private static String MAKE_DIRECTORY = "mkdir -p ";
     final private static String PREVIOUS_FILE = "previous.ion";
     final private static String NEW_FILE = "new.ion";
     final private static String POM_FILE = "pom.xml";
     final private static String ION_JAVA_BENCHMARK_INVOKE_ELEMENT = "java -jar target/ion-java-benchmark-cli-";
     final private static String JAR_WITH_DEPENDENCIES = "-jar-with-dependencies.jar";
+    final private static String LOG_FILE = "benchmark.log";
+    final private static String RECORDING_DIRECTORY_SUFFIX = "-jfr";
+    final private static String RECORDING_SUMMARY_SUFFIX = "-jfr-summary.ion";
 
     /**
      * Execute ion-java-benchmark command with different options combinations and save the benchmark results generated by the same ion-java-benchmark invoke into the same directory.
      * One final directory which contains all directories from different ion-java-benchmark invokes will be generated under the specific file path.
      * The schema of constructing directory name is "ion-java-benchmark" + (read | write) + "--api" + (dom | streaming) + "--format" + (ion-binary | ion-text | text) + file name of test Ion data.
+     * The invokes are executed by BenchmarkSuiteScheduler, and the output of each invoke is written into 'benchmark.log' under its directory.
+     * With '--in-process', the benchmark CLI jar is loaded once and every invoke runs inside the current JVM.
+     * With '--result-cache', the results are cached by the content of the test data, the options combination and the benchmark CLI jar, and only the
+     * invokes whose inputs changed are executed.
+     * With '--corpus-matrix', the test data of every combination of the matrix is generated into the test data directory, and the existing test data
+     * is reused. The runs of each test data file start as soon as the file is ready, while the rest of the matrix is still being generated.
+     * When the options combinations file declares option dimensions, the options combinations are planned by BenchmarkPlanner. With '--run-durations',
+     * the duration of every run is recorded, and '--time-budget' limits the plan by the durations recorded in the previous suites.
+     * With '--flight-recording', every JVM of each invoke is recorded by Java Flight Recorder into the directory next to its result, e.g. 'new-jfr',
+     * and the recordings are summarized into 'new-jfr-summary.ion'. The cached results are not reused, since they have no recording.
      * @param optionsMap is the hash map which generated by the command line parser which match the option name and its value appropriately.
      * @throws Exception if errors occur when executing command line or parsing data.
      */
@@ -38,59 +60,177 @@ public class GenerateAndOrganizeBenchmarkResults {
         String combinations = optionsMap.get("--benchmark-options-combinations").toString();
         String testDataDirectory = optionsMap.get("--test-ion-data").toString();
         String finalResultDirectory = optionsMap.get("<output_file>").toString();
+        int parallelism = optionsMap.get("--parallelism") == null ? 1 : Integer.parseInt(optionsMap.get("--parallelism").toString());
+        int cpusPerRun = optionsMap.get("--cpus-per-run") == null ? 0 : Integer.parseInt(optionsMap.get("--cpus-per-run").toString());
+        long timeoutSeconds = optionsMap.get("--run-timeout") == null ? 0 : Long.parseLong(optionsMap.get("--run-timeout").toString());
+        int retries = Integer.parseInt(optionsMap.get("--retries").toString());
         // Get the version of ion-java-benchmark-cli-jar-with-dependencies.jar
         String version = parseVersionFromPom(POM_FILE);
         String ionJavaBenchmarkInvoke = ION_JAVA_BENCHMARK_INVOKE_ELEMENT + version + JAR_WITH_DEPENDENCIES;
-        String fileName = NEW_FILE;
-        String makeFinalDirectoryCommand = MAKE_DIRECTORY + finalResultDirectory;
-        IonList optionsCombinationsList;
-        try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(combinations)))) {
-            reader.next();
-            if (reader.getType().equals(IonType.LIST)) {
-                optionsCombinationsList = (IonList) ReadGeneralConstraints.LOADER.load(reader).get(0);
+        // The launcher is split by whitespaces in the same way as Runtime.exec, and its last element is the path of the benchmark CLI jar.
+        List<String> launcher = Arrays.asList(ionJavaBenchmarkInvoke.split("\\s+"));
+        boolean inProcess = optionsMap.get("--in-process") != null && optionsMap.get("--in-process").equals(true);
+        boolean flightRecording = optionsMap.get("--flight-recording") != null && optionsMap.get("--flight-recording").equals(true);
+        if (inProcess && flightRecording) {
+            throw new IllegalArgumentException("The flight recording is requested through the environment of the benchmark process, which the in-process runs do not have.");
+        }
+        File jar = new File(launcher.get(launcher.size() - 1));
+        BenchmarkResultCache cache = optionsMap.get("--result-cache") == null ? null : new BenchmarkResultCache(new File(optionsMap.get("--result-cache").toString()));
+        File runDurationsFile = optionsMap.get("--run-durations") == null ? null : new File(optionsMap.get("--run-durations").toString());
+        long budgetSeconds = optionsMap.get("--time-budget") == null ? 0 : Long.parseLong(optionsMap.get("--time-budget").toString());
+        CorpusMatrix matrix = optionsMap.get("--corpus-matrix") == null ? null : CorpusMatrix.load(optionsMap.get("--corpus-matrix").toString());
+        File[] files = null;
+        List<String> testDataNames = new ArrayList<>();
+        if (matrix != null) {
+            for (CorpusMatrix.Input input : matrix.getInputs()) {
+                testDataNames.add(input.getFileName());
+            }
+        } else {
+            files = new File(testDataDirectory).listFiles();
+            if (files == null) {
+                throw new IllegalArgumentException("The test Ion data directory does not exist: " + testDataDirectory);
+            }
+            Arrays.sort(files);
+            for (File testData : files) {
+                testDataNames.add(testData.getName());
+            }
+        }
+        RunDurations durations = runDurationsFile == null ? null : RunDurations.load(runDurationsFile);
+        List<String> optionsCombinations = readOptionsCombinations(combinations, testDataNames, durations, budgetSeconds, parallelism);
+        ExecutorService generationExecutor = null;
+        SuiteRuns runs;
+        int failed;
+        try {
+            Iterator<File> testDataFiles;
+            if (matrix != null) {
+                // The generation shares the machine with the benchmark runs, so it only uses the processors which are not reserved for the runs.
+                int processors = Runtime.getRuntime().availableProcessors();
+                generationExecutor = Executors.newFixedThreadPool(Math.max(1, processors - parallelism * Math.max(1, cpusPerRun)));
+                testDataFiles = matrix.generate(new File(testDataDirectory), generationExecutor);
             } else {
-                throw new IllegalStateException("The data structure of options combinations file is not supported.");
+                testDataFiles = Arrays.asList(files).iterator();
+            }
+            runs = new SuiteRuns(testDataFiles, optionsCombinations, finalResultDirectory, launcher, jar, cache, flightRecording);
+            Iterator<BenchmarkRun> scheduledRuns = runs;
+            int total;
+            if (generationExecutor == null) {
+                // All test data is ready, so the runs are created before the suite starts and the progress shows the number of runs.
+                List<BenchmarkRun> allRuns = new ArrayList<>();
+                runs.forEachRemaining(allRuns::add);
+                scheduledRuns = allRuns.iterator();
+                total = allRuns.size();
+            } else {
+                // The runs of each test data file are created when the file is ready, the cached results are not known in advance.
+                total = cache == null ? testDataNames.size() * optionsCombinations.size() : 0;
+            }
+            InProcessBenchmarkRunner inProcessRunner = null;
+            if (inProcess) {
+                try {
+                    inProcessRunner = new InProcessBenchmarkRunner(jar);
+                } catch (NoSuchMethodException e) {
+                    // The main method of the benchmark CLI calls System.exit, which would end this JVM, so every run starts its own process instead.
+                    System.err.println(e.getMessage() + " The benchmark runs are executed in forked processes.");
+                }
+            }
+            if (inProcessRunner != null) {
+                try (InProcessBenchmarkRunner runner = inProcessRunner) {
+                    failed = new BenchmarkSuiteScheduler(parallelism, cpusPerRun, timeoutSeconds, retries, runner).run(scheduledRuns, total);
+                }
+            } else {
+                failed = new BenchmarkSuiteScheduler(parallelism, cpusPerRun, timeoutSeconds, retries).run(scheduledRuns, total);
+            }
+        } finally {
+            if (generationExecutor != null) {
+                generationExecutor.shutdownNow();
             }
         }
-        String subDirectoryName;
-        // Create the directory that contains all results from different ion-java-benchmark invokes
-        Process createFinalResultDirectory = Runtime.getRuntime().exec(makeFinalDirectoryCommand);
-        File[] files = new File(testDataDirectory).listFiles();
-        for (File testData : files) {
-            for (int index = 0; index < optionsCombinationsList.size(); index++) {
-                IonString combination = (IonString) optionsCombinationsList.get(index);
-                String benchmarkOptionCombination = combination.stringValue();
-                // Use ion-java-benchmark as a start point to construct directory name which gives user a better idea which benchmark results would be contained under this directory.
-                subDirectoryName = File.separator + ION_JAVA_BENCHMARK + benchmarkOptionCombination.replace("--results-format ion ","").replace("_", "-").replace(" ", "_") + testData.getName();
-                Process makeSubDirectory = Runtime.getRuntime().exec(makeFinalDirectoryCommand + subDirectoryName);
-                // When generating benchmark results for ion-java from the new commit, all benchmark results will be named as 'new.ion'.
-                File fileCheck = new File(finalResultDirectory + subDirectoryName + File.separator + fileName);
-                if (fileCheck.exists()) {
-                    fileName = PREVIOUS_FILE;
+        List<BenchmarkRun> executed = runs.getCreatedRuns();
+        if (cache != null) {
+            for (BenchmarkRun run : executed) {
+                if (run.isSucceeded() && run.getResultFile().isFile()) {
+                    cache.store(runs.getCacheKey(run), run.getResultFile());
                 }
-                // Execute ion-java-benchmark invoke.
-                String commandLine = ionJavaBenchmarkInvoke + benchmarkOptionCombination + "--results-file " +  finalResultDirectory + subDirectoryName + File.separator + fileName + " " + testData.getAbsolutePath();
-                Process process = Runtime.getRuntime().exec(commandLine);
-                printExecuteProcess(process);
+            }
+            cache.save();
+            System.out.println(String.format("Result cache: %d of %d benchmark results reused, %d benchmark runs executed.", runs.getCacheHits(),
+                    runs.getCacheHits() + executed.size(), executed.size()));
+        }
+        if (flightRecording) {
+            for (BenchmarkRun run : executed) {
+                File resultFile = run.getResultFile();
+                FlightRecording.summarize(recordingDirectory(resultFile), new File(resultFile.getParentFile(), stem(resultFile) + RECORDING_SUMMARY_SUFFIX));
             }
         }
+        if (durations != null) {
+            for (BenchmarkRun run : executed) {
+                if (run.isSucceeded()) {
+                    durations.record(runs.getCombination(run), runs.getTestDataName(run), run.getDurationMillis());
+                }
+            }
+            durations.save(runDurationsFile);
+        }
+        if (failed != 0) {
+            throw new IllegalStateException(String.format("%d of %d benchmark runs failed, please check the log files.", failed, executed.size()));
+        }
     }
 
     /**
-     * Print the executing process of the specific command line.
-     * @param process is the process that executing the specific command line.
-     * @throws IOException if error occurs when reading executing process.
+     * Read the options combinations file, which is either a list of options combinations or a struct of option dimensions which is planned by
+     * BenchmarkPlanner.
+     * @param combinations is the path of the options combinations file.
+     * @param testDataNames are the file names of the test data.
+     * @param durations are the recorded durations of the previous runs, or null if the durations are not recorded.
+     * @param budgetSeconds is the time budget of the suite in seconds, or 0 if the suite is not limited.
+     * @param parallelism is the number of runs which are executed at the same time.
+     * @return the options combinations which will be run with every test data file.
+     * @throws Exception if errors occur when reading the file.
      */
-    private static void printExecuteProcess(Process process) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                System.out.println(line);
+    private static List<String> readOptionsCombinations(String combinations, List<String> testDataNames, RunDurations durations, long budgetSeconds,
+                                                        int parallelism) throws Exception {
+        IonValue optionsCombinations;
+        try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(combinations)))) {
+            reader.next();
+            optionsCombinations = ReadGeneralConstraints.LOADER.load(reader).get(0);
+        }
+        if (optionsCombinations.getType().equals(IonType.LIST)) {
+            if (budgetSeconds > 0) {
+                throw new IllegalArgumentException("The time budget requires the option dimensions instead of a list of options combinations.");
+            }
+            List<String> optionsCombinationsList = new ArrayList<>();
+            for (IonValue combination : (IonList) optionsCombinations) {
+                optionsCombinationsList.add(((IonString) combination).stringValue());
             }
-            System.out.println(System.lineSeparator());
+            return optionsCombinationsList;
+        } else if (optionsCombinations.getType().equals(IonType.STRUCT)) {
+            BenchmarkPlanner.Plan plan = BenchmarkPlanner.plan((IonStruct) optionsCombinations, testDataNames, durations, budgetSeconds, parallelism);
+            System.out.println(String.format("Benchmark plan: %d of %d options combinations, covering %.1f%% of the %d-way interactions%s.",
+                    plan.getCombinations().size(), plan.getFullProduct(), plan.getCoverage() * 100, plan.getStrength(),
+                    plan.getEstimatedSeconds() < 0 ? "" : String.format(", estimated %.0fs", plan.getEstimatedSeconds())));
+            return plan.getCombinations();
+        } else {
+            throw new IllegalStateException("The data structure of options combinations file is not supported.");
         }
     }
 
+    /**
+     * Get the directory which receives the flight recordings of the run, e.g. 'new-jfr' for 'new.ion'.
+     * @param resultFile is the benchmark result file of the run.
+     * @return the recording directory next to the result file.
+     */
+    private static File recordingDirectory(File resultFile) {
+        return new File(resultFile.getParentFile(), stem(resultFile) + RECORDING_DIRECTORY_SUFFIX);
+    }
+
+    /**
+     * Get the file name of the result file without its extension.
+     * @param resultFile is the benchmark result file.
+     * @return the file name without the extension, e.g. 'new' for 'new.ion'.
+     */
+    private static String stem(File resultFile) {
+        String name = resultFile.getName();
+        return name.lastIndexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : name;
+    }
+
     /**
      * Parse pom.xml and extract the version of ion-java-benchmark-cli.
      * @param filePath the file path of pom.xml/
@@ -106,4 +246,163 @@ public class GenerateAndOrganizeBenchmarkResults {
         String jarVersion = pomFile.getElementsByTagName("version").item(0).getTextContent();
         return jarVersion;
     }
-}
\ No newline at end of file
+
+    /**
+     * Create the benchmark runs of each test data file with all options combinations, when the iterator of the test data files provides the file.
+     * The result of a run whose inputs are cached is restored instead of creating the run.
+     */
+    private static final class SuiteRuns implements Iterator<BenchmarkRun> {
+        private final Iterator<File> testDataFiles;
+        private final List<String> optionsCombinations;
+        private final String finalResultDirectory;
+        private final List<String> launcher;
+        private final File jar;
+        private final BenchmarkResultCache cache;
+        private final boolean flightRecording;
+        private final Deque<BenchmarkRun> pending = new ArrayDeque<>();
+        private final List<BenchmarkRun> createdRuns = new ArrayList<>();
+        private final Map<BenchmarkRun, String> cacheKeys = new HashMap<>();
+        private final Map<BenchmarkRun, String> runCombinations = new HashMap<>();
+        private final Map<BenchmarkRun, String> runTestData = new HashMap<>();
+        private int cacheHits = 0;
+
+        /**
+         * Initializing the newly created SuiteRuns object.
+         * @param testDataFiles provides the test data files, and may wait until the next file is generated.
+         * @param optionsCombinations are the options combinations of ion-java-benchmark-cli.
+         * @param finalResultDirectory is the directory which contains the directories of all ion-java-benchmark invokes.
+         * @param launcher is the beginning of the command line which starts the benchmark CLI.
+         * @param jar is the benchmark CLI jar.
+         * @param cache is the result cache, or null if the results are not cached.
+         * @param flightRecording represents whether every run is recorded by Java Flight Recorder.
+         */
+        SuiteRuns(Iterator<File> testDataFiles, List<String> optionsCombinations, String finalResultDirectory, List<String> launcher, File jar,
+                  BenchmarkResultCache cache, boolean flightRecording) {
+            this.testDataFiles = testDataFiles;
+            this.optionsCombinations = optionsCombinations;
+            this.finalResultDirectory = finalResultDirectory;
+            this.launcher = launcher;
+            this.jar = jar;
+            this.cache = cache;
+            this.flightRecording = flightRecording;
+        }
+
+        @Override
+        public boolean hasNext() {
+            // A test data file whose results are all cached creates no run, so the next files are checked until a run is created.
+            while (pending.isEmpty() && testDataFiles.hasNext()) {
+                try {
+                    createRuns(testDataFiles.next());
+                } catch (Exception e) {
+                    throw new IllegalStateException("Errors occur when creating the benchmark runs.", e);
+                }
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public BenchmarkRun next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+
+        /**
+         * Helping access the private attribute createdRuns.
+         * @return the runs which have been created, excluding the cached results.
+         */
+        List<BenchmarkRun> getCreatedRuns() {
+            return createdRuns;
+        }
+
+        /**
+         * Get the cache key of the run.
+         * @param run is the created run.
+         * @return the cache key of its result, or null if the results are not cached.
+         */
+        String getCacheKey(BenchmarkRun run) {
+            return cacheKeys.get(run);
+        }
+
+        /**
+         * Get the options combination of the run.
+         * @param run is the created run.
+         * @return the options combination.
+         */
+        String getCombination(BenchmarkRun run) {
+            return runCombinations.get(run);
+        }
+
+        /**
+         * Get the file name of the test data of the run.
+         * @param run is the created run.
+         * @return the file name of the test data.
+         */
+        String getTestDataName(BenchmarkRun run) {
+            return runTestData.get(run);
+        }
+
+        /**
+         * Helping access the private attribute cacheHits.
+         * @return the number of results which are restored from the cache.
+         */
+        int getCacheHits() {
+            return cacheHits;
+        }
+
+        /**
+         * Create the runs of one test data file with all options combinations.
+         * @param testData is the test data file.
+         * @throws Exception if errors occur when creating the result directories or reading the cache.
+         */
+        private void createRuns(File testData) throws Exception {
+            for (String benchmarkOptionCombination : optionsCombinations) {
+                // Use ion-java-benchmark as a start point to construct directory name which gives user a better idea which benchmark results would be contained under this directory.
+                String subDirectoryName = ION_JAVA_BENCHMARK + benchmarkOptionCombination.replace("--results-format ion ","").replace("_", "-").replace(" ", "_") + testData.getName();
+                File subDirectory = new File(finalResultDirectory, subDirectoryName);
+                Files.createDirectories(subDirectory.toPath());
+                // When generating benchmark results for ion-java from the new commit, all benchmark results will be named as 'new.ion'.
+                File resultFile = new File(subDirectory, NEW_FILE);
+                if (resultFile.exists()) {
+                    resultFile = new File(subDirectory, PREVIOUS_FILE);
+                }
+                String cacheKey = null;
+                if (cache != null) {
+                    cacheKey = cache.key(testData, benchmarkOptionCombination, jar);
+                    // The result of unchanged test data, options combination and benchmark CLI is reused instead of running the benchmark again.
+                    if (!flightRecording && cache.restore(cacheKey, resultFile)) {
+                        cacheHits++;
+                        continue;
+                    }
+                }
+                // Construct the arguments of ion-java-benchmark invoke, which are split by whitespaces in the same way as Runtime.exec.
+                String arguments = benchmarkOptionCombination + "--results-file " + resultFile.getPath() + " " + testData.getAbsolutePath();
+                Map<String, String> environment = new HashMap<>();
+                if (flightRecording) {
+                    // The recordings of an earlier suite are removed, so the summary only contains the JVMs of this run.
+                    File recordingDirectory = recordingDirectory(resultFile);
+                    Files.createDirectories(recordingDirectory.toPath());
+                    for (File recording : recordingDirectory.listFiles()) {
+                        try {
+                            Files.delete(recording.toPath());
+                        } catch (IOException e) {
+                            // A recording which cannot be removed should not stop the suite, it only adds an earlier JVM to the summary.
+                            System.err.println("The earlier flight recording cannot be deleted and will be summarized with this run: " + e);
+                        }
+                    }
+                    environment.put(FlightRecording.JAVA_TOOL_OPTIONS, FlightRecording.javaToolOptions(recordingDirectory));
+                }
+                BenchmarkRun run = new BenchmarkRun(subDirectoryName, launcher, Arrays.asList(arguments.trim().split("\\s+")), environment, resultFile,
+                        new File(subDirectory, LOG_FILE));
+                pending.add(run);
+                createdRuns.add(run);
+                runCombinations.put(run, benchmarkOptionCombination);
+                runTestData.put(run, testData.getName());
+                if (cacheKey != null) {
+                    cacheKeys.put(run, cacheKey);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.amazon.ion.datagenerator;
+
+import java.util.Random;
+
+/**
+ * The state which is shared by the nested DataConstructor.constructIonData calls of one generator: the random number generator, the profilers and
+ * the count of generated values which the sampled value generation events are picked from.
+ * The statistics of the profiled corpus differ from path to path, so they are passed along with the type definition of every nested value instead.
+ */
+final class GenerationContext {
+    private final Random random;
+    private final CostProfiler costProfiler;
+    private final PathCostProfiler pathCostProfiler;
+    private long generatedValues;
+
+    /**
+     * Initializing the newly created GenerationContext object, which measures nothing.
+     * @param random is the random number generator.
+     */
+    GenerationContext(Random random) {
+        this(random, CostProfiler.NONE, PathCostProfiler.NONE);
+    }
+
+    /**
+     * Initializing the newly created GenerationContext object.
+     * @param random is the random number generator.
+     * @param costProfiler measures the cost of constructing the data, CostProfiler.NONE if the cost is not measured.
+     * @param pathCostProfiler attributes the cost of the nested values to their paths, PathCostProfiler.NONE if the paths are not profiled.
+     */
+    GenerationContext(Random random, CostProfiler costProfiler, PathCostProfiler pathCostProfiler) {
+        this.random = random;
+        this.costProfiler = costProfiler;
+        this.pathCostProfiler = pathCostProfiler;
+    }
+
+    /**
+     * Helping access the private attribute random.
+     * @return the random number generator.
+     */
+    Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Helping access the private attribute costProfiler.
+     * @return the CostProfiler, or CostProfiler.NONE if the cost is not measured.
+     */
+    CostProfiler getCostProfiler() {
+        return costProfiler;
+    }
+
+    /**
+     * Helping access the private attribute pathCostProfiler.
+     * @return the PathCostProfiler, or PathCostProfiler.NONE if the paths are not profiled.
+     */
+    PathCostProfiler getPathCostProfiler() {
+        return pathCostProfiler;
+    }
+
+    /**
+     * Count one more generated value, the context belongs to one generator and is not shared between threads.
+     * @return the number of values generated with this context, including the current one.
+     */
+    long countGeneratedValue() {
+        return ++generatedValues;
+    }
+}
@@ -0,0 +1,218 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.Timestamp;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Report the progress of a long generation run periodically, either as a line on stderr or as an Ion struct appended to a progress log:
+ * progress::{ timestamp, elapsed_seconds, values, bytes, target_bytes, fraction, megabytes_per_second, average_megabytes_per_second,
+ *             values_per_second, average_values_per_second, eta_seconds, finished }
+ * The generating thread only updates the counters, which are written with lazySet because there is a single writer, so the hot loop never
+ * blocks and the reporting thread reads them without a lock. The values and the bytes at a flush are published together as one snapshot, so a
+ * report never combines the values of one flush with the bytes of another.
+ * A failed periodic report does not cancel the following reports, the first failure is thrown by close().
+ * The writer buffers the encoded values until it is flushed, so only the number of bytes at the latest flush is known. The bytes written since
+ * then are estimated from the values written since then and the average size of the flushed values, which keeps the throughput and the ETA smooth.
+ */
+public class GenerationProgress implements Closeable {
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private final long targetBytes;
+    private final PrintStream console;
+    private final IonWriter logWriter;
+    private final ScheduledExecutorService reporter;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong values = new AtomicLong();
+    private final AtomicReference<Flush> lastFlush = new AtomicReference<>(new Flush(0, 0));
+    // The first failure of a periodic report, which is written by the reporting thread and thrown by close().
+    private volatile RuntimeException reportFailure;
+    // Only accessed by the reporting thread, and by close() after the reporting thread stopped.
+    private long lastReportNanos = startNanos;
+    private double lastReportBytes;
+    private long lastReportValues;
+
+    /**
+     * Initializing the newly created GenerationProgress object, and start reporting at the provided interval.
+     * @param targetBytes is the requested size of the generated data, which the ETA is calculated against.
+     * @param intervalSeconds is the interval between two reports.
+     * @param console is the stream which the reports are printed into, or null if the reports are written into the progress log.
+     * @param logFile is the path of the Ion progress log, or null if the reports are printed into the console.
+     * @throws IOException if the progress log cannot be created.
+     */
+    public GenerationProgress(long targetBytes, double intervalSeconds, PrintStream console, String logFile) throws IOException {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("The progress interval should be positive: " + intervalSeconds);
+        }
+        this.targetBytes = targetBytes;
+        this.console = console;
+        this.logWriter = logFile == null ? null : IonTextWriterBuilder.standard().build(new BufferedOutputStream(new FileOutputStream(logFile)));
+        this.reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ion-data-generator-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = (long) (intervalSeconds * NANOS_PER_SECOND);
+        // An exception thrown by the task would silently cancel the following reports, so it is kept for close() instead.
+        reporter.scheduleAtFixedRate(() -> {
+            try {
+                report(false);
+            } catch (RuntimeException e) {
+                if (reportFailure == null) {
+                    reportFailure = e;
+                }
+            }
+        }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count one generated value, which is called by the generating thread for every value.
+     */
+    public void recordValue() {
+        values.lazySet(values.get() + 1);
+    }
+
+    /**
+     * Record the number of bytes written at a flush of the writer, which is called by the generating thread.
+     * @param bytes is the number of bytes written so far.
+     */
+    public void recordFlush(long bytes) {
+        lastFlush.lazySet(new Flush(values.get(), bytes));
+    }
+
+    /**
+     * Stop the periodic reports and write the final report.
+     * @throws IOException if errors occur when writing the progress log.
+     * @throws IllegalStateException if a periodic report failed.
+     */
+    @Override
+    public void close() throws IOException {
+        reporter.shutdownNow();
+        try {
+            reporter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            report(true);
+        } finally {
+            if (logWriter != null) {
+                logWriter.close();
+            }
+        }
+        if (reportFailure != null) {
+            throw reportFailure;
+        }
+    }
+
+    /**
+     * Write one report of the current progress.
+     * @param finished is true for the final report after the generation completes.
+     */
+    private synchronized void report(boolean finished) {
+        long now = System.nanoTime();
+        long currentValues = values.get();
+        Flush flush = lastFlush.get();
+        long currentFlushedBytes = flush.bytes;
+        long currentFlushedValues = flush.values;
+        double bytes = currentFlushedBytes;
+        if (!finished && currentFlushedValues > 0 && currentValues > currentFlushedValues) {
+            bytes += (currentValues - currentFlushedValues) * ((double) currentFlushedBytes / currentFlushedValues);
+        }
+        double elapsedSeconds = (now - startNanos) / NANOS_PER_SECOND;
+        double intervalSeconds = (now - lastReportNanos) / NANOS_PER_SECOND;
+        double megabytesPerSecond = intervalSeconds > 0 ? (bytes - lastReportBytes) / BYTES_PER_MEGABYTE / intervalSeconds : 0;
+        double valuesPerSecond = intervalSeconds > 0 ? (currentValues - lastReportValues) / intervalSeconds : 0;
+        double averageMegabytesPerSecond = elapsedSeconds > 0 ? bytes / BYTES_PER_MEGABYTE / elapsedSeconds : 0;
+        double averageValuesPerSecond = elapsedSeconds > 0 ? currentValues / elapsedSeconds : 0;
+        double fraction = targetBytes > 0 ? Math.min(1.0, bytes / targetBytes) : 0;
+        // The ETA is unknown until some bytes have been written.
+        double etaSeconds = finished ? 0 : bytes > 0 ? Math.max(0, targetBytes - bytes) / (bytes / elapsedSeconds) : -1;
+        lastReportNanos = now;
+        lastReportBytes = bytes;
+        lastReportValues = currentValues;
+        if (console != null) {
+            console.println(String.format("Progress: %.1f%%, %d values, %.1f of %.1f MB, %.2f MB/s (average %.2f MB/s), %.0f values/s (average %.0f values/s), ETA %s",
+                    fraction * 100, currentValues, bytes / BYTES_PER_MEGABYTE, targetBytes / BYTES_PER_MEGABYTE, megabytesPerSecond, averageMegabytesPerSecond,
+                    valuesPerSecond, averageValuesPerSecond, formatDuration(etaSeconds)));
+        }
+        if (logWriter != null) {
+            try {
+                logWriter.addTypeAnnotation("progress");
+                logWriter.stepIn(IonType.STRUCT);
+                logWriter.setFieldName("timestamp");
+                logWriter.writeTimestamp(Timestamp.now());
+                logWriter.setFieldName("elapsed_seconds");
+                logWriter.writeFloat(elapsedSeconds);
+                logWriter.setFieldName("values");
+                logWriter.writeInt(currentValues);
+                logWriter.setFieldName("bytes");
+                logWriter.writeInt((long) bytes);
+                logWriter.setFieldName("target_bytes");
+                logWriter.writeInt(targetBytes);
+                logWriter.setFieldName("fraction");
+                logWriter.writeFloat(fraction);
+                logWriter.setFieldName("megabytes_per_second");
+                logWriter.writeFloat(megabytesPerSecond);
+                logWriter.setFieldName("average_megabytes_per_second");
+                logWriter.writeFloat(averageMegabytesPerSecond);
+                logWriter.setFieldName("values_per_second");
+                logWriter.writeFloat(valuesPerSecond);
+                logWriter.setFieldName("average_values_per_second");
+                logWriter.writeFloat(averageValuesPerSecond);
+                logWriter.setFieldName("eta_seconds");
+                logWriter.writeFloat(etaSeconds);
+                logWriter.setFieldName("finished");
+                logWriter.writeBool(finished);
+                logWriter.stepOut();
+                // Every report is flushed, so the log can be followed while the generation is running.
+                logWriter.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Errors occur when writing the progress log.", e);
+            }
+        }
+    }
+
+    /**
+     * The number of values and the number of bytes written at one flush of the writer.
+     */
+    private static final class Flush {
+        private final long values;
+        private final long bytes;
+
+        /**
+         * Initializing the newly created Flush object.
+         * @param values is the number of values generated before the flush.
+         * @param bytes is the number of bytes written so far.
+         */
+        private Flush(long values, long bytes) {
+            this.values = values;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Format the duration as hours, minutes and seconds.
+     * @param seconds is the duration in seconds, a negative duration is unknown.
+     * @return the formatted duration, e.g. 01:02:03.
+     */
+    private static String formatDuration(double seconds) {
+        if (seconds < 0 || Double.isInfinite(seconds) || Double.isNaN(seconds)) {
+            return "unknown";
+        }
+        long total = Math.round(seconds);
+        return String.format("%02d:%02d:%02d", total / 3600, total / 60 % 60, total % 60);
+    }
+}
@@ -0,0 +1,371 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonBlob;
+import com.amazon.ion.IonClob;
+import com.amazon.ion.IonContainer;
+import com.amazon.ion.IonDecimal;
+import com.amazon.ion.IonFloat;
+import com.amazon.ion.IonInt;
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonString;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonSymbol;
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonTimestamp;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.SymbolTable;
+import com.amazon.ion.Timestamp;
+import com.amazon.ion.datagenerator.profile.Histogram;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Collect the statistics of the generated corpus while it is written, and write them into an Ion sidecar file.
+ * The statistics include value counts and encoded bytes per Ion type and per field path, container length histograms,
+ * and the size and growth of the local symbol table.
+ * The encoded bytes of each value are computed from the Ion 1.0 binary encoding rules, with symbol IDs assigned in the same order as the
+ * binary writer assigns them, so the per-path bytes sum up to the size of the binary data without symbol tables and version markers.
+ * The sidecar is written as:
+ * ion_data_statistics::{ values: <INT>, bytes: <INT>, types: { <TYPE>: { count: <INT>, encoded_bytes: <INT> }... },
+ *                        paths: <PATH>, symbol_table: { local_symbols: <INT>, max_local_symbols: <INT>, resets: <INT>, growth: [[values, bytes, local_symbols]...] } }
+ */
+public class GenerationStatistics {
+    // The maximum number of symbol table growth samples, the later changes are only reflected in the final counts.
+    private static final int MAX_GROWTH_SAMPLES = 1024;
+    private static final int TYPE_DESCRIPTOR_LENGTH_LIMIT = 14;
+    private final long[] typeCounts = new long[IonType.values().length];
+    private final long[] typeBytes = new long[IonType.values().length];
+    private final PathCounters root = new PathCounters();
+    // Simulate the symbol IDs assigned by the binary writer.
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private final int firstLocalSymbolId;
+    private int nextLocalSymbolId;
+    private long values;
+    private long resets;
+    private int maxLocalSymbols;
+    private int lastLocalSymbols;
+    private final List<long[]> growth = new ArrayList<>();
+
+    /**
+     * Initializing the newly created GenerationStatistics object.
+     * @param imports are the shared symbol tables imported by the generated data.
+     */
+    public GenerationStatistics(SymbolTable... imports) {
+        int symbolId = 1;
+        symbolId = addSymbols(ReadGeneralConstraints.SYSTEM.getSystemSymbolTable(), symbolId);
+        for (SymbolTable symbolTable : imports) {
+            symbolId = addSymbols(symbolTable, symbolId);
+        }
+        this.firstLocalSymbolId = symbolId;
+        this.nextLocalSymbolId = symbolId;
+    }
+
+    /**
+     * Assign the symbol IDs of the symbols declared by the system symbol table or an imported shared symbol table.
+     * @param symbolTable is the system symbol table or a shared symbol table.
+     * @param firstSymbolId is the symbol ID of the first declared symbol.
+     * @return the symbol ID following the last declared symbol.
+     */
+    private int addSymbols(SymbolTable symbolTable, int firstSymbolId) {
+        int symbolId = firstSymbolId;
+        Iterator<String> symbols = symbolTable.iterateDeclaredSymbolNames();
+        while (symbols.hasNext()) {
+            String symbol = symbols.next();
+            if (symbol != null) {
+                symbolIds.putIfAbsent(symbol, symbolId);
+            }
+            symbolId++;
+        }
+        return symbolId;
+    }
+
+    /**
+     * Record a top-level value after it has been written.
+     * @param value is the written value.
+     */
+    public void recordValue(IonValue value) {
+        values++;
+        record(value, root);
+    }
+
+    /**
+     * Record that the local symbol table has been reset, so the following symbols are assigned new symbol IDs.
+     */
+    public void recordReset() {
+        resets++;
+        symbolIds.values().removeIf(symbolId -> symbolId >= firstLocalSymbolId);
+        nextLocalSymbolId = firstLocalSymbolId;
+    }
+
+    /**
+     * Record the size of the local symbol table after the writer is flushed.
+     * @param bytes is the number of bytes written so far.
+     * @param symbolTable is the current symbol table of the writer.
+     */
+    public void recordFlush(long bytes, SymbolTable symbolTable) {
+        int localSymbols = Math.max(0, symbolTable.getMaxId() - firstLocalSymbolId + 1);
+        maxLocalSymbols = Math.max(maxLocalSymbols, localSymbols);
+        if (localSymbols != lastLocalSymbols && growth.size() < MAX_GROWTH_SAMPLES) {
+            growth.add(new long[] {values, bytes, localSymbols});
+        }
+        lastLocalSymbols = localSymbols;
+    }
+
+    /**
+     * Record the value and its nested values, and return its encoded size.
+     * @param value is the value which will be recorded.
+     * @param counters are the counters of the path of the value.
+     * @return the number of bytes of the value in Ion binary, including its annotations.
+     */
+    private int record(IonValue value, PathCounters counters) {
+        IonType type = value.getType();
+        // The symbol IDs are assigned in the order the writer meets the symbols, and the annotations are written before the value.
+        String[] annotations = value.getTypeAnnotations();
+        int annotationsLength = 0;
+        for (String annotation : annotations) {
+            annotationsLength += varUIntLength(symbolId(annotation));
+        }
+        int length;
+        if (value.isNullValue()) {
+            length = 1;
+        } else if (value instanceof IonContainer) {
+            int childrenLength = 0;
+            int size = 0;
+            for (IonValue child : (IonContainer) value) {
+                size++;
+                if (type == IonType.STRUCT) {
+                    childrenLength += varUIntLength(symbolId(child.getFieldName()));
+                    childrenLength += record(child, counters.fields.computeIfAbsent(child.getFieldName(), name -> new PathCounters()));
+                } else {
+                    if (counters.elements == null) {
+                        counters.elements = new PathCounters();
+                    }
+                    childrenLength += record(child, counters.elements);
+                }
+            }
+            counters.containerLengths.add(size);
+            length = withTypeDescriptor(childrenLength);
+        } else {
+            length = withTypeDescriptor(scalarLength(value, this::symbolId));
+        }
+        if (annotations.length > 0) {
+            length = withTypeDescriptor(varUIntLength(annotationsLength) + annotationsLength + length);
+        }
+        typeCounts[type.ordinal()]++;
+        typeBytes[type.ordinal()] += length;
+        counters.count++;
+        counters.bytes += length;
+        return length;
+    }
+
+    /**
+     * Compute the number of bytes of the scalar value representation, excluding the type descriptor and the length.
+     * @param value is the scalar value which is not null.
+     * @param symbolIds assigns the symbol ID of the symbol text.
+     * @return the number of bytes of the representation.
+     */
+    static int scalarLength(IonValue value, ToIntFunction<String> symbolIds) {
+        switch (value.getType()) {
+            case BOOL:
+                return 0;
+            case INT:
+                return magnitudeLength(((IonInt) value).bigIntegerValue().abs());
+            case FLOAT:
+                return ((IonFloat) value).doubleValue() == 0 && 1 / ((IonFloat) value).doubleValue() > 0 ? 0 : 8;
+            case DECIMAL:
+                return decimalLength(((IonDecimal) value).bigDecimalValue());
+            case TIMESTAMP:
+                return timestampLength(((IonTimestamp) value).timestampValue());
+            case SYMBOL:
+                return magnitudeLength(BigInteger.valueOf(symbolIds.applyAsInt(((IonSymbol) value).stringValue())));
+            case STRING:
+                return utf8Length(((IonString) value).stringValue());
+            case CLOB:
+                return ((IonClob) value).byteSize();
+            case BLOB:
+                return ((IonBlob) value).byteSize();
+            default:
+                throw new IllegalStateException(value.getType() + " is not supported.");
+        }
+    }
+
+    private int symbolId(String symbol) {
+        if (symbol == null) {
+            // Symbols with unknown text are written as symbol zero.
+            return 0;
+        }
+        return symbolIds.computeIfAbsent(symbol, text -> nextLocalSymbolId++);
+    }
+
+    static int withTypeDescriptor(int representationLength) {
+        return 1 + representationLength + (representationLength < TYPE_DESCRIPTOR_LENGTH_LIMIT ? 0 : varUIntLength(representationLength));
+    }
+
+    static int varUIntLength(long value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int varIntLength(long value) {
+        // The first byte of VarInt carries the sign bit, so it only carries 6 bits of magnitude.
+        return varUIntLength(Math.abs(value) << 1);
+    }
+
+    private static int magnitudeLength(BigInteger magnitude) {
+        return (magnitude.bitLength() + 7) / 8;
+    }
+
+    private static int signedMagnitudeLength(BigInteger value) {
+        // Int fields keep the sign in the highest bit, and zero is written as an empty field.
+        return value.signum() == 0 ? 0 : (value.abs().bitLength() + 8) / 8;
+    }
+
+    private static int decimalLength(BigDecimal value) {
+        if (value.signum() == 0 && value.scale() == 0) {
+            return 0;
+        }
+        return varIntLength(-value.scale()) + signedMagnitudeLength(value.unscaledValue());
+    }
+
+    private static int timestampLength(Timestamp timestamp) {
+        Integer offset = timestamp.getLocalOffset();
+        int length = (offset == null ? 1 : varIntLength(offset)) + varUIntLength(timestamp.getZYear());
+        switch (timestamp.getPrecision()) {
+            case FRACTION:
+            case SECOND:
+                // The fraction keeps the scale of the decimal second, e.g. 0.500 for 05.500, and a second without a fraction has no scale.
+                BigDecimal second = timestamp.getZDecimalSecond();
+                if (second.scale() > 0) {
+                    length += decimalLength(second.subtract(BigDecimal.valueOf(timestamp.getZSecond())));
+                }
+                length += 1;
+                // Fall through, the timestamps with second precision also contain the minute, hour, day and month.
+            case MINUTE:
+                length += 2;
+            case DAY:
+                length += 1;
+            case MONTH:
+                length += 1;
+            default:
+                return length;
+        }
+    }
+
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Write the statistics into the sidecar file in Ion text.
+     * @param totalBytes is the size of the generated file.
+     * @param statisticsFile is the path of the sidecar file.
+     * @throws IOException if errors occur when writing the sidecar file.
+     */
+    public void write(long totalBytes, String statisticsFile) throws IOException {
+        IonSystem system = ReadGeneralConstraints.SYSTEM;
+        IonStruct statistics = system.newEmptyStruct();
+        statistics.setTypeAnnotations("ion_data_statistics");
+        statistics.add("values", system.newInt(values));
+        statistics.add("bytes", system.newInt(totalBytes));
+        IonStruct types = system.newEmptyStruct();
+        for (IonType type : IonType.values()) {
+            if (typeCounts[type.ordinal()] > 0) {
+                IonStruct typeStatistics = system.newEmptyStruct();
+                typeStatistics.add("count", system.newInt(typeCounts[type.ordinal()]));
+                typeStatistics.add("encoded_bytes", system.newInt(typeBytes[type.ordinal()]));
+                types.add(type.toString().toLowerCase(), typeStatistics);
+            }
+        }
+        statistics.add("types", types);
+        statistics.add("paths", root.toIon(system));
+        IonStruct symbolTable = system.newEmptyStruct();
+        symbolTable.add("local_symbols", system.newInt(lastLocalSymbols));
+        symbolTable.add("max_local_symbols", system.newInt(maxLocalSymbols));
+        symbolTable.add("resets", system.newInt(resets));
+        IonList growthList = system.newEmptyList();
+        growth.forEach(sample -> growthList.add(system.newList(sample)));
+        symbolTable.add("growth", growthList);
+        statistics.add("symbol_table", symbolTable);
+        try (OutputStream outputStream = new FileOutputStream(statisticsFile);
+             IonWriter writer = IonTextWriterBuilder.pretty().build(outputStream)) {
+            statistics.writeTo(writer);
+        }
+    }
+
+    /**
+     * Get the number of recorded values of the provided type, including the nested values.
+     * @param type is the Ion type.
+     * @return the number of values.
+     */
+    public long getTypeCount(IonType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    /**
+     * Get the encoded bytes of the recorded top-level values.
+     * @return the number of bytes.
+     */
+    public long getEncodedBytes() {
+        return root.bytes;
+    }
+
+    /**
+     * The counters of one field path.
+     */
+    private static final class PathCounters {
+        private long count;
+        private long bytes;
+        private final Histogram containerLengths = new Histogram();
+        private final Map<String, PathCounters> fields = new TreeMap<>();
+        private PathCounters elements;
+
+        private IonStruct toIon(IonSystem system) {
+            IonStruct struct = system.newEmptyStruct();
+            struct.add("count", system.newInt(count));
+            struct.add("encoded_bytes", system.newInt(bytes));
+            if (!containerLengths.isEmpty()) {
+                struct.add("container_lengths", containerLengths.toIon(system));
+            }
+            if (!fields.isEmpty()) {
+                IonStruct fieldsStruct = system.newEmptyStruct();
+                fields.forEach((name, field) -> fieldsStruct.add(name, field.toIon(system)));
+                struct.add("fields", fieldsStruct);
+            }
+            if (elements != null) {
+                struct.add("elements", elements.toIon(system));
+            }
+            return struct;
+        }
+    }
+}
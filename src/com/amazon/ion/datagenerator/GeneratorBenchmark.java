@@ -0,0 +1,344 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonFloat;
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The end-to-end throughput benchmark of the 'generate' workload. Every combination of the ISL schemas, data sizes and formats (ion_binary | ion_text) is
+ * generated into a temporary file by a number of forked JVMs, and each fork runs the warmup iterations and then the measured iterations, like a JMH fork.
+ * Each iteration measures the wall time of one full 'generate' run, from which the throughput in MB/s and values/s is calculated, and each fork reports
+ * its peak resident set size from /proc/self/status.
+ * The results are written in the JMH result layout which BenchmarkResultIndex reads, so 'compare' can detect regressions of the generator:
+ *   [ { benchmark: "com.amazon.ion.datagenerator.GeneratorBenchmark.generate", mode: "thrpt", forks, warmupIterations, measurementIterations,
+ *       params: { schema, size, format },
+ *       primaryMetric: { score, scoreUnit: "MB/s", rawData: [[...]...] },
+ *       secondaryMetrics: { "Value rate": { score, scoreUnit: "values/s", rawData }, "Peak RSS": { score, scoreUnit: "MB", rawData } } }... ]
+ */
+public class GeneratorBenchmark {
+    public static final String VALUE_RATE = "Value rate";
+    public static final String PEAK_RSS = "Peak RSS";
+    private static final String BENCHMARK_NAME = GeneratorBenchmark.class.getName() + ".generate";
+    private static final String SCHEMA_SUFFIX = ".isl";
+    private static final List<String> FORMATS = Arrays.asList(IonSchemaUtilities.ION_BINARY, IonSchemaUtilities.ION_TEXT);
+    // The seed used when '--seed' is not provided, the same data has to be generated by every commit for the results to be comparable.
+    private static final long DEFAULT_SEED = 1;
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final String PROC_STATUS = "/proc/self/status";
+    // The peak resident set size in /proc/self/status, in kB.
+    private static final String PEAK_RSS_FIELD = "VmHWM:";
+    private static final String MEGABYTES_PER_SECOND = "megabytes_per_second";
+    private static final String VALUES_PER_SECOND = "values_per_second";
+    private static final String PEAK_RSS_MEGABYTES = "peak_rss_megabytes";
+    private static final String RESULT_SUFFIX = ".result.ion";
+    private static final String LOG_SUFFIX = ".log";
+
+    /**
+     * Run the generator benchmark for every combination of the schemas, sizes and formats, and write the results.
+     * @param optionsMap is the hash map which generated by the command line parser which match the option name and its value appropriately.
+     * @throws Exception if errors occur when running the forks or writing the results.
+     */
+    public static void runAndWrite(Map<String, Object> optionsMap) throws Exception {
+        List<File> schemas = listSchemas(new File(optionsMap.get("--input-ion-schema").toString()));
+        List<Integer> sizes = new ArrayList<>();
+        for (String size : optionsMap.get("--data-sizes").toString().split(",")) {
+            sizes.add(Integer.parseInt(size.trim()));
+        }
+        long seed = optionsMap.get("--seed") == null ? DEFAULT_SEED : Long.parseLong(optionsMap.get("--seed").toString());
+        int forks = Integer.parseInt(optionsMap.get("--forks").toString());
+        int warmupIterations = Integer.parseInt(optionsMap.get("--warmup-iterations").toString());
+        int iterations = Integer.parseInt(optionsMap.get("--iterations").toString());
+        if (forks < 1 || iterations < 1 || warmupIterations < 0) {
+            throw new IllegalArgumentException("Please provide at least one fork and one measured iteration.");
+        }
+        File outputFile = new File(optionsMap.get("<output_file>").toString()).getAbsoluteFile();
+        // The data is generated next to the output file, so the benchmark writes to the same kind of storage as the daily corpus generation.
+        Path workDirectory = Files.createTempDirectory(outputFile.getParentFile().toPath(), "generator-benchmark");
+        try (IonWriter writer = IonTextWriterBuilder.pretty().build(new BufferedOutputStream(new FileOutputStream(outputFile)))) {
+            writer.stepIn(IonType.LIST);
+            for (File schema : schemas) {
+                for (int size : sizes) {
+                    for (String format : FORMATS) {
+                        List<IonStruct> forkResults = new ArrayList<>();
+                        for (int fork = 0; fork < forks; fork++) {
+                            forkResults.add(runFork(schema, size, format, seed, warmupIterations, iterations, workDirectory.toFile()));
+                        }
+                        writeEntry(writer, schema, size, format, forks, warmupIterations, iterations, forkResults);
+                        System.out.println(String.format("Generator benchmark: %s, %d bytes, %s finished.", schema.getName(), size, format));
+                    }
+                }
+            }
+            writer.stepOut();
+        } finally {
+            File[] leftovers = workDirectory.toFile().listFiles();
+            if (leftovers != null) {
+                for (File leftover : leftovers) {
+                    Files.deleteIfExists(leftover.toPath());
+                }
+            }
+            Files.deleteIfExists(workDirectory);
+        }
+    }
+
+    /**
+     * The entry of a forked JVM, which runs the iterations of one workload and writes the measurements into the result file.
+     * @param args are the schema file, the data size, the format, the seed, the number of warmup iterations, the number of measured iterations,
+     *             the data file and the result file.
+     * @throws Exception if errors occur when generating the data or writing the measurements.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 8) {
+            throw new IllegalArgumentException("The generator benchmark fork requires 8 arguments, but " + args.length + " are provided.");
+        }
+        String schema = args[0];
+        int size = Integer.parseInt(args[1]);
+        String format = args[2];
+        long seed = Long.parseLong(args[3]);
+        int warmupIterations = Integer.parseInt(args[4]);
+        int iterations = Integer.parseInt(args[5]);
+        File dataFile = new File(args[6]);
+        List<Double> megabytesPerSecond = new ArrayList<>();
+        List<Double> valuesPerSecond = new ArrayList<>();
+        for (int i = 0; i < warmupIterations + iterations; i++) {
+            // Every iteration generates the same data, and the schema is parsed inside the measured time like the 'generate' command does.
+            long start = System.nanoTime();
+            IonDataGenerator generator = IonDataGenerator.builder()
+                    .withSchema(IonSchemaUtilities.loadSchemaDefinition(schema))
+                    .withSeed(seed)
+                    .build();
+            long values = ReadGeneralConstraints.constructAndWriteIonData(size, generator, format, dataFile.getPath(), WriteOptions.DEFAULT);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long bytes = dataFile.length();
+            Files.delete(dataFile.toPath());
+            if (i >= warmupIterations) {
+                megabytesPerSecond.add(bytes / BYTES_PER_MEGABYTE / seconds);
+                valuesPerSecond.add(values / seconds);
+            }
+        }
+        double peakRssMegabytes = readPeakRssMegabytes();
+        try (IonWriter writer = IonTextWriterBuilder.standard().build(new BufferedOutputStream(new FileOutputStream(args[7])))) {
+            writer.stepIn(IonType.STRUCT);
+            writeMeasurements(writer, MEGABYTES_PER_SECOND, megabytesPerSecond);
+            writeMeasurements(writer, VALUES_PER_SECOND, valuesPerSecond);
+            if (peakRssMegabytes >= 0) {
+                writer.setFieldName(PEAK_RSS_MEGABYTES);
+                writer.writeFloat(peakRssMegabytes);
+            }
+            writer.stepOut();
+        }
+    }
+
+    /**
+     * Get the ISL files to benchmark.
+     * @param schema is an ISL file or a directory of ISL files.
+     * @return the ISL files sorted by name.
+     */
+    private static List<File> listSchemas(File schema) {
+        if (schema.isFile()) {
+            return Arrays.asList(schema);
+        }
+        File[] files = schema.listFiles((directory, name) -> name.endsWith(SCHEMA_SUFFIX));
+        if (files == null || files.length == 0) {
+            throw new IllegalArgumentException("Please provide an ISL file or a directory which contains ISL files: " + schema);
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * Run one fork of a workload in a new JVM with the class path of the current JVM, and read its measurements. The output of the fork is written into
+     * a log file which is printed when the fork fails.
+     * @param schema is the ISL file.
+     * @param size is the requested size of the generated data.
+     * @param format is the format of the generated data.
+     * @param seed is the seed of the generator.
+     * @param warmupIterations is the number of iterations which are not measured.
+     * @param iterations is the number of measured iterations.
+     * @param workDirectory is the directory of the generated data and the temporary files of the fork.
+     * @return the measurements of the fork.
+     * @throws Exception if the fork fails or errors occur when reading its measurements.
+     */
+    private static IonStruct runFork(File schema, int size, String format, long seed, int warmupIterations, int iterations, File workDirectory)
+            throws Exception {
+        File dataFile = File.createTempFile("data", format.equals(IonSchemaUtilities.ION_BINARY) ? ".10n" : ".ion", workDirectory);
+        File resultFile = File.createTempFile("fork", RESULT_SUFFIX, workDirectory);
+        File logFile = File.createTempFile("fork", LOG_SUFFIX, workDirectory);
+        try {
+            String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), GeneratorBenchmark.class.getName(),
+                    schema.getPath(), String.valueOf(size), format, String.valueOf(seed), String.valueOf(warmupIterations), String.valueOf(iterations),
+                    dataFile.getPath(), resultFile.getPath())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.to(logFile))
+                    .start();
+            if (process.waitFor() != 0 || resultFile.length() == 0) {
+                System.err.println(new String(Files.readAllBytes(logFile.toPath()), StandardCharsets.UTF_8));
+                throw new IllegalStateException("The generator benchmark fork failed: " + schema.getName() + ", " + size + " bytes, " + format + ".");
+            }
+            try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(resultFile)))) {
+                reader.next();
+                return (IonStruct) ReadGeneralConstraints.SYSTEM.newValue(reader);
+            }
+        } finally {
+            Files.deleteIfExists(dataFile.toPath());
+            Files.deleteIfExists(resultFile.toPath());
+            Files.deleteIfExists(logFile.toPath());
+        }
+    }
+
+    /**
+     * Read the peak resident set size of the current process.
+     * @return the peak resident set size in MB, or -1 if /proc/self/status is not available, e.g. the operating system is not Linux.
+     * @throws IOException if errors occur when reading /proc/self/status.
+     */
+    private static double readPeakRssMegabytes() throws IOException {
+        File status = new File(PROC_STATUS);
+        if (!status.isFile()) {
+            return -1;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(status))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(PEAK_RSS_FIELD)) {
+                    String kilobytes = line.substring(PEAK_RSS_FIELD.length()).trim().split("\\s+")[0];
+                    return Long.parseLong(kilobytes) / 1024.0;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Write the measurements of a fork as a list of floats.
+     * @param writer is the writer of the result file.
+     * @param fieldName is the name of the measurements.
+     * @param measurements are the measurements of the measured iterations.
+     * @throws IOException if errors occur when writing the measurements.
+     */
+    private static void writeMeasurements(IonWriter writer, String fieldName, List<Double> measurements) throws IOException {
+        writer.setFieldName(fieldName);
+        writer.stepIn(IonType.LIST);
+        for (double measurement : measurements) {
+            writer.writeFloat(measurement);
+        }
+        writer.stepOut();
+    }
+
+    /**
+     * Write the benchmark entry of one workload in the JMH result layout.
+     * @param writer is the writer of the benchmark results.
+     * @param schema is the ISL file.
+     * @param size is the requested size of the generated data.
+     * @param format is the format of the generated data.
+     * @param forks is the number of forks.
+     * @param warmupIterations is the number of iterations which are not measured.
+     * @param iterations is the number of measured iterations.
+     * @param forkResults are the measurements of all forks.
+     * @throws IOException if errors occur when writing the entry.
+     */
+    private static void writeEntry(IonWriter writer, File schema, int size, String format, int forks, int warmupIterations, int iterations,
+                                   List<IonStruct> forkResults) throws IOException {
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName("benchmark");
+        writer.writeString(BENCHMARK_NAME);
+        writer.setFieldName("mode");
+        writer.writeString("thrpt");
+        writer.setFieldName("forks");
+        writer.writeInt(forks);
+        writer.setFieldName("warmupIterations");
+        writer.writeInt(warmupIterations);
+        writer.setFieldName("measurementIterations");
+        writer.writeInt(iterations);
+        // JMH writes the parameters as strings.
+        writer.setFieldName("params");
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName("schema");
+        writer.writeString(schema.getName());
+        writer.setFieldName("size");
+        writer.writeString(String.valueOf(size));
+        writer.setFieldName("format");
+        writer.writeString(format);
+        writer.stepOut();
+        writer.setFieldName("primaryMetric");
+        writeMetric(writer, "MB/s", forkResults, MEGABYTES_PER_SECOND);
+        writer.setFieldName("secondaryMetrics");
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName(VALUE_RATE);
+        writeMetric(writer, "values/s", forkResults, VALUES_PER_SECOND);
+        if (forkResults.stream().allMatch(forkResult -> forkResult.containsKey(PEAK_RSS_MEGABYTES))) {
+            writer.setFieldName(PEAK_RSS);
+            writeMetric(writer, "MB", forkResults, PEAK_RSS_MEGABYTES);
+        }
+        writer.stepOut();
+        writer.stepOut();
+    }
+
+    /**
+     * Write one metric with the raw data of every fork, whose score is the mean of all measurements.
+     * @param writer is the writer of the benchmark results.
+     * @param scoreUnit is the unit of the metric.
+     * @param forkResults are the measurements of all forks.
+     * @param fieldName is the name of the measurements in the fork results, which is either a list of measurements or a single measurement.
+     * @throws IOException if errors occur when writing the metric.
+     */
+    private static void writeMetric(IonWriter writer, String scoreUnit, List<IonStruct> forkResults, String fieldName) throws IOException {
+        List<List<Double>> rawData = new ArrayList<>();
+        double sum = 0;
+        int count = 0;
+        for (IonStruct forkResult : forkResults) {
+            IonValue measurements = forkResult.get(fieldName);
+            List<Double> forkData = new ArrayList<>();
+            if (measurements instanceof IonList) {
+                for (IonValue measurement : (IonList) measurements) {
+                    forkData.add(((IonFloat) measurement).doubleValue());
+                }
+            } else {
+                forkData.add(((IonFloat) measurements).doubleValue());
+            }
+            for (double measurement : forkData) {
+                sum += measurement;
+                count++;
+            }
+            rawData.add(forkData);
+        }
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName("score");
+        writer.writeDecimal(BigDecimal.valueOf(sum / count));
+        writer.setFieldName("scoreUnit");
+        writer.writeString(scoreUnit);
+        writer.setFieldName("rawData");
+        writer.stepIn(IonType.LIST);
+        for (List<Double> forkData : rawData) {
+            writer.stepIn(IonType.LIST);
+            for (double measurement : forkData) {
+                writer.writeDecimal(BigDecimal.valueOf(measurement));
+            }
+            writer.stepOut();
+        }
+        writer.stepOut();
+        writer.stepOut();
+    }
+}
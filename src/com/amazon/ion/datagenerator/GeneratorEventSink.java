@@ -0,0 +1,67 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonValue;
+
+/**
+ * The recorder of the generator events which GeneratorEvents delegates to once the events are enabled. The Java Flight Recorder implementation
+ * is compiled from jfr/ on JDK 11+ and loaded by its class name, so the sources in src/ still compile and run on JVMs without JFR.
+ * The handles returned by the begin methods are passed back to the matching end methods.
+ */
+interface GeneratorEventSink {
+    /**
+     * Begin the event of loading a schema.
+     * @return the event handle.
+     */
+    Object beginSchemaLoad();
+
+    /**
+     * End and commit the event of loading a schema.
+     * @param handle is the handle returned by beginSchemaLoad().
+     * @param schemaFile is the path of the schema file.
+     */
+    void endSchemaLoad(Object handle, String schemaFile);
+
+    /**
+     * Begin the event of parsing the type definition.
+     * @return the event handle.
+     */
+    Object beginTypeParse();
+
+    /**
+     * End and commit the event of parsing the type definition.
+     * @param handle is the handle returned by beginTypeParse().
+     * @param typeName is the name of the type definition.
+     */
+    void endTypeParse(Object handle, String typeName);
+
+    /**
+     * Begin the event of a batch of values.
+     * @return the event handle.
+     */
+    Object beginBatch();
+
+    /**
+     * End and commit the event of a batch of values.
+     * @param handle is the handle returned by beginBatch().
+     * @param typeName is the name of the generated type definition.
+     * @param values is the number of values in the batch.
+     * @param encodedBytes is the number of bytes written by the flush.
+     * @param flushNanos is the duration of the flush in nanoseconds.
+     */
+    void endBatch(Object handle, String typeName, long values, long encodedBytes, long flushNanos);
+
+    /**
+     * Begin the event of generating one value.
+     * @return the event handle.
+     */
+    Object beginValue();
+
+    /**
+     * End and commit the event of generating one value.
+     * @param handle is the handle returned by beginValue().
+     * @param typeName is the name of the generated type definition.
+     * @param value is the generated value.
+     * @param format is the format of the generated data.
+     */
+    void endValue(Object handle, String typeName, IonValue value, String format);
+}
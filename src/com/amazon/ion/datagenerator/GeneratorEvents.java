@@ -0,0 +1,157 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonValue;
+
+/**
+ * Emit Java Flight Recorder events for the phases of the generator: loading the schema, parsing the type definition, every batch of values written
+ * between two flushes in constructAndWriteIonData, and the generation of every N-th value. The events are recorded by any running recording, e.g.
+ * one started by -XX:StartFlightRecording or jcmd, and can be inspected with the standard JDK tools.
+ * The JFR events are compiled from jfr/ by the jfr profile on JDK 11+ and only loaded by their class name after enable() is called, so the
+ * generator still builds and runs on JVMs without JFR. While the events are disabled, each instrumented point only reads a volatile field.
+ * The handles returned by the begin methods are the JFR events, or null when the event is not recorded, and must be passed to the matching end method.
+ */
+public final class GeneratorEvents {
+    public static final int DEFAULT_SAMPLE_INTERVAL = 1000;
+    private static final String JFR_EVENT_CLASS = "jdk.jfr.Event";
+    private static final String JFR_EVENTS_CLASS = "com.amazon.ion.datagenerator.GeneratorJfrEvents";
+    // The sample interval is written before the sink is published, so any thread which reads a non-null sink also reads its interval.
+    private static volatile GeneratorEventSink sink;
+    private static volatile int sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+
+    private GeneratorEvents() {
+    }
+
+    /**
+     * Enable the events. Enabling is expected before the generation starts, the value generation events of every generator are sampled from its
+     * own count of generated values.
+     * @param valueSampleInterval is the interval of the sampled value generation events, e.g. 1000 records the generation of every 1000th value.
+     */
+    public static synchronized void enable(int valueSampleInterval) {
+        if (valueSampleInterval < 1) {
+            throw new IllegalArgumentException("The sample interval of the value generation events should be positive: " + valueSampleInterval);
+        }
+        try {
+            Class.forName(JFR_EVENT_CLASS);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Java Flight Recorder is not supported by the current JVM, please use JDK 11+.", e);
+        }
+        GeneratorEventSink jfrEvents;
+        try {
+            jfrEvents = (GeneratorEventSink) Class.forName(JFR_EVENTS_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("The Java Flight Recorder events are not included in this build, please build the generator with JDK 11+.", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Errors occur when registering the Java Flight Recorder events.", e);
+        }
+        sampleInterval = valueSampleInterval;
+        sink = jfrEvents;
+    }
+
+    /**
+     * Disable the events.
+     */
+    public static synchronized void disable() {
+        sink = null;
+    }
+
+    /**
+     * Check whether the events are enabled.
+     * @return true if the events are enabled.
+     */
+    public static boolean isEnabled() {
+        return sink != null;
+    }
+
+    /**
+     * Begin the event of loading a schema.
+     * @return the event handle, or null if the event is not recorded.
+     */
+    static Object beginSchemaLoad() {
+        GeneratorEventSink current = sink;
+        return current == null ? null : current.beginSchemaLoad();
+    }
+
+    /**
+     * End the event of loading a schema.
+     * @param event is the handle returned by beginSchemaLoad().
+     * @param schemaFile is the path of the schema file.
+     */
+    static void endSchemaLoad(Object event, String schemaFile) {
+        GeneratorEventSink current = sink;
+        if (event != null && current != null) {
+            current.endSchemaLoad(event, schemaFile);
+        }
+    }
+
+    /**
+     * Begin the event of parsing the type definition into the ReparsedType which drives the generation.
+     * @return the event handle, or null if the event is not recorded.
+     */
+    static Object beginTypeParse() {
+        GeneratorEventSink current = sink;
+        return current == null ? null : current.beginTypeParse();
+    }
+
+    /**
+     * End the event of parsing the type definition.
+     * @param event is the handle returned by beginTypeParse().
+     * @param typeName is the name of the type definition.
+     */
+    static void endTypeParse(Object event, String typeName) {
+        GeneratorEventSink current = sink;
+        if (event != null && current != null) {
+            current.endTypeParse(event, typeName);
+        }
+    }
+
+    /**
+     * Begin the event of a batch of values which are generated, written and flushed.
+     * @return the event handle, or null if the event is not recorded.
+     */
+    static Object beginBatch() {
+        GeneratorEventSink current = sink;
+        return current == null ? null : current.beginBatch();
+    }
+
+    /**
+     * End the event of a batch after the writer is flushed.
+     * @param event is the handle returned by beginBatch().
+     * @param typeName is the name of the generated type definition.
+     * @param values is the number of values in the batch.
+     * @param encodedBytes is the number of bytes written by the flush.
+     * @param flushNanos is the duration of the flush in nanoseconds.
+     */
+    static void endBatch(Object event, String typeName, long values, long encodedBytes, long flushNanos) {
+        GeneratorEventSink current = sink;
+        if (event != null && current != null) {
+            current.endBatch(event, typeName, values, encodedBytes, flushNanos);
+        }
+    }
+
+    /**
+     * Begin the event of generating one value, only every N-th value of each generator is sampled.
+     * @param context is the state of the generator, which counts its generated values.
+     * @return the event handle, or null if the value is not sampled.
+     */
+    static Object beginValue(GenerationContext context) {
+        GeneratorEventSink current = sink;
+        if (current == null || context.countGeneratedValue() % sampleInterval != 0) {
+            return null;
+        }
+        return current.beginValue();
+    }
+
+    /**
+     * End the event of generating one value.
+     * @param event is the handle returned by beginValue().
+     * @param typeName is the name of the generated type definition.
+     * @param value is the generated value.
+     * @param format is the format of the generated data, which the encoded size of the value is measured in.
+     */
+    static void endValue(Object event, String typeName, IonValue value, String format) {
+        GeneratorEventSink current = sink;
+        if (event != null && current != null) {
+            current.endValue(event, typeName, value, format);
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package com.amazon.ion.datagenerator;
 
+import com.amazon.ion.SymbolTable;
+import com.amazon.ion.datagenerator.profile.DataProfile;
 import com.amazon.ionschema.Schema;
 
-import java.util.List;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * Execute Ion Data Generator after receiving the hashmap of command line options.
  */
 public class GeneratorOptions {
-    public static Random random;
+    // The interval of the progress reports when only '--progress-log' is provided.
+    private static final double DEFAULT_PROGRESS_INTERVAL_SECONDS = 10;
 
     /**
      * Check the validation of input ion schema and execute the Ion Data generating process.
@@ -18,17 +21,93 @@ public class GeneratorOptions {
      * @throws Exception if errors occurs when calling the methods of generating Ion data.
      */
     public static void executeGenerator(Map<String, Object> optionsMap) throws Exception {
+        if (!Boolean.TRUE.equals(optionsMap.get("--jfr-events"))) {
+            generate(optionsMap);
+            return;
+        }
+        GeneratorEvents.enable(Integer.parseInt(optionsMap.get("--jfr-sample-interval").toString()));
+        try {
+            generate(optionsMap);
+        } finally {
+            GeneratorEvents.disable();
+        }
+    }
+
+    /**
+     * Load the schema, construct the generator and write the generated data with the requested statistics and progress reports.
+     * @param optionsMap is the hash map which generated by the command line parser which match the option name and its value appropriately.
+     * @throws Exception if errors occurs when calling the methods of generating Ion data.
+     */
+    private static void generate(Map<String, Object> optionsMap) throws Exception {
         int size = Integer.parseInt(optionsMap.get("--data-size").toString());
         String format = String.valueOf(optionsMap.get("--format"));
         String path = optionsMap.get("<output_file>").toString();
         String inputFilePath = optionsMap.get("--input-ion-schema").toString();
-        if (optionsMap.get("--seed") != null) {
-            random = new Random(Long.valueOf(optionsMap.get("--seed").toString()));
-        } else {
-            random = new Random();
-        }
+        int writeBuffers = optionsMap.get("--write-buffers") == null ? 0 : Integer.parseInt(optionsMap.get("--write-buffers").toString());
+        int writeBufferSize = Integer.parseInt(optionsMap.get("--write-buffer-size").toString());
+        String costProfileFile = optionsMap.get("--cost-profile") == null ? null : optionsMap.get("--cost-profile").toString();
+        CostProfiler costProfiler = costProfileFile == null ? CostProfiler.NONE : new CostProfiler();
+        String pathCostProfileFile = optionsMap.get("--path-cost-profile") == null ? null : optionsMap.get("--path-cost-profile").toString();
+        PathCostProfiler pathCostProfiler = pathCostProfileFile == null ? PathCostProfiler.NONE
+                : new PathCostProfiler(Integer.parseInt(optionsMap.get("--path-sample-interval").toString()));
+        costProfiler.beginSchemaParsing();
         // Check whether the input schema file is valid and get the loaded schema.
         Schema schema = IonSchemaUtilities.loadSchemaDefinition(inputFilePath);
-        ReadGeneralConstraints.constructAndWriteIonData(size, schema, format, path);
+        IonDataGenerator.Builder builder = IonDataGenerator.builder().withSchema(schema).withCostProfiler(costProfiler).withPathCostProfiler(pathCostProfiler);
+        if (optionsMap.get("--seed") != null) {
+            builder.withSeed(Long.valueOf(optionsMap.get("--seed").toString()));
+        }
+        if (optionsMap.get("--data-profile") != null) {
+            builder.withProfile(DataProfile.load(optionsMap.get("--data-profile").toString()));
+        }
+        IonDataGenerator generator = builder.build();
+        costProfiler.endSchemaParsing();
+        SymbolTableOptions symbolTableOptions = parseSymbolTableOptions(optionsMap, schema);
+        String statisticsFile = optionsMap.get("--statistics") == null ? null : optionsMap.get("--statistics").toString();
+        GenerationStatistics statistics = statisticsFile == null ? null : new GenerationStatistics(symbolTableOptions.getImports());
+        GenerationProgress progress = null;
+        if (optionsMap.get("--progress-interval") != null || optionsMap.get("--progress-log") != null) {
+            double interval = optionsMap.get("--progress-interval") == null ? DEFAULT_PROGRESS_INTERVAL_SECONDS
+                    : Double.parseDouble(optionsMap.get("--progress-interval").toString());
+            String progressLog = optionsMap.get("--progress-log") == null ? null : optionsMap.get("--progress-log").toString();
+            progress = new GenerationProgress(size, interval, progressLog == null ? System.err : null, progressLog);
+        }
+        try {
+            WriteOptions writeOptions = WriteOptions.builder().withWriteBuffers(writeBuffers).withWriteBufferSize(writeBufferSize).withSymbolTableOptions(symbolTableOptions)
+                    .withStatistics(statistics).withProgress(progress).build();
+            ReadGeneralConstraints.constructAndWriteIonData(size, generator, format, path, writeOptions);
+        } finally {
+            if (progress != null) {
+                progress.close();
+            }
+        }
+        if (statistics != null) {
+            statistics.write(Files.size(Paths.get(path)), statisticsFile);
+        }
+        if (costProfileFile != null) {
+            costProfiler.write(Files.size(Paths.get(path)), costProfileFile);
+        }
+        if (pathCostProfileFile != null) {
+            pathCostProfiler.write(pathCostProfileFile);
+        }
+    }
+
+    /**
+     * Parse the symbol table options. If the catalog file is provided, the shared symbol table will be built from the schema and written into the catalog file.
+     * @param optionsMap is the hash map which generated by the command line parser.
+     * @param schema is the loaded schema which provides the symbols of the shared symbol table.
+     * @return the parsed SymbolTableOptions.
+     * @throws Exception if errors occur when writing the catalog file.
+     */
+    private static SymbolTableOptions parseSymbolTableOptions(Map<String, Object> optionsMap, Schema schema) throws Exception {
+        SymbolTable sharedSymbolTable = null;
+        if (optionsMap.get("--shared-symbol-table") != null) {
+            String name = optionsMap.get("--symbol-table-name").toString();
+            sharedSymbolTable = SharedSymbolTables.fromSchema(schema, name, SharedSymbolTables.DEFAULT_VERSION);
+            SharedSymbolTables.writeCatalog(sharedSymbolTable, optionsMap.get("--shared-symbol-table").toString());
+        }
+        int resetEveryValues = optionsMap.get("--lst-reset-values") == null ? 0 : Integer.parseInt(optionsMap.get("--lst-reset-values").toString());
+        long resetEveryBytes = optionsMap.get("--lst-reset-bytes") == null ? 0 : Long.parseLong(optionsMap.get("--lst-reset-bytes").toString());
+        return new SymbolTableOptions(sharedSymbolTable, resetEveryValues, resetEveryBytes);
     }
 }
@@ -0,0 +1,164 @@
+package com.amazon.ion.datagenerator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+
+/**
+ * Run the benchmark CLI inside the current JVM. The benchmark CLI jar is loaded once by an isolated class loader, whose parent is the platform class
+ * loader, so the classes of the CLI (e.g. its own ion-java) do not conflict with the classes of the data generator. Each run invokes the entry point
+ * of the CLI directly, which saves the JVM startup and class loading of every run. JMH still forks the measured JVMs when the options require it, the
+ * class path of the current JVM is replaced by the benchmark CLI jar during the run so the forked JVMs can find the benchmarks.
+ * The entry point is the non-exiting method 'public static int run(String[])' of the main class, which returns the exit status. The main method is
+ * never invoked, because System.exit would end the current JVM, so a benchmark CLI which does not declare the entry point cannot run in process.
+ * JMH does not allow concurrent runs in the same JVM, so the runs are executed one at a time. The standard output and standard error written by the
+ * thread of the run and the threads it starts are redirected into the log file of the run, the output of other threads is not affected.
+ */
+public class InProcessBenchmarkRunner implements Closeable {
+    private static final String CLASS_PATH = "java.class.path";
+    private static final String ENTRY_POINT = "run";
+    private final File jar;
+    private final URLClassLoader classLoader;
+    private final Method entryPoint;
+    // The log of the current run, which is inherited by the threads the run starts.
+    private final InheritableThreadLocal<OutputStream> runLog = new InheritableThreadLocal<>();
+
+    /**
+     * Initializing the newly created InProcessBenchmarkRunner object, which loads the main class declared in the manifest of the jar.
+     * @param jar is the benchmark CLI jar with dependencies.
+     * @throws NoSuchMethodException if the main class does not declare 'public static int run(String[])'.
+     * @throws Exception if errors occur when loading the jar.
+     */
+    public InProcessBenchmarkRunner(File jar) throws Exception {
+        if (!jar.isFile()) {
+            throw new IllegalArgumentException("The benchmark CLI jar does not exist: " + jar);
+        }
+        String mainClassName;
+        try (JarFile jarFile = new JarFile(jar)) {
+            mainClassName = jarFile.getManifest() == null ? null : jarFile.getManifest().getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+        }
+        if (mainClassName == null) {
+            throw new IllegalStateException("The manifest of the benchmark CLI jar does not declare the main class.");
+        }
+        this.jar = jar;
+        this.classLoader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, ClassLoader.getSystemClassLoader().getParent());
+        Class<?> mainClass = Class.forName(mainClassName, true, classLoader);
+        Method entryPoint = findEntryPoint(mainClass);
+        if (entryPoint == null) {
+            classLoader.close();
+            throw new NoSuchMethodException("The main class of the benchmark CLI " + mainClassName + " does not declare 'public static int run(String[])'.");
+        }
+        this.entryPoint = entryPoint;
+    }
+
+    /**
+     * Find the non-exiting entry point of the benchmark CLI.
+     * @param mainClass is the main class of the benchmark CLI.
+     * @return the method 'public static int run(String[])', or null if the main class does not declare it.
+     */
+    private static Method findEntryPoint(Class<?> mainClass) {
+        try {
+            Method method = mainClass.getMethod(ENTRY_POINT, String[].class);
+            return Modifier.isStatic(method.getModifiers()) && method.getReturnType() == int.class ? method : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Run the benchmark CLI with the provided arguments. The previous standard streams, class path and context class loader are restored after the run.
+     * @param arguments are the arguments of the benchmark CLI.
+     * @param logFile is the file which receives the output of the run.
+     * @return true if the entry point returns the exit status 0.
+     * @throws IOException if errors occur when opening the log file.
+     */
+    public synchronized boolean run(List<String> arguments, File logFile) throws IOException {
+        PrintStream standardOutput = System.out;
+        PrintStream standardError = System.err;
+        String classPath = System.getProperty(CLASS_PATH);
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try (FileOutputStream log = new FileOutputStream(logFile, true)) {
+            runLog.set(log);
+            try {
+                System.setOut(new PrintStream(new RunLogOutputStream(standardOutput), true));
+                System.setErr(new PrintStream(new RunLogOutputStream(standardError), true));
+                System.setProperty(CLASS_PATH, jar.getAbsolutePath());
+                Thread.currentThread().setContextClassLoader(classLoader);
+                return (Integer) entryPoint.invoke(null, (Object) arguments.toArray(new String[0])) == 0;
+            } catch (InvocationTargetException e) {
+                e.getCause().printStackTrace(System.err);
+                return false;
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("The entry point of the benchmark CLI is not accessible.", e);
+            } finally {
+                System.out.flush();
+                System.err.flush();
+                runLog.remove();
+                Thread.currentThread().setContextClassLoader(contextClassLoader);
+                if (classPath == null) {
+                    System.clearProperty(CLASS_PATH);
+                } else {
+                    System.setProperty(CLASS_PATH, classPath);
+                }
+                System.setOut(standardOutput);
+                System.setErr(standardError);
+            }
+        }
+    }
+
+    /**
+     * Close the class loader of the benchmark CLI.
+     * @throws IOException if errors occur when closing the jar.
+     */
+    @Override
+    public void close() throws IOException {
+        classLoader.close();
+    }
+
+    /**
+     * The standard stream during a run, which writes into the log of the run if the current thread belongs to the run, and into the previous
+     * standard stream otherwise.
+     */
+    private final class RunLogOutputStream extends OutputStream {
+        private final OutputStream previous;
+
+        /**
+         * Initializing the newly created RunLogOutputStream object.
+         * @param previous is the standard stream before the run.
+         */
+        RunLogOutputStream(OutputStream previous) {
+            this.previous = previous;
+        }
+
+        private OutputStream target() {
+            OutputStream log = runLog.get();
+            return log == null ? previous : log;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target().flush();
+        }
+    }
+}
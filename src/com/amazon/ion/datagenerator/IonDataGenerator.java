@@ -0,0 +1,250 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonValue;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.datagenerator.profile.DataProfile;
+import com.amazon.ion.datagenerator.profile.PathStatistics;
+import com.amazon.ion.datagenerator.schema.ReparsedType;
+import com.amazon.ionschema.Schema;
+import com.amazon.ionschema.Type;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generate Ion data which conforms with a type definition in Ion Schema, for users who would like to embed the generator in their own code.
+ * Every generator owns its parsed type definition and its random number generator, so multiple generators can run concurrently in one JVM.
+ * A single generator is not thread-safe.
+ * e.g.
+ *   IonDataGenerator generator = IonDataGenerator.builder().withSchemaFile("./customer.isl").withSeed(200).build();
+ *   List<IonValue> values = generator.stream().limit(1000).collect(Collectors.toList());
+ */
+public class IonDataGenerator implements Iterable<IonValue> {
+    private final ReparsedType typeDefinition;
+    private final String typeName;
+    private final PathStatistics profile;
+    private final GenerationContext context;
+
+    /**
+     * Initializing the newly created IonDataGenerator object.
+     * @param typeDefinition is the parsed type definition which the generated data conforms with.
+     * @param profile is the statistics of the top-level values in a profiled corpus, which drive the default samplers.
+     * @param context provides the random number generator owned by this generator and the profilers of the constructed values.
+     */
+    private IonDataGenerator(ReparsedType typeDefinition, PathStatistics profile, GenerationContext context) {
+        this.typeDefinition = typeDefinition;
+        this.typeName = typeDefinition.getName();
+        this.profile = profile;
+        this.context = context;
+    }
+
+    /**
+     * Create a builder for configuring the generator.
+     * @return a new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the name of the type definition which the generated data conforms with.
+     * @return the name of the type definition.
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Get the CostProfiler of the generation context.
+     * @return the CostProfiler which measures the cost of constructing the values, or CostProfiler.NONE if the cost is not measured.
+     */
+    CostProfiler getCostProfiler() {
+        return context.getCostProfiler();
+    }
+
+    /**
+     * Helping access the private attribute context.
+     * @return the state shared by the construction of the values of this generator.
+     */
+    GenerationContext getContext() {
+        return context;
+    }
+
+    /**
+     * Construct the next value which conforms with the type definition.
+     * @return the constructed Ion value.
+     */
+    public IonValue next() {
+        PathCostProfiler pathCostProfiler = context.getPathCostProfiler();
+        pathCostProfiler.beginValue(typeName);
+        IonValue value = null;
+        try {
+            value = DataConstructor.constructIonData(typeDefinition, profile, context);
+            return value;
+        } finally {
+            pathCostProfiler.endValue(value);
+        }
+    }
+
+    /**
+     * Get an infinite iterator which constructs the values lazily.
+     * @return an iterator of the constructed Ion values.
+     */
+    @Override
+    public Iterator<IonValue> iterator() {
+        return new Iterator<IonValue>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public IonValue next() {
+                return IonDataGenerator.this.next();
+            }
+        };
+    }
+
+    /**
+     * Get an infinite sequential stream which constructs the values lazily, users should limit the stream by themselves.
+     * @return a stream of the constructed Ion values.
+     */
+    public Stream<IonValue> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Construct the provided number of values and write them with the provided writer. The writer will not be flushed or closed.
+     * @param writer is the IonWriter provided by the caller.
+     * @param count is the number of values to write.
+     * @throws IOException if errors occur when writing data.
+     */
+    public void writeTo(IonWriter writer, long count) throws IOException {
+        for (long i = 0; i < count; i++) {
+            next().writeTo(writer);
+        }
+    }
+
+    /**
+     * Configure and build IonDataGenerator. Either a loaded schema or the path of an Ion Schema file is required.
+     */
+    public static class Builder {
+        private Schema schema;
+        private String schemaFile;
+        private String typeName;
+        private Long seed;
+        private DataProfile profile;
+        private CostProfiler costProfiler = CostProfiler.NONE;
+        private PathCostProfiler pathCostProfiler = PathCostProfiler.NONE;
+
+        private Builder() {
+        }
+
+        /**
+         * Use an Ion Schema loaded by ion-schema-kotlin.
+         * @param schema is the loaded schema.
+         * @return this builder.
+         */
+        public Builder withSchema(Schema schema) {
+            this.schema = schema;
+            return this;
+        }
+
+        /**
+         * Load the Ion Schema from the provided file path.
+         * @param schemaFile is the path of the Ion Schema file.
+         * @return this builder.
+         */
+        public Builder withSchemaFile(String schemaFile) {
+            this.schemaFile = schemaFile;
+            return this;
+        }
+
+        /**
+         * Choose the type definition which the generated data conforms with. By default, the first type definition in the schema is used.
+         * @param typeName is the name of the type definition.
+         * @return this builder.
+         */
+        public Builder withTypeName(String typeName) {
+            this.typeName = typeName;
+            return this;
+        }
+
+        /**
+         * Use the provided seed for creating the random number generator, so that the same data can be generated repeatedly.
+         * @param seed is up to 64 bits of long seed value.
+         * @return this builder.
+         */
+        public Builder withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Use the profile of a real-world corpus written by the 'profile' command. The aspects which are not specified by the schema,
+         * e.g. string lengths, codepoints, numeric ranges and container lengths, are sampled from the distributions observed at the same path.
+         * @param profile is the loaded profile.
+         * @return this builder.
+         */
+        public Builder withProfile(DataProfile profile) {
+            this.profile = profile;
+            return this;
+        }
+
+        /**
+         * Measure the CPU time and the allocated bytes of constructing every value. The profiler should be used by one generator at a time.
+         * @param costProfiler is the profiler which collects the cost, null or CostProfiler.NONE if the cost is not measured.
+         * @return this builder.
+         */
+        public Builder withCostProfiler(CostProfiler costProfiler) {
+            this.costProfiler = costProfiler == null ? CostProfiler.NONE : costProfiler;
+            return this;
+        }
+
+        /**
+         * Attribute the CPU time and the allocated bytes of constructing the sampled values, and their estimated size, to the paths of the schema.
+         * The profiler should be used by one generator at a time.
+         * @param pathCostProfiler is the profiler which collects the cost of every path, null or PathCostProfiler.NONE if the paths are not profiled.
+         * @return this builder.
+         */
+        public Builder withPathCostProfiler(PathCostProfiler pathCostProfiler) {
+            this.pathCostProfiler = pathCostProfiler == null ? PathCostProfiler.NONE : pathCostProfiler;
+            return this;
+        }
+
+        /**
+         * Build the generator. The type definition is parsed once here and reused for every generated value.
+         * @return the newly created IonDataGenerator.
+         */
+        public IonDataGenerator build() {
+            Schema loadedSchema = schema;
+            if (loadedSchema == null) {
+                if (schemaFile == null) {
+                    throw new IllegalStateException("Please provide the schema or the path of the Ion Schema file.");
+                }
+                loadedSchema = IonSchemaUtilities.loadSchemaDefinition(schemaFile);
+            }
+            Type schemaType;
+            if (typeName == null) {
+                // Assume there's only one type definition between schema_header and schema_footer.
+                schemaType = loadedSchema.getTypes().next();
+            } else {
+                schemaType = loadedSchema.getType(typeName);
+                if (schemaType == null) {
+                    throw new IllegalArgumentException("Type definition '" + typeName + "' is not found in the provided schema.");
+                }
+            }
+            Object typeParseEvent = GeneratorEvents.beginTypeParse();
+            ReparsedType typeDefinition = new ReparsedType(schemaType.getIsl());
+            GeneratorEvents.endTypeParse(typeParseEvent, schemaType.getName());
+            Random random = seed == null ? new Random() : new Random(seed);
+            return new IonDataGenerator(typeDefinition, profile == null ? PathStatistics.EMPTY : profile.getRoot(),
+                    new GenerationContext(random, costProfiler, pathCostProfiler));
+        }
+    }
+}
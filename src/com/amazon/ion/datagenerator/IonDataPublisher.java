@@ -0,0 +1,229 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonValue;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Publish the generated Ion values or encoded chunks of values to a Reactive Streams subscriber with demand-driven backpressure.
+ * Values are only generated as far as the subscriber demand allows, plus at most 'prefetch' values which are generated ahead while the
+ * subscriber has no outstanding demand. On Java 9+ the publisher can be adapted to java.util.concurrent.Flow.Publisher by
+ * org.reactivestreams.FlowAdapters.toFlowPublisher.
+ * Since the generator is not thread-safe, the publisher only accepts one subscriber.
+ * @param <T> is the type of published items, either IonValue or ByteBuffer.
+ */
+public class IonDataPublisher<T> implements Publisher<T> {
+    private final Supplier<T> itemSupplier;
+    private final long itemCount;
+    private final int prefetch;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Initializing the newly created IonDataPublisher object.
+     * @param itemSupplier constructs the next item.
+     * @param itemCount is the total number of published items.
+     * @param prefetch is the number of items which can be generated ahead of the subscriber demand.
+     * @param executor runs the generation and the subscriber callbacks.
+     */
+    private IonDataPublisher(Supplier<T> itemSupplier, long itemCount, int prefetch, Executor executor) {
+        if (itemCount < 0 || prefetch < 0) {
+            throw new IllegalArgumentException("The number of items and prefetch cannot be negative.");
+        }
+        this.itemSupplier = itemSupplier;
+        this.itemCount = itemCount;
+        this.prefetch = prefetch;
+        this.executor = executor;
+    }
+
+    /**
+     * Create a publisher of the values constructed by the provided generator. The callbacks run on the common ForkJoinPool.
+     * @param generator constructs the published values.
+     * @param valueCount is the total number of published values, Long.MAX_VALUE for an unbounded stream.
+     * @param prefetch is the number of values which can be generated ahead of the subscriber demand.
+     * @return the newly created IonDataPublisher.
+     */
+    public static IonDataPublisher<IonValue> ofValues(IonDataGenerator generator, long valueCount, int prefetch) {
+        return ofValues(generator, valueCount, prefetch, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a publisher of the values constructed by the provided generator.
+     * @param generator constructs the published values.
+     * @param valueCount is the total number of published values, Long.MAX_VALUE for an unbounded stream.
+     * @param prefetch is the number of values which can be generated ahead of the subscriber demand.
+     * @param executor runs the generation and the subscriber callbacks.
+     * @return the newly created IonDataPublisher.
+     */
+    public static IonDataPublisher<IonValue> ofValues(IonDataGenerator generator, long valueCount, int prefetch, Executor executor) {
+        return new IonDataPublisher<>(generator::next, valueCount, prefetch, executor);
+    }
+
+    /**
+     * Create a publisher of encoded chunks. Each chunk is a read-only buffer which contains a complete Ion stream of the provided number of values.
+     * The callbacks run on the common ForkJoinPool.
+     * @param generator constructs the encoded values.
+     * @param chunkCount is the total number of published chunks, Long.MAX_VALUE for an unbounded stream.
+     * @param valuesPerChunk is the number of values encoded in each chunk.
+     * @param format is the format of the encoded values, select from set (ion_text | ion_binary).
+     * @param prefetch is the number of chunks which can be generated ahead of the subscriber demand.
+     * @return the newly created IonDataPublisher.
+     */
+    public static IonDataPublisher<ByteBuffer> ofEncodedChunks(IonDataGenerator generator, long chunkCount, int valuesPerChunk, String format, int prefetch) {
+        return ofEncodedChunks(generator, chunkCount, valuesPerChunk, format, prefetch, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a publisher of encoded chunks. Each chunk is a read-only buffer which contains a complete Ion stream of the provided number of values.
+     * @param generator constructs the encoded values.
+     * @param chunkCount is the total number of published chunks, Long.MAX_VALUE for an unbounded stream.
+     * @param valuesPerChunk is the number of values encoded in each chunk.
+     * @param format is the format of the encoded values, select from set (ion_text | ion_binary).
+     * @param prefetch is the number of chunks which can be generated ahead of the subscriber demand.
+     * @param executor runs the generation and the subscriber callbacks.
+     * @return the newly created IonDataPublisher.
+     */
+    public static IonDataPublisher<ByteBuffer> ofEncodedChunks(IonDataGenerator generator, long chunkCount, int valuesPerChunk, String format, int prefetch, Executor executor) {
+        Supplier<ByteBuffer> chunkSupplier = () -> {
+            try {
+                return EncodedCorpus.builder(generator).withValueCount(valuesPerChunk).withFormat(format).build().getBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        return new IonDataPublisher<>(chunkSupplier, chunkCount, prefetch, executor);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("The subscriber cannot be null.");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("IonDataPublisher only accepts one subscriber."));
+            return;
+        }
+        GeneratorSubscription subscription = new GeneratorSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * The subscription which generates and delivers items when demand is signalled. All generation and delivery happen in the drain loop,
+     * which is serialized by a work-in-progress counter, so the generator and the subscriber are never called concurrently.
+     */
+    private final class GeneratorSubscription implements Subscription {
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger workInProgress = new AtomicInteger();
+        private volatile boolean done;
+        private volatile Throwable invalidRequest;
+        // The fields below are only accessed inside the drain loop.
+        private final Queue<T> prefetched = new ArrayDeque<>();
+        private long remaining = itemCount;
+
+        private GeneratorSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("The number of requested items should be positive, but got " + n);
+            } else {
+                // Add the demand and cap it at Long.MAX_VALUE which means unbounded demand.
+                requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        private void schedule() {
+            if (workInProgress.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                try {
+                    drainOnce();
+                } catch (Throwable t) {
+                    done = true;
+                    subscriber.onError(t);
+                }
+                missed = workInProgress.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainOnce() {
+            if (done) {
+                prefetched.clear();
+                return;
+            }
+            if (invalidRequest != null) {
+                done = true;
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            long demand = requested.get();
+            long delivered = 0;
+            while (delivered < demand && !done && (!prefetched.isEmpty() || remaining > 0)) {
+                T item = prefetched.poll();
+                if (item == null) {
+                    item = nextItem();
+                }
+                subscriber.onNext(item);
+                delivered++;
+            }
+            if (delivered != 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-delivered);
+            }
+            if (done) {
+                return;
+            }
+            if (prefetched.isEmpty() && remaining == 0) {
+                done = true;
+                subscriber.onComplete();
+                return;
+            }
+            // Generate ahead while the subscriber has no outstanding demand.
+            while (prefetched.size() < prefetch && remaining > 0 && requested.get() == 0 && !done) {
+                prefetched.add(nextItem());
+            }
+        }
+
+        private T nextItem() {
+            if (remaining != Long.MAX_VALUE) {
+                remaining--;
+            }
+            return itemSupplier.get();
+        }
+    }
+}
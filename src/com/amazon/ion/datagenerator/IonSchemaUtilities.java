@@ -64,6 +64,7 @@ public class IonSchemaUtilities {
      * @return schema loaded from input ISL file.
      */
     public static Schema loadSchemaDefinition(String inputFile) {
+        Object schemaLoadEvent = GeneratorEvents.beginSchemaLoad();
         // Build ion schema system from input ISL file.
         IonSchemaSystem ISS = buildIonSchemaSystem(inputFile);
         // Get the name of ISL file as schema ID.
@@ -75,6 +76,8 @@ public class IonSchemaUtilities {
         } catch (InvalidSchemaException e) {
             System.out.println(e.getMessage());
             throw new IllegalStateException("The provided ion schema file is not valid");
+        } finally {
+            GeneratorEvents.endSchemaLoad(schemaLoadEvent, inputFile);
         }
     }
 
@@ -16,11 +16,21 @@ public class Main {
 
     private static final String USAGE =
             "Usage:\n"
-                    + "  ion-data-generator generate [--seed <seed_value>] [--format <type>] (--data-size <data_size>) (--input-ion-schema <file_path>) <output_file>\n"
+                    + "  ion-data-generator generate [--seed <seed_value>] [--format <type>] [--write-buffers <count> [--write-buffer-size <bytes>]] [--shared-symbol-table <file_path>] [--symbol-table-name <name>] [--lst-reset-values <count>] [--lst-reset-bytes <bytes>] [--data-profile <file_path>] [--statistics <file_path>] [--progress-interval <seconds>] [--progress-log <file_path>] [--jfr-events [--jfr-sample-interval <count>]] [--cost-profile <file_path>] [--path-cost-profile <file_path> [--path-sample-interval <count>]] (--data-size <data_size>) (--input-ion-schema <file_path>) <output_file>\n"
 
-                    + "  ion-data-generator compare (--benchmark-result-previous <file_path>) (--benchmark-result-new <file_path>) <output_file>\n"
+                    + "  ion-data-generator profile [--parallelism <count>] (--input-ion-data <file_path>) <output_file>\n"
 
-                    + "  ion-data-generator run-suite (--test-ion-data <file_path>) (--benchmark-options-combinations <file_path>) <output_file>\n"
+                    + "  ion-data-generator infer-schema [--parallelism <count>] [--type-name <name>] (--input-ion-data <file_path>) <output_file>\n"
+
+                    + "  ion-data-generator compare [--detection-method <method>] [--significance-level <alpha>] [--minimum-effect-size <fraction>] [--history <directory> --commit <id>] (--benchmark-result-previous <file_path>) (--benchmark-result-new <file_path>) <output_file>\n"
+
+                    + "  ion-data-generator history [--metric <name>] [--last <count>] (--history <directory>) (--benchmark <name>) <output_file>\n"
+
+                    + "  ion-data-generator detect-change-points [--benchmark <name>] [--last <count>] [--significance-level <alpha>] [--minimum-effect-size <fraction>] (--history <directory>) <output_file>\n"
+
+                    + "  ion-data-generator benchmark-generator [--seed <seed_value>] [--data-sizes <sizes>] [--forks <count>] [--warmup-iterations <count>] [--iterations <count>] (--input-ion-schema <file_path>) <output_file>\n"
+
+                    + "  ion-data-generator run-suite [--in-process] [--flight-recording] [--result-cache <directory>] [--corpus-matrix <file_path>] [--run-durations <file_path>] [--time-budget <seconds>] [--parallelism <count>] [--cpus-per-run <count>] [--run-timeout <seconds>] [--retries <count>] (--test-ion-data <file_path>) (--benchmark-options-combinations <file_path>) <output_file>\n"
 
                     + "  ion-data-generator --help\n\n";
 
@@ -38,22 +48,139 @@ public class Main {
                     + "The actual amount of data generated will be approximately equal to the requested value.\n"
 
                     + "  -Q --input-ion-schema <file_path>      This option will specify the path of Ion Schema file which contains all constraints that the "
-                    + "generated Ion data would conform with.\n"
+                    + "generated Ion data would conform with. The 'benchmark-generator' command also accepts a directory, and benchmarks every ISL file in it.\n"
 
                     + "  -M --seed <long>      This option will be specified when users would like to get the same random data from the same schema file."
                     + "The provided value should be up to 64 bits of long seed value, which will be used for creating a pseudorandom number generator. \n"
 
+                    + "  -W --write-buffers <count>      This option will hand the encoded data to a dedicated writer thread through the specified number of recycled buffers "
+                    + "(at least 2), which allows data generation and disk writes to overlap. Metrics of the writer thread will be printed after generation.\n"
+
+                    + "  -N --write-buffer-size <bytes>      The size of each buffer of '--write-buffers', a buffer is handed to the writer thread once it is full. [default: 1048576]\n"
+
+                    + "  -Y --shared-symbol-table <file_path>      This option will build a shared symbol table from the field names, symbol valid_values and annotations "
+                    + "declared in the schema, write it into the specified catalog file, and make the generated binary data import it.\n"
+
+                    + "  -Z --symbol-table-name <name>      The name of the shared symbol table written into the catalog file. [default: ion-data-generator]\n"
+
+                    + "  -L --lst-reset-values <count>      This option will reset the local symbol table of the generated binary data every specified number of values.\n"
+
+                    + "  -R --lst-reset-bytes <bytes>      This option will reset the local symbol table of the generated binary data at the first flush of the writer after the specified number of bytes have been written. The writer is flushed after every batch of values.\n"
+
+                    + "  -D --data-profile <file_path>      This option will specify the path of a profile written by the 'profile' command. String lengths, codepoints, "
+                    + "numeric ranges, lob lengths and container lengths which are not constrained by the schema will follow the distributions observed at the same path.\n"
+
+                    + "  -O --statistics <file_path>      This option will write the statistics of the generated data into the specified Ion file, including value counts "
+                    + "and encoded bytes per Ion type and per field path, container length histograms, and the size and growth of the local symbol table.\n"
+
+                    + "  -g --progress-interval <seconds>      This option will report the progress of 'generate' on stderr at the specified interval: the values and bytes "
+                    + "written, the current and average MB/s and values/s, and the estimated remaining time against '--data-size'.\n"
+
+                    + "  -l --progress-log <file_path>      This option will write the progress reports of 'generate' into the specified Ion file as progress::{...} structs "
+                    + "instead of stderr, every 10 seconds unless '--progress-interval' is provided.\n"
+
+                    + "  -q --jfr-events      This option will emit Java Flight Recorder events for loading the schema, parsing the type definition, every flushed batch "
+                    + "of values and every N-th generated value, with the type name, the encoded bytes and the duration. The events are recorded by a running recording, "
+                    + "e.g. java -XX:StartFlightRecording=filename=generate.jfr -jar <path-to-jar> generate --jfr-events ...\n"
+
+                    + "  -p --jfr-sample-interval <count>      The interval of the value generation events, e.g. 1000 records the generation of every 1000th value. [default: 1000]\n"
+
+                    + "  -s --cost-profile <file_path>      This option will measure the CPU time and the allocated bytes of the generating thread, and write them into the "
+                    + "specified Ion file per generated value, per phase (schema_parsing, constraint_resolution, sampling and serialization) and per Ion type, "
+                    + "together with the garbage collections during the run.\n"
+
+                    + "  -y --path-cost-profile <file_path>      This option will sample the generated values, attribute the CPU time and the allocated bytes of "
+                    + "constructing every nested value and its estimated Ion binary size to its path in the schema, e.g. order.items[].sku, and write the paths ranked by their "
+                    + "CPU time into the specified Ion file. Encoding the values is not included, it is reported by '--cost-profile'.\n"
+
+                    + "  -J --path-sample-interval <count>      The interval of the values sampled by '--path-cost-profile', e.g. 100 samples every 100th top-level value. [default: 100]\n"
+
+                    // 'benchmark-generator' options
+
+                    + "  -z --data-sizes <sizes>      The comma-separated sizes of the data generated by 'benchmark-generator'. [default: 1000000,20000000]\n"
+
+                    + "  -o --forks <count>      The number of JVMs which are forked for every workload of 'benchmark-generator'. [default: 2]\n"
+
+                    + "  -w --warmup-iterations <count>      The number of iterations of every fork which are run before the measurement. [default: 2]\n"
+
+                    + "  -u --iterations <count>      The number of measured iterations of every fork. [default: 5]\n"
+
+                    // 'profile' options
+
+                    + "  -I --input-ion-data <file_path>      This option will specify the path of an Ion file or a directory of Ion files which will be profiled or used for inferring the schema.\n"
+
+                    // 'infer-schema' options
+
+                    + "  -U --type-name <name>      The name of the inferred type definition. [default: InferredType]\n"
+
+                    + "  -K --parallelism <count>      The number of threads which run at the same time. By default, the number of available processors is used, "
+                    + "except that 'run-suite' executes one benchmark run at a time.\n"
+
                     // 'compare' options
 
                     + "  -P --benchmark-result-previous <file_path>      This option will specify the path of benchmark result from the existing ion-java commit.\n"
 
                     + "  -X --benchmark-result-new <file_path>      This option will specify the path of benchmark result form the new ion-java commit.\n"
 
+                    + "  -A --detection-method <method>      The method of detecting regressions, from the set (threshold | bootstrap | mann_whitney). 'threshold' compares the relative "
+                    + "change with the spread of the raw data, 'bootstrap' and 'mann_whitney' test the raw data of all forks statistically and report the confidence interval "
+                    + "of each metric. [default: threshold]\n"
+
+                    + "  -V --significance-level <alpha>      The significance level of the statistical detection methods and the change-point detection. [default: 0.05]\n"
+
+                    + "  -F --minimum-effect-size <fraction>      The smallest relative change which will be reported as a regression by the statistical detection methods, or as a change point. [default: 0.01]\n"
+
+                    + "  -H --history <directory>      This option will specify the directory of the local benchmark history. The 'compare' command appends the new "
+                    + "benchmark result to the history with the commit id, and the 'history' command queries it.\n"
+
+                    + "  -c --commit <id>      The commit id of the new benchmark result which is appended to the history.\n"
+
+                    // 'history' options
+
+                    + "  -b --benchmark <name>      Select the benchmark entries whose name or parameters contain the provided text. By default, 'detect-change-points' analyzes all benchmark entries.\n"
+
+                    + "  -m --metric <name>      The metric which will be queried from the history, e.g. speed, Heap usage, Serialized size or ·gc.alloc.rate. [default: speed]\n"
+
+                    + "  -n --last <count>      The number of the latest commits which will be queried from the history. By default, the 'history' command queries "
+                    + "the latest 10 commits and the 'detect-change-points' command analyzes all commits.\n"
+
                     // 'organize' options
 
-                    + "  -G --test-ion-data <file_path>      This option will specify the path of the directory which contains all test Ion data.\n"
+                    + "  -G --test-ion-data <file_path>      This option will specify the path of the directory which contains all test Ion data. With '--corpus-matrix', "
+                    + "the generated test Ion data is written into and reused from this directory.\n"
+
+                    + "  -x --corpus-matrix <file_path>      This option will specify the path of an Ion text file which lists the schemas, sizes, formats and seeds of the test "
+                    + "Ion data, e.g. { schemas: [\"customer.isl\"], sizes: [1000000], formats: [ion_binary, ion_text], seeds: [1, 2] }. Every missing combination is generated "
+                    + "in parallel, and each test Ion data file is benchmarked as soon as it is generated.\n"
 
-                    + "  -B --benchmark-options-combinations <file_path>      This option will specify the path of an Ion text file which contains all options combinations of ion-java-benchmark-cli."
+                    + "  -B --benchmark-options-combinations <file_path>      This option will specify the path of an Ion text file which contains all options combinations of ion-java-benchmark-cli. "
+                    + "The file contains either a list of options combinations, or a struct of option dimensions, e.g. { command: [read, write], options: { \"--api\": [dom, streaming], "
+                    + "\"--format\": [ion_binary, ion_text] }, fixed: \"--results-format ion\", strength: 2 }, from which a covering plan is built, so every combination of values "
+                    + "of any 'strength' option dimensions is benchmarked without running the full product.\n"
+
+                    + "  -d --run-durations <file_path>      This option will record the duration of every benchmark run into the specified Ion file, which is used for "
+                    + "estimating the run time of the next suites.\n"
+
+                    + "  -a --time-budget <seconds>      This option will limit the plan of the option dimensions to the options combinations whose estimated run time fits into the "
+                    + "specified number of seconds, which requires the durations recorded by '--run-durations'.\n"
+
+                    + "  -j --cpus-per-run <count>      This option will pin each concurrent benchmark run to its own set of the specified number of CPUs through taskset. Only supported on Linux.\n"
+
+                    + "  -t --run-timeout <seconds>      The maximum wall time of one benchmark run, the run will be killed and retried after the timeout.\n"
+
+                    + "  -i --in-process      This option will load the benchmark CLI jar once through an isolated class loader and run every benchmark invoke inside the "
+                    + "current JVM, one at a time, instead of starting a JVM for each invoke. JMH still forks the measured JVMs when the options require it. "
+                    + "The benchmark CLI is invoked through 'public static int run(String[])' of its main class, if the main class does not declare it, "
+                    + "every benchmark invoke starts its own JVM as without this option.\n"
+
+                    + "  -k --flight-recording      This option will record every JVM of each benchmark run, including the JVMs forked by JMH, with Java Flight Recorder "
+                    + "through JAVA_TOOL_OPTIONS. The recordings are stored next to the benchmark result, e.g. 'new-jfr', and summarized into 'new-jfr-summary.ion' with the "
+                    + "hottest methods, the top allocating frames and the GC pauses. The cached results are not reused, since they have no recording.\n"
+
+                    + "  -e --result-cache <directory>      This option will cache the benchmark results in the specified directory by the content of the test data, "
+                    + "the options combination and the benchmark CLI jar. Cached results are reused and only the benchmark invokes whose inputs changed are executed.\n"
+
+                    + "  -r --retries <count>      The number of retries after a benchmark run fails or times out. [default: 0]\n"
 
                     + "\n";
     private static final String COMMANDS =
@@ -64,10 +191,26 @@ public class Main {
                     + "The command will generate approximately the amount of data requested, but the actual size of the generated "
                     + "may be slightly larger or smaller than requested.\n"
 
+                    + " profile     Stream an existing Ion corpus and collect per-path statistics, including type mix, string length and codepoint "
+                    + "histograms, numeric ranges, cardinality estimates, container lengths and annotation frequency. The statistics are written "
+                    + "as an Ion profile which can be provided to the 'generate' command by '--data-profile'.\n"
+
+                    + " infer-schema     Stream an existing Ion corpus once and infer an Ion Schema type definition which can be provided to the "
+                    + "'generate' command by '--input-ion-schema'.\n"
+
+                    + " benchmark-generator     Run the 'generate' workload for every ISL file, data size and format in forked JVMs, and write the throughput in "
+                    + "MB/s and values/s and the peak resident set size of every workload in the format of JMH results, which can be compared by the 'compare' command.\n"
+
                     + " compare     Compare the benchmark results generated by benchmarking ion-java from different commits. After "
                     + "the comparison process, relative changes of speed, heap usage, serialized size and gc.allocated.rate will be "
                     + "calculated and written into an Ion Struct.\n"
 
+                    + " history     Query the scores of a metric for the selected benchmarks over the latest commits from the local benchmark history, "
+                    + "which is built by 'compare --history'. The raw benchmark results are not read again.\n"
+
+                    + " detect-change-points     Detect the commits where sustained shifts of speed, heap usage, serialized size and gc.allocated.rate began, "
+                    + "across the benchmark results in the local benchmark history. Slow cumulative changes which never exceed the pairwise threshold are also detected.\n"
+
                     + "\n";
 
     private static final String EXAMPLES =
@@ -106,6 +249,16 @@ public class Main {
             if (optionsMap.get("generate").equals(true)) {
                 GeneratorOptionsValidator.checkValid(args, optionsMap);
                 GeneratorOptions.executeGenerator(optionsMap);
+            } else if (optionsMap.get("profile").equals(true)) {
+                CorpusProfiler.profileAndWrite(optionsMap);
+            } else if (optionsMap.get("infer-schema").equals(true)) {
+                SchemaInferrer.inferAndWrite(optionsMap);
+            } else if (optionsMap.get("history").equals(true)) {
+                BenchmarkHistory.queryAndWrite(optionsMap);
+            } else if (optionsMap.get("detect-change-points").equals(true)) {
+                ChangePointDetector.detectAndWrite(optionsMap);
+            } else if (optionsMap.get("benchmark-generator").equals(true)) {
+                GeneratorBenchmark.runAndWrite(optionsMap);
             } else if (optionsMap.get("compare").equals(true)) {
                 ParseAndCompareBenchmarkResults.compareResult(optionsMap);
             } else {
@@ -1,21 +1,16 @@
 package com.amazon.ion.datagenerator;
 
-import com.amazon.ion.IonDatagram;
-import com.amazon.ion.IonDecimal;
-import com.amazon.ion.IonFloat;
-import com.amazon.ion.IonList;
 import com.amazon.ion.IonReader;
 import com.amazon.ion.IonString;
 import com.amazon.ion.IonStruct;
 import com.amazon.ion.IonType;
 import com.amazon.ion.IonValue;
 import com.amazon.ion.IonWriter;
+import com.amazon.ion.Timestamp;
 import com.amazon.ion.system.IonReaderBuilder;
 import com.amazon.ion.system.IonTextWriterBuilder;
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -23,30 +18,50 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class ParseAndCompareBenchmarkResults {
     public static final String RELATIVE_DIFFERENCE_SCORE = "relative_difference_score";
+    public static final String REGRESSION_ANALYSIS = "regression_analysis";
     public static final List<String> BENCHMARK_SCORE_KEYWORDS = Arrays.asList("speed", "Heap usage", "Serialized size", "·gc.alloc.rate");
-    private static final String PRIMARY_METRIC = "primaryMetric";
+    // The secondary metrics of the generator benchmark, whose speed is its primary metric.
+    public static final List<String> GENERATOR_SCORE_KEYWORDS = Arrays.asList(GeneratorBenchmark.VALUE_RATE, GeneratorBenchmark.PEAK_RSS);
+    // All metrics which are compared, including the metrics of the generator benchmark.
+    public static final List<String> COMPARED_SCORE_KEYWORDS = concat(BENCHMARK_SCORE_KEYWORDS, GENERATOR_SCORE_KEYWORDS);
+    private static final String BENCHMARK = "benchmark";
+    private static final String SPEED = "speed";
+    private static final String GC_ALLOCATE = "·gc.alloc.rate";
+    private static final String HEAP_USAGE = "Heap usage";
     private static final String PARAMETERS = "params";
     private static final String INPUT = "input";
     private static final String OPTIONS = "options";
-    private static final String SECONDARY_METRIC = "secondaryMetrics";
-    private static final String SCORE = "score";
-    private static final String SPEED = "speed";
-    private final static String GC_ALLOCATE = "·gc.alloc.rate";
-    private final static String HEAP_USAGE = "Heap usage";
     private static final String FORMAT = "format";
     private static final String TYPE = "type";
     private static final String API = "api";
-    private static final String RAW_DATA = "rawData";
     private static final String FORMAT_KEYWORD = "f";
     private static final String TYPE_KEYWORD = "t";
+    private static final String RELATIVE_DIFFERENCE = "relative_difference";
+    private static final String CONFIDENCE_INTERVAL = "confidence_interval";
+    private static final String P_VALUE = "p_value";
+    private static final String REGRESSION = "regression";
+    private static final String MISSING_FROM = "missing_from";
+    private static final String PREVIOUS = "previous";
+    private static final String NEW = "new";
+    private static final double DEFAULT_SIGNIFICANCE_LEVEL = 0.05;
+    private static final double DEFAULT_MINIMUM_EFFECT_SIZE = 0.01;
 
     /**
      * Get the paths of benchmark results from two commits then invoke the methods to calculate relative change for each aspect from the result.
+     * Each benchmark result file is parsed once, and every benchmark entry of the new result is compared with the entry which has the same benchmark
+     * name, mode and parameters in the previous result. The comparison report contains one IonStruct for each compared benchmark entry, and one
+     * IonStruct with the field 'missing_from' for each entry which only exists in one of the results, e.g. a new or a removed benchmark.
+     * The threshold of each metric is calculated from the raw data of the first fork. A metric which is measured once per fork, e.g. the peak RSS of
+     * the generator benchmark, has no spread within a fork, so it is not gated by the thresholds and is only compared by the statistical methods.
+     * By default, a regression is detected by comparing the relative changes with the thresholds calculated from the raw data. When a statistical
+     * detection method is provided, the regressions are detected by RegressionDetector and the confidence interval of each metric is also reported.
+     * When a history directory is provided, the new result is also appended to the history with its commit id.
      * @param optionsMap is the hash map which generated by the command line parser which match the option name and its value appropriately.
      * @throws Exception if errors occur when reading Ion data.
      */
@@ -54,31 +69,141 @@ public class ParseAndCompareBenchmarkResults {
         String benchmarkResultPrevious = optionsMap.get("--benchmark-result-previous").toString();
         String benchmarkResultNew = optionsMap.get("--benchmark-result-new").toString();
         String outputFilePath = optionsMap.get("<output_file>").toString();
+        String detectionMethod = optionsMap.get("--detection-method") == null ? RegressionDetector.METHOD_THRESHOLD : optionsMap.get("--detection-method").toString();
+        double significanceLevel = optionsMap.get("--significance-level") == null ? DEFAULT_SIGNIFICANCE_LEVEL : Double.parseDouble(optionsMap.get("--significance-level").toString());
+        double minimumEffectSize = optionsMap.get("--minimum-effect-size") == null ? DEFAULT_MINIMUM_EFFECT_SIZE : Double.parseDouble(optionsMap.get("--minimum-effect-size").toString());
+        BenchmarkResultIndex previousIndex = BenchmarkResultIndex.load(benchmarkResultPrevious);
+        BenchmarkResultIndex newIndex = BenchmarkResultIndex.load(benchmarkResultNew);
+        if (optionsMap.get("--history") != null) {
+            if (optionsMap.get("--commit") == null) {
+                throw new IllegalArgumentException("Please provide the commit id by '--commit' when the result is ingested into the history.");
+            }
+            new BenchmarkHistory(new File(optionsMap.get("--history").toString())).append(optionsMap.get("--commit").toString(), Timestamp.now(), newIndex);
+        }
+        Map<String, Map<String, BigDecimal>> regressionResults = new LinkedHashMap<>();
+        try (IonWriter writer = IonTextWriterBuilder.standard().build(new BufferedOutputStream(new FileOutputStream(new File(outputFilePath))))) {
+            for (BenchmarkResultIndex.Entry newEntry : newIndex.getEntries()) {
+                BenchmarkResultIndex.Entry previousEntry = previousIndex.getEntry(newEntry.getKey());
+                if (previousEntry == null) {
+                    writeUnmatchedEntry(writer, newEntry, PREVIOUS);
+                    continue;
+                }
+                Map<String, BigDecimal> scoreMap = getScoreMap(previousEntry, newEntry);
+                Map<String, BigDecimal> regressionResult;
+                Map<String, RegressionDetector.MetricComparison> comparisonMap = null;
+                if (detectionMethod.equals(RegressionDetector.METHOD_THRESHOLD)) {
+                    regressionResult = detectRegression(getThresholdMap(previousEntry, newEntry), scoreMap);
+                } else {
+                    comparisonMap = new LinkedHashMap<>();
+                    regressionResult = new HashMap<>();
+                    for (String keyWord : scoreMap.keySet()) {
+                        RegressionDetector.MetricComparison comparison = RegressionDetector.compare(detectionMethod, previousEntry.getMetric(keyWord),
+                                newEntry.getMetric(keyWord), significanceLevel, minimumEffectSize);
+                        comparisonMap.put(keyWord, comparison);
+                        if (comparison.isRegression()) {
+                            regressionResult.put(keyWord, scoreMap.get(keyWord));
+                        }
+                    }
+                }
+                writeResult(writer, newEntry, scoreMap, comparisonMap);
+                if (regressionResult.size() != 0) {
+                    regressionResults.put(newEntry.getKey(), regressionResult);
+                }
+            }
+            for (BenchmarkResultIndex.Entry previousEntry : previousIndex.getEntries()) {
+                if (newIndex.getEntry(previousEntry.getKey()) == null) {
+                    writeUnmatchedEntry(writer, previousEntry, NEW);
+                }
+            }
+        }
+        // This print out value will be passed to the environment variable in the GitHub Actions workflow.
+        if (regressionResults.size() != 0) {
+            System.out.println(formatRegression(regressionResults));
+        } else {
+            System.out.println("no regression detected");
+        }
+    }
+
+    /**
+     * Format the regressions for the GitHub Actions workflow in one line. The line starts with the regressed changes of ·gc.alloc.rate, Heap usage and
+     * speed like the comparison of a single benchmark entry, where a metric which did not regress is printed as null, and each of them is taken from the
+     * first regressed entry which contains it. The regressed entries follow after ', regressed: ', e.g.
+     * '-0.05, null, null, regressed: <benchmark key> {·gc.alloc.rate: -0.05}; <benchmark key> {Peak RSS: 0.2}', so the workflow which reads the first
+     * three values keeps working.
+     * @param regressionResults matches the key of every regressed benchmark entry with its regressed metrics.
+     * @return the regressions in text.
+     */
+    static String formatRegression(Map<String, Map<String, BigDecimal>> regressionResults) {
+        List<String> scores = new ArrayList<>();
+        for (String keyWord : Arrays.asList(GC_ALLOCATE, HEAP_USAGE, SPEED)) {
+            BigDecimal score = null;
+            for (Map<String, BigDecimal> regressionResult : regressionResults.values()) {
+                if (score == null) {
+                    score = regressionResult.get(keyWord);
+                }
+            }
+            scores.add(String.valueOf(score));
+        }
+        List<String> entries = new ArrayList<>();
+        for (Map.Entry<String, Map<String, BigDecimal>> regressionResult : regressionResults.entrySet()) {
+            List<String> regressions = new ArrayList<>();
+            for (String keyWord : COMPARED_SCORE_KEYWORDS) {
+                if (regressionResult.getValue().containsKey(keyWord)) {
+                    regressions.add(keyWord + ": " + regressionResult.getValue().get(keyWord).toPlainString());
+                }
+            }
+            entries.add(regressionResult.getKey() + " {" + String.join(", ", regressions) + "}");
+        }
+        return String.join(", ", scores) + ", regressed: " + String.join("; ", entries);
+    }
+
+    /**
+     * Calculate the relative change of each aspect between two benchmark entries.
+     * @param previousEntry is the benchmark entry from the existing commit.
+     * @param newEntry is the benchmark entry with the same benchmark name and parameters from the new commit.
+     * @return a map which match the relative change of the score with the aspect it represents.
+     */
+    private static Map<String, BigDecimal> getScoreMap(BenchmarkResultIndex.Entry previousEntry, BenchmarkResultIndex.Entry newEntry) {
         Map<String, BigDecimal> scoreMap = new HashMap<>();
-        for (String benchmarkScoreKeyword : BENCHMARK_SCORE_KEYWORDS) {
-            BigDecimal previousScore = getScore(benchmarkResultPrevious, benchmarkScoreKeyword);
-            BigDecimal newScore = getScore(benchmarkResultNew, benchmarkScoreKeyword);
-            BigDecimal result = calculateDifference(previousScore, newScore);
-            scoreMap.put(benchmarkScoreKeyword, result);
+        for (String keyWord : COMPARED_SCORE_KEYWORDS) {
+            if (isComparable(previousEntry.getMetric(keyWord), newEntry.getMetric(keyWord))) {
+                scoreMap.put(keyWord, calculateDifference(previousEntry.getMetric(keyWord).getScore(), newEntry.getMetric(keyWord).getScore()));
+            }
         }
-        Map<String, BigDecimal> thresholdMap = getThresholdMap(benchmarkResultPrevious, benchmarkResultNew);
-        writeResult(benchmarkResultNew, outputFilePath, scoreMap, thresholdMap);
+        return scoreMap;
     }
 
     /**
      * Calculate the threshold scores and construct a map to match the threshold with the aspect it represents.
+     * Only the first benchmark entry of each result is compared.
      * @param benchmarkResultPrevious is the benchmark result of ion-java from the existing commit.
      * @param benchmarkResultNew is the benchmark result of ion-java from the new commit.
      * @return a map which match the thresholds score with the aspect name it represents.
-     * @throws Exception if errors occurs when calling method parseScore.
+     * @throws Exception if errors occurs when reading the benchmark results.
      */
     public static Map<String, BigDecimal> getThresholdMap(String benchmarkResultPrevious, String benchmarkResultNew) throws Exception {
+        return getThresholdMap(BenchmarkResultIndex.load(benchmarkResultPrevious).getFirstEntry(), BenchmarkResultIndex.load(benchmarkResultNew).getFirstEntry());
+    }
+
+    /**
+     * Calculate the threshold scores of two benchmark entries and construct a map to match the threshold with the aspect it represents.
+     * The thresholds are calculated from the raw data of the first fork of each entry, and the metrics whose first fork has fewer than two
+     * measurements have no threshold.
+     * @param previousEntry is the benchmark entry from the existing commit.
+     * @param newEntry is the benchmark entry from the new commit.
+     * @return a map which match the thresholds score with the aspect name it represents.
+     */
+    private static Map<String, BigDecimal> getThresholdMap(BenchmarkResultIndex.Entry previousEntry, BenchmarkResultIndex.Entry newEntry) {
         Map<String, BigDecimal> thresholdMap = new HashMap<>();
-        for (String keyWord : BENCHMARK_SCORE_KEYWORDS) {
-            IonList rawDataPrevious = (IonList) parseScore(benchmarkResultPrevious, keyWord).get(RAW_DATA);
-            IonList rawDataNew = (IonList) parseScore(benchmarkResultNew, keyWord).get(RAW_DATA);
-            BigDecimal thresholdPrevious = getThresholdScore((IonList) rawDataPrevious.get(0));
-            BigDecimal thresholdNew = getThresholdScore((IonList) rawDataNew.get(0));
+        for (String keyWord : COMPARED_SCORE_KEYWORDS) {
+            BenchmarkResultIndex.Metric previousMetric = previousEntry.getMetric(keyWord);
+            BenchmarkResultIndex.Metric newMetric = newEntry.getMetric(keyWord);
+            // A fork which has a single measurement has no spread, which would give a threshold of 0 and report any change as a regression.
+            if (!isComparable(previousMetric, newMetric) || previousMetric.getFirstForkRawData().size() < 2 || newMetric.getFirstForkRawData().size() < 2) {
+                continue;
+            }
+            BigDecimal thresholdPrevious = getThresholdScore(previousMetric.getFirstForkRawData());
+            BigDecimal thresholdNew = getThresholdScore(newMetric.getFirstForkRawData());
             if (thresholdPrevious.compareTo(thresholdNew) < 0) {
                 thresholdMap.put(keyWord, thresholdPrevious);
             } else {
@@ -88,92 +213,44 @@ public class ParseAndCompareBenchmarkResults {
         return thresholdMap;
     }
 
+    /**
+     * Check whether the relative change between two metrics can be calculated.
+     * @param previousMetric is the metric from the existing commit, or null if the benchmark entry does not contain it.
+     * @param newMetric is the metric from the new commit, or null if the benchmark entry does not contain it.
+     * @return true if both metrics have scores and the previous score is not zero.
+     */
+    private static boolean isComparable(BenchmarkResultIndex.Metric previousMetric, BenchmarkResultIndex.Metric newMetric) {
+        return previousMetric != null && newMetric != null && previousMetric.getScore() != null && newMetric.getScore() != null
+                && previousMetric.getScore().signum() != 0;
+    }
+
     /**
      * Get threshold score by applying (minScore - maxScore)/maxScore to a list of raw data in benchmark result.
-     * @param rawDataList is an Ion List contains performance scores from multiple iterations of benchmark process.
+     * @param rawData contains performance scores from multiple iterations of one fork of the benchmark process.
      * @return calculated threshold score.
      */
-    private static BigDecimal getThresholdScore(IonList rawDataList) {
-        List<BigDecimal> rawData = new ArrayList<>();
-        for (int i = 0; i < rawDataList.size(); i++ ) {
-            IonDecimal score = (IonDecimal) rawDataList.get(i);
-            rawData.add(score.bigDecimalValue());
+    private static BigDecimal getThresholdScore(List<BigDecimal> rawData) {
+        BigDecimal max = Collections.max(rawData);
+        if (max.signum() == 0) {
+            return BigDecimal.ZERO;
         }
-        BigDecimal threshold = calculateDifference(Collections.max(rawData), Collections.min(rawData));
-        return threshold;
+        return calculateDifference(max, Collections.min(rawData));
     }
 
     /**
      * Get score of specific aspect from set (speed | heap usage | serialized size | gc.allocated.rate) after parsing the benchmark result.
+     * Only the first benchmark entry of the result is considered.
      * @param benchmarkResultFilePath is the path of benchmark result file.
      * @param keyWord from set (speed | Heap usage | Serialized size | ·gc.alloc.rate) specifies which score will be extracted from the benchmark result.
      * @return the score of specific aspect in BigDecimal format.
      * @throws Exception if error occurs when reading Ion Data.
      */
     public static BigDecimal getScore(String benchmarkResultFilePath, String keyWord) throws Exception {
-        IonStruct scoreStruct = parseScore(benchmarkResultFilePath, keyWord);
-        IonValue score = scoreStruct.get(SCORE);
-        if (score.getType().equals(IonType.FLOAT)) {
-            IonFloat scoreFloat = (IonFloat) score;
-            return scoreFloat.bigDecimalValue();
-        } else {
-            IonDecimal scoreDecimal = (IonDecimal) score;
-            return scoreDecimal.bigDecimalValue();
-        }
-    }
-
-    /**
-     * Parse the benchmark result and extract the IonStruct which contains scores information.
-     * @param benchmarkResultFilePath is the file path of benchmark result.
-     * @param keyWord represents which aspect of scores are required to be extracted.
-     * @return an IonStruct which contains the scores information.
-     * @throws Exception if errors occur when create IonReader.
-     */
-    private static IonStruct parseScore(String benchmarkResultFilePath, String keyWord) throws Exception {
-        IonStruct scoreStruct;
-        IonStruct benchmarkResultStruct = readHelper(benchmarkResultFilePath);
-        if (keyWord.equals(SPEED)) {
-            scoreStruct = (IonStruct)benchmarkResultStruct.get(PRIMARY_METRIC);
-        } else {
-            IonStruct secondaryMetricStruct = (IonStruct) benchmarkResultStruct.get(SECONDARY_METRIC);
-            scoreStruct = (IonStruct)secondaryMetricStruct.get(keyWord);
-        }
-        return scoreStruct;
-    }
-
-    /**
-     * Extract the parameter of specific aspect from set (input | options) out of benchmark result.
-     * @param benchmarkResultFilePath is the path of benchmark result.
-     * @param keyWord specifies which parameter will be returned, from set (input | options).
-     * @return an Ion Value represents the parameter conforms with the keyword.
-     * @throws Exception if error occurs when reading Ion data.
-     */
-    private static IonValue getParameter(String benchmarkResultFilePath, String keyWord) throws Exception{
-        IonStruct benchmarkResultStruct = readHelper(benchmarkResultFilePath);
-        IonStruct parameterStruct = (IonStruct)benchmarkResultStruct.get(PARAMETERS);
-        return parameterStruct.get(keyWord);
-    }
-
-    /**
-     * This is a helper method which create a IonReader for benchmark result and extract the IonStruct which contain parameters or scores information.
-     * @param benchmarkResultFilePath is the path of benchmark result.
-     * @return an Ion Struct which contains information of parameters using during the benchmark process or scores.
-     * @throws Exception if error occurs when reading Ion Data.
-     */
-    private static IonStruct readHelper(String benchmarkResultFilePath) throws Exception {
-        try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(benchmarkResultFilePath)))) {
-            reader.next();
-            if (reader.getType().equals(IonType.LIST)) {
-                reader.stepIn();
-                reader.next();
-                if (reader.getType().equals(IonType.STRUCT)) {
-                    IonDatagram benchmarkResultDatagram = ReadGeneralConstraints.LOADER.load(reader);
-                    IonStruct benchmarkResult = (IonStruct) benchmarkResultDatagram.get(0);
-                    return benchmarkResult;
-                }
-            }
-            throw new IllegalStateException("The content of benchmark result is not supported.");
+        BenchmarkResultIndex.Metric metric = BenchmarkResultIndex.load(benchmarkResultFilePath).getFirstEntry().getMetric(keyWord);
+        if (metric == null || metric.getScore() == null) {
+            throw new IllegalStateException("The benchmark result does not contain the score of " + keyWord + ".");
         }
+        return metric.getScore();
     }
 
     /**
@@ -188,82 +265,155 @@ public class ParseAndCompareBenchmarkResults {
     }
 
     /**
-     * Write calculated relative changes of scores in an Ion Struct into the generated file and detect if performance regression happened.
-     * @param benchmarkResult is the path of benchmark result.
-     * @param outputFilePath is destination path of generated result.
+     * Write calculated relative changes of scores of one benchmark entry in an Ion Struct into the comparison report.
+     * @param writer is the IonWriter of the comparison report.
+     * @param benchmarkEntry is the benchmark entry from the new commit.
      * @param scoreMap is a hashmap which match relative change of the score with the aspect it represents.
-     * @param thresholdMap is a hashmap which match threshold of the score with the aspect it represents.
+     * @param comparisonMap is a hashmap which match the statistical comparison with the aspect it represents, or null if the threshold detection is used.
      * @throws Exception if error occurs when reading Ion data.
      */
-    private static void writeResult(String benchmarkResult, String outputFilePath, Map<String, BigDecimal> scoreMap, Map<String, BigDecimal> thresholdMap) throws Exception {
-        File file = new File(outputFilePath);
-        IonString inputFileName = (IonString) getParameter(benchmarkResult, INPUT);
-        String parameters = getParameter(benchmarkResult, OPTIONS).toString();
-        try (
-                IonWriter writer = IonTextWriterBuilder.standard().build(new BufferedOutputStream(new FileOutputStream(file)));
-                IonReader reader = IonReaderBuilder.standard().build(parameters.substring(1,parameters.length() - 1))
-        ) {
-            reader.next();
-            writer.stepIn(IonType.STRUCT);
-            writer.setFieldName(INPUT);
-            writer.writeString(inputFileName.stringValue().substring(inputFileName.stringValue().lastIndexOf("/") + 1));
-            writer.addTypeAnnotation(reader.getTypeAnnotations()[0]);
-            writer.setFieldName(PARAMETERS);
+    private static void writeResult(IonWriter writer, BenchmarkResultIndex.Entry benchmarkEntry, Map<String, BigDecimal> scoreMap,
+                                    Map<String, RegressionDetector.MetricComparison> comparisonMap) throws Exception {
+        writer.stepIn(IonType.STRUCT);
+        writeBenchmarkIdentity(writer, benchmarkEntry);
+        writer.setFieldName(RELATIVE_DIFFERENCE_SCORE);
+        writer.stepIn(IonType.STRUCT);
+        for (String scoreName : scoreMap.keySet()) {
+            writer.setFieldName(scoreName);
+            writer.writeDecimal(scoreMap.get(scoreName));
+        }
+        writer.stepOut();
+        if (comparisonMap != null) {
+            writer.setFieldName(REGRESSION_ANALYSIS);
             writer.stepIn(IonType.STRUCT);
-            reader.stepIn();
-            while (reader.next() != null) {
-                if (reader.getFieldName().equals(FORMAT_KEYWORD)) {
-                    writer.setFieldName(FORMAT);
-                    writer.writeString(reader.stringValue());
-                } else if (reader.getFieldName().equals(TYPE_KEYWORD)) {
-                    writer.setFieldName(TYPE);
-                    writer.writeString(reader.stringValue());
-                } else {
-                    writer.setFieldName(API);
-                    writer.writeString(reader.stringValue());
+            for (Map.Entry<String, RegressionDetector.MetricComparison> comparison : comparisonMap.entrySet()) {
+                writer.setFieldName(comparison.getKey());
+                writer.stepIn(IonType.STRUCT);
+                writer.setFieldName(RELATIVE_DIFFERENCE);
+                writer.writeFloat(comparison.getValue().getRelativeDifference());
+                writer.setFieldName(CONFIDENCE_INTERVAL);
+                writer.stepIn(IonType.LIST);
+                writer.writeFloat(comparison.getValue().getLowerBound());
+                writer.writeFloat(comparison.getValue().getUpperBound());
+                writer.stepOut();
+                if (comparison.getValue().getPValue() != null) {
+                    writer.setFieldName(P_VALUE);
+                    writer.writeFloat(comparison.getValue().getPValue());
                 }
+                writer.setFieldName(REGRESSION);
+                writer.writeBool(comparison.getValue().isRegression());
+                writer.stepOut();
             }
-            reader.stepOut();
-            writer.stepOut();
-            writer.setFieldName(RELATIVE_DIFFERENCE_SCORE);
-            writer.stepIn(IonType.STRUCT);
-            for ( String scoreName : scoreMap.keySet()) {
-                writer.setFieldName(scoreName);
-                writer.writeDecimal(scoreMap.get(scoreName));
-            }
-            writer.stepOut();
             writer.stepOut();
         }
-        Map<String, BigDecimal> regressionResult = detectRegression(thresholdMap, scoreMap, outputFilePath);
-        // This print out value will be passed to the environment variable in the GitHub Actions workflow.
-        if (regressionResult.size() != 0) {
-            System.out.println(String.format("%s, %s, %s", regressionResult.get(GC_ALLOCATE), regressionResult.get(HEAP_USAGE), regressionResult.get(SPEED)));
+        writer.stepOut();
+    }
+
+    /**
+     * Write the fields which identify one benchmark entry, i.e. the input file and the options of ion-java-benchmark-cli, or the benchmark name and
+     * the JMH parameters of other benchmarks. The writer is positioned in the struct of the entry.
+     * @param writer is the IonWriter of the comparison report.
+     * @param benchmarkEntry is the benchmark entry.
+     * @throws Exception if error occurs when reading Ion data.
+     */
+    private static void writeBenchmarkIdentity(IonWriter writer, BenchmarkResultIndex.Entry benchmarkEntry) throws Exception {
+        IonStruct benchmarkParameters = benchmarkEntry.getParameters();
+        IonValue inputFileName = benchmarkParameters.get(INPUT);
+        IonValue parameters = benchmarkParameters.get(OPTIONS);
+        if (inputFileName instanceof IonString) {
+            String input = ((IonString) inputFileName).stringValue();
+            writer.setFieldName(INPUT);
+            writer.writeString(input.substring(input.lastIndexOf("/") + 1));
+        }
+        if (parameters instanceof IonString) {
+            try (IonReader reader = IonReaderBuilder.standard().build(((IonString) parameters).stringValue())) {
+                reader.next();
+                writer.addTypeAnnotation(reader.getTypeAnnotations()[0]);
+                writer.setFieldName(PARAMETERS);
+                writer.stepIn(IonType.STRUCT);
+                reader.stepIn();
+                while (reader.next() != null) {
+                    if (reader.getFieldName().equals(FORMAT_KEYWORD)) {
+                        writer.setFieldName(FORMAT);
+                        writer.writeString(reader.stringValue());
+                    } else if (reader.getFieldName().equals(TYPE_KEYWORD)) {
+                        writer.setFieldName(TYPE);
+                        writer.writeString(reader.stringValue());
+                    } else {
+                        writer.setFieldName(API);
+                        writer.writeString(reader.stringValue());
+                    }
+                }
+                reader.stepOut();
+                writer.stepOut();
+            }
         } else {
-            System.out.println("no regression detected");
+            // Benchmarks which are not invoked through ion-java-benchmark-cli keep their JMH parameters as they are.
+            writer.setFieldName(BENCHMARK);
+            writer.writeString(benchmarkEntry.getBenchmark());
+            writer.setFieldName(PARAMETERS);
+            benchmarkParameters.writeTo(writer);
         }
     }
 
+    /**
+     * Write one benchmark entry which only exists in one of the results into the comparison report, so new and removed benchmarks are not dropped silently.
+     * @param writer is the IonWriter of the comparison report.
+     * @param benchmarkEntry is the benchmark entry which does not have a match.
+     * @param missingFrom is the result which does not contain the entry, from set (previous | new).
+     * @throws Exception if error occurs when reading Ion data.
+     */
+    private static void writeUnmatchedEntry(IonWriter writer, BenchmarkResultIndex.Entry benchmarkEntry, String missingFrom) throws Exception {
+        writer.stepIn(IonType.STRUCT);
+        writeBenchmarkIdentity(writer, benchmarkEntry);
+        writer.setFieldName(MISSING_FROM);
+        writer.writeString(missingFrom);
+        writer.stepOut();
+        System.err.println("The benchmark " + benchmarkEntry.getKey() + " is missing from the " + missingFrom + " result and is not compared.");
+    }
+
     /**
      * Compare the relative changes of benchmark results with the thresholds, if the relative change smaller than threshold score which represent the decrease threshold of one
      * specific aspect, then the performance regression detected and return 'true'.
      * @param thresholdMap is a hashmap which match threshold of the score with the aspect it represents.
      * @param scoreMap is a hashmap which match relative change of the score with the aspect it represents.
-     * @param outputFilePath is the destination of generated report after comparison process.
+     * @param outputFilePath is the destination of generated report after comparison process, which is no longer read because the scores are already in scoreMap.
      * @return a map which contains regression scores.
      * @throws Exception if occur happen when reading Ion Data.
+     * @deprecated use detectRegression(thresholdMap, scoreMap), the comparison report is not needed.
      */
+    @Deprecated
     public static Map<String, BigDecimal> detectRegression(Map<String, BigDecimal> thresholdMap, Map<String, BigDecimal> scoreMap, String outputFilePath) throws Exception {
-        try (IonReader comparisonResultReader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(outputFilePath)))) {
-            IonDatagram comparisonResult = ReadGeneralConstraints.LOADER.load(comparisonResultReader);
-            IonStruct comparisonResultStruct = (IonStruct) comparisonResult.get(0);
-            comparisonResultStruct.remove(RELATIVE_DIFFERENCE_SCORE);
-            Map<String, BigDecimal> regressions = new HashMap<>();
-            for (String keyWord : scoreMap.keySet()) {
-                if (scoreMap.get(keyWord).compareTo(thresholdMap.get(keyWord)) < 0) {
-                    regressions.put(keyWord, scoreMap.get(keyWord));
-                }
+        return detectRegression(thresholdMap, scoreMap);
+    }
+
+    /**
+     * Compare the relative changes of benchmark results with the thresholds, if the relative change smaller than threshold score which represent the decrease threshold of one
+     * specific aspect, then the performance regression detected. The metrics which do not have a threshold are not gated.
+     * @param thresholdMap is a hashmap which match threshold of the score with the aspect it represents.
+     * @param scoreMap is a hashmap which match relative change of the score with the aspect it represents.
+     * @return a map which contains regression scores.
+     */
+    public static Map<String, BigDecimal> detectRegression(Map<String, BigDecimal> thresholdMap, Map<String, BigDecimal> scoreMap) {
+        Map<String, BigDecimal> regressions = new HashMap<>();
+        for (String keyWord : scoreMap.keySet()) {
+            BigDecimal threshold = thresholdMap.get(keyWord);
+            if (threshold != null && scoreMap.get(keyWord).compareTo(threshold) < 0) {
+                regressions.put(keyWord, scoreMap.get(keyWord));
             }
-            return regressions;
         }
+        return regressions;
+    }
+
+    /**
+     * Concatenate two lists of metric names.
+     * @param first is the first list.
+     * @param second is the second list.
+     * @return the unmodifiable concatenated list.
+     */
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> keyWords = new ArrayList<>(first);
+        keyWords.addAll(second);
+        return Collections.unmodifiableList(keyWords);
     }
-}
\ No newline at end of file
+}
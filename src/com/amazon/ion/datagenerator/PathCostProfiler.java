@@ -0,0 +1,336 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonContainer;
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attribute the cost of constructing the values to the paths of the schema, e.g. order.items[].sku, so the fields which dominate a run can be
+ * found. Every N-th top-level value is sampled, and the CPU time and the allocated bytes of constructing every value nested in the sampled value,
+ * together with its estimated size, are attributed to its path. Encoding the values is not measured, it is part of the serialization phase of
+ * CostProfiler. The path starts with the name of the type definition, the fields are appended after a dot,
+ * the elements of lists and s-expressions are appended as [], and the fields with random names constructed by 'element' are appended as *.
+ * The cost of a path excludes its nested paths, while the inclusive cost is reported separately, so the paths add up to the cost of the sampled values.
+ * The size is estimated from the Ion 1.0 binary encoding rules like GenerationStatistics, where the field names are attributed to the struct. The
+ * symbol IDs are estimated as if every sampled value shared one local symbol table which is never reset and imports no shared symbol table, so the
+ * estimate ignores '--shared-symbol-table' and the local symbol table resets and never matches the size of the written data exactly.
+ * The values which are not sampled only check a flag, and the counters are read for the calling thread, while the profiler should be used by one
+ * thread at a time. NONE is the profiler which never samples, which is used when the paths are not profiled.
+ * The report ranks the paths by their CPU time and is written as:
+ * ion_data_path_cost_profile::{ values: <INT>, sampled_values: <INT>, sample_interval: <INT>, cpu_nanos: <INT>, allocated_bytes: <INT>, estimated_bytes: <INT>,
+ *                               paths: [ { path: <STRING>, count: <INT>, cpu_nanos: <INT>, cpu_fraction: <FLOAT>, inclusive_cpu_nanos: <INT>,
+ *                                          allocated_bytes: <INT>, allocation_fraction: <FLOAT>, estimated_bytes: <INT>, bytes_fraction: <FLOAT>,
+ *                                          inclusive_estimated_bytes: <INT>, cpu_nanos_per_value: <FLOAT>, estimated_bytes_per_value: <FLOAT> }... ] }
+ */
+public class PathCostProfiler {
+    public static final int DEFAULT_SAMPLE_INTERVAL = 100;
+    public static final String ELEMENTS = "[]";
+    public static final String ANY_FIELD = "*";
+    public static final PathCostProfiler NONE = new PathCostProfiler(Integer.MAX_VALUE, false);
+    private final int sampleInterval;
+    private final boolean enabled;
+    private final com.sun.management.ThreadMXBean threads;
+    private final Map<String, PathNode> roots = new HashMap<>();
+    // The symbol IDs assigned to the field names, annotations and symbol values of the sampled values, as if they shared one local symbol table.
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private final int firstLocalSymbolId = ReadGeneralConstraints.SYSTEM.getSystemSymbolTable().getMaxId() + 1;
+    private long values;
+    private long sampledValues;
+    private boolean sampling;
+    // The frames of the nested values of the sampled value, which are reused across values.
+    private Frame[] frames = new Frame[16];
+    private int depth;
+
+    /**
+     * Initializing the newly created PathCostProfiler object.
+     * @param sampleInterval is the interval of the sampled top-level values, e.g. 100 samples every 100th value.
+     */
+    public PathCostProfiler(int sampleInterval) {
+        this(sampleInterval, true);
+    }
+
+    /**
+     * Initializing the newly created PathCostProfiler object.
+     * @param sampleInterval is the interval of the sampled top-level values.
+     * @param enabled is false for NONE, which neither samples the values nor requires the JVM to support the counters.
+     */
+    private PathCostProfiler(int sampleInterval, boolean enabled) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("The sample interval of the path cost profile should be positive: " + sampleInterval);
+        }
+        this.sampleInterval = sampleInterval;
+        this.enabled = enabled;
+        this.threads = enabled ? CostProfiler.threadMXBean() : null;
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new Frame();
+        }
+    }
+
+    /**
+     * Begin constructing a top-level value, and decide whether it is sampled.
+     * @param typeName is the name of the type definition, which is the root of the paths.
+     */
+    void beginValue(String typeName) {
+        if (!enabled) {
+            return;
+        }
+        sampling = ++values % sampleInterval == 0;
+        if (sampling) {
+            push(roots.computeIfAbsent(typeName, PathNode::new));
+        }
+    }
+
+    /**
+     * End constructing a top-level value.
+     * @param value is the constructed value, or null if the construction failed, in which case the sampled value is discarded.
+     */
+    void endValue(IonValue value) {
+        if (sampling) {
+            pop(value);
+            if (value != null) {
+                sampledValues++;
+            }
+            sampling = false;
+        }
+    }
+
+    /**
+     * Begin constructing a nested value.
+     * @param segment is the field name, ELEMENTS for the elements of a sequence, or ANY_FIELD for the fields with random names.
+     */
+    void enterValue(String segment) {
+        if (sampling) {
+            push(frames[depth - 1].node.child(segment));
+        }
+    }
+
+    /**
+     * End constructing a nested value.
+     * @param value is the constructed value, or null if the construction failed.
+     */
+    void exitValue(IonValue value) {
+        if (sampling) {
+            pop(value);
+        }
+    }
+
+    /**
+     * Get the number of sampled top-level values.
+     * @return the number of sampled values.
+     */
+    public long getSampledValues() {
+        return sampledValues;
+    }
+
+    /**
+     * Push the frame of the value which is being constructed.
+     * @param node is the path of the value.
+     */
+    private void push(PathNode node) {
+        if (depth == frames.length) {
+            Frame[] grown = new Frame[frames.length * 2];
+            System.arraycopy(frames, 0, grown, 0, frames.length);
+            for (int i = frames.length; i < grown.length; i++) {
+                grown[i] = new Frame();
+            }
+            frames = grown;
+        }
+        Frame frame = frames[depth++];
+        frame.node = node;
+        frame.childCpu = 0;
+        frame.childAllocated = 0;
+        frame.childBytes = 0;
+        frame.startCpu = threads.getCurrentThreadCpuTime();
+        frame.startAllocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Pop the frame of the constructed value, and attribute its cost to its path.
+     * @param value is the constructed value, or null if the construction failed, in which case the frame is discarded without attributing its cost,
+     *              while its cost is still excluded from the path of the enclosing value.
+     */
+    private void pop(IonValue value) {
+        long endCpu = threads.getCurrentThreadCpuTime();
+        long endAllocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        Frame frame = frames[--depth];
+        long totalCpu = endCpu - frame.startCpu;
+        long totalAllocated = endAllocated - frame.startAllocated;
+        if (value == null) {
+            if (depth > 0) {
+                frames[depth - 1].childCpu += totalCpu;
+                frames[depth - 1].childAllocated += totalAllocated;
+            }
+            return;
+        }
+        long totalBytes = estimatedLength(value, frame.childBytes);
+        PathNode node = frame.node;
+        node.count++;
+        node.cpu += totalCpu - frame.childCpu;
+        node.inclusiveCpu += totalCpu;
+        node.allocated += totalAllocated - frame.childAllocated;
+        node.bytes += totalBytes - frame.childBytes;
+        node.inclusiveBytes += totalBytes;
+        if (depth > 0) {
+            Frame parent = frames[depth - 1];
+            parent.childCpu += totalCpu;
+            parent.childAllocated += totalAllocated;
+            parent.childBytes += totalBytes;
+        }
+    }
+
+    /**
+     * Estimate the size of the value in Ion binary.
+     * @param value is the constructed value.
+     * @param childrenBytes is the estimated size of the nested values, if the value is a container.
+     * @return the number of bytes of the value, including its annotations.
+     */
+    private int estimatedLength(IonValue value, long childrenBytes) {
+        int length;
+        if (value.isNullValue()) {
+            length = 1;
+        } else if (value instanceof IonContainer) {
+            long representationLength = childrenBytes;
+            if (value.getType() == IonType.STRUCT) {
+                for (IonValue child : (IonStruct) value) {
+                    representationLength += GenerationStatistics.varUIntLength(symbolId(child.getFieldName()));
+                }
+            }
+            length = GenerationStatistics.withTypeDescriptor((int) representationLength);
+        } else {
+            length = GenerationStatistics.withTypeDescriptor(GenerationStatistics.scalarLength(value, this::symbolId));
+        }
+        String[] annotations = value.getTypeAnnotations();
+        if (annotations.length > 0) {
+            int annotationsLength = 0;
+            for (String annotation : annotations) {
+                annotationsLength += GenerationStatistics.varUIntLength(symbolId(annotation));
+            }
+            length = GenerationStatistics.withTypeDescriptor(GenerationStatistics.varUIntLength(annotationsLength) + annotationsLength + length);
+        }
+        return length;
+    }
+
+    private int symbolId(String symbol) {
+        if (symbol == null) {
+            return 0;
+        }
+        return symbolIds.computeIfAbsent(symbol, text -> firstLocalSymbolId + symbolIds.size());
+    }
+
+    /**
+     * Write the report into an Ion text file, where the paths are ranked by their CPU time.
+     * @param reportFile is the path of the report.
+     * @throws IOException if errors occur when writing the report.
+     */
+    public void write(String reportFile) throws IOException {
+        List<PathNode> nodes = new ArrayList<>();
+        for (PathNode root : roots.values()) {
+            root.collect(nodes);
+        }
+        nodes.sort(Comparator.comparingLong((PathNode node) -> node.cpu).reversed().thenComparing(node -> node.path));
+        long totalCpu = 0;
+        long totalAllocated = 0;
+        long totalBytes = 0;
+        for (PathNode node : nodes) {
+            totalCpu += node.cpu;
+            totalAllocated += node.allocated;
+            totalBytes += node.bytes;
+        }
+        IonSystem system = ReadGeneralConstraints.SYSTEM;
+        IonStruct report = system.newEmptyStruct();
+        report.setTypeAnnotations("ion_data_path_cost_profile");
+        report.add("values", system.newInt(values));
+        report.add("sampled_values", system.newInt(sampledValues));
+        report.add("sample_interval", system.newInt(sampleInterval));
+        report.add("cpu_nanos", system.newInt(totalCpu));
+        report.add("allocated_bytes", system.newInt(totalAllocated));
+        report.add("estimated_bytes", system.newInt(totalBytes));
+        IonList paths = system.newEmptyList();
+        for (PathNode node : nodes) {
+            IonStruct path = system.newEmptyStruct();
+            path.add("path", system.newString(node.path));
+            path.add("count", system.newInt(node.count));
+            path.add("cpu_nanos", system.newInt(node.cpu));
+            path.add("cpu_fraction", system.newFloat(fraction(node.cpu, totalCpu)));
+            path.add("inclusive_cpu_nanos", system.newInt(node.inclusiveCpu));
+            path.add("allocated_bytes", system.newInt(node.allocated));
+            path.add("allocation_fraction", system.newFloat(fraction(node.allocated, totalAllocated)));
+            path.add("estimated_bytes", system.newInt(node.bytes));
+            path.add("bytes_fraction", system.newFloat(fraction(node.bytes, totalBytes)));
+            path.add("inclusive_estimated_bytes", system.newInt(node.inclusiveBytes));
+            path.add("cpu_nanos_per_value", system.newFloat(fraction(node.inclusiveCpu, node.count)));
+            path.add("estimated_bytes_per_value", system.newFloat(fraction(node.inclusiveBytes, node.count)));
+            paths.add(path);
+        }
+        report.add("paths", paths);
+        try (OutputStream outputStream = new FileOutputStream(reportFile);
+             IonWriter writer = IonTextWriterBuilder.pretty().build(outputStream)) {
+            report.writeTo(writer);
+        }
+    }
+
+    private static double fraction(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    /**
+     * The cost of one path of the schema.
+     */
+    private static final class PathNode {
+        private final String path;
+        private final Map<String, PathNode> children = new HashMap<>();
+        private long count;
+        private long cpu;
+        private long inclusiveCpu;
+        private long allocated;
+        private long bytes;
+        private long inclusiveBytes;
+
+        private PathNode(String path) {
+            this.path = path;
+        }
+
+        private PathNode child(String segment) {
+            PathNode child = children.get(segment);
+            if (child == null) {
+                child = new PathNode(ELEMENTS.equals(segment) ? path + ELEMENTS : path + "." + segment);
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        private void collect(List<PathNode> nodes) {
+            nodes.add(this);
+            for (PathNode child : children.values()) {
+                child.collect(nodes);
+            }
+        }
+    }
+
+    /**
+     * The counters of one value which is being constructed.
+     */
+    private static final class Frame {
+        private PathNode node;
+        private long startCpu;
+        private long startAllocated;
+        // The cost of the nested values, which is excluded from the cost of this value.
+        private long childCpu;
+        private long childAllocated;
+        private long childBytes;
+    }
+}
@@ -0,0 +1,247 @@
+package com.amazon.ion.datagenerator;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An output stream which hands the written bytes to a dedicated I/O thread, so that data generation and disk writes can overlap.
+ * The bytes are collected into a fixed number of recycled buffers. A filled buffer is passed to the I/O thread through a bounded queue,
+ * and the I/O thread returns the buffer to the free pool after writing it to the underlying stream.
+ * Flushing does not hand over a partially filled buffer, the bytes reach the underlying stream when a buffer is filled or the stream is closed.
+ */
+public class PipelinedOutputStream extends OutputStream {
+    // The buffer that tells the I/O thread to stop.
+    private static final Buffer END_OF_STREAM = new Buffer(0);
+    private final OutputStream out;
+    private final BlockingQueue<Buffer> freeBuffers;
+    private final BlockingQueue<Buffer> filledBuffers;
+    private final Thread ioThread;
+    private Buffer current;
+    private boolean closed;
+    private volatile IOException failure;
+    // The metrics below are only updated by the generating thread.
+    private long producerStallNanos;
+    private long handOffCount;
+    private long queueOccupancySum;
+    // Only updated by the I/O thread, and read after the I/O thread terminates.
+    private volatile long ioIdleNanos;
+
+    /**
+     * Creates a pipelined output stream and starts its I/O thread.
+     * @param out the underlying output stream which is only accessed by the I/O thread.
+     * @param bufferCount the number of recycled buffers, at least 2 are required for overlapping generation and writing.
+     * @param bufferSize the size of each buffer in bytes.
+     */
+    public PipelinedOutputStream(OutputStream out, int bufferCount, int bufferSize) {
+        if (bufferCount < 2) {
+            throw new IllegalArgumentException("At least two buffers are required by the pipelined writer.");
+        }
+        this.out = out;
+        this.freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+        // One extra slot is reserved for END_OF_STREAM.
+        this.filledBuffers = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 1; i < bufferCount; i++) {
+            freeBuffers.add(new Buffer(bufferSize));
+        }
+        this.current = new Buffer(bufferSize);
+        this.ioThread = new Thread(this::drain, "ion-data-generator-writer");
+        this.ioThread.setDaemon(true);
+        this.ioThread.start();
+    }
+
+    /**
+     * Write the filled buffers to the underlying stream until END_OF_STREAM is received. This method runs on the I/O thread.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                Buffer buffer = filledBuffers.take();
+                ioIdleNanos += System.nanoTime() - start;
+                if (buffer == END_OF_STREAM) {
+                    return;
+                }
+                // After a failure the buffers are still recycled, so that the generating thread is never blocked forever.
+                if (failure == null) {
+                    try {
+                        out.write(buffer.bytes, 0, buffer.length);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                buffer.length = 0;
+                freeBuffers.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (current.length == current.bytes.length) {
+            handOff();
+        }
+        current.bytes[current.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (current.length == current.bytes.length) {
+                handOff();
+            }
+            int copied = Math.min(len, current.bytes.length - current.length);
+            System.arraycopy(b, off, current.bytes, current.length, copied);
+            current.length += copied;
+            off += copied;
+            len -= copied;
+        }
+    }
+
+    /**
+     * Check whether the I/O thread failed. The buffered bytes are kept until the current buffer is filled, because the writers flush after
+     * every batch of values and handing over small buffers would defeat the batching.
+     * @throws IOException if the I/O thread failed to write the previous buffers.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        throwIfFailed();
+    }
+
+    /**
+     * Hand the remaining bytes to the I/O thread, wait for all buffers to be written then close the underlying stream.
+     * The I/O thread is always stopped and joined before the underlying stream is closed, even if an earlier write failed.
+     * @throws IOException if errors occur when writing or closing the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException error = null;
+        try {
+            handOff();
+        } catch (IOException e) {
+            error = e;
+        }
+        // The queue reserves one slot for END_OF_STREAM, and at most all other buffers are queued, so offering it never blocks.
+        filledBuffers.offer(END_OF_STREAM);
+        boolean interrupted = false;
+        while (ioThread.isAlive()) {
+            try {
+                ioThread.join();
+            } catch (InterruptedException e) {
+                // The underlying stream cannot be closed while the I/O thread might still write to it.
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            } else {
+                error.addSuppressed(e);
+            }
+        }
+        if (error == null) {
+            error = failure;
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Pass the current buffer to the I/O thread and take a free buffer, waiting if all buffers are in use.
+     * @throws IOException if the I/O thread failed to write the previous buffers.
+     */
+    private void handOff() throws IOException {
+        throwIfFailed();
+        if (current.length == 0) {
+            return;
+        }
+        queueOccupancySum += filledBuffers.size();
+        handOffCount++;
+        try {
+            filledBuffers.put(current);
+            long start = System.nanoTime();
+            current = freeBuffers.take();
+            producerStallNanos += System.nanoTime() - start;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while handing buffers to the writer thread.");
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The stream is closed.");
+        }
+    }
+
+    private void throwIfFailed() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the time in nanoseconds the generating thread spent waiting for a free buffer.
+     */
+    public long getProducerStallNanos() {
+        return producerStallNanos;
+    }
+
+    /**
+     * Returns the time in nanoseconds the I/O thread spent waiting for a filled buffer.
+     */
+    public long getIoIdleNanos() {
+        return ioIdleNanos;
+    }
+
+    /**
+     * Returns the number of buffers handed to the I/O thread.
+     */
+    public long getHandOffCount() {
+        return handOffCount;
+    }
+
+    /**
+     * Returns the average number of buffers waiting in the queue when a new buffer is handed off.
+     */
+    public double getAverageQueueOccupancy() {
+        return handOffCount == 0 ? 0 : (double) queueOccupancySum / handOffCount;
+    }
+
+    /**
+     * Print the metrics of the pipelined writer.
+     */
+    public void printInfo() {
+        System.out.println(String.format("Pipelined writer: %d buffers written, generator stalled %d ms, writer idle %d ms, average queue occupancy %.2f",
+                getHandOffCount(), getProducerStallNanos() / 1_000_000, getIoIdleNanos() / 1_000_000, getAverageQueueOccupancy()));
+    }
+
+    /**
+     * A recycled byte buffer with the number of valid bytes it contains.
+     */
+    private static final class Buffer {
+        private final byte[] bytes;
+        private int length;
+
+        private Buffer(int size) {
+            this.bytes = new byte[size];
+        }
+    }
+}
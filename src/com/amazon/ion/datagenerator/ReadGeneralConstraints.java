@@ -1,19 +1,18 @@
 package com.amazon.ion.datagenerator;
 
 import com.amazon.ion.IonLoader;
-import com.amazon.ion.IonStruct;
 import com.amazon.ion.IonSystem;
 import com.amazon.ion.IonValue;
 import com.amazon.ion.IonWriter;
+import com.amazon.ion.SymbolTable;
 
-import com.amazon.ion.datagenerator.schema.ReparsedType;
 import com.amazon.ion.system.IonBinaryWriterBuilder;
 import com.amazon.ion.system.IonSystemBuilder;
 import com.amazon.ion.system.IonTextWriterBuilder;
 import com.amazon.ionschema.Schema;
-import com.amazon.ionschema.Type;
 
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 
 /**
@@ -22,8 +21,7 @@ import java.io.OutputStream;
 public class ReadGeneralConstraints {
     public static final IonSystem SYSTEM = IonSystemBuilder.standard().build();
     public static final IonLoader LOADER = SYSTEM.newLoader();
-
-
+    // The size of each buffer used by the pipelined writer.
 
     /**
      * Getting the constructed data which is conformed with ISL and writing data to the output file.
@@ -34,32 +32,126 @@ public class ReadGeneralConstraints {
      * @throws Exception if errors occur when writing data.
      */
     public static void constructAndWriteIonData(int size, Schema schema, String format, String outputFile) throws Exception {
-        // Assume there's only one type definition between schema_header and schema_footer.
-        Type schemaType = schema.getTypes().next();
-        IonStruct constraintStruct = (IonStruct)schemaType.getIsl();
-        CountingOutputStream outputStreamCounter = new CountingOutputStream(new FileOutputStream(outputFile));
-        try (IonWriter writer = formatWriter(format, outputStreamCounter)) {
+        constructAndWriteIonData(size, IonDataGenerator.builder().withSchema(schema).build(), format, outputFile, WriteOptions.DEFAULT);
+    }
+
+    /**
+     * Getting the constructed data from the provided generator and writing data to the output file.
+     * @param size is the size of the output file.
+     * @param generator constructs the data which is conformed with ISL.
+     * @param format is the format of the generated file, select from set (ion_text | ion_binary).
+     * @param outputFile is the path of the generated file.
+     * @param options decides the pipelined writer and the symbol tables of the generated data, and collects its statistics and progress.
+     * @return the number of generated top-level values.
+     * @throws Exception if errors occur when writing data.
+     */
+    public static long constructAndWriteIonData(int size, IonDataGenerator generator, String format, String outputFile, WriteOptions options) throws Exception {
+        PipelinedOutputStream pipelinedOutputStream = null;
+        OutputStream outputStream = new FileOutputStream(outputFile);
+        if (options.getWriteBuffers() > 0) {
+            pipelinedOutputStream = new PipelinedOutputStream(outputStream, options.getWriteBuffers(), options.getWriteBufferSize());
+            outputStream = pipelinedOutputStream;
+        }
+        CountingOutputStream outputStreamCounter = new CountingOutputStream(outputStream);
+        long valueCount = 0;
+        String typeName = generator.getTypeName();
+        CostProfiler costProfiler = generator.getCostProfiler();
+        try (IonWriter writer = formatWriter(format, outputStreamCounter, options.getSymbolTableOptions().getImports())) {
+            LocalSymbolTableResetter resetter = new LocalSymbolTableResetter(options.getSymbolTableOptions(), outputStreamCounter, options.getStatistics());
             int count = 0;
             long currentSize = 0;
             // Determine how many values should be written before the writer.flush(), and this process aims to reduce the execution time of writer.flush().
             while (currentSize <= 0.05 * size) {
-                IonValue constructedData = DataConstructor.constructIonData(new ReparsedType(constraintStruct));
-                constructedData.writeTo(writer);
+                Object batchEvent = GeneratorEvents.beginBatch();
+                writeValue(generator, typeName, format, writer, resetter, options, costProfiler);
                 count ++;
-                writer.flush();
-                currentSize = outputStreamCounter.getCount();
+                valueCount++;
+                currentSize = flush(writer, outputStreamCounter, currentSize, 1, typeName, batchEvent, options, costProfiler);
+                resetter.afterFlush(writer);
             }
             while (currentSize <= size) {
+                Object batchEvent = GeneratorEvents.beginBatch();
                 for (int i = 0; i < count; i++) {
-                    IonValue constructedData = DataConstructor.constructIonData(new ReparsedType(constraintStruct));
-                    constructedData.writeTo(writer);
+                    writeValue(generator, typeName, format, writer, resetter, options, costProfiler);
                 }
-                writer.flush();
-                currentSize = outputStreamCounter.getCount();
+                valueCount += count;
+                currentSize = flush(writer, outputStreamCounter, currentSize, count, typeName, batchEvent, options, costProfiler);
+                resetter.afterFlush(writer);
             }
         }
         // Print the successfully generated data notification which includes the file path information.
         DataConstructor.printInfo(outputFile);
+        if (pipelinedOutputStream != null) {
+            pipelinedOutputStream.printInfo();
+        }
+        return valueCount;
+    }
+
+    /**
+     * Flush the writer after a batch of values, and record the written size in the statistics, the progress and the batch event.
+     * @param writer is the writer of the generated data.
+     * @param outputStreamCounter counts the bytes written into the output file.
+     * @param previousSize is the number of bytes written before the batch.
+     * @param values is the number of values in the batch.
+     * @param typeName is the name of the generated type definition.
+     * @param batchEvent is the handle of the batch event, or null if the event is not recorded.
+     * @param options collects the statistics and the progress of the generated data.
+     * @param costProfiler measures the cost of flushing the writer, CostProfiler.NONE if the cost is not measured.
+     * @return the number of bytes written after the batch.
+     * @throws IOException if errors occur when writing data.
+     */
+    private static long flush(IonWriter writer, CountingOutputStream outputStreamCounter, long previousSize, long values, String typeName, Object batchEvent,
+                              WriteOptions options, CostProfiler costProfiler) throws IOException {
+        long flushStart = batchEvent == null ? 0 : System.nanoTime();
+        costProfiler.beginSerialization();
+        try {
+            writer.flush();
+        } finally {
+            costProfiler.endSerialization();
+        }
+        long currentSize = outputStreamCounter.getCount();
+        if (batchEvent != null) {
+            GeneratorEvents.endBatch(batchEvent, typeName, values, currentSize - previousSize, System.nanoTime() - flushStart);
+        }
+        if (options.getStatistics() != null) {
+            options.getStatistics().recordFlush(currentSize, writer.getSymbolTable());
+        }
+        if (options.getProgress() != null) {
+            options.getProgress().recordFlush(currentSize);
+        }
+        return currentSize;
+    }
+
+    /**
+     * Construct the next value and write it, then record it in the statistics and check the local symbol table reset cadence.
+     * @param generator constructs the data which is conformed with ISL.
+     * @param typeName is the name of the generated type definition, which is recorded in the sampled value events.
+     * @param format is the format of the generated data, which the sampled value events measure the encoded size in.
+     * @param writer is the writer of the generated data.
+     * @param resetter resets the local symbol table at the configured cadence.
+     * @param options collects the statistics and the progress of the generated data.
+     * @param costProfiler measures the cost of writing the value, CostProfiler.NONE if the cost is not measured.
+     * @throws IOException if errors occur when writing data.
+     */
+    private static void writeValue(IonDataGenerator generator, String typeName, String format, IonWriter writer, LocalSymbolTableResetter resetter,
+                                   WriteOptions options, CostProfiler costProfiler) throws IOException {
+        Object valueEvent = GeneratorEvents.beginValue(generator.getContext());
+        IonValue value = generator.next();
+        GeneratorEvents.endValue(valueEvent, typeName, value, format);
+        // The value is recorded before the local symbol table might be reset after it, so its symbols are counted in the current table.
+        if (options.getStatistics() != null) {
+            options.getStatistics().recordValue(value);
+        }
+        if (options.getProgress() != null) {
+            options.getProgress().recordValue();
+        }
+        costProfiler.beginSerialization();
+        try {
+            value.writeTo(writer);
+            resetter.afterValue(writer);
+        } finally {
+            costProfiler.endSerialization();
+        }
     }
 
     /**
@@ -69,10 +161,22 @@ public class ReadGeneralConstraints {
      * @return the writer which conforms with the required format.
      */
     public static IonWriter formatWriter(String format, OutputStream outputStream) {
+        return formatWriter(format, outputStream, new SymbolTable[0]);
+    }
+
+    /**
+     * Construct the writer based on the provided format (ion_text|ion_binary). The binary writer imports the provided shared symbol tables,
+     * while the text writer writes the text of all symbols and ignores the imports.
+     * @param format decides which writer should be constructed.
+     * @param outputStream represents the bytes stream which will be written into the output file.
+     * @param imports are the shared symbol tables imported by the binary data.
+     * @return the writer which conforms with the required format.
+     */
+    public static IonWriter formatWriter(String format, OutputStream outputStream, SymbolTable... imports) {
         IonWriter writer;
         switch (format) {
             case "ion_binary":
-                writer = IonBinaryWriterBuilder.standard().withLocalSymbolTableAppendEnabled().build(outputStream);
+                writer = IonBinaryWriterBuilder.standard().withLocalSymbolTableAppendEnabled().withImports(imports).build(outputStream);
                 break;
             case "ion_text":
                 writer = IonTextWriterBuilder.standard().build(outputStream);
@@ -82,4 +186,60 @@ public class ReadGeneralConstraints {
         }
         return writer;
     }
+
+    /**
+     * Reset the local symbol table by finishing the current Ion stream once the configured number of values or bytes have been written since the last reset.
+     * The writer buffers the encoded values until the batch is flushed, so the number of bytes is only checked after every flush and the writer is never
+     * flushed for the reset cadence alone.
+     */
+    private static final class LocalSymbolTableResetter {
+        private final SymbolTableOptions options;
+        private final CountingOutputStream outputStreamCounter;
+        private final GenerationStatistics statistics;
+        private int valuesSinceReset;
+        private long sizeAtReset;
+
+        private LocalSymbolTableResetter(SymbolTableOptions options, CountingOutputStream outputStreamCounter, GenerationStatistics statistics) {
+            this.options = options;
+            this.outputStreamCounter = outputStreamCounter;
+            this.statistics = statistics;
+        }
+
+        /**
+         * Check the values cadence after each written value.
+         * @param writer is the writer of the generated data.
+         * @throws IOException if errors occur when writing data.
+         */
+        private void afterValue(IonWriter writer) throws IOException {
+            if (options.getResetEveryValues() > 0 && ++valuesSinceReset >= options.getResetEveryValues()) {
+                reset(writer);
+            }
+        }
+
+        /**
+         * Check the bytes cadence after the writer is flushed at the end of a batch.
+         * @param writer is the writer of the generated data.
+         * @throws IOException if errors occur when writing data.
+         */
+        private void afterFlush(IonWriter writer) throws IOException {
+            if (options.getResetEveryBytes() > 0 && outputStreamCounter.getCount() - sizeAtReset >= options.getResetEveryBytes()) {
+                reset(writer);
+            }
+        }
+
+        /**
+         * Finish the current Ion stream, so the following values are written with a new local symbol table.
+         * @param writer is the writer of the generated data.
+         * @throws IOException if errors occur when writing data.
+         */
+        private void reset(IonWriter writer) throws IOException {
+            writer.finish();
+            if (statistics != null) {
+                statistics.recordFlush(outputStreamCounter.getCount(), writer.getSymbolTable());
+                statistics.recordReset();
+            }
+            valuesSinceReset = 0;
+            sizeAtReset = outputStreamCounter.getCount();
+        }
+    }
 }
@@ -0,0 +1,283 @@
+package com.amazon.ion.datagenerator;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Detect performance regressions between two benchmark entries from the raw measurements of all forks.
+ * Two statistical methods are supported:
+ *  - bootstrap: resample the measurements of both commits with replacement and build a confidence interval of the relative difference of the means.
+ *  - mann_whitney: apply the one-sided Mann-Whitney U test to the measurements, which does not assume the measurements are normally distributed.
+ * A metric regresses when the change towards the worse direction is statistically significant at the provided significance level, and the relative
+ * difference is at least the provided minimum effect size. Whether a higher score is worse is decided by the score unit: throughput units (ops/time,
+ * and MB/s or values/s of the generator benchmark) are better when higher, all other units (time/op, bytes, allocation rate) are better when lower.
+ * When either commit has fewer than two measurements, the confidence interval is derived from JMH's scoreError, which is the half width of the 99.9%
+ * confidence interval of the score.
+ */
+public class RegressionDetector {
+    public static final String METHOD_THRESHOLD = "threshold";
+    public static final String METHOD_BOOTSTRAP = "bootstrap";
+    public static final String METHOD_MANN_WHITNEY = "mann_whitney";
+    private static final String THROUGHPUT_UNIT = "ops/";
+    // The generator benchmark writes its throughput per second, e.g. MB/s, while JMH writes the allocation rate in MB/sec.
+    private static final String PER_SECOND_UNIT = "/s";
+    private static final int BOOTSTRAP_RESAMPLES = 2000;
+    // The resampling is seeded, so the same benchmark results always produce the same report.
+    private static final long BOOTSTRAP_SEED = 0x5eed;
+
+    /**
+     * Compare one metric of two benchmark entries.
+     * @param method is the statistical method from set (bootstrap | mann_whitney).
+     * @param previousMetric is the metric from the existing commit.
+     * @param newMetric is the metric from the new commit.
+     * @param significanceLevel is the probability of reporting a regression when the change is caused by noise.
+     * @param minimumEffectSize is the smallest relative difference which will be reported as a regression.
+     * @return the comparison result of the metric.
+     */
+    public static MetricComparison compare(String method, BenchmarkResultIndex.Metric previousMetric, BenchmarkResultIndex.Metric newMetric,
+                                           double significanceLevel, double minimumEffectSize) {
+        if (!method.equals(METHOD_BOOTSTRAP) && !method.equals(METHOD_MANN_WHITNEY)) {
+            throw new IllegalArgumentException("The detection method is not supported: " + method);
+        }
+        if (significanceLevel <= 0 || significanceLevel >= 1) {
+            throw new IllegalArgumentException("The significance level should be between 0 and 1.");
+        }
+        double[] previousSamples = toArray(previousMetric.getRawData());
+        double[] newSamples = toArray(newMetric.getRawData());
+        int worseDirection = worseDirection(newMetric.getScoreUnit());
+        double previousScore = previousMetric.getScore().doubleValue();
+        double relativeDifference = (newMetric.getScore().doubleValue() - previousScore) / previousScore;
+        double[] interval;
+        Double pValue = null;
+        if (previousSamples.length < 2 || newSamples.length < 2) {
+            interval = scoreErrorInterval(previousMetric, newMetric);
+        } else {
+            interval = bootstrapInterval(previousSamples, newSamples, significanceLevel);
+            if (method.equals(METHOD_MANN_WHITNEY)) {
+                pValue = mannWhitneyPValue(previousSamples, newSamples, worseDirection);
+            }
+        }
+        boolean significant;
+        if (pValue != null) {
+            significant = pValue < significanceLevel;
+        } else {
+            // The change is significant when the whole confidence interval lies on the worse side of zero.
+            significant = worseDirection > 0 ? interval[0] > 0 : interval[1] < 0;
+        }
+        boolean regression = significant && relativeDifference * worseDirection >= minimumEffectSize;
+        return new MetricComparison(relativeDifference, interval[0], interval[1], pValue, regression);
+    }
+
+    /**
+     * Decide which direction of change is worse from the unit of the score.
+     * @param scoreUnit is the unit of the score, or null if it is unknown.
+     * @return -1 when a lower score is worse, i.e. the unit is a throughput unit, otherwise +1.
+     */
+    static int worseDirection(String scoreUnit) {
+        return scoreUnit != null && (scoreUnit.contains(THROUGHPUT_UNIT) || scoreUnit.endsWith(PER_SECOND_UNIT)) ? -1 : 1;
+    }
+
+    /**
+     * Convert the measurements into a primitive array.
+     * @param rawData are the measurements of all forks.
+     * @return the measurements in a double array.
+     */
+    private static double[] toArray(List<BigDecimal> rawData) {
+        double[] samples = new double[rawData.size()];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = rawData.get(i).doubleValue();
+        }
+        return samples;
+    }
+
+    /**
+     * Calculate the percentile bootstrap confidence interval of the relative difference of the means.
+     * @param previousSamples are the measurements from the existing commit.
+     * @param newSamples are the measurements from the new commit.
+     * @param significanceLevel decides the confidence level of the interval, which is (1 - significanceLevel).
+     * @return the lower bound and the upper bound of the interval.
+     */
+    private static double[] bootstrapInterval(double[] previousSamples, double[] newSamples, double significanceLevel) {
+        Random random = new Random(BOOTSTRAP_SEED);
+        double[] differences = new double[BOOTSTRAP_RESAMPLES];
+        int count = 0;
+        for (int i = 0; i < BOOTSTRAP_RESAMPLES; i++) {
+            double previousMean = resampleMean(previousSamples, random);
+            double newMean = resampleMean(newSamples, random);
+            if (previousMean != 0) {
+                differences[count++] = (newMean - previousMean) / previousMean;
+            }
+        }
+        if (count == 0) {
+            return new double[] {0, 0};
+        }
+        Arrays.sort(differences, 0, count);
+        int lower = (int) Math.floor(significanceLevel / 2 * (count - 1));
+        int upper = (int) Math.ceil((1 - significanceLevel / 2) * (count - 1));
+        return new double[] {differences[lower], differences[upper]};
+    }
+
+    /**
+     * Draw the same number of measurements with replacement and calculate their mean.
+     * @param samples are the measurements.
+     * @param random is the random number generator.
+     * @return the mean of the resampled measurements.
+     */
+    private static double resampleMean(double[] samples, Random random) {
+        double sum = 0;
+        for (int i = 0; i < samples.length; i++) {
+            sum += samples[random.nextInt(samples.length)];
+        }
+        return sum / samples.length;
+    }
+
+    /**
+     * Derive the interval of the relative difference from JMH's scoreError, which is used when there are not enough measurements for resampling.
+     * The interval covers every difference between the two score intervals.
+     * @param previousMetric is the metric from the existing commit.
+     * @param newMetric is the metric from the new commit.
+     * @return the lower bound and the upper bound of the interval.
+     */
+    private static double[] scoreErrorInterval(BenchmarkResultIndex.Metric previousMetric, BenchmarkResultIndex.Metric newMetric) {
+        double previousScore = previousMetric.getScore().doubleValue();
+        double newScore = newMetric.getScore().doubleValue();
+        double previousError = previousMetric.getScoreError() == null ? 0 : previousMetric.getScoreError().doubleValue();
+        double newError = newMetric.getScoreError() == null ? 0 : newMetric.getScoreError().doubleValue();
+        return new double[] {
+                (newScore - newError - (previousScore + previousError)) / previousScore,
+                (newScore + newError - (previousScore - previousError)) / previousScore
+        };
+    }
+
+    /**
+     * Apply the one-sided Mann-Whitney U test with the normal approximation, the tie correction and the continuity correction.
+     * The alternative hypothesis is that the measurements of the new commit tend to be worse than the measurements of the existing commit.
+     * @param previousSamples are the measurements from the existing commit.
+     * @param newSamples are the measurements from the new commit.
+     * @param worseDirection is +1 when a higher score is worse, otherwise -1.
+     * @return the p-value of the test.
+     */
+    private static double mannWhitneyPValue(double[] previousSamples, double[] newSamples, int worseDirection) {
+        int n1 = previousSamples.length;
+        int n2 = newSamples.length;
+        int total = n1 + n2;
+        double[] combined = new double[total];
+        System.arraycopy(previousSamples, 0, combined, 0, n1);
+        System.arraycopy(newSamples, 0, combined, n1, n2);
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(combined[a], combined[b]));
+        double newRankSum = 0;
+        double tieCorrection = 0;
+        int start = 0;
+        while (start < total) {
+            int end = start;
+            while (end + 1 < total && combined[order[end + 1]] == combined[order[start]]) {
+                end++;
+            }
+            // Tied measurements share the average of their ranks.
+            double rank = (start + end) / 2.0 + 1;
+            for (int i = start; i <= end; i++) {
+                if (order[i] >= n1) {
+                    newRankSum += rank;
+                }
+            }
+            double ties = end - start + 1;
+            tieCorrection += ties * ties * ties - ties;
+            start = end + 1;
+        }
+        double u = newRankSum - n2 * (n2 + 1) / 2.0;
+        double mean = n1 * (double) n2 / 2;
+        double variance = n1 * (double) n2 / 12 * ((total + 1) - tieCorrection / (total * (double) (total - 1)));
+        if (variance <= 0) {
+            return 1;
+        }
+        double z = worseDirection * (u - mean);
+        z = (z - 0.5) / Math.sqrt(variance);
+        return 1 - normalCdf(z);
+    }
+
+    /**
+     * Calculate the cumulative distribution function of the standard normal distribution.
+     * The error function is approximated by the formula 7.1.26 of Abramowitz and Stegun, whose absolute error is below 1.5e-7.
+     * @param z is the standard score.
+     * @return the probability that a standard normal variable is less than z.
+     */
+    private static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - ((((1.061405429 * t - 1.453152027) * t + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+        return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+    }
+
+    /**
+     * The comparison result of one metric.
+     */
+    public static class MetricComparison {
+        private final double relativeDifference;
+        private final double lowerBound;
+        private final double upperBound;
+        private final Double pValue;
+        private final boolean regression;
+
+        /**
+         * Initializing the newly created MetricComparison object.
+         * @param relativeDifference is the relative difference of the scores.
+         * @param lowerBound is the lower bound of the confidence interval of the relative difference.
+         * @param upperBound is the upper bound of the confidence interval of the relative difference.
+         * @param pValue is the p-value of the Mann-Whitney U test, or null if the test is not applied.
+         * @param regression represents whether the metric regresses.
+         */
+        MetricComparison(double relativeDifference, double lowerBound, double upperBound, Double pValue, boolean regression) {
+            this.relativeDifference = relativeDifference;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.pValue = pValue;
+            this.regression = regression;
+        }
+
+        /**
+         * Helping access the private attribute relativeDifference.
+         * @return the relative difference of the scores.
+         */
+        public double getRelativeDifference() {
+            return relativeDifference;
+        }
+
+        /**
+         * Helping access the private attribute lowerBound.
+         * @return the lower bound of the confidence interval of the relative difference.
+         */
+        public double getLowerBound() {
+            return lowerBound;
+        }
+
+        /**
+         * Helping access the private attribute upperBound.
+         * @return the upper bound of the confidence interval of the relative difference.
+         */
+        public double getUpperBound() {
+            return upperBound;
+        }
+
+        /**
+         * Helping access the private attribute pValue.
+         * @return the p-value of the Mann-Whitney U test, or null if the test is not applied.
+         */
+        public Double getPValue() {
+            return pValue;
+        }
+
+        /**
+         * Helping access the private attribute regression.
+         * @return true if the metric regresses.
+         */
+        public boolean isRegression() {
+            return regression;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The wall time of the latest benchmark run of each options combination and test data file, which is used for estimating the run time of a suite.
+ * The durations are stored in an Ion text file as a stream of { combination, test_data, duration_millis } structs.
+ * JMH measures for a fixed number of iterations of a fixed time, so the duration of a run mostly depends on the options combination. When the
+ * combination has never been run with the test data file, its mean duration over the other test data files is used instead.
+ */
+public class RunDurations {
+    private static final String COMBINATION = "combination";
+    private static final String TEST_DATA = "test_data";
+    private static final String DURATION_MILLIS = "duration_millis";
+    private final Map<String, Map<String, Long>> durations = new LinkedHashMap<>();
+
+    /**
+     * Read the durations from the file.
+     * @param file is the durations file, which may not exist before the first suite.
+     * @return the durations, which are empty if the file does not exist.
+     * @throws IOException if errors occur when reading the file.
+     */
+    public static RunDurations load(File file) throws IOException {
+        RunDurations runDurations = new RunDurations();
+        if (!file.isFile()) {
+            return runDurations;
+        }
+        try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(file)))) {
+            while (reader.next() != null) {
+                String combination = null;
+                String testData = null;
+                long durationMillis = -1;
+                reader.stepIn();
+                while (reader.next() != null) {
+                    switch (reader.getFieldName()) {
+                        case COMBINATION:
+                            combination = reader.stringValue();
+                            break;
+                        case TEST_DATA:
+                            testData = reader.stringValue();
+                            break;
+                        case DURATION_MILLIS:
+                            durationMillis = reader.longValue();
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                reader.stepOut();
+                if (combination != null && testData != null && durationMillis >= 0) {
+                    runDurations.record(combination, testData, durationMillis);
+                }
+            }
+        }
+        return runDurations;
+    }
+
+    /**
+     * Record the duration of a run, which replaces the previous duration of the same options combination and test data file.
+     * @param combination is the options combination of the run.
+     * @param testData is the file name of the test data.
+     * @param durationMillis is the wall time of the run in milliseconds.
+     */
+    public synchronized void record(String combination, String testData, long durationMillis) {
+        durations.computeIfAbsent(combination.trim(), key -> new LinkedHashMap<>()).put(testData, durationMillis);
+    }
+
+    /**
+     * Estimate the duration of a run from the recorded durations. The duration of the same options combination and test data file is preferred,
+     * then the mean duration of the options combination. An options combination which has never been run is estimated by the mean durations of
+     * the recorded options combinations of the same command which share the most options with it, e.g. a new write combination is estimated by the
+     * other write runs.
+     * @param combination is the options combination of the run.
+     * @param testData is the file name of the test data.
+     * @return the estimated wall time in milliseconds, or -1 if no duration is recorded.
+     */
+    public synchronized double estimate(String combination, String testData) {
+        Map<String, Long> combinationDurations = durations.get(combination.trim());
+        if (combinationDurations != null) {
+            Long duration = combinationDurations.get(testData);
+            return duration != null ? duration : mean(combinationDurations);
+        }
+        Set<String> tokens = tokens(combination);
+        String command = command(combination);
+        // The command decides what is measured, so the same command outweighs any number of shared options.
+        boolean sameCommandRecorded = durations.keySet().stream().anyMatch(recorded -> command(recorded).equals(command));
+        int mostShared = -1;
+        double sum = 0;
+        int count = 0;
+        for (Map.Entry<String, Map<String, Long>> recorded : durations.entrySet()) {
+            if (sameCommandRecorded && !command(recorded.getKey()).equals(command)) {
+                continue;
+            }
+            Set<String> shared = tokens(recorded.getKey());
+            shared.retainAll(tokens);
+            if (shared.size() > mostShared) {
+                mostShared = shared.size();
+                sum = 0;
+                count = 0;
+            }
+            if (shared.size() == mostShared) {
+                sum += mean(recorded.getValue());
+                count++;
+            }
+        }
+        return count == 0 ? -1 : sum / count;
+    }
+
+    /**
+     * Check whether any duration is recorded.
+     * @return true if no duration is recorded.
+     */
+    public synchronized boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    /**
+     * Write the durations into the file. The durations are written into a temporary file and moved into place, so an interrupted suite does not
+     * leave a partially written file.
+     * @param file is the durations file.
+     * @throws IOException if errors occur when writing the file.
+     */
+    public synchronized void save(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+        Path temporary = Files.createTempFile(directory.toPath(), file.getName(), ".tmp");
+        try {
+            try (IonWriter writer = IonTextWriterBuilder.standard().build(new BufferedOutputStream(new FileOutputStream(temporary.toFile())))) {
+                for (Map.Entry<String, Map<String, Long>> combination : durations.entrySet()) {
+                    for (Map.Entry<String, Long> testData : combination.getValue().entrySet()) {
+                        writer.stepIn(IonType.STRUCT);
+                        writer.setFieldName(COMBINATION);
+                        writer.writeString(combination.getKey());
+                        writer.setFieldName(TEST_DATA);
+                        writer.writeString(testData.getKey());
+                        writer.setFieldName(DURATION_MILLIS);
+                        writer.writeInt(testData.getValue());
+                        writer.stepOut();
+                    }
+                }
+            }
+            Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Get the command of the options combination, which is its first word.
+     * @param combination is the options combination.
+     * @return the command, e.g. read or write.
+     */
+    private static String command(String combination) {
+        return combination.trim().split("\\s+", 2)[0];
+    }
+
+    /**
+     * Split the options combination into its options, where an option and its value form one token, e.g. 'read', '--api dom'.
+     * @param combination is the options combination.
+     * @return the tokens of the options combination.
+     */
+    private static Set<String> tokens(String combination) {
+        Set<String> tokens = new HashSet<>();
+        String[] words = combination.trim().split("\\s+");
+        for (int i = 0; i < words.length; i++) {
+            if (words[i].startsWith("-") && i + 1 < words.length && !words[i + 1].startsWith("-")) {
+                tokens.add(words[i] + " " + words[++i]);
+            } else {
+                tokens.add(words[i]);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Calculate the mean of the durations.
+     * @param values are the durations of the test data files.
+     * @return the mean duration in milliseconds.
+     */
+    private static double mean(Map<String, Long> values) {
+        long sum = 0;
+        for (long value : values.values()) {
+            sum += value;
+        }
+        return sum / (double) values.size();
+    }
+}
@@ -0,0 +1,279 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.datagenerator.profile.DataProfile;
+import com.amazon.ion.datagenerator.profile.Histogram;
+import com.amazon.ion.datagenerator.profile.PathStatistics;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Infer an Ion Schema type definition from existing Ion data, which can be provided to the 'generate' command directly.
+ * The data is streamed once by CorpusProfiler, so the memory usage is bounded by the number of distinct paths instead of the size of the data.
+ * The inferred type definition contains 'fields' with 'occurs', 'element', 'valid_values' for low-cardinality paths,
+ * and ranges of 'codepoint_length', 'container_length', 'byte_length', 'precision' and 'scale'.
+ * Paths which contain values of multiple types are described by 'one_of' with 'branch_weights' following the observed type mix.
+ * Null values are not described, and paths which only contain null values are omitted.
+ */
+public class SchemaInferrer {
+    public static final String DEFAULT_TYPE_NAME = "InferredType";
+    // A path is considered as low-cardinality when every distinct value is observed at least this number of times on average.
+    private static final int LOW_CARDINALITY_RATIO = 2;
+    private static final String NULL_TYPE = "null";
+
+    /**
+     * Infer the schema from the Ion data provided in the options and write it into the output file.
+     * @param optionsMap is the hash map which generated by the command line parser which match the option name and its value appropriately.
+     * @throws Exception if errors occur when reading data or writing the schema.
+     */
+    public static void inferAndWrite(Map<String, Object> optionsMap) throws Exception {
+        String inputPath = optionsMap.get("--input-ion-data").toString();
+        String outputFile = optionsMap.get("<output_file>").toString();
+        String typeName = optionsMap.get("--type-name") == null ? DEFAULT_TYPE_NAME : optionsMap.get("--type-name").toString();
+        int parallelism = optionsMap.get("--parallelism") == null ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(optionsMap.get("--parallelism").toString());
+        DataProfile profile = CorpusProfiler.profile(CorpusProfiler.listFiles(new File(inputPath)), parallelism);
+        writeSchema(inferType(profile.getRoot(), typeName), outputFile);
+        DataConstructor.printInfo(outputFile);
+    }
+
+    /**
+     * Infer the named top-level type definition from the statistics of the top-level values.
+     * @param root is the statistics of the top-level values.
+     * @param typeName is the name of the type definition.
+     * @return the type definition in IonStruct format, annotated with 'type'.
+     */
+    public static IonStruct inferType(PathStatistics root, String typeName) {
+        IonStruct inferred = inferTypeDefinition(root);
+        if (inferred == null) {
+            throw new IllegalStateException("Cannot infer the type definition because there is no value which is not null.");
+        }
+        IonStruct typeDefinition = ReadGeneralConstraints.SYSTEM.newEmptyStruct();
+        typeDefinition.setTypeAnnotations(IonSchemaUtilities.KEYWORD_TYPE);
+        typeDefinition.add(IonSchemaUtilities.KEYWORD_NAME, ReadGeneralConstraints.SYSTEM.newSymbol(typeName));
+        for (IonValue constraint : inferred) {
+            typeDefinition.add(constraint.getFieldName(), constraint.clone());
+        }
+        return typeDefinition;
+    }
+
+    /**
+     * Write the type definition between schema_header and schema_footer in Ion text.
+     * @param typeDefinition is the type definition annotated with 'type'.
+     * @param outputFile is the path of the ISL file.
+     * @throws IOException if errors occur when writing the schema.
+     */
+    private static void writeSchema(IonStruct typeDefinition, String outputFile) throws IOException {
+        try (OutputStream outputStream = new FileOutputStream(outputFile);
+             IonWriter writer = IonTextWriterBuilder.pretty().build(outputStream)) {
+            writer.addTypeAnnotation("schema_header");
+            writer.stepIn(IonType.STRUCT);
+            writer.stepOut();
+            typeDefinition.writeTo(writer);
+            writer.addTypeAnnotation("schema_footer");
+            writer.stepIn(IonType.STRUCT);
+            writer.stepOut();
+        }
+    }
+
+    /**
+     * Infer the inline type definition of the values observed at one path.
+     * @param statistics is the statistics of the path.
+     * @return the type definition, or null if only null values are observed.
+     */
+    private static IonStruct inferTypeDefinition(PathStatistics statistics) {
+        // Order the observed types by their frequency, so that the most common type becomes the first branch.
+        List<Map.Entry<String, Long>> types = statistics.getTypes().entrySet().stream()
+                .filter(entry -> !entry.getKey().equals(NULL_TYPE))
+                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
+                .collect(Collectors.toList());
+        if (types.isEmpty()) {
+            return null;
+        } else if (types.size() == 1) {
+            return inferTypeConstraints(IonType.valueOf(types.get(0).getKey().toUpperCase()), statistics);
+        }
+        IonStruct typeDefinition = ReadGeneralConstraints.SYSTEM.newEmptyStruct();
+        IonList branches = ReadGeneralConstraints.SYSTEM.newEmptyList();
+        IonList weights = ReadGeneralConstraints.SYSTEM.newEmptyList();
+        for (Map.Entry<String, Long> type : types) {
+            branches.add(inferTypeConstraints(IonType.valueOf(type.getKey().toUpperCase()), statistics));
+            weights.add(ReadGeneralConstraints.SYSTEM.newInt(type.getValue()));
+        }
+        typeDefinition.add("one_of", branches);
+        typeDefinition.add("branch_weights", weights);
+        return typeDefinition;
+    }
+
+    /**
+     * Infer the constraints of the values of the provided type observed at one path.
+     * @param type is one of the observed types.
+     * @param statistics is the statistics of the path.
+     * @return the type definition which contains the constraint 'type' and the constraints specific to the type.
+     */
+    private static IonStruct inferTypeConstraints(IonType type, PathStatistics statistics) {
+        IonStruct typeDefinition = ReadGeneralConstraints.SYSTEM.newEmptyStruct();
+        typeDefinition.add(IonSchemaUtilities.KEYWORD_TYPE, ReadGeneralConstraints.SYSTEM.newSymbol(type.toString().toLowerCase()));
+        IonList validValues = lowCardinalityValues(type, statistics);
+        switch (type) {
+            case BOOL:
+                // Ion Data Generator constructs bool values from 'valid_values'.
+                typeDefinition.add(IonSchemaUtilities.KEYWORD_VALID_VALUES, validValues != null ? validValues
+                        : ReadGeneralConstraints.SYSTEM.newList(ReadGeneralConstraints.SYSTEM.newBool(true), ReadGeneralConstraints.SYSTEM.newBool(false)));
+                break;
+            case STRING:
+            case SYMBOL:
+                if (validValues != null) {
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_VALID_VALUES, validValues);
+                } else if (!statistics.getCodepointLengths().isEmpty()) {
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_CODE_POINT_LENGTH, range(statistics.getCodepointLengths()));
+                }
+                break;
+            case INT:
+                if (validValues != null) {
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_VALID_VALUES, validValues);
+                } else {
+                    BigDecimal[] intRange = statistics.getIntRange();
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_VALID_VALUES, range(ReadGeneralConstraints.SYSTEM.newInt(intRange[0].toBigInteger()),
+                            ReadGeneralConstraints.SYSTEM.newInt(intRange[1].toBigInteger())));
+                }
+                break;
+            case FLOAT:
+                if (validValues != null) {
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_VALID_VALUES, validValues);
+                } else if (statistics.getFloatRange() != null) {
+                    double[] floatRange = statistics.getFloatRange();
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_VALID_VALUES, range(ReadGeneralConstraints.SYSTEM.newFloat(floatRange[0]),
+                            ReadGeneralConstraints.SYSTEM.newFloat(floatRange[1])));
+                }
+                break;
+            case DECIMAL:
+                if (validValues != null) {
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_VALID_VALUES, validValues);
+                } else {
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_PRECISION, range(statistics.getDecimalPrecisions()));
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_SCALE, range(statistics.getDecimalScales()));
+                }
+                break;
+            case TIMESTAMP:
+                if (validValues != null) {
+                    typeDefinition.add(IonSchemaUtilities.KEYWORD_VALID_VALUES, validValues);
+                }
+                break;
+            case BLOB:
+            case CLOB:
+                typeDefinition.add(IonSchemaUtilities.KEYWORD_BYTE_LENGTH, range(statistics.getByteLengths()));
+                break;
+            case STRUCT:
+                typeDefinition.add(IonSchemaUtilities.KEYWORD_FIELDS, inferFields(statistics));
+                break;
+            case LIST:
+            case SEXP:
+                IonStruct element = inferTypeDefinition(statistics.getElements());
+                if (element == null) {
+                    // Ion Data Generator requires the element type, so empty sequences are described by an unused element type and zero length.
+                    element = ReadGeneralConstraints.SYSTEM.newEmptyStruct();
+                    element.add(IonSchemaUtilities.KEYWORD_TYPE, ReadGeneralConstraints.SYSTEM.newSymbol("int"));
+                }
+                typeDefinition.add(IonSchemaUtilities.KEYWORD_ELEMENT, element);
+                typeDefinition.add(IonSchemaUtilities.KEYWORD_CONTAINER_LENGTH, range(statistics.getContainerLengths()));
+                break;
+            default:
+                throw new IllegalStateException(type + " is not supported.");
+        }
+        return typeDefinition;
+    }
+
+    /**
+     * Infer the constraint 'fields' of the structs observed at one path. The 'occurs' of each field is inferred from the number of times
+     * the field occurs in each struct, including the structs which do not contain the field.
+     * @param statistics is the statistics of the path.
+     * @return the value of constraint 'fields'.
+     */
+    private static IonStruct inferFields(PathStatistics statistics) {
+        IonStruct fields = ReadGeneralConstraints.SYSTEM.newEmptyStruct();
+        long structCount = statistics.getTypes().getOrDefault(IonType.STRUCT.toString().toLowerCase(), 0L);
+        for (Map.Entry<String, PathStatistics> field : statistics.getFields().entrySet()) {
+            IonStruct fieldDefinition = inferTypeDefinition(field.getValue());
+            if (fieldDefinition == null) {
+                continue;
+            }
+            Histogram occurrences = field.getValue().getOccurrences();
+            long minOccurs = occurrences.getTotalCount() < structCount ? 0 : occurrences.getMin();
+            long maxOccurs = occurrences.getMax();
+            IonValue occurs;
+            if (minOccurs == 1 && maxOccurs == 1) {
+                occurs = ReadGeneralConstraints.SYSTEM.newSymbol(IonSchemaUtilities.KEYWORD_REQUIRED);
+            } else if (minOccurs == 0 && maxOccurs == 1) {
+                occurs = ReadGeneralConstraints.SYSTEM.newSymbol(IonSchemaUtilities.KEYWORD_OPTIONAL);
+            } else {
+                occurs = range(ReadGeneralConstraints.SYSTEM.newInt(minOccurs), ReadGeneralConstraints.SYSTEM.newInt(maxOccurs));
+            }
+            fieldDefinition.add(IonSchemaUtilities.KEYWORD_OCCURS, occurs);
+            fields.add(field.getKey(), fieldDefinition);
+        }
+        return fields;
+    }
+
+    /**
+     * Get the distinct values of the provided type if the path is low-cardinality.
+     * @param type is one of the observed types.
+     * @param statistics is the statistics of the path.
+     * @return the distinct values of the type, or null if the path is not low-cardinality.
+     */
+    private static IonList lowCardinalityValues(IonType type, PathStatistics statistics) {
+        List<IonValue> keptValues = statistics.getKeptValues();
+        if (keptValues == null) {
+            return null;
+        }
+        List<IonValue> values = new ArrayList<>();
+        for (IonValue value : keptValues) {
+            if (value.getType() == type) {
+                values.add(value);
+            }
+        }
+        long typeCount = statistics.getTypes().getOrDefault(type.toString().toLowerCase(), 0L);
+        if (values.isEmpty() || typeCount < (long) values.size() * LOW_CARDINALITY_RATIO) {
+            return null;
+        }
+        IonList validValues = ReadGeneralConstraints.SYSTEM.newEmptyList();
+        values.forEach(value -> validValues.add(ReadGeneralConstraints.SYSTEM.clone(value)));
+        return validValues;
+    }
+
+    /**
+     * Describe the observed values of the histogram as a range, or a single value if all observed values are equal.
+     * @param histogram is the histogram of the observed values.
+     * @return the range in the format of ISL.
+     */
+    private static IonValue range(Histogram histogram) {
+        return range(ReadGeneralConstraints.SYSTEM.newInt(histogram.getMin()), ReadGeneralConstraints.SYSTEM.newInt(histogram.getMax()));
+    }
+
+    /**
+     * Construct a range from the provided bounds, or a single value if both bounds are equal.
+     * @param lowerBound is the lower bound of the range.
+     * @param upperBound is the upper bound of the range.
+     * @return the range in the format of ISL.
+     */
+    private static IonValue range(IonValue lowerBound, IonValue upperBound) {
+        if (lowerBound.equals(upperBound)) {
+            return lowerBound;
+        }
+        IonList range = ReadGeneralConstraints.SYSTEM.newList(lowerBound, upperBound);
+        range.addTypeAnnotation(IonSchemaUtilities.KEYWORD_RANGE);
+        return range;
+    }
+}
@@ -0,0 +1,96 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.IonContainer;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonSymbol;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.SymbolTable;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import com.amazon.ionschema.Schema;
+import com.amazon.ionschema.Type;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Build a shared symbol table from the symbols which can appear in the generated data, and write it into a catalog file.
+ * The symbols are collected from the field names declared in 'fields', the symbol values in 'valid_values' and the symbols in 'annotations'
+ * of every type definition in the schema. Symbols generated from 'regex' cannot be predicted and stay in the local symbol table.
+ */
+public class SharedSymbolTables {
+    public static final int DEFAULT_VERSION = 1;
+
+    /**
+     * Build a shared symbol table which contains the symbols collected from all type definitions in the provided schema.
+     * @param schema an Ion Schema loaded by ion-schema-kotlin.
+     * @param name is the name of the shared symbol table.
+     * @param version is the version of the shared symbol table.
+     * @return the newly created shared symbol table.
+     */
+    public static SymbolTable fromSchema(Schema schema, String name, int version) {
+        Set<String> symbols = new LinkedHashSet<>();
+        Iterator<Type> types = schema.getTypes();
+        while (types.hasNext()) {
+            collectSymbols(types.next().getIsl(), symbols);
+        }
+        return ReadGeneralConstraints.SYSTEM.newSharedSymbolTable(name, version, symbols.iterator());
+    }
+
+    /**
+     * Collect the symbols which can appear in the generated data from the provided type definition and its nested type definitions.
+     * @param typeDefinition represents the type definition or a part of it.
+     * @param symbols collects the symbols in the order they are declared.
+     */
+    private static void collectSymbols(IonValue typeDefinition, Set<String> symbols) {
+        if (!(typeDefinition instanceof IonContainer) || typeDefinition.isNullValue()) {
+            return;
+        }
+        for (IonValue field : (IonContainer) typeDefinition) {
+            String fieldName = field.getFieldName();
+            if (IonSchemaUtilities.KEYWORD_FIELDS.equals(fieldName) && field instanceof IonStruct) {
+                for (IonValue fieldDefinition : (IonStruct) field) {
+                    symbols.add(fieldDefinition.getFieldName());
+                    collectSymbols(fieldDefinition, symbols);
+                }
+            } else if (IonSchemaUtilities.KEYWORD_VALID_VALUES.equals(fieldName) || IonSchemaUtilities.KEYWORD_ANNOTATIONS.equals(fieldName)) {
+                collectSymbolValues(field, symbols);
+            } else {
+                collectSymbols(field, symbols);
+            }
+        }
+    }
+
+    /**
+     * Collect the symbol values contained by the value of 'valid_values' or 'annotations'.
+     * @param field represents the value of 'valid_values' or 'annotations'.
+     * @param symbols collects the symbols in the order they are declared.
+     */
+    private static void collectSymbolValues(IonValue field, Set<String> symbols) {
+        if (!(field instanceof IonContainer) || field.isNullValue()) {
+            return;
+        }
+        for (IonValue value : (IonContainer) field) {
+            if (value instanceof IonSymbol && !value.isNullValue()) {
+                symbols.add(((IonSymbol) value).stringValue());
+            }
+        }
+    }
+
+    /**
+     * Write the shared symbol table into a catalog file in Ion text, which can be loaded by the readers of the generated data.
+     * @param symbolTable is the shared symbol table.
+     * @param catalogFile is the path of the catalog file.
+     * @throws IOException if errors occur when writing the catalog file.
+     */
+    public static void writeCatalog(SymbolTable symbolTable, String catalogFile) throws IOException {
+        try (OutputStream outputStream = new FileOutputStream(catalogFile);
+             IonWriter writer = IonTextWriterBuilder.pretty().build(outputStream)) {
+            symbolTable.writeTo(writer);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.amazon.ion.datagenerator;
+
+import com.amazon.ion.SymbolTable;
+
+/**
+ * The symbol table options of the generated binary data: the shared symbol table which the data imports, and how often the local symbol table is reset.
+ * A reset ends the current Ion stream by IonWriter.finish(), so the following values start with a new Ion version marker and a new local symbol table.
+ */
+public class SymbolTableOptions {
+    public static final SymbolTableOptions DEFAULT = new SymbolTableOptions(null, 0, 0);
+    private final SymbolTable sharedSymbolTable;
+    private final int resetEveryValues;
+    private final long resetEveryBytes;
+
+    /**
+     * Initializing the newly created SymbolTableOptions object.
+     * @param sharedSymbolTable is the shared symbol table imported by the generated data, null if the data imports nothing.
+     * @param resetEveryValues is the number of values written between local symbol table resets, 0 means never reset by value count.
+     * @param resetEveryBytes is the number of bytes written between local symbol table resets, 0 means never reset by size.
+     */
+    public SymbolTableOptions(SymbolTable sharedSymbolTable, int resetEveryValues, long resetEveryBytes) {
+        if (resetEveryValues < 0 || resetEveryBytes < 0) {
+            throw new IllegalArgumentException("The local symbol table reset cadence cannot be negative.");
+        }
+        this.sharedSymbolTable = sharedSymbolTable;
+        this.resetEveryValues = resetEveryValues;
+        this.resetEveryBytes = resetEveryBytes;
+    }
+
+    /**
+     * Get the shared symbol tables imported by the generated data.
+     * @return an array which contains the shared symbol table, or an empty array if the data imports nothing.
+     */
+    public SymbolTable[] getImports() {
+        return sharedSymbolTable == null ? new SymbolTable[0] : new SymbolTable[] {sharedSymbolTable};
+    }
+
+    /**
+     * Helping access the private attribute resetEveryValues.
+     * @return the number of values written between local symbol table resets.
+     */
+    public int getResetEveryValues() {
+        return resetEveryValues;
+    }
+
+    /**
+     * Helping access the private attribute resetEveryBytes.
+     * @return the number of bytes written between local symbol table resets.
+     */
+    public long getResetEveryBytes() {
+        return resetEveryBytes;
+    }
+}
@@ -0,0 +1,153 @@
+package com.amazon.ion.datagenerator;
+
+/**
+ * The options of writing the generated data into the output file: the pipelined writer, the symbol table options, and the collectors of the
+ * statistics and the progress.
+ * e.g.
+ *   WriteOptions options = WriteOptions.builder().withWriteBuffers(4).withStatistics(statistics).build();
+ *   ReadGeneralConstraints.constructAndWriteIonData(size, generator, format, outputFile, options);
+ */
+public class WriteOptions {
+    public static final int DEFAULT_WRITE_BUFFER_SIZE = 1024 * 1024;
+    public static final WriteOptions DEFAULT = builder().build();
+    private final int writeBuffers;
+    private final int writeBufferSize;
+    private final SymbolTableOptions symbolTableOptions;
+    private final GenerationStatistics statistics;
+    private final GenerationProgress progress;
+
+    /**
+     * Initializing the newly created WriteOptions object.
+     * @param builder provides the configured options.
+     */
+    private WriteOptions(Builder builder) {
+        this.writeBuffers = builder.writeBuffers;
+        this.writeBufferSize = builder.writeBufferSize;
+        this.symbolTableOptions = builder.symbolTableOptions;
+        this.statistics = builder.statistics;
+        this.progress = builder.progress;
+    }
+
+    /**
+     * Create a builder for configuring the options.
+     * @return a new Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Helping access the private attribute writeBuffers.
+     * @return the number of buffers used by the pipelined writer, 0 means the data will be written on the generating thread.
+     */
+    public int getWriteBuffers() {
+        return writeBuffers;
+    }
+
+    /**
+     * Helping access the private attribute writeBufferSize.
+     * @return the size of each buffer of the pipelined writer in bytes.
+     */
+    public int getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    /**
+     * Helping access the private attribute symbolTableOptions.
+     * @return the shared symbol table imported by the binary data and how often the local symbol table is reset.
+     */
+    public SymbolTableOptions getSymbolTableOptions() {
+        return symbolTableOptions;
+    }
+
+    /**
+     * Helping access the private attribute statistics.
+     * @return the collector of the statistics of the generated data, or null if the statistics are not requested.
+     */
+    public GenerationStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Helping access the private attribute progress.
+     * @return the counter of the generated values and the written bytes, or null if the progress is not reported.
+     */
+    public GenerationProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Configure and build WriteOptions, every option is optional.
+     */
+    public static class Builder {
+        private int writeBuffers;
+        private int writeBufferSize = DEFAULT_WRITE_BUFFER_SIZE;
+        private SymbolTableOptions symbolTableOptions = SymbolTableOptions.DEFAULT;
+        private GenerationStatistics statistics;
+        private GenerationProgress progress;
+
+        /**
+         * Hand the encoded data to a dedicated I/O thread, so that data generation and disk writes can overlap.
+         * @param writeBuffers is the number of buffers used by the pipelined writer, 0 means the data will be written on the generating thread.
+         * @return this builder.
+         */
+        public Builder withWriteBuffers(int writeBuffers) {
+            if (writeBuffers < 0) {
+                throw new IllegalArgumentException("The number of write buffers cannot be negative.");
+            }
+            this.writeBuffers = writeBuffers;
+            return this;
+        }
+
+        /**
+         * Set the size of each buffer of the pipelined writer, a buffer is handed to the I/O thread once it is full.
+         * @param writeBufferSize is the size of each buffer in bytes.
+         * @return this builder.
+         */
+        public Builder withWriteBufferSize(int writeBufferSize) {
+            if (writeBufferSize < 1) {
+                throw new IllegalArgumentException("The size of the write buffers should be positive: " + writeBufferSize);
+            }
+            this.writeBufferSize = writeBufferSize;
+            return this;
+        }
+
+        /**
+         * Import a shared symbol table and reset the local symbol table at the configured cadence.
+         * @param symbolTableOptions decides the shared symbol table imported by the binary data and how often the local symbol table is reset.
+         * @return this builder.
+         */
+        public Builder withSymbolTableOptions(SymbolTableOptions symbolTableOptions) {
+            this.symbolTableOptions = symbolTableOptions;
+            return this;
+        }
+
+        /**
+         * Collect the statistics of the generated data.
+         * @param statistics is the collector of the statistics, null if the statistics are not requested.
+         * @return this builder.
+         */
+        public Builder withStatistics(GenerationStatistics statistics) {
+            this.statistics = statistics;
+            return this;
+        }
+
+        /**
+         * Count the generated values and the written bytes for the progress reports.
+         * @param progress is the counter of the progress, null if the progress is not reported.
+         * @return this builder.
+         */
+        public Builder withProgress(GenerationProgress progress) {
+            this.progress = progress;
+            return this;
+        }
+
+        /**
+         * Build the options.
+         * @return the newly created WriteOptions.
+         */
+        public WriteOptions build() {
+            return new WriteOptions(this);
+        }
+    }
+}
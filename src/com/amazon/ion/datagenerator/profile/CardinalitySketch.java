@@ -0,0 +1,76 @@
+package com.amazon.ion.datagenerator.profile;
+
+/**
+ * A HyperLogLog sketch which estimates the number of distinct values observed at one path with a fixed amount of memory.
+ * With 2^12 registers the standard error of the estimate is about 1.6%.
+ */
+public class CardinalitySketch {
+    private static final int REGISTER_BITS = 12;
+    private static final int REGISTER_COUNT = 1 << REGISTER_BITS;
+    private final byte[] registers = new byte[REGISTER_COUNT];
+
+    /**
+     * Record the provided value.
+     * @param value is the text representation of the observed value.
+     */
+    public void add(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - REGISTER_BITS));
+        // The rank is the position of the leftmost 1-bit in the remaining bits.
+        int rank = Long.numberOfLeadingZeros((hash << REGISTER_BITS) | (1L << (REGISTER_BITS - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Merge the registers of another sketch into this sketch, the result is the sketch of the union of both value sets.
+     * @param other is the sketch which will be merged.
+     */
+    public void merge(CardinalitySketch other) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    /**
+     * Estimate the number of distinct values.
+     * @return the estimated number of distinct values.
+     */
+    public long estimate() {
+        double sum = 0;
+        int emptyRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                emptyRegisters++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+        double estimate = alpha * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && emptyRegisters > 0) {
+            // Use linear counting for small cardinalities.
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / emptyRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Compute a 64-bit hash with FNV-1a followed by the MurmurHash3 finalizer.
+     * @param value is the value which will be hashed.
+     * @return the 64-bit hash.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
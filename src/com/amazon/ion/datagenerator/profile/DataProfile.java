@@ -0,0 +1,87 @@
+package com.amazon.ion.datagenerator.profile;
+
+import com.amazon.ion.IonDatagram;
+import com.amazon.ion.IonInt;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonSystemBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The profile of an Ion corpus, which contains the statistics of the top-level values and all nested paths.
+ * The profile is written in Ion text as:
+ * ion_data_profile::{ files: <INT>, root: <PATH_STATISTICS> }
+ */
+public class DataProfile {
+    private static final IonSystem SYSTEM = IonSystemBuilder.standard().build();
+    private static final String ANNOTATION_PROFILE = "ion_data_profile";
+    private static final String KEYWORD_FILES = "files";
+    private static final String KEYWORD_ROOT = "root";
+    private final int fileCount;
+    private final PathStatistics root;
+
+    /**
+     * Initializing the newly created DataProfile object.
+     * @param fileCount is the number of profiled files.
+     * @param root is the statistics of the top-level values.
+     */
+    public DataProfile(int fileCount, PathStatistics root) {
+        this.fileCount = fileCount;
+        this.root = root;
+    }
+
+    /**
+     * Helping access the private attribute fileCount.
+     * @return the number of profiled files.
+     */
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * Helping access the private attribute root.
+     * @return the statistics of the top-level values.
+     */
+    public PathStatistics getRoot() {
+        return root;
+    }
+
+    /**
+     * Write the profile into the provided file in Ion text.
+     * @param outputFile is the path of the profile.
+     * @throws IOException if errors occur when writing the profile.
+     */
+    public void write(String outputFile) throws IOException {
+        IonStruct profile = SYSTEM.newEmptyStruct();
+        profile.setTypeAnnotations(ANNOTATION_PROFILE);
+        profile.add(KEYWORD_FILES, SYSTEM.newInt(fileCount));
+        profile.add(KEYWORD_ROOT, root.toIon(SYSTEM));
+        try (OutputStream outputStream = new FileOutputStream(outputFile);
+             IonWriter writer = IonTextWriterBuilder.pretty().build(outputStream)) {
+            profile.writeTo(writer);
+        }
+    }
+
+    /**
+     * Load the profile written by the 'profile' command.
+     * @param profileFile is the path of the profile.
+     * @return the loaded DataProfile.
+     * @throws IOException if errors occur when reading the profile.
+     */
+    public static DataProfile load(String profileFile) throws IOException {
+        IonDatagram datagram = SYSTEM.getLoader().load(new File(profileFile));
+        if (datagram.size() != 1 || !(datagram.get(0) instanceof IonStruct) || !datagram.get(0).hasTypeAnnotation(ANNOTATION_PROFILE)) {
+            throw new IllegalStateException("The data structure of the profile is not supported.");
+        }
+        IonStruct profile = (IonStruct) datagram.get(0);
+        IonValue fileCount = profile.get(KEYWORD_FILES);
+        return new DataProfile(fileCount == null ? 0 : ((IonInt) fileCount).intValue(), PathStatistics.fromIon((IonStruct) profile.get(KEYWORD_ROOT)));
+    }
+}
@@ -0,0 +1,177 @@
+package com.amazon.ion.datagenerator.profile;
+
+import com.amazon.ion.IonInt;
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonSequence;
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonValue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * A sparse histogram which counts the occurrences of each observed value, e.g. string lengths, codepoints or container sizes.
+ * After the histogram is loaded from a profile, values can be sampled with the observed frequencies.
+ * The histogram is not thread-safe while values are being added, but sampling from a loaded histogram is thread-safe.
+ * Sampling uses primitive tables which are built once from the counts, so the boxed counts are not accessed while generating values.
+ */
+public class Histogram {
+    private final TreeMap<Long, Long> counts = new TreeMap<>();
+    private final boolean immutable;
+    // The sampling table is built lazily from the counts, and dropped when a value is added.
+    private volatile SamplingTable samplingTable;
+
+    /**
+     * Initializing the newly created empty Histogram object.
+     */
+    public Histogram() {
+        this(false);
+    }
+
+    /**
+     * Initializing the newly created empty Histogram object.
+     * @param immutable is true if the histogram is shared and values cannot be added.
+     */
+    Histogram(boolean immutable) {
+        this.immutable = immutable;
+    }
+
+    /**
+     * Count one occurrence of the provided value.
+     * @param value is the observed value.
+     */
+    public void add(long value) {
+        add(value, 1);
+    }
+
+    /**
+     * Count the occurrences of the provided value.
+     * @param value is the observed value.
+     * @param occurrences is the number of occurrences.
+     */
+    public void add(long value, long occurrences) {
+        if (immutable) {
+            throw new UnsupportedOperationException("The histogram is shared and cannot be modified.");
+        }
+        counts.merge(value, occurrences, Long::sum);
+        samplingTable = null;
+    }
+
+    /**
+     * Add all counts of another histogram into this histogram.
+     * @param other is the histogram which will be merged.
+     */
+    public void merge(Histogram other) {
+        other.counts.forEach(this::add);
+    }
+
+    /**
+     * Check whether any value has been observed.
+     * @return true if the histogram is empty.
+     */
+    public boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    /**
+     * Get the smallest observed value.
+     * @return the smallest value.
+     */
+    public long getMin() {
+        return counts.firstKey();
+    }
+
+    /**
+     * Get the largest observed value.
+     * @return the largest value.
+     */
+    public long getMax() {
+        return counts.lastKey();
+    }
+
+    /**
+     * Get the total number of observed values.
+     * @return the sum of all counts.
+     */
+    public long getTotalCount() {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Sample a value with the observed frequencies.
+     * @param random is the random number generator.
+     * @return the sampled value.
+     */
+    public long sample(Random random) {
+        SamplingTable table = samplingTable;
+        if (table == null) {
+            if (counts.isEmpty()) {
+                throw new IllegalStateException("Cannot sample from an empty histogram.");
+            }
+            table = new SamplingTable(counts);
+            samplingTable = table;
+        }
+        return table.sample(random);
+    }
+
+    /**
+     * Convert the histogram into a list of [value, count] pairs.
+     * @param system is the IonSystem which constructs the list.
+     * @return the histogram in IonList format.
+     */
+    public IonList toIon(IonSystem system) {
+        IonList list = system.newEmptyList();
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            list.add(system.newList(new long[] {entry.getKey(), entry.getValue()}));
+        }
+        return list;
+    }
+
+    /**
+     * Parse the list of [value, count] pairs into Histogram.
+     * @param value represents the histogram in IonList format.
+     * @return the parsed Histogram.
+     */
+    public static Histogram fromIon(IonValue value) {
+        Histogram histogram = new Histogram();
+        if (value == null) {
+            return histogram;
+        }
+        for (IonValue pair : (IonList) value) {
+            IonSequence sequence = (IonSequence) pair;
+            histogram.add(((IonInt) sequence.get(0)).longValue(), ((IonInt) sequence.get(1)).longValue());
+        }
+        return histogram;
+    }
+
+    /**
+     * The observed values in ascending order with their cumulative counts, which are sampled with a binary search.
+     */
+    private static final class SamplingTable {
+        private final long[] values;
+        private final long[] cumulativeCounts;
+
+        private SamplingTable(TreeMap<Long, Long> counts) {
+            values = new long[counts.size()];
+            cumulativeCounts = new long[counts.size()];
+            int index = 0;
+            long total = 0;
+            for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+                total += entry.getValue();
+                values[index] = entry.getKey();
+                cumulativeCounts[index] = total;
+                index++;
+            }
+        }
+
+        private long sample(Random random) {
+            long target = (long) (random.nextDouble() * cumulativeCounts[cumulativeCounts.length - 1]);
+            int index = Arrays.binarySearch(cumulativeCounts, target);
+            // Arrays.binarySearch returns (-(insertion point) - 1) when the target is not found.
+            index = index < 0 ? -index - 1 : index + 1;
+            return values[Math.min(index, values.length - 1)];
+        }
+    }
+}
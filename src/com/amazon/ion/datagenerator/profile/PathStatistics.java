@@ -0,0 +1,544 @@
+package com.amazon.ion.datagenerator.profile;
+
+import com.amazon.ion.IonFloat;
+import com.amazon.ion.IonInt;
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonNumber;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.system.IonSystemBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * The statistics of the values observed at one path of an Ion corpus, e.g. the values of field 'address' in top-level structs.
+ * The statistics of nested values are kept in the child nodes 'fields' and 'elements', so the statistics form a tree which mirrors the data.
+ */
+public class PathStatistics {
+    // Statistics without any observation, which makes the generator fall back to its default samplers. It is shared, so it cannot be modified.
+    public static final PathStatistics EMPTY = new PathStatistics(true);
+    // The maximum number of distinct scalar values which are kept, so that low-cardinality paths can be described by their values.
+    public static final int MAX_KEPT_VALUES = 10;
+    private static final IonSystem SYSTEM = IonSystemBuilder.standard().build();
+    private static final String KEYWORD_COUNT = "count";
+    private static final String KEYWORD_TYPES = "types";
+    private static final String KEYWORD_ANNOTATIONS = "annotations";
+    private static final String KEYWORD_DISTINCT_VALUES = "distinct_values";
+    private static final String KEYWORD_CODEPOINT_LENGTHS = "codepoint_lengths";
+    private static final String KEYWORD_CODEPOINTS = "codepoints";
+    private static final String KEYWORD_BYTE_LENGTHS = "byte_lengths";
+    private static final String KEYWORD_CONTAINER_LENGTHS = "container_lengths";
+    private static final String KEYWORD_DECIMAL_PRECISIONS = "decimal_precisions";
+    private static final String KEYWORD_DECIMAL_SCALES = "decimal_scales";
+    private static final String KEYWORD_INT_RANGE = "int_range";
+    private static final String KEYWORD_FLOAT_RANGE = "float_range";
+    private static final String KEYWORD_FIELDS = "fields";
+    private static final String KEYWORD_ELEMENTS = "elements";
+    private static final String KEYWORD_OCCURRENCES = "occurrences";
+    private static final String KEYWORD_VALUES = "values";
+    private static final String NULL_TYPE = "null";
+    private long count;
+    private final Map<String, Long> types = new TreeMap<>();
+    private final Map<String, Long> annotations = new TreeMap<>();
+    private final Histogram codepointLengths;
+    private final Histogram codepoints;
+    private final Histogram byteLengths;
+    private final Histogram containerLengths;
+    private final Histogram decimalPrecisions;
+    private final Histogram decimalScales;
+    // The number of times a field occurs in each struct which contains it.
+    private final Histogram occurrences;
+    // The distinct scalar values in Ion text, null once there are more than MAX_KEPT_VALUES distinct values.
+    private Map<String, IonValue> keptValues = new LinkedHashMap<>();
+    private BigDecimal intMin;
+    private BigDecimal intMax;
+    private Double floatMin;
+    private Double floatMax;
+    // A loaded profile only keeps the estimate, its sketch is created again once more values are recorded or merged into it.
+    private CardinalitySketch sketch = new CardinalitySketch();
+    // The estimate of a loaded profile, the registers behind it are not stored, so it can only be combined with other estimates by their maximum.
+    private long distinctValues;
+    private final Map<String, PathStatistics> fields = new TreeMap<>();
+    private PathStatistics elements;
+    private final boolean immutable;
+
+    /**
+     * Initializing the newly created PathStatistics object without any observation.
+     */
+    public PathStatistics() {
+        this(false);
+    }
+
+    /**
+     * Initializing the newly created PathStatistics object without any observation.
+     * @param immutable is true if the statistics are shared and cannot be modified.
+     */
+    private PathStatistics(boolean immutable) {
+        this.immutable = immutable;
+        codepointLengths = new Histogram(immutable);
+        codepoints = new Histogram(immutable);
+        byteLengths = new Histogram(immutable);
+        containerLengths = new Histogram(immutable);
+        decimalPrecisions = new Histogram(immutable);
+        decimalScales = new Histogram(immutable);
+        occurrences = new Histogram(immutable);
+    }
+
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("PathStatistics.EMPTY is shared and cannot be modified.");
+        }
+    }
+
+    /**
+     * Record the current value of the reader and all values nested in it. The reader should be positioned on the value.
+     * @param reader is the IonReader positioned on the value.
+     */
+    public void record(IonReader reader) {
+        checkMutable();
+        IonType type = reader.getType();
+        count++;
+        for (String annotation : reader.getTypeAnnotations()) {
+            annotations.merge(annotation, 1L, Long::sum);
+        }
+        if (reader.isNullValue()) {
+            types.merge(NULL_TYPE, 1L, Long::sum);
+            return;
+        }
+        types.merge(type.toString().toLowerCase(), 1L, Long::sum);
+        if (keptValues != null && !IonType.isContainer(type)) {
+            keepValue(SYSTEM.newValue(reader));
+        }
+        switch (type) {
+            case BOOL:
+                addDistinct(String.valueOf(reader.booleanValue()));
+                break;
+            case INT:
+                BigDecimal intValue = new BigDecimal(reader.bigIntegerValue());
+                intMin = intMin == null ? intValue : intMin.min(intValue);
+                intMax = intMax == null ? intValue : intMax.max(intValue);
+                addDistinct(intValue.toString());
+                break;
+            case FLOAT:
+                double floatValue = reader.doubleValue();
+                // NaN and infinity cannot bound a range.
+                if (!Double.isNaN(floatValue) && !Double.isInfinite(floatValue)) {
+                    floatMin = floatMin == null ? floatValue : Math.min(floatMin, floatValue);
+                    floatMax = floatMax == null ? floatValue : Math.max(floatMax, floatValue);
+                }
+                addDistinct(String.valueOf(floatValue));
+                break;
+            case DECIMAL:
+                BigDecimal decimalValue = reader.bigDecimalValue();
+                decimalPrecisions.add(decimalValue.precision());
+                decimalScales.add(decimalValue.scale());
+                addDistinct(decimalValue.toString());
+                break;
+            case TIMESTAMP:
+                addDistinct(reader.timestampValue().toString());
+                break;
+            case STRING:
+            case SYMBOL:
+                String text = reader.stringValue();
+                // A symbol with unknown text has no codepoints to observe.
+                if (text != null) {
+                    codepointLengths.add(text.codePointCount(0, text.length()));
+                    text.codePoints().forEach(codepoints::add);
+                    addDistinct(text);
+                }
+                break;
+            case BLOB:
+            case CLOB:
+                byteLengths.add(reader.byteSize());
+                break;
+            case STRUCT:
+                reader.stepIn();
+                int fieldCount = 0;
+                Map<PathStatistics, Integer> fieldOccurrences = new HashMap<>();
+                while (reader.next() != null) {
+                    fieldCount++;
+                    PathStatistics field = fields.computeIfAbsent(reader.getFieldName(), name -> new PathStatistics());
+                    field.record(reader);
+                    fieldOccurrences.merge(field, 1, Integer::sum);
+                }
+                reader.stepOut();
+                fieldOccurrences.forEach((field, occurrence) -> field.occurrences.add(occurrence));
+                containerLengths.add(fieldCount);
+                break;
+            case LIST:
+            case SEXP:
+                reader.stepIn();
+                int elementCount = 0;
+                while (reader.next() != null) {
+                    elementCount++;
+                    if (elements == null) {
+                        elements = new PathStatistics();
+                    }
+                    elements.record(reader);
+                }
+                reader.stepOut();
+                containerLengths.add(elementCount);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Record the provided scalar value in the sketch, which is created again if the statistics are loaded by fromIon.
+     * @param value is the text representation of the observed scalar value.
+     */
+    private void addDistinct(String value) {
+        if (sketch == null) {
+            sketch = new CardinalitySketch();
+        }
+        sketch.add(value);
+    }
+
+    /**
+     * Keep the provided scalar value until there are more than MAX_KEPT_VALUES distinct values.
+     * @param value is the observed scalar value.
+     */
+    private void keepValue(IonValue value) {
+        value.clearTypeAnnotations();
+        keptValues.putIfAbsent(value.toString(), value);
+        if (keptValues.size() > MAX_KEPT_VALUES) {
+            keptValues = null;
+        }
+    }
+
+    /**
+     * Add all statistics of another node into this node, e.g. the statistics collected from different files.
+     * @param other is the node which will be merged.
+     */
+    public void merge(PathStatistics other) {
+        checkMutable();
+        count += other.count;
+        other.types.forEach((type, typeCount) -> types.merge(type, typeCount, Long::sum));
+        other.annotations.forEach((annotation, annotationCount) -> annotations.merge(annotation, annotationCount, Long::sum));
+        codepointLengths.merge(other.codepointLengths);
+        codepoints.merge(other.codepoints);
+        byteLengths.merge(other.byteLengths);
+        containerLengths.merge(other.containerLengths);
+        decimalPrecisions.merge(other.decimalPrecisions);
+        decimalScales.merge(other.decimalScales);
+        occurrences.merge(other.occurrences);
+        if (keptValues != null) {
+            if (other.keptValues == null) {
+                keptValues = null;
+            } else {
+                other.keptValues.values().forEach(value -> {
+                    if (keptValues != null) {
+                        keepValue(value.clone());
+                    }
+                });
+            }
+        }
+        intMin = min(intMin, other.intMin);
+        intMax = max(intMax, other.intMax);
+        floatMin = floatMin == null ? other.floatMin : other.floatMin == null ? floatMin : Double.valueOf(Math.min(floatMin, other.floatMin));
+        floatMax = floatMax == null ? other.floatMax : other.floatMax == null ? floatMax : Double.valueOf(Math.max(floatMax, other.floatMax));
+        if (other.sketch != null) {
+            if (sketch == null) {
+                sketch = new CardinalitySketch();
+            }
+            sketch.merge(other.sketch);
+        }
+        distinctValues = Math.max(distinctValues, other.distinctValues);
+        other.fields.forEach((name, field) -> fields.computeIfAbsent(name, key -> new PathStatistics()).merge(field));
+        if (other.elements != null) {
+            if (elements == null) {
+                elements = new PathStatistics();
+            }
+            elements.merge(other.elements);
+        }
+    }
+
+    private static BigDecimal min(BigDecimal first, BigDecimal second) {
+        return first == null ? second : second == null ? first : first.min(second);
+    }
+
+    private static BigDecimal max(BigDecimal first, BigDecimal second) {
+        return first == null ? second : second == null ? first : first.max(second);
+    }
+
+    /**
+     * Get the number of values observed at this path.
+     * @return the number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the number of values of each type observed at this path, the key 'null' counts the null values of any type.
+     * @return a map from the type name to the number of values.
+     */
+    public Map<String, Long> getTypes() {
+        return Collections.unmodifiableMap(types);
+    }
+
+    /**
+     * Get the number of values which carry each annotation.
+     * @return a map from the annotation to the number of values.
+     */
+    public Map<String, Long> getAnnotations() {
+        return Collections.unmodifiableMap(annotations);
+    }
+
+    /**
+     * Get the estimated number of distinct scalar values observed at this path. The values recorded after the statistics are loaded can only
+     * be combined with the loaded estimate by the maximum of both, which is a lower bound of the distinct values of the union.
+     * @return the estimated number of distinct values.
+     */
+    public long getDistinctValues() {
+        return sketch == null ? distinctValues : Math.max(distinctValues, sketch.estimate());
+    }
+
+    /**
+     * Get the distinct scalar values observed at this path, if there are at most MAX_KEPT_VALUES of them.
+     * @return the distinct values in the order they are observed, or null if there are too many distinct values.
+     */
+    public List<IonValue> getKeptValues() {
+        return keptValues == null ? null : Collections.unmodifiableList(new ArrayList<>(keptValues.values()));
+    }
+
+    /**
+     * Helping access the histogram of the number of times a field occurs in each struct which contains it.
+     * The structs which do not contain the field are not counted, i.e. the number of such structs is the number of parent structs minus the total count.
+     * @return the histogram of occurrences.
+     */
+    public Histogram getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * Helping access the histogram of the codepoint lengths of strings and symbols.
+     * @return the histogram of codepoint lengths.
+     */
+    public Histogram getCodepointLengths() {
+        return codepointLengths;
+    }
+
+    /**
+     * Helping access the histogram of the codepoints of strings and symbols.
+     * @return the histogram of codepoints.
+     */
+    public Histogram getCodepoints() {
+        return codepoints;
+    }
+
+    /**
+     * Helping access the histogram of the byte lengths of blobs and clobs.
+     * @return the histogram of byte lengths.
+     */
+    public Histogram getByteLengths() {
+        return byteLengths;
+    }
+
+    /**
+     * Helping access the histogram of the number of fields or elements in containers.
+     * @return the histogram of container lengths.
+     */
+    public Histogram getContainerLengths() {
+        return containerLengths;
+    }
+
+    /**
+     * Helping access the histogram of decimal precisions.
+     * @return the histogram of decimal precisions.
+     */
+    public Histogram getDecimalPrecisions() {
+        return decimalPrecisions;
+    }
+
+    /**
+     * Helping access the histogram of decimal scales.
+     * @return the histogram of decimal scales.
+     */
+    public Histogram getDecimalScales() {
+        return decimalScales;
+    }
+
+    /**
+     * Get the smallest and the largest observed int.
+     * @return an array which contains the lower bound and the upper bound, or null if no int has been observed.
+     */
+    public BigDecimal[] getIntRange() {
+        return intMin == null ? null : new BigDecimal[] {intMin, intMax};
+    }
+
+    /**
+     * Get the smallest and the largest observed finite float.
+     * @return an array which contains the lower bound and the upper bound, or null if no finite float has been observed.
+     */
+    public double[] getFloatRange() {
+        return floatMin == null ? null : new double[] {floatMin, floatMax};
+    }
+
+    /**
+     * Get the statistics of the provided field in structs at this path.
+     * @param fieldName is the name of the field.
+     * @return the statistics of the field, or EMPTY if the field has not been observed.
+     */
+    public PathStatistics getField(String fieldName) {
+        return fields.getOrDefault(fieldName, EMPTY);
+    }
+
+    /**
+     * Get the statistics of the fields in structs at this path.
+     * @return a map from the field name to its statistics.
+     */
+    public Map<String, PathStatistics> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    /**
+     * Get the statistics of the elements in lists and s-expressions at this path.
+     * @return the statistics of the elements, or EMPTY if no element has been observed.
+     */
+    public PathStatistics getElements() {
+        return elements == null ? EMPTY : elements;
+    }
+
+    /**
+     * Sample a value from the histogram, or use the default sampler if nothing has been observed at this path.
+     * @param histogram is one of the histograms of this node.
+     * @param random is the random number generator.
+     * @param defaultBound is the exclusive upper bound of the default sampler, which chooses a value uniformly from [0, defaultBound).
+     * @return the sampled value.
+     */
+    public static int sampleOrDefault(Histogram histogram, Random random, int defaultBound) {
+        return histogram.isEmpty() ? random.nextInt(defaultBound) : (int) histogram.sample(random);
+    }
+
+    /**
+     * Convert the statistics into IonStruct.
+     * @param system is the IonSystem which constructs the struct.
+     * @return the statistics in IonStruct format.
+     */
+    public IonStruct toIon(IonSystem system) {
+        IonStruct struct = system.newEmptyStruct();
+        struct.add(KEYWORD_COUNT, system.newInt(count));
+        struct.add(KEYWORD_TYPES, countsToIon(system, types));
+        if (!annotations.isEmpty()) {
+            struct.add(KEYWORD_ANNOTATIONS, countsToIon(system, annotations));
+        }
+        // Containers are not recorded by the sketch, so there is no estimate for paths which only contain containers.
+        if (getDistinctValues() > 0) {
+            struct.add(KEYWORD_DISTINCT_VALUES, system.newInt(getDistinctValues()));
+        }
+        addHistogram(system, struct, KEYWORD_CODEPOINT_LENGTHS, codepointLengths);
+        addHistogram(system, struct, KEYWORD_CODEPOINTS, codepoints);
+        addHistogram(system, struct, KEYWORD_BYTE_LENGTHS, byteLengths);
+        addHistogram(system, struct, KEYWORD_CONTAINER_LENGTHS, containerLengths);
+        addHistogram(system, struct, KEYWORD_DECIMAL_PRECISIONS, decimalPrecisions);
+        addHistogram(system, struct, KEYWORD_DECIMAL_SCALES, decimalScales);
+        addHistogram(system, struct, KEYWORD_OCCURRENCES, occurrences);
+        if (keptValues != null && !keptValues.isEmpty()) {
+            IonList values = system.newEmptyList();
+            keptValues.values().forEach(value -> values.add(system.clone(value)));
+            struct.add(KEYWORD_VALUES, values);
+        }
+        if (intMin != null) {
+            IonList range = system.newList(system.newDecimal(intMin), system.newDecimal(intMax));
+            range.addTypeAnnotation("range");
+            struct.add(KEYWORD_INT_RANGE, range);
+        }
+        if (floatMin != null) {
+            IonList range = system.newList(system.newFloat(floatMin), system.newFloat(floatMax));
+            range.addTypeAnnotation("range");
+            struct.add(KEYWORD_FLOAT_RANGE, range);
+        }
+        if (!fields.isEmpty()) {
+            IonStruct fieldsStruct = system.newEmptyStruct();
+            fields.forEach((name, field) -> fieldsStruct.add(name, field.toIon(system)));
+            struct.add(KEYWORD_FIELDS, fieldsStruct);
+        }
+        if (elements != null) {
+            struct.add(KEYWORD_ELEMENTS, elements.toIon(system));
+        }
+        return struct;
+    }
+
+    private static IonStruct countsToIon(IonSystem system, Map<String, Long> counts) {
+        IonStruct struct = system.newEmptyStruct();
+        counts.forEach((key, value) -> struct.add(key, system.newInt(value)));
+        return struct;
+    }
+
+    private static void addHistogram(IonSystem system, IonStruct struct, String fieldName, Histogram histogram) {
+        if (!histogram.isEmpty()) {
+            struct.add(fieldName, histogram.toIon(system));
+        }
+    }
+
+    /**
+     * Parse the statistics written by toIon.
+     * @param struct represents the statistics in IonStruct format.
+     * @return the parsed PathStatistics.
+     */
+    public static PathStatistics fromIon(IonStruct struct) {
+        PathStatistics statistics = new PathStatistics();
+        statistics.sketch = null;
+        statistics.count = ((IonInt) struct.get(KEYWORD_COUNT)).longValue();
+        countsFromIon(struct.get(KEYWORD_TYPES), statistics.types);
+        countsFromIon(struct.get(KEYWORD_ANNOTATIONS), statistics.annotations);
+        IonValue distinctValues = struct.get(KEYWORD_DISTINCT_VALUES);
+        statistics.distinctValues = distinctValues == null ? 0 : ((IonInt) distinctValues).longValue();
+        statistics.codepointLengths.merge(Histogram.fromIon(struct.get(KEYWORD_CODEPOINT_LENGTHS)));
+        statistics.codepoints.merge(Histogram.fromIon(struct.get(KEYWORD_CODEPOINTS)));
+        statistics.byteLengths.merge(Histogram.fromIon(struct.get(KEYWORD_BYTE_LENGTHS)));
+        statistics.containerLengths.merge(Histogram.fromIon(struct.get(KEYWORD_CONTAINER_LENGTHS)));
+        statistics.decimalPrecisions.merge(Histogram.fromIon(struct.get(KEYWORD_DECIMAL_PRECISIONS)));
+        statistics.decimalScales.merge(Histogram.fromIon(struct.get(KEYWORD_DECIMAL_SCALES)));
+        statistics.occurrences.merge(Histogram.fromIon(struct.get(KEYWORD_OCCURRENCES)));
+        IonList values = (IonList) struct.get(KEYWORD_VALUES);
+        if (values == null) {
+            // Either the values were not kept because there were too many of them, or there was no scalar value at all.
+            statistics.keptValues = null;
+        } else {
+            values.forEach(value -> statistics.keptValues.put(value.toString(), SYSTEM.clone(value)));
+        }
+        IonList intRange = (IonList) struct.get(KEYWORD_INT_RANGE);
+        if (intRange != null) {
+            statistics.intMin = ((IonNumber) intRange.get(0)).bigDecimalValue();
+            statistics.intMax = ((IonNumber) intRange.get(1)).bigDecimalValue();
+        }
+        IonList floatRange = (IonList) struct.get(KEYWORD_FLOAT_RANGE);
+        if (floatRange != null) {
+            statistics.floatMin = ((IonFloat) floatRange.get(0)).doubleValue();
+            statistics.floatMax = ((IonFloat) floatRange.get(1)).doubleValue();
+        }
+        IonStruct fieldsStruct = (IonStruct) struct.get(KEYWORD_FIELDS);
+        if (fieldsStruct != null) {
+            for (IonValue field : fieldsStruct) {
+                statistics.fields.put(field.getFieldName(), fromIon((IonStruct) field));
+            }
+        }
+        IonStruct elementsStruct = (IonStruct) struct.get(KEYWORD_ELEMENTS);
+        if (elementsStruct != null) {
+            statistics.elements = fromIon(elementsStruct);
+        }
+        return statistics;
+    }
+
+    private static void countsFromIon(IonValue value, Map<String, Long> counts) {
+        if (value != null) {
+            for (IonValue entry : (IonStruct) value) {
+                counts.put(entry.getFieldName(), ((IonInt) entry).longValue());
+            }
+        }
+    }
+}
@@ -1,11 +1,8 @@
 package com.amazon.ion.datagenerator.schema;
 
-import com.amazon.ion.IonList;
 import com.amazon.ion.IonStruct;
 import com.amazon.ion.IonType;
 import com.amazon.ion.IonValue;
-import com.amazon.ion.datagenerator.GeneratorOptions;
-import com.amazon.ion.datagenerator.IonSchemaUtilities;
 import com.amazon.ion.datagenerator.schema.constraints.Annotations;
 import com.amazon.ion.datagenerator.schema.constraints.Contains;
 import com.amazon.ion.datagenerator.schema.constraints.Element;
@@ -16,10 +13,12 @@ import com.amazon.ion.datagenerator.schema.constraints.Regex;
 import com.amazon.ion.datagenerator.schema.constraints.ReparsedConstraint;
 import com.amazon.ion.datagenerator.schema.constraints.TimestampPrecision;
 import com.amazon.ion.datagenerator.schema.constraints.TypeName;
+import com.amazon.ion.datagenerator.schema.constraints.Union;
 import com.amazon.ion.datagenerator.schema.constraints.ValidValues;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 // Parsing the type definition in ISL file into ReparsedType format which allows getting constraints information directly.
 public class ReparsedType {
@@ -42,6 +41,7 @@ public class ReparsedType {
     private static final String KEYWORD_ANY_OF = "any_of";
     private static final String KEYWORD_ONE_OF = "one_of";
     private static final String KEYWORD_CONTENT = "content";
+    private static final String KEYWORD_BRANCH_WEIGHTS = Union.KEYWORD_BRANCH_WEIGHTS;
     // Using map to avoid processing the multiple repeat constraints situation.
     private final Map<String, ReparsedConstraint> constraintMap;
     private final IonStruct constraintStruct;
@@ -73,14 +73,8 @@ public class ReparsedType {
             case KEYWORD_NAME:
             case KEYWORD_OCCURS:
             case KEYWORD_CONTENT:
-                return;
-            case KEYWORD_ANY_OF:
-            case KEYWORD_ONE_OF:
-                IonList typeReferenceList = (IonList)field;
-                int index = GeneratorOptions.random.nextInt(typeReferenceList.size());
-                IonValue chosenItem = typeReferenceList.get(index);
-                ReparsedType reparsedType = IonSchemaUtilities.parseTypeReference(chosenItem);
-                constraintMap.putAll(reparsedType.getConstraintMap());
+            // 'branch_weights' is consumed while parsing 'any_of' or 'one_of'.
+            case KEYWORD_BRANCH_WEIGHTS:
                 return;
             default:
                 constraintMap.put(field.getFieldName(), toConstraint(field));
@@ -90,9 +84,10 @@ public class ReparsedType {
     /**
      * Processing field 'occurs' and return the occurrence value.
      * @param constraintStruct represents the <VARIABLY_OCCURRING_TYPE_REFERENCE> in IonStruct format.
+     * @param random is the random number generator.
      * @return an integer value which represents the required occurrence of the field/element.
      */
-    public static int getOccurs(IonStruct constraintStruct) {
+    public static int getOccurs(IonStruct constraintStruct, Random random) {
         IonValue occursValue = constraintStruct.get(KEYWORD_OCCURS);
         // The default value for occurs is specific to each constraint;
         // For constraint Field, the default value of occurs is optional.
@@ -101,7 +96,7 @@ public class ReparsedType {
             return 1;
         } else {
             Occurs occurs = Occurs.of(occursValue);
-            return occurs.getOccurRange().getRandomQuantifiableValueFromRange().intValue();
+            return occurs.getOccurRange().getRandomQuantifiableValueFromRange(random).intValue();
         }
     }
 
@@ -162,6 +157,10 @@ public class ReparsedType {
                 return Annotations.of(field);
             case KEYWORD_TYPE:
                 return TypeName.of(field);
+            case KEYWORD_ANY_OF:
+            case KEYWORD_ONE_OF:
+                // The branch is selected while constructing data, so that each value can choose its own branch.
+                return Union.of(field);
             default:
                 // For now, Ion Data Generator doesn't support processing 'open' content.
                 // If the constraint 'content' included in the ISL , the data generator will throw an exception.
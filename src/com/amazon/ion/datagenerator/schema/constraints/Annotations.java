@@ -2,40 +2,45 @@ package com.amazon.ion.datagenerator.schema.constraints;
 
 import com.amazon.ion.IonList;
 import com.amazon.ion.IonValue;
-import com.amazon.ion.datagenerator.GeneratorOptions;
+
+import java.util.Random;
 
 /**
  * This class aims to process the constraint 'annotations'. After parsing the constraint value to Annotations object, we
  * are able to get the processed annotations in an IonList format.
  */
 public class Annotations implements ReparsedConstraint {
-    private IonList annotations;
+    private final IonList annotations;
+    private final boolean optional;
 
     /**
      * Initializing the newly created Annotations object.
      * @param field represents the value of constraint 'annotations'.
      */
     private Annotations(IonValue field) {
-        this.annotations = parseAnnotations(field);
+        this.annotations = (IonList) field;
+        this.optional = isOptional(field);
     }
 
     /**
-     * Helping access the private attribute 'annotations'.
-     * @return the attribute 'annotations'.
+     * Get the annotations which are used for annotating the generated value. If the annotations are optional, they
+     * are randomly returned for each generated value.
+     * @param random is the random number generator.
+     * @return a null value or a list of annotations.
      */
-    public IonList getAnnotations() {
-        return this.annotations;
+    public IonList getAnnotations(Random random) {
+        return optional ? randomlyReturnAnnotations(random) : this.annotations;
     }
 
     /**
      * Process the annotation of the constraint 'annotations'. By default, individual annotations
      * are optional and this default may be overridden by annotating the annotations list with 'required'.
      * If annotations must be applied to value in specified order, the list may be annotated with 'ordered'.
-     * This method will process these annotations and return the value aligned with these specifications.
+     * This method will process these annotations and decide whether the annotations are optional.
      * @param field represents the value of constraint 'annotations'.
-     * @return the list of annotations that are used for annotating IonValue.
+     * @return true if the list of annotations is optional.
      */
-    private IonList parseAnnotations(IonValue field) {
+    private static boolean isOptional(IonValue field) {
         String[] annotationsSpecificationList = field.getTypeAnnotations();
         // We do not consider the features of 'annotations' in the element level.
         // i.e. 'annotations' has annotation for each listed annotation in the constraint value.(required | optional)
@@ -43,23 +48,19 @@ public class Annotations implements ReparsedConstraint {
         // For the rest of the list level features (required | closed | ordered), we categorise them as one condition and then return the value of constraint annotations directly.
 
         // If the constraint 'annotations' is not annotated, the list of annotations will be considered as optional.
-        if (annotationsSpecificationList.length == 0) {
-            return randomlyReturnAnnotations(field);
-        } else {
-            return (IonList)field;
-        }
+        return annotationsSpecificationList.length == 0;
     }
 
     /**
      * Process the constraint 'annotations' without annotation or contains 'optional' annotation.
-     * @param field represents the value of constraint 'annotations'.
+     * @param random is the random number generator.
      * @return a null value or a list of annotations randomly.
      */
-    private IonList randomlyReturnAnnotations(IonValue field) {
-        int value = GeneratorOptions.random.nextInt(2);
+    private IonList randomlyReturnAnnotations(Random random) {
+        int value = random.nextInt(2);
         switch (value) {
             case 1:
-                return (IonList)field;
+                return this.annotations;
             default:
                 return null;
         }
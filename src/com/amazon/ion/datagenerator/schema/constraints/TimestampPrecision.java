@@ -3,9 +3,10 @@ package com.amazon.ion.datagenerator.schema.constraints;
 import com.amazon.ion.IonSequence;
 import com.amazon.ion.IonValue;
 import com.amazon.ion.Timestamp;
-import com.amazon.ion.datagenerator.GeneratorOptions;
 import com.amazon.ion.datagenerator.IonSchemaUtilities;
 
+import java.util.Random;
+
 public class TimestampPrecision extends QuantifiableConstraints{
 
     /**
@@ -28,16 +29,17 @@ public class TimestampPrecision extends QuantifiableConstraints{
     /**
      * Getting the timestamp precision randomly from the provided timestamp precision range.
      * @param range represents the range of timestamp precision.
+     * @param random is the random number generator.
      * @return randomly generated Timestamp.Precision.
      */
-    public static Timestamp.Precision getRandomTimestampPrecision(Range range) {
+    public static Timestamp.Precision getRandomTimestampPrecision(Range range, Random random) {
         IonSequence constraintSequence = range.getSequence();
         Timestamp.Precision[] precisions = Timestamp.Precision.values();
         String lowerBound = constraintSequence.get(0).toString();
         String upperBound = constraintSequence.get(1).toString();
         int lowerBoundOrdinal = lowerBound.equals(IonSchemaUtilities.KEYWORD_MIN) ? 0 : Timestamp.Precision.valueOf(lowerBound.toUpperCase()).ordinal();
         int upperBoundOrdinal = upperBound.equals(IonSchemaUtilities.KEYWORD_MAX) ? precisions.length : Timestamp.Precision.valueOf(upperBound.toUpperCase()).ordinal();
-        int randomIndex = GeneratorOptions.random.nextInt(upperBoundOrdinal - lowerBoundOrdinal + 1) + lowerBoundOrdinal;
+        int randomIndex = random.nextInt(upperBoundOrdinal - lowerBoundOrdinal + 1) + lowerBoundOrdinal;
         return precisions[randomIndex];
     }
 }
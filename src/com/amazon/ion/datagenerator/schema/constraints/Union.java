@@ -0,0 +1,109 @@
+package com.amazon.ion.datagenerator.schema.constraints;
+
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.datagenerator.IonSchemaUtilities;
+import com.amazon.ion.datagenerator.schema.ReparsedType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Process the logic constraints 'any_of' and 'one_of' into a branch table.
+ * any_of: [ <TYPE_REFERENCE>... ]
+ * one_of: [ <TYPE_REFERENCE>... ]
+ * Each branch is parsed into ReparsedType once, and one branch is selected every time a value is generated.
+ * The frequency of each branch can be controlled by the optional field 'branch_weights' in the same type definition,
+ * e.g. branch_weights: [3, 1] means the first branch is selected three times as often as the second one.
+ */
+public class Union implements ReparsedConstraint {
+    public static final String KEYWORD_BRANCH_WEIGHTS = "branch_weights";
+    private final List<ReparsedType> branches;
+    // The cumulative weights of branches, null if all branches share the same weight.
+    private final double[] cumulativeWeights;
+
+    /**
+     * Initializing the newly created Union object.
+     * @param field represents the value of constraint 'any_of' or 'one_of'.
+     */
+    private Union(IonValue field) {
+        IonList typeReferenceList = (IonList) field;
+        if (typeReferenceList.isEmpty()) {
+            throw new IllegalStateException("Constraint '" + field.getFieldName() + "' requires at least one type reference.");
+        }
+        this.branches = new ArrayList<>(typeReferenceList.size());
+        for (IonValue typeReference : typeReferenceList) {
+            this.branches.add(IonSchemaUtilities.parseTypeReference(typeReference));
+        }
+        IonStruct typeDefinition = (IonStruct) field.getContainer();
+        IonValue weights = typeDefinition == null ? null : typeDefinition.get(KEYWORD_BRANCH_WEIGHTS);
+        this.cumulativeWeights = weights == null ? null : parseWeights(weights);
+    }
+
+    /**
+     * Parsing the value of 'branch_weights' into cumulative weights which are used for selecting the branch.
+     * @param weights represents the value of 'branch_weights', a list of non-negative numbers which has the same size as the branch list.
+     * @return an array of cumulative weights.
+     */
+    private double[] parseWeights(IonValue weights) {
+        if (!(weights instanceof IonList) || ((IonList) weights).size() != branches.size()) {
+            throw new IllegalStateException("The value of '" + KEYWORD_BRANCH_WEIGHTS + "' should be a list which contains one weight for each branch.");
+        }
+        IonList weightList = (IonList) weights;
+        double[] cumulative = new double[weightList.size()];
+        double total = 0;
+        for (int i = 0; i < weightList.size(); i++) {
+            double weight = new BigDecimal(weightList.get(i).toString()).doubleValue();
+            if (weight < 0) {
+                throw new IllegalStateException("The value of '" + KEYWORD_BRANCH_WEIGHTS + "' cannot contain negative weight: " + weights);
+            }
+            total += weight;
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalStateException("The sum of '" + KEYWORD_BRANCH_WEIGHTS + "' should be greater than zero: " + weights);
+        }
+        return cumulative;
+    }
+
+    /**
+     * Helping access the private attribute 'branches'.
+     * @return the type definitions of all branches.
+     */
+    public List<ReparsedType> getBranches() {
+        return this.branches;
+    }
+
+    /**
+     * Selecting one branch randomly. If 'branch_weights' is provided, the probability of each branch is proportional to its weight.
+     * @param random is the random number generator.
+     * @return the type definition of the selected branch.
+     */
+    public ReparsedType getRandomBranch(Random random) {
+        if (cumulativeWeights == null) {
+            return branches.get(random.nextInt(branches.size()));
+        }
+        double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, target);
+        // Arrays.binarySearch returns (-(insertion point) - 1) when the target is not found.
+        index = index < 0 ? -index - 1 : index + 1;
+        // Skip the branches with zero weight which share the same cumulative weight with the previous branch.
+        while (index < cumulativeWeights.length - 1 && cumulativeWeights[index] <= target) {
+            index++;
+        }
+        return branches.get(Math.min(index, branches.size() - 1));
+    }
+
+    /**
+     * Parsing the value of constraint 'any_of' or 'one_of' into Union.
+     * @param field represents the value of constraint 'any_of' or 'one_of'.
+     * @return the parsed object Union.
+     */
+    public static Union of(IonValue field) {
+        return new Union(field);
+    }
+}
@@ -1,8 +1,11 @@
 package com.amazon.ion.datagenerator;
 
 import com.amazon.ion.*;
+import com.amazon.ion.datagenerator.profile.DataProfile;
+import com.amazon.ion.datagenerator.profile.PathStatistics;
 import com.amazon.ion.system.IonReaderBuilder;
 import com.amazon.ion.system.IonSystemBuilder;
+import com.amazon.ion.system.SimpleCatalog;
 import com.amazon.ion.util.IonStreamUtils;
 import com.amazon.ionschema.IonSchemaSystem;
 import com.amazon.ionschema.Schema;
@@ -11,19 +14,39 @@ import com.amazon.ionschema.Violations;
 
 import java.io.File;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
 
 import org.junit.After;
+import org.junit.Assume;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import org.junit.Test;
 
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -58,6 +81,7 @@ public class DataGeneratorTest {
     private final static String INPUT_ION_INT_FILE_PATH = "./tst/com/amazon/ion/datagenerator/testData/testInt.isl";
     private final static String INPUT_SCHEMA_WITH_ANY_OF = "./tst/com/amazon/ion/datagenerator/testData/testAnyOf.isl";
     private final static String INPUT_SCHEMA_WITH_ONE_OF = "./tst/com/amazon/ion/datagenerator/testData/testOneOf.isl";
+    private final static String INPUT_SCHEMA_WITH_WEIGHTED_ONE_OF = "./tst/com/amazon/ion/datagenerator/testData/testWeightedOneOf.isl";
     private final static String SCORE_DIFFERENCE = "scoreDifference";
     private final static String COMPARISON_REPORT_WITHOUT_REGRESSION = "./tst/com/amazon/ion/workflow/testComparisonReportWithoutRegression.ion";
     private final static String COMPARISON_REPORT = "./tst/com/amazon/ion/workflow/testComparisonReport.ion";
@@ -200,6 +224,22 @@ public class DataGeneratorTest {
         DataGeneratorTest.violationDetect(INPUT_SCHEMA_WITH_ONE_OF);
     }
 
+    /**
+     * Test if the branch frequency of 'one_of' follows the provided 'branch_weights', the branch with zero weight should never be selected.
+     * @throws Exception if error occurs during the executing process.
+     */
+    @Test
+    public void testLogicConstraintBranchWeights() throws Exception {
+        DataGeneratorTest.violationDetect(INPUT_SCHEMA_WITH_WEIGHTED_ONE_OF);
+        Map<String, Object> optionsMap = Main.parseArguments("generate", "--data-size", "5000", "--format", "ion_text", "--input-ion-schema", INPUT_SCHEMA_WITH_WEIGHTED_ONE_OF, "test8.ion");
+        try (IonReader reader = DataGeneratorTest.executeAndRead(optionsMap)) {
+            while (reader.next() != null) {
+                assertEquals(IonType.STRING, reader.getType());
+                assertEquals(5, reader.stringValue().length());
+            }
+        }
+    }
+
     /**
      * Assert the generated data size in bytes has an 10% difference with the expected size, this range is not available for Ion symbol, because the size of symbol is predicted.
      * @throws Exception if error occurs when executing Ion data generator.
@@ -264,6 +304,604 @@ public class DataGeneratorTest {
         assertTrue(generateAndCompare(true));
     }
 
+    /**
+     * Test if the pipelined writer generates exactly the same data as the writer running on the generating thread, the small buffers make the
+     * data cycle through both buffers many times.
+     * @throws Exception if error occurs during the executing and comparison process.
+     */
+    @Test
+    public void testPipelinedWriter() throws Exception {
+        for (String format : Arrays.asList("ion_text", "ion_binary")) {
+            Map<String, Object> optionsMap = Main.parseArguments("generate", "--data-size", "50000", "--seed", "200", "--format", format, "--input-ion-schema", INPUT_NESTED_ION_STRUCT_PATH, "testPipelined0.ion");
+            GeneratorOptions.executeGenerator(optionsMap);
+            optionsMap = Main.parseArguments("generate", "--data-size", "50000", "--seed", "200", "--format", format, "--write-buffers", "2", "--write-buffer-size", "4096", "--input-ion-schema", INPUT_NESTED_ION_STRUCT_PATH, "testPipelined1.ion");
+            GeneratorOptions.executeGenerator(optionsMap);
+            byte[] expected = Files.readAllBytes(Paths.get("testPipelined0.ion"));
+            byte[] actual = Files.readAllBytes(Paths.get("testPipelined1.ion"));
+            Files.delete(Paths.get("testPipelined0.ion"));
+            Files.delete(Paths.get("testPipelined1.ion"));
+            assertTrue(Arrays.equals(expected, actual));
+        }
+    }
+
+    /**
+     * Test if closing the pipelined writer after a failed write stops the writer thread before closing the underlying stream, and rethrows the failure.
+     * @throws Exception if error occurs when writing data.
+     */
+    @Test(timeout = 10000)
+    public void testPipelinedWriterFailure() throws Exception {
+        IOException writeFailure = new IOException("write failed");
+        boolean[] underlyingClosed = new boolean[1];
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw writeFailure;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw writeFailure;
+            }
+
+            @Override
+            public void close() {
+                underlyingClosed[0] = true;
+            }
+        };
+        PipelinedOutputStream stream = new PipelinedOutputStream(failing, 2, 4);
+        try {
+            // Every filled buffer is handed to the writer thread, so one of the writes observes the failure.
+            for (int i = 0; i < 64; i++) {
+                stream.write(new byte[] {1, 2, 3, 4});
+            }
+        } catch (IOException e) {
+            assertEquals(writeFailure, e);
+        }
+        try {
+            stream.close();
+            throw new AssertionError("The failure of the writer thread should be rethrown.");
+        } catch (IOException e) {
+            assertEquals(writeFailure, e);
+        }
+        assertTrue(underlyingClosed[0]);
+    }
+
+    /**
+     * Test if generators built with the same seed construct the same values even when they are interleaved, which means generators do not share state.
+     * @throws Exception if error occurs when constructing the generators.
+     */
+    @Test
+    public void testGeneratorsWithSameSeedAreIndependent() throws Exception {
+        for (File testFile : TEST_ISL_FILES) {
+            IonDataGenerator first = IonDataGenerator.builder().withSchemaFile(testFile.getPath()).withSeed(200).build();
+            IonDataGenerator second = IonDataGenerator.builder().withSchemaFile(testFile.getPath()).withSeed(200).build();
+            Iterator<IonValue> iterator = second.iterator();
+            List<IonValue> values = first.stream().limit(20).collect(Collectors.toList());
+            for (IonValue value : values) {
+                assertEquals(value, iterator.next());
+            }
+        }
+    }
+
+    /**
+     * Test if the binary data imports the shared symbol table written into the catalog file, resets the local symbol table
+     * at the requested cadence, and still contains the same values as the data constructed with the same seed.
+     * @throws Exception if error occurs when writing or reading data.
+     */
+    @Test
+    public void testSharedSymbolTableAndLocalSymbolTableReset() throws Exception {
+        Map<String, Object> optionsMap = Main.parseArguments("generate", "--data-size", "5000", "--seed", "200", "--shared-symbol-table", "testCatalog.ion",
+                "--lst-reset-values", "10", "--input-ion-schema", INPUT_ION_STRUCT_FILE_PATH, "testSharedSymbols.ion");
+        GeneratorOptions.executeGenerator(optionsMap);
+        SymbolTable sharedSymbolTable;
+        try (IonReader reader = IonReaderBuilder.standard().build(Files.readAllBytes(Paths.get("testCatalog.ion")))) {
+            sharedSymbolTable = SYSTEM.newSharedSymbolTable(reader);
+        }
+        byte[] data = Files.readAllBytes(Paths.get("testSharedSymbols.ion"));
+        Files.delete(Paths.get("testCatalog.ion"));
+        Files.delete(Paths.get("testSharedSymbols.ion"));
+        assertEquals("ion-data-generator", sharedSymbolTable.getName());
+        for (String symbol : Arrays.asList("first_name", "last_name", "last_updated")) {
+            assertTrue(sharedSymbolTable.findSymbol(symbol) > 0);
+            // The imported symbols are not redefined in the local symbol tables.
+            assertFalse(new String(data, StandardCharsets.ISO_8859_1).contains(symbol));
+        }
+        SimpleCatalog catalog = new SimpleCatalog();
+        catalog.putTable(sharedSymbolTable);
+        IonDatagram datagram = IonSystemBuilder.standard().withCatalog(catalog).build().getLoader().load(data);
+        IonDataGenerator expected = IonDataGenerator.builder().withSchemaFile(INPUT_ION_STRUCT_FILE_PATH).withSeed(200).build();
+        for (IonValue value : datagram) {
+            assertEquals(expected.next(), value);
+        }
+        // Count the Ion version markers, each reset starts a new Ion stream.
+        int versionMarkers = 0;
+        for (int i = 0; i + 3 < data.length; i++) {
+            if ((data[i] & 0xFF) == 0xE0 && data[i + 1] == 0x01 && data[i + 2] == 0x00 && (data[i + 3] & 0xFF) == 0xEA) {
+                versionMarkers++;
+            }
+        }
+        assertTrue(versionMarkers >= datagram.size() / 10);
+    }
+
+    /**
+     * Test if the bytes cadence resets the local symbol table at the batch boundaries, at most once per requested number of bytes.
+     * @throws Exception if error occurs when writing or reading data.
+     */
+    @Test
+    public void testLocalSymbolTableResetBytes() throws Exception {
+        GeneratorOptions.executeGenerator(Main.parseArguments("generate", "--data-size", "200000", "--seed", "200", "--lst-reset-bytes", "20000",
+                "--statistics", "testResetBytesStatistics.ion", "--input-ion-schema", INPUT_ION_STRUCT_FILE_PATH, "testResetBytes.10n"));
+        IonStruct statistics = (IonStruct) LOADER.load(new File("testResetBytesStatistics.ion")).get(0);
+        byte[] data = Files.readAllBytes(Paths.get("testResetBytes.10n"));
+        Files.delete(Paths.get("testResetBytesStatistics.ion"));
+        Files.delete(Paths.get("testResetBytes.10n"));
+        long resets = ((IonInt) ((IonStruct) statistics.get("symbol_table")).get("resets")).longValue();
+        assertTrue(resets > 0);
+        assertTrue(resets <= data.length / 20000);
+        IonDataGenerator expected = IonDataGenerator.builder().withSchemaFile(INPUT_ION_STRUCT_FILE_PATH).withSeed(200).build();
+        for (IonValue value : LOADER.load(data)) {
+            assertEquals(expected.next(), value);
+        }
+    }
+
+    /**
+     * Test if the profile collects the statistics of every path from all files, and the generator samples the unconstrained
+     * string lengths and codepoints from the observed distributions.
+     * @throws Exception if error occurs when profiling or generating data.
+     */
+    @Test
+    public void testProfileDrivenGeneration() throws Exception {
+        Path corpusDirectory = Files.createTempDirectory("testCorpus");
+        Files.write(corpusDirectory.resolve("first.ion"), "{first_name: \"abcdefg\", last_name: \"xy\"} {first_name: \"gfedcba\", count: 3}".getBytes(StandardCharsets.UTF_8));
+        Files.write(corpusDirectory.resolve("second.ion"), "{first_name: \"aabbccd\", count: 10} x::[1, 2, 3]".getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> optionsMap = Main.parseArguments("profile", "--parallelism", "2", "--input-ion-data", corpusDirectory.toString(), "testProfile.ion");
+        CorpusProfiler.profileAndWrite(optionsMap);
+        DataProfile profile = DataProfile.load("testProfile.ion");
+        Files.delete(Paths.get("testProfile.ion"));
+        Files.delete(corpusDirectory.resolve("first.ion"));
+        Files.delete(corpusDirectory.resolve("second.ion"));
+        Files.delete(corpusDirectory);
+        PathStatistics root = profile.getRoot();
+        assertEquals(2, profile.getFileCount());
+        assertEquals(4, root.getCount());
+        assertEquals(Long.valueOf(3), root.getTypes().get("struct"));
+        assertEquals(Long.valueOf(1), root.getAnnotations().get("x"));
+        assertEquals(3, root.getField("first_name").getCount());
+        assertEquals(3, root.getField("first_name").getDistinctValues());
+        assertEquals(3, root.getField("first_name").getCodepointLengths().getTotalCount());
+        assertEquals(3, root.getElements().getCount());
+        assertTrue(Arrays.equals(new BigDecimal[] {BigDecimal.valueOf(3), BigDecimal.TEN}, root.getField("count").getIntRange()));
+        IonDataGenerator generator = IonDataGenerator.builder().withSchemaFile(INPUT_ION_STRUCT_FILE_PATH).withProfile(profile).build();
+        for (IonValue value : generator.stream().limit(20).collect(Collectors.toList())) {
+            IonStruct struct = (IonStruct) value;
+            assertTrue(((IonText) struct.get("first_name")).stringValue().matches("[a-g]{7}"));
+            assertTrue(((IonText) struct.get("last_name")).stringValue().matches("[xy]{2}"));
+        }
+    }
+
+    /**
+     * Test if the ints sampled from an observed range wider than long stay within the range, and the shared empty statistics cannot be modified.
+     * @throws Exception if error occurs when recording the values.
+     */
+    @Test
+    public void testProfiledIntRangeBeyondLong() throws Exception {
+        PathStatistics statistics = new PathStatistics();
+        try (IonReader reader = IonReaderBuilder.standard().build("-1180591620717411303424 1180591620717411303424")) {
+            while (reader.next() != null) {
+                statistics.record(reader);
+            }
+        }
+        BigInteger bound = BigInteger.ONE.shiftLeft(70);
+        Random random = new Random(0);
+        boolean beyondLong = false;
+        for (int i = 0; i < 100; i++) {
+            BigInteger value = DataConstructor.constructInt(new HashMap<>(), random, statistics);
+            assertTrue(value.abs().compareTo(bound) <= 0);
+            beyondLong |= value.bitLength() > 63;
+        }
+        assertTrue(beyondLong);
+        try (IonReader reader = IonReaderBuilder.standard().build("1")) {
+            reader.next();
+            PathStatistics.EMPTY.record(reader);
+            throw new AssertionError("PathStatistics.EMPTY should not be modifiable.");
+        } catch (UnsupportedOperationException expected) {
+            assertEquals(0, PathStatistics.EMPTY.getCount());
+        }
+    }
+
+    /**
+     * Test if more values can be recorded and merged into loaded statistics, which keep the distinct values estimate without the sketch.
+     * @throws Exception if error occurs when recording the values.
+     */
+    @Test
+    public void testRecordAndMergeLoadedStatistics() throws Exception {
+        PathStatistics recorded = new PathStatistics();
+        try (IonReader reader = IonReaderBuilder.standard().build("1 2 3 4 5")) {
+            while (reader.next() != null) {
+                recorded.record(reader);
+            }
+        }
+        PathStatistics loaded = PathStatistics.fromIon(recorded.toIon(SYSTEM));
+        assertEquals(5, loaded.getDistinctValues());
+        try (IonReader reader = IonReaderBuilder.standard().build("1 6")) {
+            while (reader.next() != null) {
+                loaded.record(reader);
+            }
+        }
+        assertEquals(7, loaded.getCount());
+        assertEquals(5, loaded.getDistinctValues());
+        PathStatistics other = new PathStatistics();
+        try (IonReader reader = IonReaderBuilder.standard().build("10 11 12 13 14 15 16 17")) {
+            while (reader.next() != null) {
+                other.record(reader);
+            }
+        }
+        loaded.merge(other);
+        assertEquals(15, loaded.getCount());
+        assertEquals(10, loaded.getDistinctValues());
+        PathStatistics merged = new PathStatistics();
+        merged.merge(PathStatistics.fromIon(recorded.toIon(SYSTEM)));
+        assertEquals(5, merged.getDistinctValues());
+    }
+
+    /**
+     * Test if the schema inferred from the Ion data describes the observed fields, and the data generated from the inferred schema follows it.
+     * @throws Exception if error occurs when inferring the schema or generating data.
+     */
+    @Test
+    public void testInferSchema() throws Exception {
+        Path corpusDirectory = Files.createTempDirectory("testCorpus");
+        for (int file = 0; file < 2; file++) {
+            StringBuilder data = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                data.append("{id: ").append(file * 100 + i).append(", status: ").append(i % 2 == 0 ? "\"active\"" : "\"closed\"")
+                        .append(", tags: [a, bb").append(i % 3 == 0 ? ", ccc" : "").append("], flag: ").append(i % 2 == 0)
+                        .append(i % 4 == 0 ? ", note: \"" + "abcdefghij".substring(0, i + 1) + "\"" : "").append("}\n");
+            }
+            Files.write(corpusDirectory.resolve("data" + file + ".ion"), data.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        Map<String, Object> optionsMap = Main.parseArguments("infer-schema", "--type-name", "Record", "--input-ion-data", corpusDirectory.toString(),
+                corpusDirectory.resolve("inferred.isl").toString());
+        SchemaInferrer.inferAndWrite(optionsMap);
+        String schemaPath = corpusDirectory.resolve("inferred.isl").toString();
+        IonDatagram schema = LOADER.load(new File(schemaPath));
+        IonStruct type = (IonStruct) schema.get(1);
+        IonStruct fields = (IonStruct) type.get("fields");
+        assertEquals("Record", ((IonText) type.get("name")).stringValue());
+        assertEquals(LOADER.load("range::[0, 109]").get(0), ((IonStruct) fields.get("id")).get("valid_values"));
+        assertEquals(LOADER.load("[\"active\", \"closed\"]").get(0), ((IonStruct) fields.get("status")).get("valid_values"));
+        assertEquals(LOADER.load("range::[2, 3]").get(0), ((IonStruct) fields.get("tags")).get("container_length"));
+        assertEquals("required", ((IonStruct) fields.get("tags")).get("occurs").toString());
+        assertEquals("optional", ((IonStruct) fields.get("note")).get("occurs").toString());
+        IonDataGenerator generator = IonDataGenerator.builder().withSchemaFile(schemaPath).build();
+        for (IonValue value : generator.stream().limit(20).collect(Collectors.toList())) {
+            IonStruct struct = (IonStruct) value;
+            long id = ((IonInt) struct.get("id")).longValue();
+            assertTrue(id >= 0 && id <= 109);
+            assertTrue(Arrays.asList("active", "closed").contains(((IonText) struct.get("status")).stringValue()));
+            int tagCount = ((IonList) struct.get("tags")).size();
+            assertTrue(tagCount >= 2 && tagCount <= 3);
+            assertEquals(IonType.BOOL, struct.get("flag").getType());
+        }
+        for (File file : corpusDirectory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(corpusDirectory);
+    }
+
+    /**
+     * Test if the statistics sidecar counts every generated value, and the encoded bytes of all paths add up to the size of the binary data
+     * excluding the Ion version marker and the local symbol table.
+     * @throws Exception if error occurs when generating data or reading the statistics.
+     */
+    @Test
+    public void testGenerationStatistics() throws Exception {
+        Map<String, Object> optionsMap = Main.parseArguments("generate", "--data-size", "20000", "--seed", "200", "--statistics", "testStatistics.ion",
+                "--input-ion-schema", INPUT_NESTED_ION_STRUCT_PATH, "testStatisticsData.ion");
+        GeneratorOptions.executeGenerator(optionsMap);
+        IonStruct statistics = (IonStruct) LOADER.load(new File("testStatistics.ion")).get(0);
+        byte[] data = Files.readAllBytes(Paths.get("testStatisticsData.ion"));
+        Files.delete(Paths.get("testStatistics.ion"));
+        Files.delete(Paths.get("testStatisticsData.ion"));
+        int valueCount = LOADER.load(data).size();
+        assertEquals(valueCount, ((IonInt) statistics.get("values")).intValue());
+        assertEquals(data.length, ((IonInt) statistics.get("bytes")).intValue());
+        assertEquals(valueCount, ((IonInt) ((IonStruct) ((IonStruct) statistics.get("types")).get("struct")).get("count")).intValue());
+        IonStruct paths = (IonStruct) statistics.get("paths");
+        assertEquals(valueCount, ((IonInt) ((IonStruct) ((IonStruct) paths.get("fields")).get("firstName")).get("count")).intValue());
+        long encodedBytes = ((IonInt) paths.get("encoded_bytes")).longValue();
+        assertTrue(encodedBytes < data.length && encodedBytes > data.length - 100);
+        IonStruct symbolTable = (IonStruct) statistics.get("symbol_table");
+        // The local symbol table only contains the field names.
+        assertEquals(((IonStruct) paths.get("fields")).size(), ((IonInt) symbolTable.get("local_symbols")).intValue());
+    }
+
+    /**
+     * Test if the progress log reports the generated values and bytes periodically, and the final report matches the generated data.
+     * @throws Exception if error occurs when generating data or reading the progress log.
+     */
+    @Test
+    public void testGenerationProgress() throws Exception {
+        Map<String, Object> optionsMap = Main.parseArguments("generate", "--data-size", "2000000", "--seed", "200", "--progress-interval", "0.05",
+                "--progress-log", "testProgress.ion", "--input-ion-schema", INPUT_NESTED_ION_STRUCT_PATH, "testProgressData.10n");
+        GeneratorOptions.executeGenerator(optionsMap);
+        IonDatagram reports = LOADER.load(new File("testProgress.ion"));
+        byte[] data = Files.readAllBytes(Paths.get("testProgressData.10n"));
+        Files.delete(Paths.get("testProgress.ion"));
+        Files.delete(Paths.get("testProgressData.10n"));
+        assertTrue(reports.size() >= 1);
+        long previousValues = 0;
+        for (IonValue report : reports) {
+            assertEquals("progress", report.getTypeAnnotations()[0]);
+            long values = ((IonInt) ((IonStruct) report).get("values")).longValue();
+            assertTrue(values >= previousValues);
+            previousValues = values;
+        }
+        IonStruct last = (IonStruct) reports.get(reports.size() - 1);
+        assertTrue(((IonBool) last.get("finished")).booleanValue());
+        assertEquals(LOADER.load(data).size(), ((IonInt) last.get("values")).intValue());
+        assertEquals(data.length, ((IonInt) last.get("bytes")).intValue());
+        assertEquals(1.0, ((IonFloat) last.get("fraction")).doubleValue(), 0);
+        assertEquals(0, ((IonFloat) last.get("eta_seconds")).doubleValue(), 0);
+    }
+
+    /**
+     * Test if the generator emits the flight recorder events of every phase, and the batch events add up to the generated data.
+     * @throws Exception if error occurs when generating data or reading the recording.
+     */
+    @Test
+    public void testGeneratorEvents() throws Exception {
+        // The events are read through the flight recorder consumer API of Java 11 and later.
+        Assume.assumeFalse(System.getProperty("java.specification.version").startsWith("1."));
+        Path directory = Files.createTempDirectory("testGeneratorEvents");
+        Path recordingFile = directory.resolve("generate.jfr");
+        String dataFile = directory.resolve("data.10n").toString();
+        try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+            recording.start();
+            GeneratorOptions.executeGenerator(Main.parseArguments("generate", "--data-size", "50000", "--seed", "200", "--jfr-events", "--jfr-sample-interval", "10",
+                    "--input-ion-schema", INPUT_NESTED_ION_STRUCT_PATH, dataFile));
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        assertFalse(GeneratorEvents.isEnabled());
+        Map<String, List<jdk.jfr.consumer.RecordedEvent>> events = jdk.jfr.consumer.RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.amazon.ion.datagenerator."))
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+        byte[] data = Files.readAllBytes(Paths.get(dataFile));
+        int valueCount = LOADER.load(data).size();
+        assertEquals(INPUT_NESTED_ION_STRUCT_PATH, events.get("com.amazon.ion.datagenerator.SchemaLoad").get(0).getString("schemaFile"));
+        String typeName = events.get("com.amazon.ion.datagenerator.TypeParse").get(0).getString("typeName");
+        long batchValues = 0;
+        long batchBytes = 0;
+        for (jdk.jfr.consumer.RecordedEvent batch : events.get("com.amazon.ion.datagenerator.Batch")) {
+            assertEquals(typeName, batch.getString("typeName"));
+            batchValues += batch.getLong("values");
+            batchBytes += batch.getLong("encodedBytes");
+        }
+        assertEquals(valueCount, batchValues);
+        assertEquals(data.length, batchBytes);
+        List<jdk.jfr.consumer.RecordedEvent> values = events.get("com.amazon.ion.datagenerator.Value");
+        assertEquals(valueCount / 10, values.size());
+        for (jdk.jfr.consumer.RecordedEvent value : values) {
+            assertTrue(value.getLong("encodedBytes") > 0);
+        }
+        Files.delete(recordingFile);
+        Files.delete(Paths.get(dataFile));
+        Files.delete(directory);
+    }
+
+    /**
+     * Test if the cost profile attributes the constructed values to the same Ion types as the statistics, and the phases add up to the total cost.
+     * @throws Exception if error occurs when generating data.
+     */
+    @Test
+    public void testCostProfiler() throws Exception {
+        GeneratorOptions.executeGenerator(Main.parseArguments("generate", "--data-size", "200000", "--seed", "200", "--statistics", "testCostStatistics.ion",
+                "--cost-profile", "testCostProfile.ion", "--input-ion-schema", INPUT_NESTED_ION_STRUCT_PATH, "testCostData.10n"));
+        IonStruct statistics = (IonStruct) LOADER.load(new File("testCostStatistics.ion")).get(0);
+        IonStruct report = (IonStruct) LOADER.load(new File("testCostProfile.ion")).get(0);
+        long fileSize = Files.size(Paths.get("testCostData.10n"));
+        Files.delete(Paths.get("testCostStatistics.ion"));
+        Files.delete(Paths.get("testCostProfile.ion"));
+        Files.delete(Paths.get("testCostData.10n"));
+        assertEquals("ion_data_cost_profile", report.getTypeAnnotations()[0]);
+        assertEquals(((IonInt) statistics.get("values")).longValue(), ((IonInt) report.get("values")).longValue());
+        assertEquals(fileSize, ((IonInt) report.get("bytes")).longValue());
+        IonStruct statisticsTypes = (IonStruct) statistics.get("types");
+        IonStruct types = (IonStruct) report.get("types");
+        assertEquals(statisticsTypes.size(), types.size());
+        for (IonValue type : statisticsTypes) {
+            assertEquals(((IonInt) ((IonStruct) type).get("count")).longValue(), ((IonInt) ((IonStruct) types.get(type.getFieldName())).get("count")).longValue());
+        }
+        IonStruct phases = (IonStruct) report.get("phases");
+        long phaseCpu = 0;
+        double cpuFraction = 0;
+        for (String phase : Arrays.asList(CostProfiler.SCHEMA_PARSING, CostProfiler.CONSTRAINT_RESOLUTION, CostProfiler.SAMPLING, CostProfiler.SERIALIZATION)) {
+            IonStruct phaseCost = (IonStruct) phases.get(phase);
+            phaseCpu += ((IonInt) phaseCost.get("cpu_nanos")).longValue();
+            cpuFraction += ((IonFloat) phaseCost.get("cpu_fraction")).doubleValue();
+        }
+        assertTrue(phaseCpu > 0);
+        assertEquals(((IonInt) report.get("cpu_nanos")).longValue(), phaseCpu);
+        assertEquals(1.0, cpuFraction, 1e-9);
+        assertTrue(((IonInt) ((IonStruct) phases.get(CostProfiler.SAMPLING)).get("allocated_bytes")).longValue() > 0);
+    }
+
+    /**
+     * Test if a failed construction restores the nesting depth of the cost profile, so the following values are still counted as top-level values,
+     * and the cost of a failed nested value is not charged to the type of the enclosing value.
+     * @throws Exception if error occurs when writing the schema or the report.
+     */
+    @Test
+    public void testCostProfilerRestoresDepthAfterFailure() throws Exception {
+        Path schemaPath = Files.createTempFile("testCostFailure", ".isl");
+        Files.write(schemaPath, "type::{ name: Broken, type: struct, fields: { id: { codepoint_length: 3 } } }".getBytes(StandardCharsets.UTF_8));
+        CostProfiler costProfiler = new CostProfiler();
+        try {
+            IonDataGenerator.builder().withSchemaFile(schemaPath.toString()).withCostProfiler(costProfiler).build().next();
+            throw new AssertionError("The field without the constraint 'type' should fail.");
+        } catch (IllegalStateException e) {
+            assertEquals("Constraint 'type' is required.", e.getMessage());
+        } finally {
+            Files.delete(schemaPath);
+        }
+        IonDataGenerator generator = IonDataGenerator.builder().withSchemaFile(INPUT_ION_STRUCT_FILE_PATH).withCostProfiler(costProfiler).build();
+        generator.stream().limit(3).forEach(value -> { });
+        assertEquals(3, costProfiler.getValues());
+        CostProfiler nestedFailure = new CostProfiler();
+        nestedFailure.enterValue();
+        nestedFailure.enterValue();
+        byte[][] failedAllocation = new byte[16][];
+        for (int i = 0; i < failedAllocation.length; i++) {
+            failedAllocation[i] = new byte[1024 * 1024];
+        }
+        nestedFailure.exitValue(null);
+        nestedFailure.exitValue(IonType.STRUCT);
+        nestedFailure.write(0, "testCostFailure.ion");
+        IonStruct report = (IonStruct) LOADER.load(new File("testCostFailure.ion")).get(0);
+        Files.delete(Paths.get("testCostFailure.ion"));
+        long structAllocated = ((IonInt) ((IonStruct) ((IonStruct) report.get("types")).get("struct")).get("allocated_bytes")).longValue();
+        assertTrue(structAllocated < failedAllocation.length * 1024 * 1024);
+    }
+
+    /**
+     * Test if the path cost profile samples every N-th value, ranks the schema paths by CPU time, and the paths add up to the sampled values.
+     * @throws Exception if error occurs when generating data.
+     */
+    @Test
+    public void testPathCostProfiler() throws Exception {
+        GeneratorOptions.executeGenerator(Main.parseArguments("generate", "--data-size", "200000", "--seed", "200", "--path-cost-profile", "testPathCostProfile.ion",
+                "--path-sample-interval", "5", "--input-ion-schema", INPUT_NESTED_ION_STRUCT_PATH, "testPathCostData.10n"));
+        IonStruct report = (IonStruct) LOADER.load(new File("testPathCostProfile.ion")).get(0);
+        int valueCount = LOADER.load(new File("testPathCostData.10n")).size();
+        Files.delete(Paths.get("testPathCostProfile.ion"));
+        Files.delete(Paths.get("testPathCostData.10n"));
+        assertEquals("ion_data_path_cost_profile", report.getTypeAnnotations()[0]);
+        assertEquals(valueCount, ((IonInt) report.get("values")).intValue());
+        long sampledValues = ((IonInt) report.get("sampled_values")).longValue();
+        assertEquals(valueCount / 5, sampledValues);
+        Map<String, IonStruct> paths = new HashMap<>();
+        long previousCpu = Long.MAX_VALUE;
+        long cpu = 0;
+        long bytes = 0;
+        for (IonValue value : (IonList) report.get("paths")) {
+            IonStruct path = (IonStruct) value;
+            long pathCpu = ((IonInt) path.get("cpu_nanos")).longValue();
+            assertTrue(pathCpu <= previousCpu);
+            previousCpu = pathCpu;
+            cpu += pathCpu;
+            bytes += ((IonInt) path.get("estimated_bytes")).longValue();
+            paths.put(((IonString) path.get("path")).stringValue(), path);
+        }
+        // The optional field lastName is never generated by the schema.
+        assertEquals(new HashSet<>(Arrays.asList("Customer", "Customer.firstName", "Customer.last_updated", "Customer.addresses",
+                "Customer.addresses[]")), paths.keySet());
+        IonStruct root = paths.get("Customer");
+        assertEquals(sampledValues, ((IonInt) root.get("count")).longValue());
+        assertEquals(sampledValues, ((IonInt) paths.get("Customer.firstName").get("count")).longValue());
+        assertEquals(((IonInt) report.get("cpu_nanos")).longValue(), cpu);
+        assertEquals(((IonInt) root.get("inclusive_cpu_nanos")).longValue(), cpu);
+        assertEquals(((IonInt) root.get("inclusive_estimated_bytes")).longValue(), bytes);
+        assertTrue(bytes > 0);
+    }
+
+    /**
+     * Test if the generator writes the requested number of values to the writer provided by the caller.
+     * @throws Exception if error occurs when writing data.
+     */
+    @Test
+    public void testGeneratorWriteToWriter() throws Exception {
+        IonDataGenerator generator = IonDataGenerator.builder().withSchemaFile(INPUT_ION_STRUCT_FILE_PATH).withTypeName("Customer").build();
+        IonDatagram datagram = SYSTEM.newDatagram();
+        try (IonWriter writer = SYSTEM.newWriter(datagram)) {
+            generator.writeTo(writer, 10);
+        }
+        assertEquals(10, datagram.size());
+        for (IonValue value : datagram) {
+            assertEquals(IonType.STRUCT, value.getType());
+        }
+    }
+
+    /**
+     * Test if each value in the corpus encoded with independent values can be decoded alone, and equals to the value constructed with the same seed.
+     * @throws Exception if error occurs when encoding or decoding data.
+     */
+    @Test
+    public void testEncodedCorpusRandomAccess() throws Exception {
+        IonDataGenerator generator = IonDataGenerator.builder().withSchemaFile(INPUT_NESTED_ION_STRUCT_PATH).withSeed(200).build();
+        EncodedCorpus corpus = EncodedCorpus.builder(generator).withValueCount(50).withDirectBuffer().withIndependentValues().build();
+        IonDataGenerator expected = IonDataGenerator.builder().withSchemaFile(INPUT_NESTED_ION_STRUCT_PATH).withSeed(200).build();
+        assertEquals(50, corpus.size());
+        for (int i = 0; i < corpus.size(); i++) {
+            ByteBuffer slice = corpus.slice(i);
+            byte[] bytes = new byte[slice.remaining()];
+            slice.get(bytes);
+            assertTrue(IonStreamUtils.isIonBinary(bytes));
+            IonDatagram datagram = LOADER.load(bytes);
+            assertEquals(1, datagram.size());
+            assertEquals(expected.next(), datagram.get(0));
+        }
+    }
+
+    /**
+     * Test if the corpus encoded by one writer contains the requested number of values and the offsets cover the whole buffer.
+     * @throws Exception if error occurs when encoding or decoding data.
+     */
+    @Test
+    public void testEncodedCorpusSequentialAccess() throws Exception {
+        IonDataGenerator generator = IonDataGenerator.builder().withSchemaFile(INPUT_ION_LIST_FILE_PATH).build();
+        EncodedCorpus corpus = EncodedCorpus.builder(generator).withValueCount(30).withFormat(IonSchemaUtilities.ION_TEXT).build();
+        ByteBuffer buffer = corpus.getBuffer();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        assertEquals(30, LOADER.load(bytes).size());
+        assertEquals(0, corpus.getOffset(0));
+        assertEquals(bytes.length, corpus.getOffset(29) + corpus.getLength(29));
+    }
+
+    /**
+     * Test if the publisher only delivers the requested number of values in order and completes after the last value.
+     * @throws Exception if error occurs when constructing the generators.
+     */
+    @Test
+    public void testPublisherBackpressure() throws Exception {
+        IonDataGenerator generator = IonDataGenerator.builder().withSchemaFile(INPUT_ION_STRUCT_FILE_PATH).withSeed(200).build();
+        IonDataGenerator expected = IonDataGenerator.builder().withSchemaFile(INPUT_ION_STRUCT_FILE_PATH).withSeed(200).build();
+        List<IonValue> received = new ArrayList<>();
+        List<Subscription> subscriptions = new ArrayList<>();
+        boolean[] completed = new boolean[1];
+        IonDataPublisher.ofValues(generator, 5, 2, Runnable::run).subscribe(new Subscriber<IonValue>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscriptions.add(subscription);
+            }
+
+            @Override
+            public void onNext(IonValue value) {
+                received.add(value);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throw new AssertionError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed[0] = true;
+            }
+        });
+        subscriptions.get(0).request(3);
+        assertEquals(3, received.size());
+        assertFalse(completed[0]);
+        subscriptions.get(0).request(10);
+        assertEquals(5, received.size());
+        assertTrue(completed[0]);
+        for (IonValue value : received) {
+            assertEquals(expected.next(), value);
+        }
+    }
+
     /**
      * Test if the generated data is randomized when there is no '--seed' option provided.
      * @throws Exception if error occurs during the executing and comparison process.
@@ -493,6 +1131,610 @@ public class DataGeneratorTest {
         assertTrue(detectionResult.size() == 0);
     }
 
+    /**
+     * Test whether every benchmark entry in the result files is compared, and the entries are matched by benchmark name and parameters.
+     * @throws Exception if error occur when reading Ion data.
+     */
+    @Test
+    public void testCompareAllBenchmarks() throws Exception {
+        IonList previousResult = (IonList) LOADER.load(new File(BENCHMARK_RESULT_PREVIOUS)).get(0);
+        IonList newResult = (IonList) LOADER.load(new File(BENCHMARK_RESULT_NEW)).get(0);
+        IonStruct previousEntry = (IonStruct) previousResult.get(0).clone();
+        ((IonStruct) previousEntry.get("params")).put("input", SYSTEM.newString("testStruct.10n"));
+        ((IonStruct) previousEntry.get("primaryMetric")).put("score", SYSTEM.newDecimal(new BigDecimal("2.0")));
+        IonStruct newEntry = (IonStruct) newResult.get(0).clone();
+        ((IonStruct) newEntry.get("params")).put("input", SYSTEM.newString("testStruct.10n"));
+        ((IonStruct) newEntry.get("primaryMetric")).put("score", SYSTEM.newDecimal(new BigDecimal("3.0")));
+        // The entries are listed in a different order in the two results.
+        previousResult.add(0, previousEntry);
+        newResult.add(newEntry);
+        Path previousFile = Files.createTempFile("previous", ".ion");
+        Path newFile = Files.createTempFile("new", ".ion");
+        Files.write(previousFile, previousResult.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(newFile, newResult.toString().getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> optionsMap = Main.parseArguments("compare", "--benchmark-result-previous", previousFile.toString(), "--benchmark-result-new", newFile.toString(), "test12.ion");
+        ParseAndCompareBenchmarkResults.compareResult(optionsMap);
+        outputFile = optionsMap.get("<output_file>").toString();
+        IonDatagram report = LOADER.load(new File(outputFile));
+        assertEquals(2, report.size());
+        assertEquals("testList.10n", ((IonText) ((IonStruct) report.get(0)).get("input")).stringValue());
+        assertEquals("testStruct.10n", ((IonText) ((IonStruct) report.get(1)).get("input")).stringValue());
+        IonStruct firstScores = (IonStruct) ((IonStruct) report.get(0)).get(ParseAndCompareBenchmarkResults.RELATIVE_DIFFERENCE_SCORE);
+        IonStruct secondScores = (IonStruct) ((IonStruct) report.get(1)).get(ParseAndCompareBenchmarkResults.RELATIVE_DIFFERENCE_SCORE);
+        BigDecimal previousSpeed = ParseAndCompareBenchmarkResults.getScore(BENCHMARK_RESULT_PREVIOUS, SPEED);
+        BigDecimal newSpeed = ParseAndCompareBenchmarkResults.getScore(BENCHMARK_RESULT_NEW, SPEED);
+        assertEquals(newSpeed.subtract(previousSpeed).divide(previousSpeed, RoundingMode.HALF_UP), ((IonDecimal) firstScores.get(SPEED)).bigDecimalValue());
+        assertEquals(new BigDecimal("0.5"), ((IonDecimal) secondScores.get(SPEED)).bigDecimalValue());
+        Files.delete(previousFile);
+        Files.delete(newFile);
+    }
+
+    /**
+     * Test whether the entries of different JMH modes are matched separately, duplicated entries are rejected, and the entries which only exist in
+     * one of the results are reported instead of being dropped.
+     * @throws Exception if error occur when reading Ion data.
+     */
+    @Test
+    public void testCompareUnmatchedBenchmarks() throws Exception {
+        Path previousFile = Files.createTempFile("previous", ".ion");
+        Path newFile = Files.createTempFile("new", ".ion");
+        String sampleTime = benchmarkEntry("slow.10n", 20.0).replace("{benchmark: ", "{mode: \"sample\", benchmark: ");
+        Files.write(previousFile, ("[" + benchmarkEntry("slow.10n", 10.0) + "," + sampleTime + "," + benchmarkEntry("removed.10n", 10.0) + "]")
+                .getBytes(StandardCharsets.UTF_8));
+        Files.write(newFile, ("[" + benchmarkEntry("slow.10n", 10.0) + "," + sampleTime + "," + benchmarkEntry("added.10n", 10.0) + "]")
+                .getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> optionsMap = Main.parseArguments("compare", "--benchmark-result-previous", previousFile.toString(),
+                "--benchmark-result-new", newFile.toString(), "test14.ion");
+        ParseAndCompareBenchmarkResults.compareResult(optionsMap);
+        outputFile = optionsMap.get("<output_file>").toString();
+        IonDatagram report = LOADER.load(new File(outputFile));
+        assertEquals(4, report.size());
+        for (int i = 0; i < 2; i++) {
+            IonStruct scores = (IonStruct) ((IonStruct) report.get(i)).get(ParseAndCompareBenchmarkResults.RELATIVE_DIFFERENCE_SCORE);
+            assertEquals(0, ((IonDecimal) scores.get(SPEED)).bigDecimalValue().signum());
+        }
+        assertEquals("added.10n", ((IonText) ((IonStruct) report.get(2)).get("input")).stringValue());
+        assertEquals("previous", ((IonText) ((IonStruct) report.get(2)).get("missing_from")).stringValue());
+        assertEquals("removed.10n", ((IonText) ((IonStruct) report.get(3)).get("input")).stringValue());
+        assertEquals("new", ((IonText) ((IonStruct) report.get(3)).get("missing_from")).stringValue());
+        Files.write(newFile, ("[" + sampleTime + "," + sampleTime + "]").getBytes(StandardCharsets.UTF_8));
+        try {
+            BenchmarkResultIndex.load(newFile.toString());
+            throw new AssertionError("The duplicated benchmark entry should be rejected.");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("more than one entry"));
+        }
+        Files.delete(previousFile);
+        Files.delete(newFile);
+    }
+
+    /**
+     * Test whether the statistical detection methods use the raw data of all forks, report a 5% regression and ignore an unchanged benchmark.
+     * @throws Exception if error occur when reading Ion data.
+     */
+    @Test
+    public void testStatisticalRegressionDetection() throws Exception {
+        Path previousFile = Files.createTempFile("previous", ".ion");
+        Path newFile = Files.createTempFile("new", ".ion");
+        Files.write(previousFile, ("[" + benchmarkEntry("slow.10n", 10.0) + "," + benchmarkEntry("stable.10n", 10.0) + "]").getBytes(StandardCharsets.UTF_8));
+        Files.write(newFile, ("[" + benchmarkEntry("slow.10n", 10.5) + "," + benchmarkEntry("stable.10n", 10.0) + "]").getBytes(StandardCharsets.UTF_8));
+        for (String method : Arrays.asList(RegressionDetector.METHOD_BOOTSTRAP, RegressionDetector.METHOD_MANN_WHITNEY)) {
+            Map<String, Object> optionsMap = Main.parseArguments("compare", "--detection-method", method, "--benchmark-result-previous", previousFile.toString(),
+                    "--benchmark-result-new", newFile.toString(), "test13.ion");
+            ParseAndCompareBenchmarkResults.compareResult(optionsMap);
+            outputFile = optionsMap.get("<output_file>").toString();
+            IonDatagram report = LOADER.load(new File(outputFile));
+            assertEquals(2, report.size());
+            IonStruct slow = (IonStruct) ((IonStruct) ((IonStruct) report.get(0)).get(ParseAndCompareBenchmarkResults.REGRESSION_ANALYSIS)).get(SPEED);
+            IonStruct stable = (IonStruct) ((IonStruct) ((IonStruct) report.get(1)).get(ParseAndCompareBenchmarkResults.REGRESSION_ANALYSIS)).get(SPEED);
+            assertTrue(((IonBool) slow.get("regression")).booleanValue());
+            assertFalse(((IonBool) stable.get("regression")).booleanValue());
+            assertEquals(0.05, ((IonFloat) slow.get("relative_difference")).doubleValue(), 1e-9);
+            IonList interval = (IonList) slow.get("confidence_interval");
+            assertTrue(((IonFloat) interval.get(0)).doubleValue() < 0.05 && ((IonFloat) interval.get(1)).doubleValue() > 0.05);
+            assertEquals(method.equals(RegressionDetector.METHOD_MANN_WHITNEY), slow.containsKey("p_value"));
+        }
+        Files.delete(previousFile);
+        Files.delete(newFile);
+    }
+
+    /**
+     * Test whether the compared results are appended to the history with their commit ids, and the history can be queried over the latest commits.
+     * @throws Exception if error occur when reading Ion data.
+     */
+    @Test
+    public void testBenchmarkHistory() throws Exception {
+        Path historyDirectory = Files.createTempDirectory("testHistory");
+        Path previousFile = Files.createTempFile("previous", ".ion");
+        Files.write(previousFile, ("[" + benchmarkEntry("slow.10n", 10.0) + "," + benchmarkEntry("stable.10n", 10.0) + "]").getBytes(StandardCharsets.UTF_8));
+        double[] means = {10.0, 10.5, 11.0};
+        for (int commit = 0; commit < means.length; commit++) {
+            Path newFile = Files.createTempFile("new", ".ion");
+            Files.write(newFile, ("[" + benchmarkEntry("slow.10n", means[commit]) + "," + benchmarkEntry("stable.10n", 10.0) + "]").getBytes(StandardCharsets.UTF_8));
+            Map<String, Object> optionsMap = Main.parseArguments("compare", "--history", historyDirectory.toString(), "--commit", "commit" + commit,
+                    "--benchmark-result-previous", previousFile.toString(), "--benchmark-result-new", newFile.toString(), "test14.ion");
+            ParseAndCompareBenchmarkResults.compareResult(optionsMap);
+            Files.delete(newFile);
+        }
+        Map<String, Object> optionsMap = Main.parseArguments("history", "--history", historyDirectory.toString(), "--benchmark", "slow.10n", "--last", "2", "test14.ion");
+        BenchmarkHistory.queryAndWrite(optionsMap);
+        outputFile = optionsMap.get("<output_file>").toString();
+        IonDatagram records = LOADER.load(new File(outputFile));
+        assertEquals(2, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            IonStruct record = (IonStruct) records.get(i);
+            assertEquals("commit" + (i + 1), ((IonText) record.get("commit")).stringValue());
+            assertEquals(SPEED, ((IonText) record.get("metric")).stringValue());
+            assertEquals(means[i + 1], ((IonDecimal) record.get("score")).doubleValue(), 1e-9);
+            assertEquals("slow.10n", ((IonText) ((IonStruct) record.get("params")).get("input")).stringValue());
+        }
+        List<BenchmarkHistory.Record> history = new BenchmarkHistory(historyDirectory.toFile()).query("", 10);
+        assertEquals(3, history.size());
+        assertEquals(2, history.get(0).getEntries().size());
+        assertEquals(30, history.get(0).getEntries().get(0).getMetric(SPEED).getRawData().size());
+        for (File file : historyDirectory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(historyDirectory);
+        Files.delete(previousFile);
+    }
+
+    /**
+     * Test whether the change-point detection reports the commit where a sustained shift began, and ignores unchanged benchmarks and single outliers.
+     * @throws Exception if error occur when reading Ion data.
+     */
+    @Test
+    public void testChangePointDetection() throws Exception {
+        Path historyDirectory = Files.createTempDirectory("testHistory");
+        Path previousFile = Files.createTempFile("previous", ".ion");
+        Files.write(previousFile, ("[" + benchmarkEntry("slow.10n", 10.0) + "," + benchmarkEntry("stable.10n", 10.0) + "]").getBytes(StandardCharsets.UTF_8));
+        for (int commit = 0; commit < 12; commit++) {
+            Path newFile = Files.createTempFile("new", ".ion");
+            double noise = 0.02 * ((commit * 7) % 5 - 2);
+            double stable = commit == 3 ? 12.0 : 10.0 + noise;
+            Files.write(newFile, ("[" + benchmarkEntry("slow.10n", (commit < 6 ? 10.0 : 10.5) + noise) + "," + benchmarkEntry("stable.10n", stable) + "]")
+                    .getBytes(StandardCharsets.UTF_8));
+            Map<String, Object> optionsMap = Main.parseArguments("compare", "--history", historyDirectory.toString(), "--commit", "commit" + commit,
+                    "--benchmark-result-previous", previousFile.toString(), "--benchmark-result-new", newFile.toString(), "test15.ion");
+            ParseAndCompareBenchmarkResults.compareResult(optionsMap);
+            Files.delete(newFile);
+        }
+        Map<String, Object> optionsMap = Main.parseArguments("detect-change-points", "--history", historyDirectory.toString(), "test15.ion");
+        ChangePointDetector.detectAndWrite(optionsMap);
+        outputFile = optionsMap.get("<output_file>").toString();
+        IonDatagram changePoints = LOADER.load(new File(outputFile));
+        assertEquals(1, changePoints.size());
+        IonStruct changePoint = (IonStruct) changePoints.get(0);
+        assertEquals("commit6", ((IonText) changePoint.get("commit")).stringValue());
+        assertEquals(SPEED, ((IonText) changePoint.get("metric")).stringValue());
+        assertEquals("slow.10n", ((IonText) ((IonStruct) changePoint.get("params")).get("input")).stringValue());
+        assertTrue(((IonBool) changePoint.get("regression")).booleanValue());
+        // A slow drift of 1% per commit never exceeds a pairwise threshold of 2%, but it is still detected as a shift.
+        double[] drift = new double[20];
+        for (int i = 0; i < drift.length; i++) {
+            drift[i] = 100 * Math.pow(1.01, i);
+        }
+        assertFalse(ChangePointDetector.detect(drift, 0.05, 0.02).isEmpty());
+        for (File file : historyDirectory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(historyDirectory);
+        Files.delete(previousFile);
+    }
+
+    /**
+     * Test whether the suite scheduler drains large outputs of concurrent runs, kills the runs which time out and retries the failed runs.
+     * @throws Exception if error occurs when executing the runs.
+     */
+    @Test
+    public void testBenchmarkSuiteScheduler() throws Exception {
+        Path logDirectory = Files.createTempDirectory("testSuite");
+        List<BenchmarkRun> runs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            // Each run writes 1MB into both standard output and standard error, which is larger than the pipe buffers.
+            runs.add(new BenchmarkRun("verbose" + i, Arrays.asList("sh", "-c", "head -c 1048576 /dev/zero; head -c 1048576 /dev/zero 1>&2"), null,
+                    logDirectory.resolve("verbose" + i + ".log").toFile()));
+        }
+        BenchmarkRun slowRun = new BenchmarkRun("slow", Arrays.asList("sh", "-c", "echo attempt; sleep 30"), null, logDirectory.resolve("slow.log").toFile());
+        runs.add(slowRun);
+        int failed = new BenchmarkSuiteScheduler(2, 0, 1, 1).run(runs);
+        assertEquals(1, failed);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(runs.get(i).isSucceeded());
+            assertEquals(1, runs.get(i).getAttempts());
+            assertEquals(2 * 1048576, runs.get(i).getLogFile().length());
+        }
+        assertFalse(slowRun.isSucceeded());
+        assertEquals(2, slowRun.getAttempts());
+        assertEquals(Arrays.asList("attempt", "attempt"), Files.readAllLines(slowRun.getLogFile().toPath()));
+        for (File file : logDirectory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(logDirectory);
+    }
+
+    /**
+     * Test whether the suite scheduler kills the descendants of a run which times out, and reads the CPU sets from the Linux CPU list format.
+     * @throws Exception if error occurs when executing the runs.
+     */
+    @Test
+    public void testBenchmarkSuiteSchedulerKillsDescendants() throws Exception {
+        assertEquals(Arrays.asList(2, 3, 4, 8, 10), BenchmarkSuiteScheduler.parseCpuList("8,2-4,10"));
+        Assume.assumeTrue(new File("/proc/self/status").exists());
+        assertFalse(BenchmarkSuiteScheduler.allowedCpus().isEmpty());
+        Path logDirectory = Files.createTempDirectory("testSuite");
+        // The child process stands for a JMH fork, which is not killed with its parent by default.
+        BenchmarkRun forkingRun = new BenchmarkRun("forking", Arrays.asList("sh", "-c", "sleep 60 & echo $!; wait"), null,
+                logDirectory.resolve("forking.log").toFile());
+        assertEquals(1, new BenchmarkSuiteScheduler(1, 0, 1, 0).run(Collections.singletonList(forkingRun)));
+        List<String> pids = Files.readAllLines(forkingRun.getLogFile().toPath());
+        assertEquals(1, pids.size());
+        Path stat = Paths.get("/proc", pids.get(0), "stat");
+        // A killed child may stay a zombie until it is reaped by its new parent.
+        assertTrue(!Files.exists(stat) || new String(Files.readAllBytes(stat), StandardCharsets.UTF_8).contains(") Z "));
+        for (File file : logDirectory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(logDirectory);
+    }
+
+    /**
+     * Test whether the in-process runner loads the benchmark CLI jar in an isolated class loader, redirects the output of the threads of each run into
+     * its log file and turns the status returned by the non-exiting entry point into the result of the run.
+     * @throws Exception if error occurs when executing the runs.
+     */
+    @Test
+    public void testInProcessBenchmarkRunner() throws Exception {
+        Path directory = Files.createTempDirectory("testInProcess");
+        File jar = directory.resolve("benchmark-cli.jar").toFile();
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, FakeBenchmarkCli.class.getName());
+        String classFile = FakeBenchmarkCli.class.getName().replace('.', '/') + ".class";
+        try (JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+            jarOutputStream.putNextEntry(new JarEntry(classFile));
+            jarOutputStream.write(Files.readAllBytes(Paths.get(FakeBenchmarkCli.class.getClassLoader().getResource(classFile).toURI())));
+            jarOutputStream.closeEntry();
+        }
+        List<BenchmarkRun> runs = new ArrayList<>();
+        for (String mode : Arrays.asList("return", "status-success", "status-failure")) {
+            File result = directory.resolve(mode + ".ion").toFile();
+            runs.add(new BenchmarkRun(mode, Arrays.asList("java", "-jar", jar.getPath()), Arrays.asList(mode, "--results-file", result.getPath()), result,
+                    directory.resolve(mode + ".log").toFile()));
+        }
+        try (InProcessBenchmarkRunner runner = new InProcessBenchmarkRunner(jar)) {
+            assertEquals(1, new BenchmarkSuiteScheduler(1, 0, 0, 1, runner).run(runs));
+        }
+        assertTrue(runs.get(0).isSucceeded());
+        assertTrue(runs.get(1).isSucceeded());
+        assertFalse(runs.get(2).isSucceeded());
+        assertEquals(2, runs.get(2).getAttempts());
+        // The class is loaded again from the jar, so the run does not share the classes of the data generator.
+        assertEquals(Collections.singletonList("isolated: true"), Files.readAllLines(runs.get(0).getResultFile().toPath()));
+        assertEquals(Arrays.asList("running return", "running return in a thread"), Files.readAllLines(runs.get(0).getLogFile().toPath()));
+        // The main method might call System.exit, so a main class without the non-exiting entry point is rejected instead of being invoked.
+        File exitingJar = directory.resolve("exiting-cli.jar").toFile();
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, "java.lang.Object");
+        new JarOutputStream(new FileOutputStream(exitingJar), manifest).close();
+        try {
+            new InProcessBenchmarkRunner(exitingJar).close();
+            throw new AssertionError("The benchmark CLI without 'run(String[])' should be rejected.");
+        } catch (NoSuchMethodException e) {
+            assertTrue(e.getMessage().contains("java.lang.Object"));
+        }
+        for (File file : directory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * The main class of the fake benchmark CLI which is packaged into a jar by testInProcessBenchmarkRunner. Its main method exits like a real CLI,
+     * and the in-process runner only invokes the non-exiting entry point.
+     */
+    public static class FakeBenchmarkCli {
+        public static void main(String[] args) throws Exception {
+            System.exit(run(args));
+        }
+
+        public static int run(String[] args) throws Exception {
+            System.out.println("running " + args[0]);
+            Thread thread = new Thread(() -> System.err.println("running " + args[0] + " in a thread"));
+            thread.start();
+            thread.join();
+            Files.write(Paths.get(args[2]), ("isolated: " + (FakeBenchmarkCli.class.getClassLoader() != ClassLoader.getSystemClassLoader()))
+                    .getBytes(StandardCharsets.UTF_8));
+            return args[0].equals("status-failure") ? 1 : 0;
+        }
+    }
+
+    /**
+     * Test whether the benchmark process is recorded by Java Flight Recorder through its environment, and the recording is summarized into Ion.
+     * @throws Exception if error occurs when executing the run or summarizing the recording.
+     */
+    @Test
+    public void testFlightRecording() throws Exception {
+        // The recording relies on the open source Flight Recorder of Java 11 and later.
+        Assume.assumeFalse(System.getProperty("java.specification.version").startsWith("1."));
+        Path directory = Files.createTempDirectory("testRecording");
+        File recordingDirectory = directory.resolve("new-jfr").toFile();
+        assertTrue(recordingDirectory.mkdir());
+        File summaryFile = directory.resolve("new-jfr-summary.ion").toFile();
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        BenchmarkRun run = new BenchmarkRun("recorded", Arrays.asList(java, "-cp", System.getProperty("java.class.path")),
+                Collections.singletonList(AllocatingWorkload.class.getName()),
+                Collections.singletonMap(FlightRecording.JAVA_TOOL_OPTIONS, FlightRecording.javaToolOptions(recordingDirectory)),
+                null, directory.resolve("benchmark.log").toFile());
+        assertEquals(0, new BenchmarkSuiteScheduler(1, 0, 0, 0).run(Collections.singletonList(run)));
+        assertEquals(1, recordingDirectory.listFiles().length);
+        if (FlightRecording.summarize(recordingDirectory, summaryFile)) {
+            IonStruct summary = (IonStruct) LOADER.load(summaryFile).get(0);
+            assertTrue(summary.hasTypeAnnotation("jfr_summary"));
+            assertEquals(1, ((IonList) summary.get("recordings")).size());
+            assertTrue(((IonInt) ((IonStruct) summary.get("gc")).get("collections")).longValue() > 0);
+            assertFalse(((IonList) summary.get("allocating_frames")).isEmpty());
+        }
+        for (File file : recordingDirectory.listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(recordingDirectory.toPath());
+        Files.deleteIfExists(summaryFile.toPath());
+        Files.delete(directory.resolve("benchmark.log"));
+        Files.delete(directory);
+    }
+
+    /**
+     * The workload recorded by testFlightRecording, which allocates for a while and triggers a garbage collection.
+     */
+    public static class AllocatingWorkload {
+        public static void main(String[] args) {
+            List<String> values = new ArrayList<>();
+            long end = System.nanoTime() + 500_000_000L;
+            while (System.nanoTime() < end) {
+                values.add(String.valueOf(values.size()));
+                if (values.size() > 10000) {
+                    values.clear();
+                }
+            }
+            System.gc();
+        }
+    }
+
+    /**
+     * Test whether the result cache reuses the result of unchanged inputs, and invalidates the result when the test data, the options or the jar changes.
+     * @throws Exception if error occurs when accessing the cache.
+     */
+    @Test
+    public void testBenchmarkResultCache() throws Exception {
+        Path directory = Files.createTempDirectory("testCache");
+        File cacheDirectory = directory.resolve("cache").toFile();
+        File testData = directory.resolve("data.10n").toFile();
+        File jar = directory.resolve("benchmark-cli.jar").toFile();
+        File result = directory.resolve("new.ion").toFile();
+        Files.write(testData.toPath(), "{a: 1}".getBytes(StandardCharsets.UTF_8));
+        Files.write(jar.toPath(), "jar".getBytes(StandardCharsets.UTF_8));
+        Files.write(result.toPath(), "[{score: 1.0}]".getBytes(StandardCharsets.UTF_8));
+        BenchmarkResultCache cache = new BenchmarkResultCache(cacheDirectory);
+        String key = cache.key(testData, "read --format ion_binary ", jar);
+        assertFalse(cache.restore(key, result));
+        cache.store(key, result);
+        cache.save();
+        // A new cache instance reads the remembered file digests and finds the stored result.
+        BenchmarkResultCache reopened = new BenchmarkResultCache(cacheDirectory);
+        File restored = directory.resolve("previous.ion").toFile();
+        assertEquals(key, reopened.key(testData, "read --format ion_binary", jar));
+        assertTrue(reopened.restore(key, restored));
+        assertEquals("[{score: 1.0}]", new String(Files.readAllBytes(restored.toPath()), StandardCharsets.UTF_8));
+        assertFalse(key.equals(reopened.key(testData, "write --format ion_binary", jar)));
+        Files.write(testData.toPath(), "{a: 2, b: 3}".getBytes(StandardCharsets.UTF_8));
+        String changedData = reopened.key(testData, "read --format ion_binary", jar);
+        assertFalse(key.equals(changedData));
+        assertFalse(reopened.restore(changedData, restored));
+        Files.write(jar.toPath(), "new jar".getBytes(StandardCharsets.UTF_8));
+        assertFalse(changedData.equals(reopened.key(testData, "read --format ion_binary", jar)));
+        for (File file : cacheDirectory.listFiles()) {
+            Files.delete(file.toPath());
+        }
+        for (File file : directory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Test whether the corpus matrix generates every missing combination once, streams the generated files and reuses them afterwards.
+     * @throws Exception if error occurs when generating the test data.
+     */
+    @Test
+    public void testCorpusMatrix() throws Exception {
+        Path directory = Files.createTempDirectory("testCorpus");
+        File matrixFile = directory.resolve("matrix.ion").toFile();
+        File schema = new File("./tst/com/amazon/ion/datagenerator/testData/testStruct.isl");
+        Files.write(matrixFile.toPath(), ("{schemas: [\"" + schema.getAbsolutePath() + "\"], sizes: [500], formats: [ion_binary, ion_text], seeds: [1, 2, 1]}")
+                .getBytes(StandardCharsets.UTF_8));
+        CorpusMatrix matrix = CorpusMatrix.load(matrixFile.getPath());
+        // The repeated seed does not add a combination.
+        assertEquals(4, matrix.getInputs().size());
+        File testDataDirectory = directory.resolve("data").toFile();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<File> generated = new ArrayList<>();
+            matrix.generate(testDataDirectory, executor).forEachRemaining(generated::add);
+            assertEquals(4, generated.size());
+            assertEquals(4, testDataDirectory.listFiles().length);
+            for (File testData : generated) {
+                assertTrue(testData.length() > 0);
+                assertTrue(testData.getName().startsWith("testStruct_500_"));
+                try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(testData)))) {
+                    assertEquals(IonType.STRUCT, reader.next());
+                }
+            }
+            // The existing files are reused without being generated again.
+            Map<String, Long> modified = new HashMap<>();
+            for (File testData : generated) {
+                modified.put(testData.getName(), testData.lastModified());
+            }
+            Files.delete(generated.get(0).toPath());
+            List<File> reused = new ArrayList<>();
+            matrix.generate(testDataDirectory, executor).forEachRemaining(reused::add);
+            assertEquals(4, reused.size());
+            for (File testData : reused.subList(0, 3)) {
+                assertEquals(modified.get(testData.getName()), Long.valueOf(testData.lastModified()));
+            }
+            assertEquals(generated.get(0).getName(), reused.get(3).getName());
+        } finally {
+            executor.shutdownNow();
+        }
+        for (File file : testDataDirectory.listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(testDataDirectory.toPath());
+        Files.delete(matrixFile.toPath());
+        Files.delete(directory);
+    }
+
+    /**
+     * Test whether the planner covers every pairwise interaction of the option dimensions with fewer runs than the full product, and limits the plan
+     * by the time budget with the recorded durations.
+     * @throws Exception if error occurs when reading or writing the durations.
+     */
+    @Test
+    public void testBenchmarkPlanner() throws Exception {
+        int[] levels = {2, 3, 2, 2, 3};
+        List<int[]> rows = BenchmarkPlanner.cover(levels, 2, row -> 1, Double.POSITIVE_INFINITY);
+        assertTrue(rows.size() < 2 * 3 * 2 * 2 * 3);
+        for (int i = 0; i < levels.length; i++) {
+            for (int j = i + 1; j < levels.length; j++) {
+                for (int a = 0; a < levels[i]; a++) {
+                    for (int b = 0; b < levels[j]; b++) {
+                        boolean covered = false;
+                        for (int[] row : rows) {
+                            covered |= row[i] == a && row[j] == b;
+                        }
+                        assertTrue(covered);
+                    }
+                }
+            }
+        }
+        IonStruct declaration = (IonStruct) SYSTEM.singleValue("{command: [read, write], options: {'--api': [dom, streaming], "
+                + "'--format': [ion_binary, ion_text], '--io-type': [file, \"\"]}, fixed: \"--results-format ion\"}");
+        List<String> testData = Arrays.asList("a.10n", "b.10n");
+        BenchmarkPlanner.Plan plan = BenchmarkPlanner.plan(declaration, testData, null, 0, 1);
+        assertEquals(16, plan.getFullProduct());
+        assertTrue(plan.getCombinations().size() < 16);
+        assertEquals(1.0, plan.getCoverage(), 0);
+        for (String combination : plan.getCombinations()) {
+            assertTrue(combination.startsWith(" read --api ") || combination.startsWith(" write --api "));
+            assertTrue(combination.endsWith(" --results-format ion "));
+        }
+        // An empty value does not pass the option.
+        assertTrue(plan.getCombinations().stream().anyMatch(combination -> !combination.contains("--io-type")));
+        Path directory = Files.createTempDirectory("testPlanner");
+        File durationsFile = directory.resolve("durations.ion").toFile();
+        RunDurations durations = RunDurations.load(durationsFile);
+        assertTrue(durations.isEmpty());
+        for (String combination : plan.getCombinations()) {
+            durations.record(combination, "a.10n", combination.startsWith(" write") ? 10000 : 1000);
+        }
+        durations.save(durationsFile);
+        RunDurations reloaded = RunDurations.load(durationsFile);
+        String read = plan.getCombinations().stream().filter(combination -> combination.startsWith(" read")).findFirst().get();
+        assertEquals(1000, reloaded.estimate(read, "a.10n"), 0);
+        // The duration of another test data file falls back to the mean of the options combination.
+        assertEquals(1000, reloaded.estimate(read, "b.10n"), 0);
+        // A full covering plan of the read and write runs costs more than the budget, so only a part of the interactions is covered, and the
+        // expensive write runs are planned only as far as the budget allows.
+        BenchmarkPlanner.Plan limited = BenchmarkPlanner.plan(declaration, testData, reloaded, 30, 1);
+        assertTrue(limited.getEstimatedSeconds() <= 30);
+        assertTrue(limited.getCoverage() < 1.0);
+        assertEquals(1, limited.getCombinations().stream().filter(combination -> combination.startsWith(" write")).count());
+        Files.delete(durationsFile.toPath());
+        Files.delete(directory);
+    }
+
+    /**
+     * Test whether the generator benchmark writes one JMH result entry for every workload, which is compared by 'compare', and whether the peak RSS
+     * is left out of the threshold gating but regresses by the statistical methods when it increases.
+     * @throws Exception if error occurs when running the benchmark or comparing the results.
+     */
+    @Test
+    public void testGeneratorBenchmark() throws Exception {
+        Path directory = Files.createTempDirectory("testGeneratorBenchmark");
+        File resultFile = directory.resolve("generator.ion").toFile();
+        GeneratorBenchmark.runAndWrite(Main.parseArguments("benchmark-generator", "--data-sizes", "500, 2000", "--forks", "2", "--warmup-iterations", "1",
+                "--iterations", "3", "--input-ion-schema", "./tst/com/amazon/ion/datagenerator/testData/testStruct.isl", resultFile.getPath()));
+        BenchmarkResultIndex index = BenchmarkResultIndex.load(resultFile.getPath());
+        // Two sizes and two formats of the schema.
+        assertEquals(4, index.getEntries().size());
+        for (BenchmarkResultIndex.Entry entry : index.getEntries()) {
+            assertEquals("testStruct.isl", ((IonText) entry.getParameters().get("schema")).stringValue());
+            BenchmarkResultIndex.Metric speed = entry.getMetric(SPEED);
+            assertEquals("MB/s", speed.getScoreUnit());
+            assertEquals(6, speed.getRawData().size());
+            assertTrue(speed.getScore().signum() > 0);
+            assertEquals(6, entry.getMetric(GeneratorBenchmark.VALUE_RATE).getRawData().size());
+            if (new File("/proc/self/status").isFile()) {
+                assertEquals(2, entry.getMetric(GeneratorBenchmark.PEAK_RSS).getRawData().size());
+            }
+        }
+        // The result is compared with itself without any regression.
+        File reportFile = directory.resolve("report.ion").toFile();
+        ParseAndCompareBenchmarkResults.compareResult(Main.parseArguments("compare", "--benchmark-result-previous", resultFile.getPath(),
+                "--benchmark-result-new", resultFile.getPath(), reportFile.getPath()));
+        try (IonReader reader = IonReaderBuilder.standard().build(new BufferedInputStream(new FileInputStream(reportFile)))) {
+            int count = 0;
+            while (reader.next() != null) {
+                IonStruct comparison = (IonStruct) ReadGeneralConstraints.SYSTEM.newValue(reader);
+                IonStruct scores = (IonStruct) comparison.get(ParseAndCompareBenchmarkResults.RELATIVE_DIFFERENCE_SCORE);
+                assertEquals(0, ((IonDecimal) scores.get(SPEED)).bigDecimalValue().signum());
+                assertEquals(0, ((IonDecimal) scores.get(GeneratorBenchmark.VALUE_RATE)).bigDecimalValue().signum());
+                count++;
+            }
+            assertEquals(4, count);
+        }
+        // A lower throughput and a higher peak RSS are worse.
+        assertEquals(-1, RegressionDetector.worseDirection("MB/s"));
+        assertEquals(1, RegressionDetector.worseDirection("MB/sec"));
+        // The peak RSS is measured once per fork, so it has no threshold and is only compared by the statistical methods.
+        Map<String, BigDecimal> thresholds = ParseAndCompareBenchmarkResults.getThresholdMap(resultFile.getPath(), resultFile.getPath());
+        assertTrue(thresholds.containsKey(SPEED));
+        assertFalse(thresholds.containsKey(GeneratorBenchmark.PEAK_RSS));
+        BenchmarkResultIndex.Metric previousRss = new BenchmarkResultIndex.Metric(new BigDecimal("100"), null, "MB",
+                Arrays.asList(new BigDecimal("100"), new BigDecimal("101"), new BigDecimal("99"), new BigDecimal("100")), 1);
+        BenchmarkResultIndex.Metric increasedRss = new BenchmarkResultIndex.Metric(new BigDecimal("120"), null, "MB",
+                Arrays.asList(new BigDecimal("120"), new BigDecimal("121"), new BigDecimal("119"), new BigDecimal("120")), 1);
+        assertTrue(RegressionDetector.compare(RegressionDetector.METHOD_BOOTSTRAP, previousRss, increasedRss, 0.05, 0.01).isRegression());
+        assertFalse(RegressionDetector.compare(RegressionDetector.METHOD_BOOTSTRAP, increasedRss, previousRss, 0.05, 0.01).isRegression());
+        // The workflow reads the first three values, which are followed by the regressed entries.
+        Map<String, Map<String, BigDecimal>> regressions = new LinkedHashMap<>();
+        regressions.put("first", Collections.singletonMap(GeneratorBenchmark.PEAK_RSS, new BigDecimal("0.2")));
+        regressions.put("second", Collections.singletonMap(SPEED, new BigDecimal("-0.2")));
+        assertEquals("null, null, -0.2, regressed: first {" + GeneratorBenchmark.PEAK_RSS + ": 0.2}; second {speed: -0.2}",
+                ParseAndCompareBenchmarkResults.formatRegression(regressions));
+        Files.delete(reportFile.toPath());
+        Files.delete(resultFile.toPath());
+        Files.delete(directory);
+    }
+
+    /**
+     * Construct a JMH result entry of 3 forks with 10 measurements each, which are spread by 2% around the provided mean.
+     * @param input is the input file name in the benchmark parameters.
+     * @param mean is the mean of the measurements.
+     * @return the benchmark entry in Ion text.
+     */
+    private static String benchmarkEntry(String input, double mean) {
+        StringBuilder rawData = new StringBuilder();
+        for (int fork = 0; fork < 3; fork++) {
+            rawData.append(fork == 0 ? "[" : ",[");
+            for (int i = 0; i < 10; i++) {
+                rawData.append(i == 0 ? "" : ",").append(mean * (1 + 0.01 * ((i * 7 + fork * 3) % 5 - 2))).append("e0");
+            }
+            rawData.append("]");
+        }
+        return "{benchmark: \"com.amazon.ion.benchmark.Bench.run\", params: {input: \"" + input + "\", options: \"read::{f:ION_BINARY,t:FILE,a:DOM}\"}, "
+                + "primaryMetric: {score: " + mean + "e0, scoreError: " + (mean * 0.01) + "e0, scoreUnit: \"ms/op\", rawData: [" + rawData + "]}}";
+    }
+
     /**
      * Construct the score map which matches the benchmark aspect with its score from the comparison report.
      * @param inputFile specify the path of comparison report which is generated after the comparing benchmark results from different commits.